@@ -13,7 +13,6 @@
 package javad.attr;
 
 import java.util.Vector;
-import java.io.*;
 
 import javad.util.*;
 import javad.jconst.*;
@@ -115,11 +114,11 @@ public class Code extends Attribute {
 
         constClass_or_String catch_type = null;
 
-        CodeException(DataInputStream dStream, ConstPool constPoolSec) {
-            start_pc = readUnsignedShort(dStream);
-            end_pc = readUnsignedShort(dStream);
-            handler_pc = readUnsignedShort(dStream);
-            int catchTypeIx = readUnsignedShort(dStream);
+        CodeException(ClassInput input, ConstPool constPoolSec) {
+            start_pc = readUnsignedShort(input);
+            end_pc = readUnsignedShort(input);
+            handler_pc = readUnsignedShort(input);
+            int catchTypeIx = readUnsignedShort(input);
 
             if (catchTypeIx > 0) {
                 constBase obj = constPoolSec.constPoolElem(catchTypeIx);
@@ -143,44 +142,35 @@ public class Code extends Attribute {
      * total length of the attribute).
      */
     public Code(String name, int length,
-                DataInputStream dStream, ConstPool constPoolSec) {
+                ClassInput input, ConstPool constPoolSec) {
         super(name, length);  // invoke the attrInfo constructor
 
-        max_stack = readUnsignedShort(dStream);
-        max_locals = readUnsignedShort(dStream);
-        int codeLen = readU4(dStream);
+        max_stack = readUnsignedShort(input);
+        max_locals = readUnsignedShort(input);
+        int codeLen = readU4(input);
 
         if (codeLen > 0) {
             code = new byte[codeLen];
-
-            //
-            // Read the code into the code buffer.  The code is
-            // read byte by byte.  Since buffered input (e.g., the
-            // DataInputStream object) is used this should not be
-            // a performace issue.
-            //
-            for (int i = 0; i < code.length; i++) {
-                code[i] = (byte) readU1(dStream);
-            } // for
+            readBytes(input, code);
         }
 
-        int exceptLen = readUnsignedShort(dStream);
+        int exceptLen = readUnsignedShort(input);
 
         if (exceptLen > 0) {
             exception_table = new CodeException[exceptLen];
 
             for (int i = 0; i < exceptLen; i++) {
-                exception_table[i] = new CodeException(dStream, constPoolSec);
+                exception_table[i] = new CodeException(input, constPoolSec);
             }
         }
 
-        int attrCount = readUnsignedShort(dStream);
+        int attrCount = readUnsignedShort(input);
 
         if (attrCount > 0) {
             attributes = new Attribute[attrCount];
 
             for (int i = 0; i < attrCount; i++) {
-                attributes[i] = attrFactory.allocAttr(dStream, constPoolSec);
+                attributes[i] = attrFactory.allocAttr(input, constPoolSec);
             } // for
         }
     } // codeAttr constructor
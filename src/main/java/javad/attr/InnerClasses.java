@@ -14,8 +14,7 @@
 
 package javad.attr;
 
-import java.io.*;
-
+import javad.util.ClassInput;
 import javad.jconst.*;
 
 /**
@@ -118,12 +117,12 @@ public class InnerClasses extends Attribute {
         int inner_access_flags;
 
 
-        InnerClass(DataInputStream dStream, ConstPool constPoolSec) {
+        InnerClass(ClassInput input, ConstPool constPoolSec) {
 
-            int inner_class_info_index = readUnsignedShort(dStream);
-            int outer_class_info_index = readUnsignedShort(dStream);
-            int inner_name_index = readUnsignedShort(dStream);
-            inner_access_flags = readUnsignedShort(dStream);
+            int inner_class_info_index = readUnsignedShort(input);
+            int outer_class_info_index = readUnsignedShort(input);
+            int inner_name_index = readUnsignedShort(input);
+            inner_access_flags = readUnsignedShort(input);
             constBase obj;
 
             if (inner_class_info_index > 0) {
@@ -163,16 +162,16 @@ public class InnerClasses extends Attribute {
     InnerClass[] innerClasses = null;
 
 
-    public InnerClasses(String name, int length, DataInputStream dStream, ConstPool constPoolSec) {
+    public InnerClasses(String name, int length, ClassInput input, ConstPool constPoolSec) {
         super(name, length);
 
-        int numInnerClasses = readUnsignedShort(dStream);
+        int numInnerClasses = readUnsignedShort(input);
         if (numInnerClasses > 0) {
 
             innerClasses = new InnerClass[numInnerClasses];
 
             for (int i = 0; i < numInnerClasses; i++) {
-                innerClasses[i] = new InnerClass(dStream, constPoolSec);
+                innerClasses[i] = new InnerClass(input, constPoolSec);
             }
         }
     } // innerClassAttr constructor
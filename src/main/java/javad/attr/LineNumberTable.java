@@ -14,7 +14,7 @@
 
 package javad.attr;
 
-import java.io.*;
+import javad.util.ClassInput;
 
 
 /**
@@ -79,9 +79,9 @@ public class LineNumberTable extends Attribute {
         private int start_pc;
         private int line_number;
 
-        LineNumber(DataInputStream dStream) {
-            start_pc = readUnsignedShort(dStream);
-            line_number = readUnsignedShort(dStream);
+        LineNumber(ClassInput input) {
+            start_pc = readUnsignedShort(input);
+            line_number = readUnsignedShort(input);
         }
 
         int getStartPC() {
@@ -96,14 +96,14 @@ public class LineNumberTable extends Attribute {
     LineNumber[] line_number_table = null;
 
     public LineNumberTable(String name, int length,
-                           DataInputStream dStream) {
+                           ClassInput input) {
         super(name, length);
 
-        int numEntries = readUnsignedShort(dStream);
+        int numEntries = readUnsignedShort(input);
         if (numEntries > 0) {
             line_number_table = new LineNumber[numEntries];
             for (int i = 0; i < numEntries; i++) {
-                line_number_table[i] = new LineNumber(dStream);
+                line_number_table[i] = new LineNumber(input);
             }
         }
     } // lineNumTabAttr
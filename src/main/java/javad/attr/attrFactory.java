@@ -14,8 +14,6 @@
 
 package javad.attr;
 
-import java.io.*;
-
 import javad.util.*;
 import javad.jconst.*;
 
@@ -29,27 +27,23 @@ import javad.jconst.*;
  * the attribute_name_index and the attribute_length.  The factory
  * class uses the attribute name to select the proper attribute to
  * allocate.  As specified in the JVM spec, unknown attributes are
- * skipped.
+ * skipped.  The factory holds no state, attributes of several
+ * classes may be allocated at once.
  *
  * @author Ian Kaplan
  */
 public final class attrFactory {
-    static dataRead dataIn = new dataRead();
-
     private attrFactory() {
     }
 
     //
     // skip_data
     //
-    // Unknown attributes are allowed and are simply skipped.
+    // Unknown attributes are allowed and are simply skipped,
+    // all at once rather than byte by byte.
     //
-    private static void skip_data(int len, DataInputStream dStream) {
-        int junk;
-
-        for (int i = 0; i < len; i++) {
-            junk = dataIn.readU1(dStream);
-        }
+    private static void skip_data(int len, ClassInput input) {
+        input.skip(len);
     } // skip_data
 
 
@@ -60,7 +54,7 @@ public final class attrFactory {
      *
      * @return An attrInfo object or null.
      */
-    public static Attribute allocAttr(DataInputStream dStream,
+    public static Attribute allocAttr(ClassInput input,
                                       ConstPool constPoolSec) {
         int name_index;
         int length;
@@ -68,8 +62,8 @@ public final class attrFactory {
         constUtf8 name;
         Attribute retObj = null;
 
-        name_index = dataIn.readUnsignedShort(dStream);
-        length = dataIn.readU4(dStream);
+        name_index = input.readU2();
+        length = input.readU4();
 
         obj = constPoolSec.constPoolElem(name_index);
         if (obj != null && obj instanceof constUtf8) {
@@ -79,25 +73,27 @@ public final class attrFactory {
             nameStr = name.getString();
 
             if (nameStr.compareTo("SourceFile") == 0) {
-                retObj = new srcFileAttr(nameStr, length, dStream, constPoolSec);
+                retObj = new srcFileAttr(nameStr, length, input, constPoolSec);
             } else if (nameStr.compareTo("ConstantValue") == 0) {
-                retObj = new constValueAttr(nameStr, length, dStream, constPoolSec);
+                retObj = new constValueAttr(nameStr, length, input, constPoolSec);
             } else if (nameStr.compareTo("Code") == 0) {
-                retObj = new Code(nameStr, length, dStream, constPoolSec);
+                retObj = new Code(nameStr, length, input, constPoolSec);
             } else if (nameStr.compareTo("Exceptions") == 0) {
-                retObj = new exceptAttr(nameStr, length, dStream, constPoolSec);
+                retObj = new exceptAttr(nameStr, length, input, constPoolSec);
             } else if (nameStr.compareTo("InnerClasses") == 0) {
+                // not shown, but it must be read past
+                skip_data(length, input);
             } else if (nameStr.compareTo("LineNumberTable") == 0) {
-                retObj = new LineNumberTable(nameStr, length, dStream);
+                retObj = new LineNumberTable(nameStr, length, input);
             } else if (nameStr.compareTo("LocalVariableTable") == 0) {
-                retObj = new localVarTabAttr(nameStr, length, dStream, constPoolSec);
+                retObj = new localVarTabAttr(nameStr, length, input, constPoolSec);
             } else if (nameStr.compareTo("Synthetic") == 0) {
                 retObj = new Synthetic(nameStr, length);
             } else if (nameStr.compareTo("Deprecated") == 0) {
                 retObj = new Deprecated(nameStr, length);
             } else {
                 // unrecognized attributes are skipped.
-                skip_data(length, dStream);
+                skip_data(length, input);
             }
         } else {
             ErrorMessage.errorPrint("allocAttr: bad name index");
@@ -14,7 +14,7 @@
 
 package javad.attr;
 
-import java.io.*;
+import javad.util.ClassInput;
 
 import javad.jconst.*;
 
@@ -84,11 +84,11 @@ public class constValueAttr extends Attribute {
     constBase constValue = null;
 
     public constValueAttr(String name, int length,
-                          DataInputStream dStream, ConstPool constPoolSec) {
+                          ClassInput input, ConstPool constPoolSec) {
         // read the attribute type string and the length
         super(name, length);
 
-        int constValueIx = readUnsignedShort(dStream);
+        int constValueIx = readUnsignedShort(input);
         if (constValueIx > 0) {
             constValue = constPoolSec.constPoolElem(constValueIx);
         }
@@ -14,8 +14,6 @@
 
 package javad.attr;
 
-import java.io.*;
-
 import javad.util.*;
 import javad.jconst.*;
 
@@ -58,10 +56,10 @@ public class exceptAttr extends Attribute {
     constClass_or_String[] exceptTable = null;
 
     public exceptAttr(String name, int length,
-                      DataInputStream dStream, ConstPool constPoolSec) {
+                      ClassInput input, ConstPool constPoolSec) {
         super(name, length);
 
-        int numExcept = readUnsignedShort(dStream);
+        int numExcept = readUnsignedShort(input);
         if (numExcept > 0) {
             constBase obj;
             int ix;
@@ -69,7 +67,7 @@ public class exceptAttr extends Attribute {
             exceptTable = new constClass_or_String[numExcept];
             for (int i = 0; i < numExcept; i++) {
                 // read the index in the constant table for the exception class
-                ix = readUnsignedShort(dStream);
+                ix = readUnsignedShort(input);
                 if (ix > 0) {
                     obj = constPoolSec.constPoolElem(ix);
                     if (obj != null && obj instanceof constClass_or_String) {
@@ -15,8 +15,6 @@
 package javad.attr;
 
 import java.util.Vector;
-import java.io.*;
-
 import javad.util.*;
 import javad.jconst.*;
 
@@ -146,16 +144,16 @@ class localVarTabAttr extends Attribute {
         constUtf8 memberDesc = null;
         int index;
 
-        localVarEnt(DataInputStream dStream, ConstPool constPoolSec) {
+        localVarEnt(ClassInput input, ConstPool constPoolSec) {
             int name_index;
             int descriptor_index;
             constBase obj;
 
-            start_pc = readUnsignedShort(dStream);
-            length = readUnsignedShort(dStream);
-            name_index = readUnsignedShort(dStream);
-            descriptor_index = readUnsignedShort(dStream);
-            index = readUnsignedShort(dStream);
+            start_pc = readUnsignedShort(input);
+            length = readUnsignedShort(input);
+            name_index = readUnsignedShort(input);
+            descriptor_index = readUnsignedShort(input);
+            index = readUnsignedShort(input);
 
             if (name_index > 0) {
                 obj = constPoolSec.constPoolElem(name_index);
@@ -197,15 +195,15 @@ class localVarTabAttr extends Attribute {
 
 
     localVarTabAttr(String name, int length,
-                    DataInputStream dStream, ConstPool constPoolSec) {
+                    ClassInput input, ConstPool constPoolSec) {
         super(name, length);
-        int numVarEnt = readUnsignedShort(dStream);
+        int numVarEnt = readUnsignedShort(input);
 
         if (numVarEnt > 0) {
             localVarTab = new localVarEnt[numVarEnt];
 
             for (int i = 0; i < numVarEnt; i++) {
-                localVarTab[i] = new localVarEnt(dStream, constPoolSec);
+                localVarTab[i] = new localVarEnt(input, constPoolSec);
             }
         }
     }
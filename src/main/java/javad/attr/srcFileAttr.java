@@ -14,7 +14,7 @@
 
 package javad.attr;
 
-import java.io.*;
+import javad.util.ClassInput;
 
 import javad.jconst.*;
 
@@ -48,12 +48,12 @@ public class srcFileAttr extends Attribute {
     private constUtf8 srcFile = null;
 
     public srcFileAttr(String name, int length,
-                       DataInputStream dStream, ConstPool constPoolSec) {
+                       ClassInput input, ConstPool constPoolSec) {
         super(name, length);
         constBase obj;
         int srcFileIx;
 
-        srcFileIx = readUnsignedShort(dStream);
+        srcFileIx = readUnsignedShort(input);
         if (srcFileIx > 0) {
             obj = constPoolSec.constPoolElem(srcFileIx);
             if (obj instanceof constUtf8) {
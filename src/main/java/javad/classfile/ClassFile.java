@@ -16,6 +16,7 @@ package javad.classfile;
 import java.util.Vector;
 import java.util.ArrayList;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 import javad.attr.Deprecated;
 import javad.util.*;
@@ -40,10 +41,10 @@ class ClassFileHeader extends dataRead {
     private short minor_version;
     private short major_version;
 
-    ClassFileHeader(DataInputStream dStream) {
-        magic = readU4(dStream);
-        minor_version = (short) readUnsignedShort(dStream);
-        major_version = (short) readUnsignedShort(dStream);
+    ClassFileHeader(ClassInput input) {
+        magic = readU4(input);
+        minor_version = (short) readUnsignedShort(input);
+        major_version = (short) readUnsignedShort(input);
     } // classFileHeader constructor
 
     void pr() {
@@ -70,26 +71,26 @@ class classDeclSec extends dataRead implements access_and_modifier_flags {
     private constBase superClass = null;
     private constBase[] interfaces = null;
 
-    classDeclSec(DataInputStream dStream, ConstPool constPoolSec) {
+    classDeclSec(ClassInput input, ConstPool constPoolSec) {
         int thisClassIx;
         int superClassIx;
         int interfaceCnt;
 
-        accessFlags = readUnsignedShort(dStream);
-        thisClassIx = readUnsignedShort(dStream);
-        superClassIx = readUnsignedShort(dStream);
+        accessFlags = readUnsignedShort(input);
+        thisClassIx = readUnsignedShort(input);
+        superClassIx = readUnsignedShort(input);
 
         thisClass = constPoolSec.constPoolElem(thisClassIx);
         superClass = constPoolSec.constPoolElem(superClassIx);
 
-        interfaceCnt = readUnsignedShort(dStream);
+        interfaceCnt = readUnsignedShort(input);
 
         if (interfaceCnt > 0) {
             int ix;
 
             interfaces = new constBase[interfaceCnt];
             for (int i = 0; i < interfaceCnt; i++) {
-                ix = readUnsignedShort(dStream);
+                ix = readUnsignedShort(input);
                 interfaces[i] = constPoolSec.constPoolElem(ix);
             }
         }
@@ -129,6 +130,10 @@ class classDeclSec extends dataRead implements access_and_modifier_flags {
 
     public String getSuperclassName() {
         String superClassName;
+        if (superClass == null) {
+            //java.lang.Object and module-info have no superclass
+            return null;
+        }
         superClassName = superClass.getString();
         return ObjectNameFormat.toDotSeparator(superClassName);
     }
@@ -231,16 +236,16 @@ class FieldInfo extends dataRead {
     constUtf8 descriptor = null;
     Attribute[] attributes = null;
 
-    FieldInfo(DataInputStream dStream, ConstPool constPoolSec) {
+    FieldInfo(ClassInput input, ConstPool constPoolSec) {
         int name_index;
         int desc_index;
         int attr_cnt;
         constBase obj;
 
-        access_flags = readUnsignedShort(dStream);
-        name_index = readUnsignedShort(dStream);
-        desc_index = readUnsignedShort(dStream);
-        attr_cnt = readUnsignedShort(dStream);
+        access_flags = readUnsignedShort(input);
+        name_index = readUnsignedShort(input);
+        desc_index = readUnsignedShort(input);
+        attr_cnt = readUnsignedShort(input);
 
         obj = constPoolSec.constPoolElem(name_index);
         if (obj != null && obj instanceof constUtf8) {
@@ -255,7 +260,7 @@ class FieldInfo extends dataRead {
         if (attr_cnt > 0) {
             attributes = new Attribute[attr_cnt];
             for (int i = 0; i < attr_cnt; i++) {
-                attributes[i] = attrFactory.allocAttr(dStream, constPoolSec);
+                attributes[i] = attrFactory.allocAttr(input, constPoolSec);
                 if (attributes[i] != null) {
                     if (attributes[i].getName().compareTo("ConstantValue") != 0 &&
                             attributes[i].getName().compareTo("Synthetic") != 0 &&
@@ -381,17 +386,17 @@ class FieldInfo extends dataRead {
 class ClassFieldSection extends dataRead {
     private FieldInfo[] classFields = null;
 
-    ClassFieldSection(DataInputStream dStream, ConstPool constPoolSec) {
+    ClassFieldSection(ClassInput input, ConstPool constPoolSec) {
         int field_cnt;
 
-        field_cnt = readUnsignedShort(dStream);
+        field_cnt = readUnsignedShort(input);
         if (field_cnt > 0) {
             classFields = new FieldInfo[field_cnt];
         }
 
         // initialize the fieldInfo array
         for (int i = 0; i < field_cnt; i++) {
-            classFields[i] = new FieldInfo(dStream, constPoolSec);
+            classFields[i] = new FieldInfo(input, constPoolSec);
         } // for
 
     } // classFieldSec constructor
@@ -528,16 +533,16 @@ class MethodInfo extends dataRead implements access_and_modifier_flags {
     Code codeAttribute = null;
 
 
-    MethodInfo(DataInputStream dStream, ConstPool constPoolSec) {
+    MethodInfo(ClassInput input, ConstPool constPoolSec) {
         int name_index;
         int desc_index;
         int attr_cnt;
         constBase obj;
 
-        access_flags = readUnsignedShort(dStream);
-        name_index = readUnsignedShort(dStream);
-        desc_index = readUnsignedShort(dStream);
-        attr_cnt = readUnsignedShort(dStream);
+        access_flags = readUnsignedShort(input);
+        name_index = readUnsignedShort(input);
+        desc_index = readUnsignedShort(input);
+        attr_cnt = readUnsignedShort(input);
 
         obj = constPoolSec.constPoolElem(name_index);
         if (obj != null && obj instanceof constUtf8) {
@@ -554,7 +559,7 @@ class MethodInfo extends dataRead implements access_and_modifier_flags {
         if (attr_cnt > 0) {
             attributes = new Attribute[attr_cnt];
             for (int i = 0; i < attr_cnt; i++) {
-                attributes[i] = attrFactory.allocAttr(dStream, constPoolSec);
+                attributes[i] = attrFactory.allocAttr(input, constPoolSec);
                 if (attributes[i] instanceof Code)
                     codeAttribute = (Code) attributes[i];
             } // for
@@ -921,18 +926,18 @@ class MethodInfo extends dataRead implements access_and_modifier_flags {
 class ClassMethodSection extends dataRead {
     MethodInfo[] classMethods;
 
-    ClassMethodSection(DataInputStream dStream,
+    ClassMethodSection(ClassInput input,
                        ConstPool constPoolSec,
                        String className) {
         int methodCnt;
 
-        methodCnt = readUnsignedShort(dStream);
+        methodCnt = readUnsignedShort(input);
         if (methodCnt > 0) {
             classMethods = new MethodInfo[methodCnt];
         }
 
         for (int i = 0; i < methodCnt; i++) {
-            classMethods[i] = new MethodInfo(dStream, constPoolSec);
+            classMethods[i] = new MethodInfo(input, constPoolSec);
             if (classMethods[i].isConstructor())
                 classMethods[i].setConstructorName(className);
         }
@@ -988,14 +993,14 @@ class ClassMethodSection extends dataRead {
 class classAttrSec extends dataRead {
     Attribute[] classAttrTab = null;
 
-    classAttrSec(DataInputStream dStream, ConstPool constPoolSec) {
+    classAttrSec(ClassInput input, ConstPool constPoolSec) {
 
-        int numAttr = readUnsignedShort(dStream);
+        int numAttr = readUnsignedShort(input);
 
         if (numAttr > 0) {
             classAttrTab = new Attribute[numAttr];
             for (int i = 0; i < numAttr; i++) {
-                classAttrTab[i] = attrFactory.allocAttr(dStream, constPoolSec);
+                classAttrTab[i] = attrFactory.allocAttr(input, constPoolSec);
             }
         }
     } // classAttrSec
@@ -1068,6 +1073,35 @@ public class ClassFile {
     String className = null;
 
 
+    /**
+     * Parses a class file from a stream.
+     *
+     * @param dStream - stream positioned at the start of a class file
+     */
+    public ClassFile(DataInputStream dStream) {
+        this(new StreamClassInput(dStream));
+    } // classFile
+
+    /**
+     * Parses a class file held in memory, such as the content of
+     * a jar entry.  This is much faster than parsing a stream.
+     *
+     * @param classBytes - class file
+     */
+    public ClassFile(byte[] classBytes) {
+        this(new BufferClassInput(classBytes));
+    } // classFile
+
+    /**
+     * Parses a class file held in memory.
+     *
+     * @param classBytes - class file, from position to limit; the
+     *                   buffer itself is not modified
+     */
+    public ClassFile(ByteBuffer classBytes) {
+        this(new BufferClassInput(classBytes));
+    } // classFile
+
     /**
      * classFile constructor.
      *
@@ -1077,38 +1111,40 @@ public class ClassFile {
      * class file.  Each of these objects reads its own section
      * and builds any data structures needed (e.g., tables) to
      * represent the information.
+     *
+     * @param input - class file data, from a stream or from memory
      */
-    public ClassFile(DataInputStream dStream) {
+    public ClassFile(ClassInput input) {
 
         // u4 magic;
         // u2 minor_version;
         // u2 major_version;
-        header = new ClassFileHeader(dStream);
+        header = new ClassFileHeader(input);
 
         // u2 constant_pool_count;
         // cp_info constant_pool[constant_pool_count-1];
-        classConstPool = new ConstPool(dStream);
+        classConstPool = new ConstPool(input);
 
         // u2 access_flags;
         // u2 this_class;
         // u2 super_class;
         // u2 interfaces_count;
         // u2 interfaces[interfaces_count];
-        classDecl = new classDeclSec(dStream, classConstPool);
+        classDecl = new classDeclSec(input, classConstPool);
 
         // u2 fields_count;
         // field_info fields[fields_count];
-        classFields = new ClassFieldSection(dStream, classConstPool);
+        classFields = new ClassFieldSection(input, classConstPool);
 
         className = classDecl.getClassName();
 
         // u2 methods_count;
         // method_info methods[methods_count];
-        classMethods = new ClassMethodSection(dStream, classConstPool, className);
+        classMethods = new ClassMethodSection(input, classConstPool, className);
 
         // u2 attributes_count;
         // attribute_info attributes[attributes_count];
-        classAttrs = new classAttrSec(dStream, classConstPool);
+        classAttrs = new classAttrSec(input, classConstPool);
     } // classFile
 
     /**
@@ -0,0 +1,188 @@
+package javad.classfile;
+
+import java.nio.ByteBuffer;
+
+import javad.jconst.ConstPool;
+import javad.jconst.constBase;
+import javad.jconst.constClass_or_String;
+import javad.jconst.constUtf8;
+import javad.util.BufferClassInput;
+import javad.util.ClassInput;
+
+/**
+ * Reads a class file section by section and reports it to a {@link ClassVisitor}. Unlike {@link ClassFile} nothing is
+ * kept: sections and attributes the visitor is not interested in are skipped by their lengths, and reading ends as
+ * soon as the rest of the class file is of no interest. A visitor interested in the declaration only reads the
+ * constant pool and a few bytes past it.
+ * <p>
+ * Errors are handled as by {@link ClassFile}: a damaged class file is reported through
+ * {@link javad.util.ErrorMessage}, or may end with a runtime exception.
+ *
+ * @author Igor Polevoy
+ */
+public final class ClassParser {
+
+    private ClassParser() {
+    }
+
+    /**
+     * @param classBytes - class file
+     * @param visitor    - receives sections of interest
+     */
+    public static void parse(byte[] classBytes, ClassVisitor visitor) {
+        parse(new BufferClassInput(classBytes), visitor);
+    }
+
+    /**
+     * @param classBytes - class file, from position to limit; the buffer itself is not modified
+     * @param visitor    - receives sections of interest
+     */
+    public static void parse(ByteBuffer classBytes, ClassVisitor visitor) {
+        parse(new BufferClassInput(classBytes), visitor);
+    }
+
+    /**
+     * @param input   - class file data, from a stream or from memory
+     * @param visitor - receives sections of interest
+     */
+    public static void parse(ClassInput input, ClassVisitor visitor) {
+        int interest = visitor.getInterest();
+
+        // u4 magic, u2 minor_version, u2 major_version
+        input.skip(6);
+        int version = input.readU2();
+        ConstPool pool = new ConstPool(input);
+
+        int accessFlags = input.readU2();
+        int thisClass = input.readU2();
+        int superClass = input.readU2();
+        int interfaceCnt = input.readU2();
+        if ((interest & ClassVisitor.DECLARATION) != 0) {
+            String[] interfaces = new String[Math.max(interfaceCnt, 0)];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = className(pool, input.readU2());
+            }
+            visitor.visitClass(version, accessFlags, className(pool, thisClass), className(pool, superClass),
+                    interfaces);
+        } else {
+            skip(input, 2 * interfaceCnt);
+        }
+        if ((interest & ~ClassVisitor.DECLARATION) == 0) {
+            visitor.visitEnd();
+            return;
+        }
+
+        boolean fields = (interest & ClassVisitor.FIELDS) != 0;
+        int fieldCnt = input.readU2();
+        for (int i = 0; i < fieldCnt; i++) {
+            int fieldFlags = input.readU2();
+            int nameIx = input.readU2();
+            int descriptorIx = input.readU2();
+            if (fields) {
+                visitor.visitField(fieldFlags, utf8(pool, nameIx), utf8(pool, descriptorIx));
+            }
+            skipAttributes(input);
+        }
+        if ((interest & (ClassVisitor.METHODS | ClassVisitor.CODE | ClassVisitor.SOURCE_FILE)) == 0) {
+            visitor.visitEnd();
+            return;
+        }
+
+        boolean methods = (interest & (ClassVisitor.METHODS | ClassVisitor.CODE)) != 0;
+        boolean code = (interest & ClassVisitor.CODE) != 0;
+        int methodCnt = input.readU2();
+        for (int i = 0; i < methodCnt; i++) {
+            int methodFlags = input.readU2();
+            int nameIx = input.readU2();
+            int descriptorIx = input.readU2();
+            if (methods) {
+                visitor.visitMethod(methodFlags, utf8(pool, nameIx), utf8(pool, descriptorIx));
+            }
+            if (code) {
+                readCode(input, pool, visitor);
+            } else {
+                skipAttributes(input);
+            }
+        }
+        if ((interest & ClassVisitor.SOURCE_FILE) == 0) {
+            visitor.visitEnd();
+            return;
+        }
+
+        int attrCnt = input.readU2();
+        for (int i = 0; i < attrCnt; i++) {
+            String name = utf8(pool, input.readU2());
+            int length = input.readU4();
+            if ("SourceFile".equals(name) && length == 2) {
+                visitor.visitSourceFile(utf8(pool, input.readU2()));
+            } else {
+                skip(input, length);
+            }
+        }
+        visitor.visitEnd();
+    } // parse
+
+
+    //
+    // readCode
+    //
+    // Read the attributes of a method, report the Code attribute
+    //
+    private static void readCode(ClassInput input, ConstPool pool, ClassVisitor visitor) {
+        int attrCnt = input.readU2();
+        for (int i = 0; i < attrCnt; i++) {
+            String name = utf8(pool, input.readU2());
+            int length = input.readU4();
+            if ("Code".equals(name) && length >= 8) {
+                int maxStack = input.readU2();
+                int maxLocals = input.readU2();
+                int codeLen = input.readU4();
+                if (codeLen >= 0 && codeLen <= length - 8) {
+                    byte[] code = new byte[codeLen];
+                    input.readFully(code);
+                    visitor.visitCode(maxStack, maxLocals, code);
+                    // exception table and attributes of the code
+                    skip(input, length - 8 - codeLen);
+                } else {
+                    skip(input, length - 8);
+                }
+            } else {
+                skip(input, length);
+            }
+        }
+    } // readCode
+
+
+    private static void skipAttributes(ClassInput input) {
+        int attrCnt = input.readU2();
+        for (int i = 0; i < attrCnt; i++) {
+            // u2 attribute_name_index
+            input.skip(2);
+            skip(input, input.readU4());
+        }
+    } // skipAttributes
+
+
+    private static void skip(ClassInput input, int length) {
+        // a negative length is the end of data, or a damaged class file
+        if (length > 0) {
+            input.skip(length);
+        }
+    }
+
+
+    private static String utf8(ConstPool pool, int index) {
+        constBase elem = pool.constPoolElem(index);
+        return elem instanceof constUtf8 ? elem.getString() : null;
+    }
+
+
+    private static String className(ConstPool pool, int index) {
+        constBase elem = pool.constPoolElem(index);
+        if (elem instanceof constClass_or_String) {
+            return elem.getName();
+        }
+        return null;
+    }
+
+} // ClassParser
@@ -0,0 +1,108 @@
+package javad.classfile;
+
+/**
+ * Receives the contents of a class file from {@link ClassParser}, section by section, without a {@link ClassFile}
+ * being built. A visitor tells which sections it is interested in; the parser skips the others by their lengths
+ * and allocates nothing for them, and stops reading as soon as no section of interest is left.
+ * <p>
+ * Class names are given with dot separators, as by {@link ClassFile}; descriptors are given as they are in the class
+ * file, such as <code>(ILjava/lang/String;)V</code>. Access flags are the raw bit masks, see
+ * {@link javad.util.accString} to print them.
+ * <p>
+ * Methods are called in class file order: {@link #visitClass}, fields, methods (each followed by its code), the source
+ * file, then {@link #visitEnd}. All methods do nothing by default.
+ *
+ * @author Igor Polevoy
+ */
+public abstract class ClassVisitor {
+
+    /**
+     * Interest in the class declaration: access flags, name, superclass and interfaces
+     */
+    public static final int DECLARATION = 1;
+    /**
+     * Interest in fields
+     */
+    public static final int FIELDS = 2;
+    /**
+     * Interest in methods
+     */
+    public static final int METHODS = 4;
+    /**
+     * Interest in bytecode of methods
+     */
+    public static final int CODE = 8;
+    /**
+     * Interest in the name of the source file
+     */
+    public static final int SOURCE_FILE = 16;
+    /**
+     * Interest in everything
+     */
+    public static final int ALL = DECLARATION | FIELDS | METHODS | CODE | SOURCE_FILE;
+
+    private final int interest;
+
+    /**
+     * @param interest - sections to visit, a combination of {@link #DECLARATION}, {@link #FIELDS},
+     *                 {@link #METHODS}, {@link #CODE} and {@link #SOURCE_FILE}
+     */
+    protected ClassVisitor(int interest) {
+        this.interest = interest;
+    }
+
+    /**
+     * @return sections to visit
+     */
+    public final int getInterest() {
+        return interest;
+    }
+
+    /**
+     * @param version     - major version of the class file
+     * @param accessFlags - access flags of the class
+     * @param name        - name of the class
+     * @param superName   - name of the superclass, null for <code>java.lang.Object</code> and modules
+     * @param interfaces  - names of implemented interfaces, never null
+     */
+    public void visitClass(int version, int accessFlags, String name, String superName, String[] interfaces) {
+    }
+
+    /**
+     * @param accessFlags - access flags of the field
+     * @param name        - name of the field
+     * @param descriptor  - type descriptor, such as <code>Ljava/lang/String;</code>
+     */
+    public void visitField(int accessFlags, String name, String descriptor) {
+    }
+
+    /**
+     * @param accessFlags - access flags of the method
+     * @param name        - name of the method, <code>&lt;init&gt;</code> for constructors
+     * @param descriptor  - method descriptor, such as <code>(I)V</code>
+     */
+    public void visitMethod(int accessFlags, String name, String descriptor) {
+    }
+
+    /**
+     * Called after {@link #visitMethod} for methods with code, when interested in {@link #CODE}.
+     *
+     * @param maxStack  - maximum depth of the operand stack
+     * @param maxLocals - number of local variables
+     * @param code      - bytecode of the method
+     */
+    public void visitCode(int maxStack, int maxLocals, byte[] code) {
+    }
+
+    /**
+     * @param sourceFile - name of the source file, as recorded by the compiler
+     */
+    public void visitSourceFile(String sourceFile) {
+    }
+
+    /**
+     * Called when the class file (or everything of interest in it) is read.
+     */
+    public void visitEnd() {
+    }
+}
@@ -14,7 +14,9 @@
 
 package javad.jconst;
 
-import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import javad.util.*;
 
@@ -41,38 +43,62 @@ import javad.util.*;
      implementation.  That entry is not present in the class
      file.  The first entry in the class file is constant_pool[1];
 
+  The constant pool is read lazily.  The constructor makes one pass
+  over the pool, recording where each entry starts; the pool bytes
+  are copied, unless the class file is held in an array.  An entry object is allocated (and a Utf8 string decoded)
+  only when the entry is first referenced through constPoolElem, so a
+  caller that only wants a few names does not pay for the whole pool.
+
  */
 public class ConstPool extends dataRead implements constPoolTags {
     private int constPoolCnt;
+    // entries allocated so far, filled in by constPoolElem
     private constBase[] constPool = null;
+    // the constant pool bytes, as in the class file; the class file
+    // itself if it is held in an array
+    private byte[] data;
+    // offset of the tag of each entry in data, -1 for unused entries
+    private int[] offsets;
+    // offset of the constant pool in the class file, and in data
+    private int poolStart;
+    private int dataStart;
 
-    public ConstPool(DataInputStream dStream) {
+    public ConstPool(ClassInput input) {
 
-        constPoolCnt = readUnsignedShort(dStream);
+        constPoolCnt = readUnsignedShort(input);
 
         // The constant pool array is an array of references to
         // the base class object.  References 1..constPoolCnt-1
-        // are valid and are filled in when the constant pool
-        // is read.
-        constPool = new constBase[constPoolCnt];
+        // are valid and are filled in as the entries are referenced.
+        constPool = new constBase[Math.max(constPoolCnt, 0)];
+        offsets = new int[constPool.length];
 
-        readConstPool(dStream);
-        resolveConstPool();
+        readConstPool(input);
     } // constPool constructor
 
 
     //
     // constPoolElem
     //
-    // Return the constant pool object at index ix.
-    // Note that only constant pool indices greater than
-    // zero are valid.
+    // Return the constant pool object at index ix, allocating it
+    // on the first reference.  Note that only constant pool indices
+    // greater than zero are valid.
     //
     public constBase constPoolElem(int ix) {
         constBase elem = null;
 
         if (ix > 0 && ix < constPool.length) {
             elem = constPool[ix];
+            if (elem == null && offsets[ix] >= 0) {
+                elem = allocConstEntry(data[offsets[ix]]);
+                if (elem != null) {
+                    // stored before references are resolved, so
+                    // that an entry referring to itself ends
+                    constPool[ix] = elem;
+                    elem.read(this, offsets[ix] + 1);
+                    elem.set_ref(this);
+                }
+            }
         }
         return elem;
     } // constPoolElem
@@ -114,8 +140,23 @@ public class ConstPool extends dataRead implements constPoolTags {
             case CONSTANT_NameAndType:
                 obj = new constName_and_Type_info();
                 break;
+            case CONSTANT_MethodHandle:
+                obj = new constMethodHandle();
+                break;
+            case CONSTANT_MethodType:
+                obj = new constMethodType();
+                break;
+            case CONSTANT_Dynamic:
+            case CONSTANT_InvokeDynamic:
+                obj = new constDynamic();
+                break;
+            case CONSTANT_Module:
+            case CONSTANT_Package:
+                // the index refers to a constUtf8, as for a class
+                obj = new constClass_or_String();
+                break;
             default:
-                System.out.println("allocConstEntry: bad tag value = " + tag);
+                // tag 0
                 break;
         } // switch
 
@@ -127,27 +168,48 @@ public class ConstPool extends dataRead implements constPoolTags {
 
 
     //
-    // resolveConstPool
-    //
-    //
-    // A number of the constant pool classes contain indices that
-    // refer to other elements in the constant pool.  Convert these
-    // to references, using the set_ref() method.  This method is
-    // implemented for all classes, but only does something when it
-    // is appropriate.
+    // entrySize
     //
+    // Number of bytes following the tag of a constant pool entry,
+    // -1 for an unknown tag.  The size of a Utf8 entry depends on
+    // its length, which is read separately.  Entries are skipped
+    // by their sizes, whatever their kind, and allocated only when
+    // referenced.
     //
-    private void resolveConstPool() {
-        for (int i = 1; i < constPoolCnt; i++) {
-            if (constPool[i] != null)
-                constPool[i].set_ref(constPool);
-        }
-    } // resolveConstPool
+    private static int entrySize(int tag) {
+        switch (tag) {
+            case CONSTANT_Utf8:
+                return 2;
+            case CONSTANT_Class:
+            case CONSTANT_String:
+            case CONSTANT_MethodType:
+            case CONSTANT_Module:
+            case CONSTANT_Package:
+                return 2;
+            case CONSTANT_MethodHandle:
+                return 3;
+            case CONSTANT_Integer:
+            case CONSTANT_Float:
+            case CONSTANT_Fieldref:
+            case CONSTANT_Methodref:
+            case CONSTANT_InterfaceMethodref:
+            case CONSTANT_NameAndType:
+            case CONSTANT_Dynamic:
+            case CONSTANT_InvokeDynamic:
+                return 4;
+            case CONSTANT_Long:
+            case CONSTANT_Double:
+                return 8;
+            default:
+                return -1;
+        } // switch
+    } // entrySize
 
 
     /**
-     * Read the JVM class file constant pool and put
-     * it in the internal constant pool.
+     * Read the JVM class file constant pool: copy its bytes and
+     * record the offset of every entry, without allocating the
+     * entries.
      * <p>
      * There is a special case in constant pool construction.
      * CONSTANT_Long_info and CONSTANT_Double_info structures
@@ -155,31 +217,186 @@ public class ConstPool extends dataRead implements constPoolTags {
      * (constPool).  See JVM Spec. 4.4.5.  As noted in a footnote
      * "In retrospect, making 8-byte constants take two constant
      * pool entries was a poor choice."  The extra constant pool
-     * entry is unused (and is set to null here).
+     * entry is unused (and stays null here).
      */
-    private void readConstPool(DataInputStream dStream) {
+    private void readConstPool(ClassInput input) {
         int tag;
-        constBase constObj;
+        int size;
+        int length = 0;
 
+        poolStart = input.position();
+        if (readInPlace(input)) {
+            return;
+        }
+        dataStart = 0;
+        // most entries are short, the array grows if needed
+        data = new byte[Math.max(constPoolCnt, 1) * 16];
         for (int i = 1; i < constPoolCnt; i++) {
-            tag = readU1(dStream);
+            tag = readU1(input);
+            ensureCapacity(length + 3);
+            offsets[i] = length;
+            data[length++] = (byte) tag;
             if (tag > 0) {
-                constObj = allocConstEntry(tag);
-                constObj.read(dStream);
-                constPool[i] = constObj;
-                if (constObj instanceof constLong ||
-                        constObj instanceof constDouble) {
+                size = entrySize(tag);
+                if (size < 0) {
+                    throw new IllegalArgumentException("readConstPool: bad tag value = " + tag +
+                            " at constPool index " + i);
+                }
+                ensureCapacity(length + size);
+                input.readFully(data, length, size);
+                length += size;
+                if (tag == CONSTANT_Utf8) {
+                    size = u2At(length - 2);
+                    ensureCapacity(length + size);
+                    input.readFully(data, length, size);
+                    length += size;
+                } else if (tag == CONSTANT_Long || tag == CONSTANT_Double) {
+                    // the next entry is unused
                     i++;
-                    constPool[i] = null;
+                    if (i < constPoolCnt) {
+                        offsets[i] = -1;
+                    }
                 }
             } else {
                 System.out.println("readConstPool: tag == 0 at constPool index " + i);
             }
-
         }
     } // readConstPool
 
 
+    //
+    // readInPlace
+    //
+    // When the class file is held in an array, record offsets of
+    // the entries in that array, and skip the constant pool, so
+    // nothing is copied.  Returns false if the input is not in an
+    // array, or if the constant pool is truncated: then it is read
+    // as usual, reporting the error.
+    //
+    private boolean readInPlace(ClassInput input) {
+        ByteBuffer rest = input.remainingInArray();
+        int tag;
+        int size;
+
+        if (rest == null) {
+            return false;
+        }
+        byte[] bytes = rest.array();
+        int start = rest.arrayOffset() + rest.position();
+        int limit = rest.arrayOffset() + rest.limit();
+        int pos = start;
+        for (int i = 1; i < constPoolCnt; i++) {
+            if (pos >= limit) {
+                return false;
+            }
+            tag = bytes[pos] & 0xFF;
+            offsets[i] = pos++;
+            if (tag > 0) {
+                size = entrySize(tag);
+                if (size < 0) {
+                    throw new IllegalArgumentException("readConstPool: bad tag value = " + tag +
+                            " at constPool index " + i);
+                }
+                if (tag == CONSTANT_Utf8 && pos + 2 <= limit) {
+                    size += ((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF);
+                }
+                pos += size;
+                if ((tag == CONSTANT_Long || tag == CONSTANT_Double) && ++i < constPoolCnt) {
+                    // the next entry is unused
+                    offsets[i] = -1;
+                }
+            } else {
+                System.out.println("readConstPool: tag == 0 at constPool index " + i);
+            }
+        }
+        if (pos > limit) {
+            return false;
+        }
+        data = bytes;
+        dataStart = start;
+        input.skip(pos - start);
+        return true;
+    } // readInPlace
+
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    } // ensureCapacity
+
+
+    //
+    // u1At, u2At, u4At
+    //
+    // Read an unsigned byte, an unsigned short or an int of an entry.
+    //
+    int u1At(int offset) {
+        return data[offset] & 0xFF;
+    }
+
+    int u2At(int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    int u4At(int offset) {
+        return (u2At(offset) << 16) | u2At(offset + 2);
+    }
+
+
+    //
+    // utf8At
+    //
+    // Decode the string of a Utf8 entry.  Class and member names are
+    // almost always ASCII, those are copied as they are; other strings
+    // are decoded from the modified UTF-8 of the class file format
+    // (JVM Spec. 4.4.7).
+    //
+    String utf8At(int offset) {
+        int len = u2At(offset);
+        int start = offset + 2;
+        int end = start + len;
+        int i = start;
+
+        while (i < end && data[i] >= 0) {
+            i++;
+        }
+        if (i == end) {
+            return new String(data, start, len, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[len];
+        int charCnt = 0;
+        i = start;
+        while (i < end) {
+            int b = data[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[charCnt++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && i < end) {
+                // two bytes, bits 10..0
+                chars[charCnt++] = (char) (((b & 0x1F) << 6) | (data[i++] & 0x3F));
+            } else if ((b & 0xF0) == 0xE0 && i + 1 < end) {
+                // three bytes, bits 15..0
+                chars[charCnt++] = (char) (((b & 0x0F) << 12) | ((data[i] & 0x3F) << 6) | (data[i + 1] & 0x3F));
+                i += 2;
+            } else {
+                // malformed, kept as it is
+                chars[charCnt++] = (char) b;
+            }
+        } // while
+        return new String(chars, 0, charCnt);
+    } // utf8At
+
+    //
+    // poolOffset
+    //
+    // Offset in the class file of an offset in the constant pool
+    //
+    int poolOffset(int offset) {
+        return poolStart + offset - dataStart;
+    }
+
+
     //
     // pr
     //
@@ -190,8 +407,9 @@ public class ConstPool extends dataRead implements constPoolTags {
                 " (size = " + (constPoolCnt - 1) + ")");
         for (int i = 1; i < constPoolCnt; i++) {
             System.out.print(i + " ");
-            if (constPool[i] != null) {
-                constPool[i].pr();
+            constBase elem = constPoolElem(i);
+            if (elem != null) {
+                elem.pr();
                 System.out.println();
             }
         }
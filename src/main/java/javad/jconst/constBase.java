@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 import javad.util.*;
 
 
@@ -29,7 +27,13 @@ import javad.util.*;
 public abstract class constBase extends dataRead implements constPoolTags {
     int tag;
 
-    abstract void read(DataInputStream dStream);
+    //
+    // read
+    //
+    // Read the entry from the constant pool bytes, offset is the
+    // offset of the data following the tag.
+    //
+    abstract void read(ConstPool pool, int offset);
 
 
     final static String Tag_to_String(int tag) {
@@ -69,6 +73,24 @@ public abstract class constBase extends dataRead implements constPoolTags {
             case CONSTANT_NameAndType:
                 str = "name and type";
                 break;
+            case CONSTANT_MethodHandle:
+                str = "method handle";
+                break;
+            case CONSTANT_MethodType:
+                str = "method type";
+                break;
+            case CONSTANT_Dynamic:
+                str = "dynamic";
+                break;
+            case CONSTANT_InvokeDynamic:
+                str = "invoke dynamic";
+                break;
+            case CONSTANT_Module:
+                str = "module";
+                break;
+            case CONSTANT_Package:
+                str = "package";
+                break;
             default:
                 str = "unknow tag";
                 break;
@@ -92,8 +114,9 @@ public abstract class constBase extends dataRead implements constPoolTags {
     //
     // Do nothing.  This method is included in the base class so that
     // the same operation (set_ref) can be done on all classes without
-    // checking whether it is appropriate.
-    public void set_ref(constBase[] objAry) {
+    // checking whether it is appropriate.  Referenced entries are
+    // obtained from the pool with constPoolElem.
+    public void set_ref(ConstPool pool) {
         // Nada
     }
 
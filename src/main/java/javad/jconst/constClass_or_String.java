@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 import javad.util.*;
 
 /**
@@ -36,14 +34,14 @@ public class constClass_or_String extends constBase {
     int index = 0;
     constUtf8 Utf8 = null;
 
-    void read(DataInputStream dStream) {
-        index = readUnsignedShort(dStream);
+    void read(ConstPool pool, int offset) {
+        index = pool.u2At(offset);
     }
 
     // For both class and strings, the index referrs to a
     // constUtf8 object.
-    public void set_ref(constBase[] objAry) {
-        constBase tmp = objAry[index];
+    public void set_ref(ConstPool pool) {
+        constBase tmp = pool.constPoolElem(index);
 
         if (tmp instanceof constUtf8) {
             Utf8 = (constUtf8) tmp;
@@ -14,9 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
-
 public class constDouble extends constLongConvert {
     double d;
 
@@ -24,10 +21,10 @@ public class constDouble extends constLongConvert {
         d = Double.longBitsToDouble(l);
     }
 
-    public void read(DataInputStream dStream) {
+    public void read(ConstPool pool, int offset) {
         long longVal;
 
-        longVal = readLong(dStream);
+        longVal = readLong(pool, offset);
         toDouble(longVal);
     }
 
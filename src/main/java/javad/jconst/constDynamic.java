@@ -0,0 +1,60 @@
+package javad.jconst;
+
+/*
+ * constDynamic
+ *
+
+    CONSTANT_Dynamic_info or CONSTANT_InvokeDynamic_info {
+       u1 tag;
+       u2 bootstrap_method_attr_index;
+       u2 name_and_type_index;
+    }
+
+   The bootstrap method index is an index into the BootstrapMethods
+   attribute of the class, not into the constant pool.  The name and
+   type index refers to a constName_and_Type_info entry.
+
+ */
+public class constDynamic extends constBase {
+    int bootstrap_method_attr_index;
+    int name_and_type_index;
+    constName_and_Type_info name_ref;
+
+    void read(ConstPool pool, int offset) {
+        bootstrap_method_attr_index = pool.u2At(offset);
+        name_and_type_index = pool.u2At(offset + 2);
+    }
+
+    public void set_ref(ConstPool pool) {
+        constBase tmp = pool.constPoolElem(name_and_type_index);
+
+        if (tmp instanceof constName_and_Type_info) {
+            name_ref = (constName_and_Type_info) tmp;
+        } else {
+            System.out.println("object at const. pool index " + name_and_type_index +
+                    " is not a constName_and_Type_info");
+        }
+    } // set_ref
+
+
+    public String getString() {
+        StringBuilder str = new StringBuilder();
+
+        str.append(getName());
+        str.append(": bootstrap method ");
+        str.append(bootstrap_method_attr_index);
+        str.append(", ");
+        if (name_ref != null) {
+            str.append(name_ref.getString());
+        } else {
+            str.append("null ref");
+        }
+        return str.toString();
+    } // getString
+
+
+    public void pr() {
+        System.out.print(getString());
+    } // pr
+
+} // constDynamic
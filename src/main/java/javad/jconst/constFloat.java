@@ -14,9 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
-
 /*
  * constFloat
  *
@@ -30,10 +27,10 @@ class constFloat extends constBase {
         f = Float.intBitsToFloat(v);
     }
 
-    public void read(DataInputStream dStream) {
+    public void read(ConstPool pool, int offset) {
         int val;
 
-        val = readU4(dStream);
+        val = pool.u4At(offset);
         toFloat(val);
     }
 
@@ -14,9 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
-
 /*
  * constInt
  *
@@ -24,8 +21,8 @@ import java.io.*;
 public class constInt extends constBase {
     int val;
 
-    public void read(DataInputStream dStream) {
-        val = readU4(dStream);
+    public void read(ConstPool pool, int offset) {
+        val = pool.u4At(offset);
     }
 
     public String getString() {
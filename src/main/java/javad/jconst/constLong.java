@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 /*
  * constLong
  *
@@ -23,8 +21,8 @@ import java.io.*;
 public class constLong extends constLongConvert {
     long longVal;
 
-    public void read(DataInputStream dStream) {
-        longVal = readLong(dStream);
+    public void read(ConstPool pool, int offset) {
+        longVal = readLong(pool, offset);
     }
 
     public String getString() {
@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 // base class for sub classes that need to
 // convert a high and low int to a long
 abstract class constLongConvert extends constBase {
@@ -29,12 +27,12 @@ abstract class constLongConvert extends constBase {
         return l;
     } // toLong
 
-    protected long readLong(DataInputStream dStream) {
+    protected long readLong(ConstPool pool, int offset) {
         int high, low;
         long l;
 
-        high = readU4(dStream);
-        low = readU4(dStream);
+        high = pool.u4At(offset);
+        low = pool.u4At(offset + 4);
         l = toLong(high, low);
         return l;
     }
@@ -0,0 +1,70 @@
+package javad.jconst;
+
+/*
+ * constMethodHandle
+ *
+
+    CONSTANT_MethodHandle_info {
+       u1 tag;
+       u1 reference_kind;
+       u2 reference_index;
+    }
+
+   The reference kind (1 - 9) tells what the handle does: get or
+   put a field, invoke a method of some kind.  The reference index
+   refers to a field, method or interface method ref. entry.
+
+ */
+public class constMethodHandle extends constBase {
+    private static final String[] kindNames = {
+            null, "getField", "getStatic", "putField", "putStatic",
+            "invokeVirtual", "invokeStatic", "invokeSpecial",
+            "newInvokeSpecial", "invokeInterface"
+    };
+
+    int reference_kind;
+    int reference_index;
+    constRef ref;
+
+    void read(ConstPool pool, int offset) {
+        reference_kind = pool.u1At(offset);
+        reference_index = pool.u2At(offset + 1);
+    }
+
+    public void set_ref(ConstPool pool) {
+        constBase tmp = pool.constPoolElem(reference_index);
+
+        if (tmp instanceof constRef) {
+            ref = (constRef) tmp;
+        } else {
+            System.out.println("object at const. pool index " + reference_index +
+                    " is not a constRef");
+        }
+    } // set_ref
+
+
+    public String getString() {
+        StringBuilder str = new StringBuilder();
+
+        str.append(getName());
+        str.append(": ");
+        if (reference_kind > 0 && reference_kind < kindNames.length) {
+            str.append(kindNames[reference_kind]);
+        } else {
+            str.append("kind ").append(reference_kind);
+        }
+        str.append(" ");
+        if (ref != null) {
+            str.append(ref.getString());
+        } else {
+            str.append("null ref");
+        }
+        return str.toString();
+    } // getString
+
+
+    public void pr() {
+        System.out.print(getString());
+    } // pr
+
+} // constMethodHandle
@@ -0,0 +1,27 @@
+package javad.jconst;
+
+/*
+ * constMethodType
+ *
+
+    CONSTANT_MethodType_info {
+       u1 tag;
+       u2 descriptor_index;
+    }
+
+   The descriptor index refers to a CONSTANT_Utf8 entry holding a
+   method descriptor.  The descriptor is kept as it is, it is not a
+   class name.
+
+ */
+public class constMethodType extends constClass_or_String {
+
+    public String getName() {
+        return getString();
+    }
+
+    public void prString() {
+        System.out.print(getString());
+    }
+
+} // constMethodType
@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 /*
  * constName_and_Type_info
  *
@@ -34,14 +32,14 @@ public class constName_and_Type_info extends constClass_or_String {
     int descriptor_index;
     constUtf8 descriptor_Utf8;
 
-    public void read(DataInputStream dStream) {
-        super.read(dStream);
-        descriptor_index = readUnsignedShort(dStream);
+    public void read(ConstPool pool, int offset) {
+        super.read(pool, offset);
+        descriptor_index = pool.u2At(offset + 2);
     }
 
-    public void set_ref(constBase[] objAry) {
-        super.set_ref(objAry);
-        constBase tmp = objAry[descriptor_index];
+    public void set_ref(ConstPool pool) {
+        super.set_ref(pool);
+        constBase tmp = pool.constPoolElem(descriptor_index);
 
         if (tmp instanceof constUtf8) {
             descriptor_Utf8 = (constUtf8) tmp;
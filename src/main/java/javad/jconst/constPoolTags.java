@@ -35,5 +35,14 @@ interface constPoolTags {
     int CONSTANT_Double = 6;
     int CONSTANT_NameAndType = 12;
     int CONSTANT_Utf8 = 1;
+    // Java 7
+    int CONSTANT_MethodHandle = 15;
+    int CONSTANT_MethodType = 16;
+    int CONSTANT_InvokeDynamic = 18;
+    // Java 9
+    int CONSTANT_Module = 19;
+    int CONSTANT_Package = 20;
+    // Java 11
+    int CONSTANT_Dynamic = 17;
 } // interface constPoolTags
 
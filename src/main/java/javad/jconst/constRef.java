@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 /**
  * The constRef object represents CONSTANT_FieldRef,
  * CONSTANT_MethodRef and CONSTANT_InterfaceMethodRef.
@@ -43,13 +41,13 @@ public class constRef extends constBase {
     constClass_or_String class_ref;
     constName_and_Type_info name_ref;
 
-    public void read(DataInputStream dStream) {
-        index = readUnsignedShort(dStream);
-        name_and_type_index = readUnsignedShort(dStream);
+    public void read(ConstPool pool, int offset) {
+        index = pool.u2At(offset);
+        name_and_type_index = pool.u2At(offset + 2);
     }
 
-    public void set_ref(constBase[] objAry) {
-        constBase tmp = objAry[index];
+    public void set_ref(ConstPool pool) {
+        constBase tmp = pool.constPoolElem(index);
 
         if (tmp instanceof constClass_or_String) {
             class_ref = (constClass_or_String) tmp;
@@ -58,7 +56,7 @@ public class constRef extends constBase {
                     " is not a constClass_or_String");
         }
 
-        tmp = objAry[name_and_type_index];
+        tmp = pool.constPoolElem(name_and_type_index);
         if (tmp instanceof constName_and_Type_info) {
             name_ref = (constName_and_Type_info) tmp;
         } else {
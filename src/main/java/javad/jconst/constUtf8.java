@@ -14,8 +14,6 @@
 
 package javad.jconst;
 
-import java.io.*;
-
 /*
  * constUtf8
  *
@@ -28,48 +26,18 @@ import java.io.*;
 
    See section 4.4.7 of the Java Virtual Machine Specification for a
    description of multi-byte character representation.  Bit twidling
-   in Java Dudes and Dudettes.
+   in Java Dudes and Dudettes.  The string is decoded by the ConstPool,
+   only when the entry is referenced.
 
  */
 public class constUtf8 extends constBase {
     private String str = null;
+    private int endOffset;
 
-    public void read(DataInputStream dStream) {
-        StringBuffer strBuf;
-        int len, charCnt;
-        byte one_byte;
-        char one_char;
-
-        one_char = '\u0000';
-        len = readUnsignedShort(dStream);
-        strBuf = new StringBuffer();
-        charCnt = 0;
-        while (charCnt < len) {
-            one_byte = (byte) readU1(dStream);
-            charCnt++;
-            if ((one_byte >> 7) == 1) {
-                short tmp;
-
-                // its a multi-byte character
-                tmp = (short) (one_byte & 0x3f);  // Bits 5..0 (six bits)
-                // read the next byte
-                one_byte = (byte) readU1(dStream);
-                charCnt++;
-                tmp = (short) (tmp | ((one_byte & 0x3f) << 6));
-                if ((one_byte >> 6) == 0x2) {
-                    // We have 12 bits so far, get bits 15..12
-                    one_byte = (byte) readU1(dStream);
-                    charCnt++;
-                    one_byte = (byte) (one_byte & 0xf);
-                    tmp = (short) (tmp | (one_byte << 12));
-                }
-                one_char = (char) tmp;
-            } else {
-                one_char = (char) one_byte;
-            }
-            strBuf.append(one_char);
-        } // while
-        str = strBuf.toString();
+    public void read(ConstPool pool, int offset) {
+        str = pool.utf8At(offset);
+        // offset within the class file, kept for pr_data
+        endOffset = pool.poolOffset(offset + 2 + pool.u2At(offset));
     } // read
 
 
@@ -131,7 +99,7 @@ public class constUtf8 extends constBase {
     public void pr_data() {
         int len = str.length();
 
-        System.out.println("end offset = " + getBytesRead());
+        System.out.println("end offset = " + endOffset);
         System.out.println(str);
         for (int i = 0; i < str.length(); i++) {
             System.out.print(Integer.toHexString(str.charAt(i)) + " ");
@@ -0,0 +1,88 @@
+package javad.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads a class file held in memory. Multi-byte values and arrays are read at once, with a single bounds check,
+ * instead of a call (and an exception handler) per byte.
+ *
+ * @author Igor Polevoy
+ */
+public class BufferClassInput implements ClassInput {
+
+    private final ByteBuffer buffer;
+    private final int start;
+
+    /**
+     * @param classBytes - class file, from position to limit; the buffer itself is not modified
+     */
+    public BufferClassInput(ByteBuffer classBytes) {
+        buffer = classBytes.duplicate().order(ByteOrder.BIG_ENDIAN);
+        start = buffer.position();
+    }
+
+    /**
+     * @param classBytes - class file
+     */
+    public BufferClassInput(byte[] classBytes) {
+        this(ByteBuffer.wrap(classBytes));
+    }
+
+    public int readU1() {
+        if (!buffer.hasRemaining()) {
+            return endOfData("readU1");
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    public int readU2() {
+        if (buffer.remaining() < 2) {
+            return endOfData("readUnsignedShort");
+        }
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    public int readU4() {
+        if (buffer.remaining() < 4) {
+            return endOfData("readU4");
+        }
+        return buffer.getInt();
+    }
+
+    public void readFully(byte[] bytes) {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    public void readFully(byte[] bytes, int offset, int length) {
+        //a length read as u4 of 2GB or more is negative, the file is damaged
+        if (length < 0 || buffer.remaining() < length) {
+            endOfData("readFully");
+            return;
+        }
+        buffer.get(bytes, offset, length);
+    }
+
+    public void skip(int length) {
+        if (length < 0 || buffer.remaining() < length) {
+            endOfData("skip");
+            return;
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    public ByteBuffer remainingInArray() {
+        // a read only buffer gives no access to its array
+        return buffer.hasArray() ? buffer.duplicate() : null;
+    }
+
+    public int position() {
+        return buffer.position() - start;
+    }
+
+    private int endOfData(String method) {
+        ErrorMessage.errorPrint("(" + method + "): unexpected end of file");
+        buffer.position(buffer.limit());
+        return -1;
+    }
+}
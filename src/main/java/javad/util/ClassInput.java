@@ -0,0 +1,63 @@
+package javad.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Source of class file data for the parser. Values are big endian and unsigned, as in class files.
+ * <p>
+ * Implementations do not throw on errors: a problem is reported through {@link ErrorMessage} and -1 is returned,
+ * the same way the parser always handled damaged class files.
+ *
+ * @author Igor Polevoy
+ */
+public interface ClassInput {
+
+    /**
+     * @return next byte, 0 - 255
+     */
+    int readU1();
+
+    /**
+     * @return next two bytes as an unsigned short
+     */
+    int readU2();
+
+    /**
+     * @return next four bytes as an int
+     */
+    int readU4();
+
+    /**
+     * Reads bytes in bulk.
+     *
+     * @param bytes - filled with next bytes
+     */
+    void readFully(byte[] bytes);
+
+    /**
+     * Reads bytes in bulk.
+     *
+     * @param bytes  - array to fill
+     * @param offset - index of first byte to fill
+     * @param length - number of bytes to read
+     */
+    void readFully(byte[] bytes, int offset, int length);
+
+    /**
+     * @param length - number of bytes to skip
+     */
+    void skip(int length);
+
+    /**
+     * Gives the rest of the input to be read in place, without copying it. The input does not move.
+     *
+     * @return rest of the input from position to limit, backed by an accessible array; null if the input is not
+     * held in an array
+     */
+    ByteBuffer remainingInArray();
+
+    /**
+     * @return number of bytes read (or skipped) so far
+     */
+    int position();
+}
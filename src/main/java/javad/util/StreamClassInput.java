@@ -0,0 +1,105 @@
+package javad.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a class file from a stream.
+ *
+ * @author Igor Polevoy
+ */
+public class StreamClassInput implements ClassInput {
+
+    private final DataInputStream dStream;
+    private int position;
+
+    /**
+     * @param dStream - stream positioned at the start of a class file
+     */
+    public StreamClassInput(DataInputStream dStream) {
+        this.dStream = dStream;
+    }
+
+    public int readU1() {
+        try {
+            int byteVal = dStream.readUnsignedByte();
+            position++;
+            return byteVal;
+        } catch (IOException e) {
+            error("readU1", e);
+            return -1;
+        }
+    }
+
+    public int readU2() {
+        try {
+            int shortVal = dStream.readUnsignedShort();
+            position += 2;
+            return shortVal;
+        } catch (IOException e) {
+            error("readUnsignedShort", e);
+            return -1;
+        }
+    }
+
+    public int readU4() {
+        try {
+            int intVal = dStream.readInt();
+            position += 4;
+            return intVal;
+        } catch (IOException e) {
+            error("readU4", e);
+            return -1;
+        }
+    }
+
+    public void readFully(byte[] bytes) {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    public void readFully(byte[] bytes, int offset, int length) {
+        try {
+            dStream.readFully(bytes, offset, length);
+            position += length;
+        } catch (IOException e) {
+            error("readFully", e);
+        }
+    }
+
+    public void skip(int length) {
+        try {
+            //skipBytes may skip less than asked, without reaching the end of stream
+            int skipped = 0;
+            while (skipped < length) {
+                int n = dStream.skipBytes(length - skipped);
+                if (n == 0) {
+                    //throws at the end of stream
+                    dStream.readByte();
+                    n = 1;
+                }
+                skipped += n;
+                position += n;
+            }
+        } catch (IOException e) {
+            error("skip", e);
+        }
+    }
+
+    public ByteBuffer remainingInArray() {
+        return null;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    private static void error(String method, IOException e) {
+        if (e instanceof EOFException) {
+            ErrorMessage.errorPrint("(" + method + "): unexpected end of file" + e.getMessage());
+        } else {
+            ErrorMessage.errorPrint("(" + method + "): " + e.getMessage());
+        }
+    }
+}
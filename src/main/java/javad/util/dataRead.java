@@ -14,22 +14,17 @@
 
 package javad.util;
 
-import java.io.*;
-
 /*
  * dataRead
  *
 
-   Support read of u1, u2 and u4 data items.
+   Support read of u1, u2 and u4 data items.  The data comes from a
+   ClassInput, which reports read errors itself and keeps the
+   position of its own parse, so dataRead holds no state and many
+   classes may be parsed at once.
 
  */
 public class dataRead {
-    private static int bytesRead = 0;
-
-    public final int getBytesRead() {
-        return bytesRead;
-    }
-
     //
     // readU1: read an 8-bit byte
     //
@@ -37,80 +32,41 @@ public class dataRead {
     // unsigned types is a pain.  What would be nice is an unsigned
     // byte.
     //
-    public final int readU1(DataInputStream dStream) {
-        int byteVal = -1;
-
-        try {
-            byteVal = dStream.readUnsignedByte();
-            bytesRead++;
-        } catch (Exception e) {
-            if (e instanceof IOException) {
-                if (!(e instanceof EOFException)) {
-                    ErrorMessage.errorPrint("(readU1): " + e.getMessage());
-                } else {
-                    ErrorMessage.errorPrint("(readU1): unexpected end of file" +
-                            e.getMessage());
-                }
-            } else {
-                ErrorMessage.errorPrint("(readU1): " + e.toString() +
-                        "unexpected exception");
-            }
-        } // catch
-
-        return byteVal;
+    public final int readU1(ClassInput input) {
+        return input.readU1();
     } // readU1
 
 
     //
     // readU2: read a 16-bit unsigned short
     //
-    public final int readUnsignedShort(DataInputStream dStream) {
-        int shortVal = -1;
-
-        try {
-            shortVal = dStream.readUnsignedShort();
-            bytesRead += 2;
-        } catch (Exception e) {
-            if (e instanceof IOException) {
-                if (!(e instanceof EOFException)) {
-                    ErrorMessage.errorPrint("(readUnsignedShort): " + e.getMessage());
-                } else {
-                    ErrorMessage.errorPrint("(readUnsignedShort): unexpected end of file" +
-                            e.getMessage());
-                }
-            } else {
-                ErrorMessage.errorPrint("(readUnsignedShort): " + e.toString() +
-                        "unexpected exception");
-            }
-        } // catch
-        return shortVal;
+    public final int readUnsignedShort(ClassInput input) {
+        return input.readU2();
     } // readU2
 
 
     //
     // readU4: read a 32-bit int
     //
-    public final int readU4(DataInputStream dStream) {
-        int intVal = -1;
-
-        try {
-            intVal = dStream.readInt();
-            bytesRead += 4;
-        } catch (Exception e) {
-            if (e instanceof IOException) {
-                if (!(e instanceof EOFException)) {
-                    ErrorMessage.errorPrint("(readU4): " + e.getMessage());
-                } else {
-                    ErrorMessage.errorPrint("(readU4): unexpected end of file" +
-                            e.getMessage());
-                }
-            } else {
-                ErrorMessage.errorPrint("(readU4): " + e.toString() +
-                        "unexpected exception");
-            }
-        } // catch
-        return intVal;
+    public final int readU4(ClassInput input) {
+        return input.readU4();
     } // readU4
 
+
+    //
+    // readBytes: read an array of bytes at once
+    //
+    public final void readBytes(ClassInput input, byte[] bytes) {
+        input.readFully(bytes);
+    } // readBytes
+
+
+    //
+    // skip: skip data which is of no interest
+    //
+    public final void skip(ClassInput input, int len) {
+        input.skip(len);
+    } // skip
+
 } // dataRead
 
@@ -0,0 +1,171 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Keeps recently used archives open, so that reading resources one after another (browsing classes of a jar) does
+ * not open an archive and parse its central directory every time. Archive files are mapped into memory, contents of
+ * STORED entries are slices of the mapping; DEFLATED entries are inflated into a buffer of the size recorded in the
+ * central directory. Nested archives are cached as well, a DEFLATED one is inflated only once.
+ * <p>
+ * The cache holds a bounded number of archives, the least recently used one is dropped first. An archive whose
+ * file changed since it was opened (by size or modification time) is opened again. Dropped archives are closed,
+ * which unmaps their files, once no read of them is under way.
+ *
+ * @author Igor Polevoy
+ */
+public class ArchiveCache {
+
+    private static final ArchiveCache SHARED = new ArchiveCache(16);
+
+    private final int capacity;
+    //access ordered, eldest is least recently used
+    private final LinkedHashMap<String, CachedArchive> archives = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param capacity - maximum number of archives kept open
+     */
+    public ArchiveCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * @return cache shared by the application
+     */
+    public static ArchiveCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Reads content of an archive entry.
+     *
+     * @param archivePath - path to archive, may be a path of a nested archive, see {@link ArchiveData#open(String)}
+     * @param entryName   - path of entry in archive
+     * @return uncompressed content from position to limit, read only, a slice of the mapped archive file if the
+     * entry is STORED: to be used right away, it is no longer valid once the archive is dropped from cache
+     * @throws FileNotFoundException if there is no such entry
+     * @throws IOException           in case of io problem
+     */
+    public ByteBuffer read(String archivePath, String entryName) throws IOException {
+        CachedArchive cached = acquire(archivePath);
+        try {
+            ArchiveEntry entry = cached.archive.getEntry(entryName);
+            if (entry == null) {
+                throw new FileNotFoundException(entryName + " not found in " + archivePath);
+            }
+            return cached.archive.read(entry).asReadOnlyBuffer();
+        } finally {
+            release(cached);
+        }
+    }
+
+    /**
+     * @param archivePath - path to archive, may be a path of a nested archive
+     * @return open archive, not to be closed by caller, closed by cache once it is dropped
+     * @throws IOException in case of io problem, or if archive is not a zip archive
+     */
+    public ArchiveData get(String archivePath) throws IOException {
+        CachedArchive cached = acquire(archivePath);
+        release(cached);
+        return cached.archive;
+    }
+
+    /**
+     * Drops all archives.
+     */
+    public synchronized void clear() {
+        for (CachedArchive cached : archives.values()) {
+            drop(cached);
+        }
+        archives.clear();
+    }
+
+    /**
+     * @return number of archives held
+     */
+    public synchronized int size() {
+        return archives.size();
+    }
+
+    /**
+     * @return archive, which is not closed until it is released
+     */
+    private CachedArchive acquire(String archivePath) throws IOException {
+        File file = new File(outerPath(archivePath));
+        long size = file.length();
+        long lastModified = file.lastModified();
+        synchronized (this) {
+            CachedArchive cached = archives.get(archivePath);
+            if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                cached.readers++;
+                return cached;
+            }
+        }
+        //opened off the lock, several threads may open the same archive, last one is kept
+        CachedArchive cached = new CachedArchive(ArchiveData.open(archivePath, true), size, lastModified);
+        synchronized (this) {
+            cached.readers++;
+            CachedArchive replaced = archives.put(archivePath, cached);
+            if (replaced != null) {
+                drop(replaced);
+            }
+            for (Iterator<CachedArchive> i = archives.values().iterator(); archives.size() > capacity; ) {
+                drop(i.next());
+                i.remove();
+            }
+        }
+        return cached;
+    }
+
+    private synchronized void release(CachedArchive cached) {
+        cached.readers--;
+        if (cached.dropped && cached.readers == 0) {
+            close(cached.archive);
+        }
+    }
+
+    /**
+     * Closes an archive removed from cache, or has its last reader close it.
+     */
+    private static void drop(CachedArchive cached) {
+        cached.dropped = true;
+        if (cached.readers == 0) {
+            close(cached.archive);
+        }
+    }
+
+    private static String outerPath(String archivePath) {
+        int separator = archivePath.indexOf(ArchiveData.SEPARATOR);
+        return separator < 0 ? archivePath : archivePath.substring(0, separator);
+    }
+
+    private static void close(ArchiveData archive) {
+        try {
+            archive.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class CachedArchive {
+        final ArchiveData archive;
+        final long size;
+        final long lastModified;
+        //reads under way, guarded by cache
+        int readers;
+        boolean dropped;
+
+        CachedArchive(ArchiveData archive, long size, long lastModified) {
+            this.archive = archive;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
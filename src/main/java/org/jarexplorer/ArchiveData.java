@@ -0,0 +1,399 @@
+package org.jarexplorer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+
+/**
+ * Random access to entries of a zip archive, which is either a region of a file or a buffer in memory.
+ * <p>
+ * Archives nested in other archives are opened without extracting them to disk. A nested archive which is STORED
+ * is a region of the file of the outer archive (or a slice of its buffer), so nothing is copied; one which is
+ * DEFLATED is inflated into memory. Nested archives are addressed with paths like
+ * <code>outer.war!/WEB-INF/lib/inner.jar</code>, see {@link #open(String)}.
+ * <p>
+ * Nested archives in a region of a file share the file with the outer archive, closing any of them closes the file.
+ * Nested archives of a mapped file share the mapping, closing the outer archive unmaps it.
+ * An archive may be read by several threads at once.
+ *
+ * @author Igor Polevoy
+ */
+public abstract class ArchiveData implements Closeable {
+
+    /**
+     * Separates names of nested archives (and entries in them) from the name of the archive they are in
+     */
+    public static final String SEPARATOR = "!/";
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    //largest array a VM will allocate
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private List<ArchiveEntry> entries;
+    private HashMap<String, ArchiveEntry> entriesByName;
+
+    /**
+     * Opens an archive file, or an archive nested in archive files.
+     *
+     * @param path - path to archive file, followed by names of nested archives, each preceded by
+     *             {@link #SEPARATOR}, for example <code>/lib/outer.war!/WEB-INF/lib/inner.jar</code>
+     * @return archive, to be closed by caller
+     * @throws IOException if a file cannot be read, a nested archive is not found, or is not a zip archive
+     */
+    public static ArchiveData open(String path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     * Opens an archive file, or an archive nested in archive files.
+     *
+     * @param path   - path to archive file, followed by names of nested archives, see {@link #open(String)}
+     * @param mapped - true to map the archive file into memory, then contents of STORED entries are returned as
+     *               slices of the mapping. Closing the archive unmaps the file, contents read from it and archives
+     *               nested in it must not be used after that. Files of 2GB and more cannot be mapped, those are
+     *               read as usual.
+     * @return archive, to be closed by caller
+     * @throws IOException if a file cannot be read, a nested archive is not found, or is not a zip archive
+     */
+    public static ArchiveData open(String path, boolean mapped) throws IOException {
+        int separator = path.indexOf(SEPARATOR);
+        RandomAccessFile file = new RandomAccessFile(separator < 0 ? path : path.substring(0, separator), "r");
+        ArchiveData data;
+        try {
+            long length = file.length();
+            //mapping stays valid after the file is closed
+            data = mapped && length <= Integer.MAX_VALUE
+                    ? new MappedFile(file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length))
+                    : new FileRegion(file, 0, length);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        try {
+            while (separator >= 0) {
+                int next = path.indexOf(SEPARATOR, separator + SEPARATOR.length());
+                String name = path.substring(separator + SEPARATOR.length(), next < 0 ? path.length() : next);
+                ArchiveEntry entry = data.getEntry(name);
+                if (entry == null) {
+                    throw new ZipException(name + " not found in " + path.substring(0, separator));
+                }
+                data = data.openNested(entry);
+                separator = next;
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        if (!(data instanceof FileRegion)) {
+            //mapped or inflated into memory, file is no longer needed
+            file.close();
+        }
+        return data;
+    }
+
+    /**
+     * @return all entries in central directory order, including directories
+     * @throws ZipException if the central directory cannot be read
+     */
+    public synchronized List<ArchiveEntry> getEntries() throws IOException {
+        if (entries == null) {
+            entries = readDirectory();
+        }
+        return entries;
+    }
+
+    /**
+     * Takes entries of the archive read already, so that its central directory is not read again.
+     *
+     * @param entries - all entries in central directory order, see {@link CentralDirectory#list(String)}
+     */
+    synchronized void setEntries(List<ArchiveEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param name - path of entry in archive
+     * @return entry, null if archive has no entry of that name
+     * @throws ZipException if the central directory cannot be read
+     */
+    public synchronized ArchiveEntry getEntry(String name) throws IOException {
+        if (entriesByName == null) {
+            HashMap<String, ArchiveEntry> map = new HashMap<>();
+            for (ArchiveEntry entry : getEntries()) {
+                map.put(entry.getName(), entry);
+            }
+            entriesByName = map;
+        }
+        return entriesByName.get(name);
+    }
+
+    /**
+     * Reads content of an entry.
+     *
+     * @param entry - entry of this archive, as returned by {@link #getEntries()}
+     * @return uncompressed content, from position to limit. Content of a STORED entry of an archive in memory
+     * (or mapped into memory) is a read only view, nothing is copied.
+     * @throws ZipException if the entry is damaged or compressed with an unsupported method
+     */
+    public ByteBuffer read(ArchiveEntry entry) throws IOException {
+        long position = dataPosition(entry);
+        long compressedSize = entry.getCompressedSize();
+        if (entry.getMethod() == ArchiveEntry.STORED) {
+            if (compressedSize > MAX_ARRAY_SIZE) {
+                throw new ZipException(entry.getName() + " is too large");
+            }
+            return read(position, (int) compressedSize);
+        }
+        if (entry.getMethod() != ArchiveEntry.DEFLATED) {
+            throw new ZipException(entry.getName() + ": unsupported compression method " + entry.getMethod());
+        }
+        return inflate(entry, position);
+    }
+
+    /**
+     * Opens an archive stored as an entry of this one.
+     *
+     * @param entry - entry of this archive
+     * @return nested archive, sharing the file of this one if entry is not compressed
+     * @throws ZipException if the entry is damaged or compressed with an unsupported method
+     */
+    public ArchiveData openNested(ArchiveEntry entry) throws IOException {
+        if (entry.getMethod() == ArchiveEntry.STORED) {
+            return region(dataPosition(entry), entry.getCompressedSize());
+        }
+        return new MemoryRegion(read(entry));
+    }
+
+    /**
+     * @return position of entry data, right after its local header
+     */
+    private long dataPosition(ArchiveEntry entry) throws IOException {
+        long offset = entry.getLocalHeaderOffset();
+        if (offset < 0 || entry.getCompressedSize() < 0 || offset + LOCAL_HEADER_SIZE > length()) {
+            throw new ZipException(entry.getName() + ": position of entry is not known");
+        }
+        ByteBuffer header = read(offset, LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException(entry.getName() + ": invalid local header");
+        }
+        //name and extra field may differ from those in central directory
+        long position = offset + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+        if (position + entry.getCompressedSize() > length()) {
+            throw new EOFException(entry.getName() + ": unexpected end of archive");
+        }
+        return position;
+    }
+
+    private ByteBuffer inflate(ArchiveEntry entry, long position) throws IOException {
+        long size = entry.getSize();
+        if (size > MAX_ARRAY_SIZE) {
+            throw new ZipException(entry.getName() + " is too large");
+        }
+        //size is known from central directory, so the buffer never needs to grow
+        byte[] out = new byte[size < 0 ? CHUNK_SIZE : (int) size];
+        int outLength = 0;
+        byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, Math.max(1, entry.getCompressedSize()))];
+        long remaining = entry.getCompressedSize();
+        boolean padded = false;
+        Inflater inflater = new Inflater(true);
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (remaining == 0) {
+                        if (padded) {
+                            throw new ZipException(entry.getName() + ": truncated compressed data");
+                        }
+                        //raw deflate may need one byte past the data
+                        inflater.setInput(new byte[1]);
+                        padded = true;
+                    } else {
+                        int length = (int) Math.min(chunk.length, remaining);
+                        read(position, length).get(chunk, 0, length);
+                        position += length;
+                        remaining -= length;
+                        inflater.setInput(chunk, 0, length);
+                    }
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException(entry.getName() + ": invalid compressed data");
+                }
+                if (outLength == out.length) {
+                    if (size < 0 && out.length < MAX_ARRAY_SIZE) {
+                        out = Arrays.copyOf(out, (int) Math.min(MAX_ARRAY_SIZE, out.length * 2L));
+                    } else if (inflater.inflate(new byte[1]) > 0) {
+                        throw new ZipException(entry.getName() + ": larger than its recorded size");
+                    } else {
+                        continue;
+                    }
+                }
+                outLength += inflater.inflate(out, outLength, out.length - outLength);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(entry.getName() + ": " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        if (size >= 0 && outLength != size) {
+            throw new ZipException(entry.getName() + ": smaller than its recorded size");
+        }
+        return ByteBuffer.wrap(out, 0, outLength);
+    }
+
+    /**
+     * @return length of the archive in bytes
+     */
+    protected abstract long length();
+
+    /**
+     * @return bytes of the archive, from position to limit, little endian
+     */
+    protected abstract ByteBuffer read(long position, int length) throws IOException;
+
+    /**
+     * @return part of this archive, as an archive
+     */
+    protected abstract ArchiveData region(long position, long length) throws IOException;
+
+    protected abstract List<ArchiveEntry> readDirectory() throws IOException;
+
+    /**
+     * Archive which is a whole file, or a region of it.
+     */
+    private static class FileRegion extends ArchiveData {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final long start;
+        private final long length;
+
+        FileRegion(RandomAccessFile file, long start, long length) {
+            this.file = file;
+            this.channel = file.getChannel();
+            this.start = start;
+            this.length = length;
+        }
+
+        protected long length() {
+            return length;
+        }
+
+        protected ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + position + buffer.position()) < 0) {
+                    throw new EOFException("unexpected end of archive");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        protected ArchiveData region(long position, long length) {
+            return new FileRegion(file, start + position, length);
+        }
+
+        protected List<ArchiveEntry> readDirectory() throws IOException {
+            return CentralDirectory.read(channel, start, length);
+        }
+
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * Archive held in memory, or a region of it.
+     */
+    private static class MemoryRegion extends ArchiveData {
+        private final ByteBuffer buffer;
+
+        /**
+         * @param buffer - archive, from position to limit
+         */
+        MemoryRegion(ByteBuffer buffer) {
+            this.buffer = buffer.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        protected long length() {
+            return buffer.limit();
+        }
+
+        protected ByteBuffer read(long position, int length) throws IOException {
+            if (position + length > buffer.limit()) {
+                throw new EOFException("unexpected end of archive");
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.limit((int) position + length);
+            view.position((int) position);
+            return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        protected ArchiveData region(long position, long length) throws IOException {
+            return new MemoryRegion(read(position, (int) length));
+        }
+
+        protected List<ArchiveEntry> readDirectory() throws ZipException {
+            return CentralDirectory.read(buffer.duplicate());
+        }
+
+        public void close() {
+        }
+    }
+
+    /**
+     * Archive file mapped into memory. The mapping is released when the archive is closed rather than whenever the
+     * garbage collector gets to it, until then the file cannot be replaced or deleted on Windows.
+     */
+    private static class MappedFile extends MemoryRegion {
+        private MappedByteBuffer mapping;
+
+        MappedFile(MappedByteBuffer mapping) {
+            super(mapping);
+            this.mapping = mapping;
+        }
+
+        public synchronized void close() {
+            if (mapping != null) {
+                unmap(mapping);
+                mapping = null;
+            }
+        }
+
+        private static void unmap(MappedByteBuffer mapping) {
+            try {
+                //Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field unsafe = unsafeClass.getDeclaredField("theUnsafe");
+                unsafe.setAccessible(true);
+                unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe.get(null), mapping);
+            } catch (NoSuchMethodException e) {
+                //Java 7 and 8
+                try {
+                    Method cleaner = mapping.getClass().getMethod("cleaner");
+                    cleaner.setAccessible(true);
+                    Object clean = cleaner.invoke(mapping);
+                    clean.getClass().getMethod("clean").invoke(clean);
+                } catch (ReflectiveOperationException | RuntimeException e1) {
+                    //left to the garbage collector
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                //left to the garbage collector
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.jarexplorer;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds archives in a directory tree. Subtrees are walked with <code>Files.walkFileTree</code> in parallel: a walker
+ * which meets a directory hands it to another task while there are few tasks waiting, otherwise it descends into it
+ * itself. Attributes come with the directory listing where the platform supports it, so a file is not stat'd twice.
+ * <p>
+ * Tasks run on virtual threads when the runtime has them (Java 21 and later), otherwise on a fixed pool; walking a
+ * tree is mostly waiting for the file system, so the pool is larger than the number of processors.
+ * <p>
+ * Symbolic links are followed only when they lead out of the tree, and only once per target, so that an archive is
+ * not reported twice and link cycles end. Archives reached through links are reported by their real paths.
+ *
+ * @author Igor Polevoy
+ */
+public class ArchiveDiscovery {
+
+    /**
+     * Receives archives found. Called from many threads at once.
+     */
+    public interface Listener {
+
+        /**
+         * @return true if the walk should be abandoned as soon as possible
+         */
+        boolean isStopped();
+
+        /**
+         * @param archive - fully qualified path to archive
+         * @throws InterruptedException to abandon the walk
+         */
+        void archiveFound(String archive) throws InterruptedException;
+    }
+
+    /**
+     * Counters of a walk, safe to read while it is in progress.
+     */
+    public static class Metrics {
+        private final AtomicLong directories = new AtomicLong();
+        private final AtomicLong files = new AtomicLong();
+        private final AtomicLong archives = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final long start = System.nanoTime();
+        private volatile long end;
+
+        /**
+         * @return number of directories listed
+         */
+        public long getDirectoriesVisited() {
+            return directories.get();
+        }
+
+        /**
+         * @return number of files whose attributes were read, archives or not
+         */
+        public long getFilesStated() {
+            return files.get();
+        }
+
+        /**
+         * @return number of archives found
+         */
+        public long getArchivesFound() {
+            return archives.get();
+        }
+
+        /**
+         * @return number of files and directories which could not be read, these are skipped
+         */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @return time the walk took so far, in milliseconds
+         */
+        public long getElapsedMillis() {
+            return ((end == 0 ? System.nanoTime() : end) - start) / 1000000;
+        }
+
+        public double getArchivesPerSecond() {
+            return archives.get() * 1000.0 / Math.max(1, getElapsedMillis());
+        }
+
+        @Override
+        public String toString() {
+            return archives.get() + " archives in " + directories.get() + " directories (" + files.get()
+                    + " files) in " + getElapsedMillis() + " ms, " + Math.round(getArchivesPerSecond())
+                    + " archives/s";
+        }
+    }
+
+    //tasks waiting per thread before walkers stop handing out directories
+    private static final int PENDING_PER_THREAD = 4;
+    //tasks waiting before walkers stop handing out directories, when running on virtual threads
+    private static final int PENDING_VIRTUAL = 256;
+
+    private final ExtensionMatcher matcher;
+    private final int threads;
+
+    /**
+     * @param matcher - tells archives by their names
+     * @param threads - number of platform threads to walk with when virtual threads are not available
+     */
+    public ArchiveDiscovery(ExtensionMatcher matcher, int threads) {
+        this.matcher = matcher;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Walks a tree, returns when the whole tree was walked, or the walk was stopped.
+     *
+     * @param root     - root directory, should be a canonical path
+     * @param listener - receives archives found
+     * @return counters of the walk
+     * @throws InterruptedException if current thread was interrupted, or the listener abandoned the walk
+     */
+    public Metrics walk(final Path root, final Listener listener) throws InterruptedException {
+        Walk walk = new Walk(root, listener);
+        try {
+            walk.submit(root);
+            walk.done.await();
+        } finally {
+            walk.stopped = true;
+            walk.executor.shutdownNow();
+            walk.metrics.end = System.nanoTime();
+        }
+        if (walk.interrupted) {
+            throw new InterruptedException();
+        }
+        return walk.metrics;
+    }
+
+    /**
+     * @return executor starting a virtual thread per task, or null if the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * State of a single walk.
+     */
+    private class Walk {
+        final Path root;
+        final Listener listener;
+        final Metrics metrics = new Metrics();
+        final ExecutorService executor;
+        final int maxPending;
+        final AtomicInteger pending = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        //real paths of files and directories outside the tree reached through links
+        final Set<Path> linkedFiles = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+        final Set<Path> linkedDirectories = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+        volatile boolean stopped;
+        volatile boolean interrupted;
+
+        Walk(Path root, Listener listener) {
+            this.root = root;
+            this.listener = listener;
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                executor = virtual;
+                maxPending = PENDING_VIRTUAL;
+            } else {
+                //walkers mostly wait for the disk
+                int poolSize = threads * 2;
+                executor = Executors.newFixedThreadPool(poolSize);
+                maxPending = poolSize * PENDING_PER_THREAD;
+            }
+        }
+
+        void submit(final Path directory) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            walkSubtree(directory);
+                        } finally {
+                            finished();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                //shut down, walk is over
+                finished();
+            }
+        }
+
+        private void finished() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        private boolean isStopped() {
+            if (!stopped && listener.isStopped()) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        private void walkSubtree(final Path start) {
+            try {
+                Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE,
+                        new SimpleFileVisitor<Path>() {
+                            @Override
+                            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                                if (isStopped()) {
+                                    return FileVisitResult.TERMINATE;
+                                }
+                                if (!dir.equals(start) && pending.get() < maxPending) {
+                                    submit(dir);
+                                    return FileVisitResult.SKIP_SUBTREE;
+                                }
+                                metrics.directories.incrementAndGet();
+                                return FileVisitResult.CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                                metrics.files.incrementAndGet();
+                                if (attrs.isSymbolicLink()) {
+                                    visitLink(file);
+                                } else if (attrs.isRegularFile() && matcher.matches(file.getFileName().toString())) {
+                                    found(file);
+                                }
+                                return isStopped() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                                //unreadable directories and files are skipped, as they always were
+                                metrics.failures.incrementAndGet();
+                                return FileVisitResult.CONTINUE;
+                            }
+                        });
+            } catch (IOException e) {
+                metrics.failures.incrementAndGet();
+            }
+        }
+
+        private void visitLink(Path link) {
+            try {
+                Path target = link.toRealPath();
+                BasicFileAttributes attrs = Files.readAttributes(target, BasicFileAttributes.class);
+                //targets in the tree are found where they are
+                if (target.startsWith(root)) {
+                    return;
+                }
+                if (attrs.isRegularFile()) {
+                    if (matcher.matches(link.getFileName().toString()) && linkedFiles.add(target)) {
+                        found(target);
+                    }
+                } else if (attrs.isDirectory() && linkedDirectories.add(target)) {
+                    submit(target);
+                }
+            } catch (IOException e) {
+                //dangling link
+                metrics.failures.incrementAndGet();
+            }
+        }
+
+        private void found(Path archive) {
+            metrics.archives.incrementAndGet();
+            try {
+                listener.archiveFound(archive.toString());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                stopped = true;
+            }
+        }
+    }
+}
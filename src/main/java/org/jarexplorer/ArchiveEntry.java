@@ -0,0 +1,78 @@
+package org.jarexplorer;
+
+
+/**
+ * Describes a single entry of a zip archive, as recorded in the central directory of the archive.
+ * Sizes, CRC and offset are <code>-1</code> when not known, which is the case for archives read
+ * with a <code>ZipInputStream</code>.
+ *
+ * @author Igor Polevoy
+ */
+public class ArchiveEntry {
+
+    /**
+     * Compression method of entries stored without compression
+     */
+    public static final int STORED = 0;
+
+    /**
+     * Compression method of entries compressed with deflate
+     */
+    public static final int DEFLATED = 8;
+
+    private final String name;
+    private final int method;
+    private final long compressedSize;
+    private final long size;
+    private final long crc;
+    private final long localHeaderOffset;
+
+    /**
+     * @param name              - path of entry inside the archive
+     * @param method            - compression method, {@link #STORED} or {@link #DEFLATED}
+     * @param compressedSize    - size of entry data in the archive
+     * @param size              - size of entry data when uncompressed
+     * @param crc               - CRC-32 of uncompressed data
+     * @param localHeaderOffset - position of the local file header of this entry in the archive file
+     */
+    public ArchiveEntry(String name, int method, long compressedSize, long size, long crc, long localHeaderOffset) {
+        this.name = name;
+        this.method = method;
+        this.compressedSize = compressedSize;
+        this.size = size;
+        this.crc = crc;
+        this.localHeaderOffset = localHeaderOffset;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDirectory() {
+        return name.endsWith("/");
+    }
+
+    public int getMethod() {
+        return method;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getCrc() {
+        return crc;
+    }
+
+    public long getLocalHeaderOffset() {
+        return localHeaderOffset;
+    }
+
+    public String toString() {
+        return name;
+    }
+}
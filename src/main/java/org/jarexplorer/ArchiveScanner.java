@@ -0,0 +1,696 @@
+package org.jarexplorer;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Indexes all archives found under a root directory. The work is split in three stages, connected with queues:
+ * <ul>
+ * <li>discovery - {@link ArchiveDiscovery} walks the directory tree and queues every archive it finds</li>
+ * <li>reading - a bounded pool of workers reads entry lists of the queued archives, and in a deep scan parses
+ * their classes</li>
+ * <li>merge - the calling thread adds the entry lists to the {@link EntryIndex} and reports progress</li>
+ * </ul>
+ * Archives are fingerprinted by their central directory, which is read once for the fingerprint and the entries, see
+ * {@link CentralDirectory#list(String)}. An archive with the same fingerprint as one seen earlier in the scan
+ * is not parsed at all, it shares the entries of the first one in the index.
+ *
+ * @author Igor Polevoy
+ */
+public class ArchiveScanner {
+
+    /**
+     * Receives progress of a scan and tells the scanner when to give up.
+     */
+    public interface Listener {
+
+        /**
+         * @return true if the scan should be abandoned as soon as possible
+         */
+        boolean isStopped();
+
+        /**
+         * Called from the merge stage after an archive was added to the index.
+         *
+         * @param archive    - fully qualified path to archive
+         * @param indexed    - number of archives indexed so far
+         * @param discovered - number of archives discovered so far
+         */
+        void archiveIndexed(String archive, int indexed, int discovered);
+    }
+
+    //marks end of work in the archive queue
+    private static final String NO_MORE_ARCHIVES = new String("");
+
+    private final EntryIndex index;
+    private final ExtensionMatcher matcher;
+    private final int threads;
+    private boolean streaming;
+    private int nestingDepth;
+    private boolean deepIndex;
+    private EntryIndex previous;
+    private volatile ArchiveDiscovery.Metrics metrics;
+
+    /**
+     * @param index      - index to which entries will be added
+     * @param extensions - extensions of files to be treated as archives, without the leading dot
+     * @param threads    - number of threads reading archives, at least one is used
+     */
+    public ArchiveScanner(EntryIndex index, String[] extensions, int threads) {
+        this.index = index;
+        this.matcher = new ExtensionMatcher(extensions);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * By default entry lists are read from the central directory of archives. Streaming reads
+     * (and inflates) every entry instead, which is much slower, but can cope with some damaged archives.
+     *
+     * @param streaming - true to read archives with a <code>ZipInputStream</code>
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Archives nested in scanned archives (such as jars in <code>WEB-INF/lib</code> of a war) are indexed as archives
+     * of their own, named <code>outer.war!/WEB-INF/lib/inner.jar</code>. They are read without extracting them, see
+     * {@link ArchiveData}. By default nested archives are not indexed.
+     *
+     * @param nestingDepth - how deep to look into nested archives: 0 for not at all, 1 for archives in archives,
+     *                     2 for archives in those as well, and so on
+     */
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = Math.max(0, nestingDepth);
+    }
+
+    /**
+     * A deep scan parses every class of every archive as well, so that classes can be searched by what they
+     * declare, see {@link ClassIndex}. By default classes are not parsed.
+     *
+     * @param deepIndex - true to index declarations of classes
+     */
+    public void setDeepIndex(boolean deepIndex) {
+        this.deepIndex = deepIndex;
+    }
+
+    /**
+     * Archives which are in the previous index with the same size and modification time are not read again,
+     * their entries are taken from the previous index.
+     *
+     * @param previous - index of an earlier scan, for example one loaded by {@link IndexStore}, may be null
+     */
+    public void setPreviousIndex(EntryIndex previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * @return counters of the directory walk of the last scan, null if a single archive was scanned
+     */
+    public ArchiveDiscovery.Metrics getDiscoveryMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Indexes a single archive or all archives under a directory.
+     *
+     * @param root     - archive or root directory of the directory tree to be indexed
+     * @param listener - progress listener
+     * @return canonical paths of archives found, in order of discovery
+     * @throws IOException in case an archive or directory cannot be read
+     */
+    public ArrayList<String> scan(final File root, final Listener listener) throws IOException {
+        metrics = null;
+        final ArrayList<String> jarNameList = new ArrayList<>();
+        final BlockingQueue<String> archives = new ArrayBlockingQueue<>(threads * 64);
+        final BlockingQueue<ArchiveContent> contents = new LinkedBlockingQueue<>();
+        final Object discoveredLock = new Object();
+        final IOException[] discoveryError = new IOException[1];
+        //set by the merge stage when an archive could not be read, stops the other stages
+        final AtomicBoolean failed = new AtomicBoolean();
+        //fingerprint -> first archive with it
+        final ConcurrentHashMap<Long, String> fingerprints = new ConcurrentHashMap<>();
+
+        //stage 1: discovery
+        final ArchiveDiscovery.Listener discoveryListener = new ArchiveDiscovery.Listener() {
+            public boolean isStopped() {
+                return listener.isStopped() || failed.get();
+            }
+
+            public void archiveFound(String name) throws InterruptedException {
+                synchronized (discoveredLock) {
+                    jarNameList.add(name);
+                }
+                //the queue is drained by the workers, so this will not block forever
+                while (!archives.offer(name, 100, TimeUnit.MILLISECONDS)) {
+                    if (isStopped()) {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+        };
+        Thread discovery = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    if (root.isFile()) {
+                        discoveryListener.archiveFound(root.getCanonicalPath());
+                    } else {
+                        metrics = new ArchiveDiscovery(matcher, threads).walk(root.getCanonicalFile().toPath(),
+                                discoveryListener);
+                    }
+                } catch (IOException e) {
+                    discoveryError[0] = e;
+                } catch (InterruptedException e) {
+                    //stopped
+                } finally {
+                    for (int i = 0; i < threads; i++) {
+                        putUninterruptibly(archives, NO_MORE_ARCHIVES);
+                    }
+                }
+            }
+        }, "Archive Discovery");
+
+        //stage 2: reading
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(new Runnable() {
+                public void run() {
+                    try {
+                        for (String name = archives.take(); name != NO_MORE_ARCHIVES; name = archives.take()) {
+                            if (listener.isStopped() || failed.get()) {
+                                continue; // keep draining, so discovery is never blocked
+                            }
+                            File file = new File(name);
+                            long size = file.length();
+                            long lastModified = file.lastModified();
+                            try {
+                                Map<String, List<ArchiveEntry>> read = previous == null ? null
+                                        : getUnchangedArchives(previous, name, size, lastModified);
+                                Map<String, List<ClassDeclaration>> classes = null;
+                                if (read != null && deepIndex) {
+                                    classes = getUnchangedClasses(previous, read.keySet());
+                                    if (classes == null) {
+                                        //entries did not change, but classes were not parsed before
+                                        read = null;
+                                    }
+                                }
+                                //central directory is read once, for the fingerprint and for entries
+                                CentralDirectory.Listing listing = read == null ? list(name) : null;
+                                long fingerprint = read == null ? (listing == null ? 0 : listing.getFingerprint())
+                                        : previous.getFingerprint(name);
+                                String original = fingerprint == 0 ? null
+                                        : fingerprints.putIfAbsent(fingerprint, name);
+                                if (original != null && read == null) {
+                                    //same as an archive read already, or being read by another worker
+                                    contents.add(new ArchiveContent(name, size, lastModified, fingerprint, original));
+                                    continue;
+                                }
+                                if (read == null) {
+                                    read = readArchive(name, listing, streaming, matcher, nestingDepth);
+                                    if (deepIndex) {
+                                        classes = readClasses(name, read.keySet());
+                                    }
+                                }
+                                //nested archives first, so that all are merged when the archive itself is
+                                ArrayList<String> names = new ArrayList<>(read.keySet());
+                                for (int j = names.size() - 1; j >= 0; j--) {
+                                    String archive = names.get(j);
+                                    if (!archive.equals(name)) {
+                                        synchronized (discoveredLock) {
+                                            jarNameList.add(archive);
+                                        }
+                                    }
+                                    ArchiveContent content = new ArchiveContent(archive, size, lastModified,
+                                            nestedFingerprint(fingerprint, archive.substring(name.length())),
+                                            read.get(archive), classes == null ? null : classes.get(archive));
+                                    if (j == 0 && fingerprint != 0 && original == null) {
+                                        content.archives = names;
+                                    }
+                                    contents.add(content);
+                                }
+                            } catch (IOException e) {
+                                contents.add(new ArchiveContent(name, e));
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        //shutting down
+                    } finally {
+                        contents.add(ArchiveContent.WORKER_DONE);
+                    }
+                }
+            });
+        }
+        discovery.start();
+
+        //stage 3: merge
+        IOException error = null;
+        int indexed = 0;
+        //fingerprint -> archives merged for the first archive with it
+        HashMap<Long, List<String>> merged = new HashMap<>();
+        //fingerprint -> archives which share entries with an archive not merged yet
+        HashMap<Long, List<ArchiveContent>> waiting = new HashMap<>();
+        try {
+            for (int running = threads; running > 0; ) {
+                ArchiveContent content = contents.take();
+                if (content == ArchiveContent.WORKER_DONE) {
+                    running--;
+                } else if (content.error != null) {
+                    if (error == null) {
+                        error = content.error;
+                        failed.set(true);
+                    }
+                } else if (error == null && !listener.isStopped()) {
+                    List<ArchiveContent> duplicates = Collections.singletonList(content);
+                    if (content.original == null) {
+                        index.addEntries(content.name, content.size, content.lastModified, content.fingerprint,
+                                content.entries);
+                        if (content.classes != null) {
+                            index.addClasses(content.name, content.classes);
+                        }
+                        indexed = archiveIndexed(listener, content.name, indexed, jarNameList, discoveredLock);
+                        if (content.archives == null) {
+                            continue;
+                        }
+                        merged.put(content.fingerprint, content.archives);
+                        duplicates = waiting.remove(content.fingerprint);
+                    } else if (!merged.containsKey(content.fingerprint)) {
+                        List<ArchiveContent> list = waiting.get(content.fingerprint);
+                        if (list == null) {
+                            waiting.put(content.fingerprint, list = new ArrayList<>());
+                        }
+                        list.add(content);
+                        continue;
+                    }
+                    for (ArchiveContent duplicate : duplicates == null ? Collections.<ArchiveContent>emptyList()
+                            : duplicates) {
+                        for (String archive : merged.get(duplicate.fingerprint)) {
+                            String suffix = archive.substring(duplicate.original.length());
+                            String name = duplicate.name + suffix;
+                            if (!archive.equals(duplicate.original)) {
+                                synchronized (discoveredLock) {
+                                    jarNameList.add(name);
+                                }
+                            }
+                            if (!index.shareEntries(name, duplicate.size, duplicate.lastModified,
+                                    nestedFingerprint(duplicate.fingerprint, suffix))) {
+                                index.addEntries(name, duplicate.size, duplicate.lastModified,
+                                        index.getEntries(archive));
+                            }
+                            List<ClassDeclaration> classes = index.getClasses(archive);
+                            if (classes != null) {
+                                index.addClasses(name, classes);
+                            }
+                            indexed = archiveIndexed(listener, name, indexed, jarNameList, discoveredLock);
+                        }
+                    }
+                }
+            }
+            discovery.join();
+        } catch (InterruptedException e) {
+            discovery.interrupt();
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (error != null) {
+            throw error;
+        }
+        if (discoveryError[0] != null) {
+            throw discoveryError[0];
+        }
+        //searches went through entries one by one while they were merged
+        index.buildPostings();
+        return jarNameList;
+    }
+
+    /**
+     * @return number of archives indexed so far
+     */
+    private static int archiveIndexed(Listener listener, String name, int indexed, List<String> jarNameList,
+                                      Object discoveredLock) {
+        int discovered;
+        synchronized (discoveredLock) {
+            discovered = jarNameList.size();
+        }
+        listener.archiveIndexed(name, ++indexed, discovered);
+        return indexed;
+    }
+
+    /**
+     * @return central directory of an archive, null if it cannot be read
+     */
+    static CentralDirectory.Listing list(String canonicalPath) {
+        try {
+            return CentralDirectory.list(canonicalPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Archives nested in archives with the same fingerprint are the same as well, their fingerprint is made of
+     * the fingerprint of the outer archive and their path in it.
+     *
+     * @param fingerprint - of the outermost archive
+     * @param path        - path of nested archive in the outermost one, empty for the outermost archive itself
+     * @return fingerprint of nested archive, 0 if the fingerprint of the outer archive is not known
+     */
+    static long nestedFingerprint(long fingerprint, String path) {
+        if (fingerprint == 0 || path.isEmpty()) {
+            return fingerprint;
+        }
+        long hash = fingerprint;
+        for (int i = 0; i < path.length(); i++) {
+            hash = (hash ^ path.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Reads all non-directory entries of an archive.
+     *
+     * @param canonicalPath - fully qualified path to file.
+     * @param streaming     - true to read all entries with a <code>ZipInputStream</code>, otherwise only the central
+     *                      directory is read, falling back to streaming if it cannot be parsed
+     * @return entries in archive order
+     * @throws IOException in case of io problem
+     */
+    static List<ArchiveEntry> readEntries(String canonicalPath, boolean streaming) throws IOException {
+        return readEntries(canonicalPath, null, streaming);
+    }
+
+    /**
+     * @param listing - central directory of archive read already, null to read it
+     */
+    private static List<ArchiveEntry> readEntries(String canonicalPath, CentralDirectory.Listing listing,
+                                                  boolean streaming) throws IOException {
+        ArrayList<ArchiveEntry> entries = new ArrayList<>();
+        if (!streaming) {
+            try {
+                for (ArchiveEntry entry : listing == null ? CentralDirectory.read(canonicalPath)
+                        : listing.getEntries()) {
+                    if (!entry.isDirectory()) {
+                        entries.add(entry);
+                    }
+                }
+                return entries;
+            } catch (ZipException e) {
+                //damaged central directory, local headers may still be fine
+                entries.clear();
+            }
+        }
+        try (FileInputStream fin = new FileInputStream(canonicalPath)) {
+            ZipInputStream jin = new ZipInputStream(fin);
+            for (ZipEntry entry = jin.getNextEntry(); entry != null; entry = jin.getNextEntry()) {
+                if (!entry.isDirectory()) //skip directories
+                {
+                    entries.add(new ArchiveEntry(entry.getName(), entry.getMethod(), entry.getCompressedSize(),
+                            entry.getSize(), entry.getCrc(), -1));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads entries of an archive and of archives nested in it.
+     *
+     * @param canonicalPath - fully qualified path to file.
+     * @param streaming     - true to read all entries with a <code>ZipInputStream</code>, see
+     *                      {@link #readEntries(String, boolean)}
+     * @param matcher       - tells nested archives by their names
+     * @param depth         - how deep to look into nested archives, see {@link #setNestingDepth(int)}
+     * @return non-directory entries by name of archive, the archive itself first. Nested archives which
+     * cannot be read have no entries.
+     * @throws IOException in case of io problem
+     */
+    static LinkedHashMap<String, List<ArchiveEntry>> readArchive(String canonicalPath, boolean streaming,
+                                                               ExtensionMatcher matcher, int depth)
+            throws IOException {
+        return readArchive(canonicalPath, null, streaming, matcher, depth);
+    }
+
+    /**
+     * @param listing - central directory of archive read already, null to read it
+     */
+    static LinkedHashMap<String, List<ArchiveEntry>> readArchive(String canonicalPath,
+                                                               CentralDirectory.Listing listing, boolean streaming,
+                                                               ExtensionMatcher matcher, int depth)
+            throws IOException {
+        LinkedHashMap<String, List<ArchiveEntry>> archives = new LinkedHashMap<>();
+        if (depth == 0) {
+            archives.put(canonicalPath, readEntries(canonicalPath, listing, streaming));
+            return archives;
+        }
+        if (!streaming) {
+            try (ArchiveData data = ArchiveData.open(canonicalPath)) {
+                if (listing != null) {
+                    data.setEntries(listing.getEntries());
+                }
+                readNested(data, canonicalPath, matcher, depth, archives);
+                return archives;
+            } catch (ZipException e) {
+                //damaged central directory, local headers may still be fine
+                archives.clear();
+            }
+        }
+        try (FileInputStream fin = new FileInputStream(canonicalPath)) {
+            readStream(fin, canonicalPath, matcher, depth, archives);
+        }
+        return archives;
+    }
+
+    private static void readNested(ArchiveData data, String name, ExtensionMatcher matcher, int depth,
+                                   Map<String, List<ArchiveEntry>> archives) throws IOException {
+        ArrayList<ArchiveEntry> entries = new ArrayList<>();
+        for (ArchiveEntry entry : data.getEntries()) {
+            if (!entry.isDirectory()) {
+                entries.add(entry);
+            }
+        }
+        archives.put(name, entries);
+        if (depth == 0) {
+            return;
+        }
+        for (ArchiveEntry entry : entries) {
+            if (matcher.matches(entry.getName())) {
+                String nestedName = name + ArchiveData.SEPARATOR + entry.getName();
+                try {
+                    readNested(data.openNested(entry), nestedName, matcher, depth - 1, archives);
+                } catch (ZipException | EOFException e) {
+                    //named like an archive, but is not one
+                    archives.put(nestedName, Collections.<ArchiveEntry>emptyList());
+                }
+            }
+        }
+    }
+
+    private static void readStream(InputStream in, String name, ExtensionMatcher matcher, int depth,
+                                   Map<String, List<ArchiveEntry>> archives) throws IOException {
+        ArrayList<ArchiveEntry> entries = new ArrayList<>();
+        archives.put(name, entries);
+        ZipInputStream jin = new ZipInputStream(in);
+        for (ZipEntry entry = jin.getNextEntry(); entry != null; entry = jin.getNextEntry()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (depth > 0 && matcher.matches(entry.getName())) {
+                String nestedName = name + ArchiveData.SEPARATOR + entry.getName();
+                try {
+                    //read from the outer stream, nothing is extracted
+                    readStream(jin, nestedName, matcher, depth - 1, archives);
+                } catch (ZipException | EOFException e) {
+                    archives.put(nestedName, Collections.<ArchiveEntry>emptyList());
+                }
+            }
+            //sizes of entries followed by a data descriptor are known only after the entry was read
+            entries.add(new ArchiveEntry(entry.getName(), entry.getMethod(), entry.getCompressedSize(),
+                    entry.getSize(), entry.getCrc(), -1));
+        }
+    }
+
+    /**
+     * Parses classes of an archive and of archives nested in it. Classes are read through {@link ArchiveData}
+     * whatever the way entries were read; classes which cannot be read or parsed are left out.
+     *
+     * @param canonicalPath - fully qualified path to file
+     * @param archives      - names of the archive and of archives nested in it, as returned by
+     *                      {@link #readArchive}
+     * @return declarations of classes by name of archive, archives which cannot be read have none
+     */
+    static Map<String, List<ClassDeclaration>> readClasses(String canonicalPath, Collection<String> archives) {
+        LinkedHashMap<String, List<ClassDeclaration>> classes = new LinkedHashMap<>();
+        for (String name : archives) {
+            classes.put(name, new ArrayList<ClassDeclaration>());
+        }
+        try (ArchiveData root = ArchiveData.open(canonicalPath, true)) {
+            for (String name : archives) {
+                try {
+                    ArchiveData data = root;
+                    if (!name.equals(canonicalPath)) {
+                        //outer.war!/WEB-INF/lib/inner.jar, opened from the outermost archive inwards
+                        String nested = name.substring(canonicalPath.length() + ArchiveData.SEPARATOR.length());
+                        for (String entryName : nested.split(ArchiveData.SEPARATOR)) {
+                            ArchiveEntry entry = data.getEntry(entryName);
+                            if (entry == null) {
+                                throw new ZipException(name + ": not found");
+                            }
+                            data = data.openNested(entry);
+                        }
+                    }
+                    readClasses(data, classes.get(name));
+                } catch (IOException e) {
+                    //named like an archive, but is not one
+                }
+            }
+        } catch (IOException e) {
+            //damaged central directory, its classes stay unknown
+        }
+        return classes;
+    }
+
+    private static void readClasses(ArchiveData data, List<ClassDeclaration> classes) throws IOException {
+        for (ArchiveEntry entry : data.getEntries()) {
+            if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+                try {
+                    ClassDeclaration declaration = ClassDeclaration.parse(entry.getName(), data.read(entry));
+                    if (declaration != null) {
+                        classes.add(declaration);
+                    }
+                } catch (ZipException | EOFException e) {
+                    //damaged entry
+                }
+            }
+        }
+    }
+
+    /**
+     * @return declarations of classes by name of archive, null if classes of one of archives are not in index
+     */
+    private static Map<String, List<ClassDeclaration>> getUnchangedClasses(EntryIndex index,
+                                                                           Collection<String> archives) {
+        LinkedHashMap<String, List<ClassDeclaration>> classes = new LinkedHashMap<>();
+        for (String name : archives) {
+            List<ClassDeclaration> declarations = index.getClasses(name);
+            if (declarations == null) {
+                return null;
+            }
+            classes.put(name, declarations);
+        }
+        return classes;
+    }
+
+    /**
+     * Takes entries of an archive and of archives nested in it from an index, if the archive did not change.
+     *
+     * @return entries by name of archive, null if the archive or one of nested archives is not in index
+     * with the given size and modification time
+     */
+    private Map<String, List<ArchiveEntry>> getUnchangedArchives(EntryIndex index, String name, long size,
+                                                                  long lastModified) {
+        LinkedHashMap<String, List<ArchiveEntry>> archives = new LinkedHashMap<>();
+        return getUnchangedArchives(index, name, size, lastModified, nestingDepth, archives) ? archives : null;
+    }
+
+    private boolean getUnchangedArchives(EntryIndex index, String name, long size, long lastModified, int depth,
+                                         Map<String, List<ArchiveEntry>> archives) {
+        List<ArchiveEntry> entries = index.getUnchangedEntries(name, size, lastModified);
+        if (entries == null) {
+            return false;
+        }
+        archives.put(name, entries);
+        if (depth > 0) {
+            for (ArchiveEntry entry : entries) {
+                if (matcher.matches(entry.getName()) && !getUnchangedArchives(index,
+                        name + ArchiveData.SEPARATOR + entry.getName(), size, lastModified, depth - 1, archives)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void putUninterruptibly(BlockingQueue<String> queue, String element) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(element);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Entry list of a single archive, passed from readers to the merge stage.
+     */
+    private static class ArchiveContent {
+        static final ArchiveContent WORKER_DONE = new ArchiveContent(null, null);
+
+        final String name;
+        final long size;
+        final long lastModified;
+        //see nestedFingerprint, of the outermost archive if entries are shared; 0 if not known
+        final long fingerprint;
+        final List<ArchiveEntry> entries;
+        //null unless deep scanned
+        final List<ClassDeclaration> classes;
+        //first archive with the same fingerprint, entries are not read if not null
+        final String original;
+        //for the first archive with a fingerprint: names of the archive and of archives nested in it
+        List<String> archives;
+        final IOException error;
+
+        ArchiveContent(String name, long size, long lastModified, long fingerprint, List<ArchiveEntry> entries,
+                       List<ClassDeclaration> classes) {
+            this(name, size, lastModified, fingerprint, entries, classes, null, null);
+        }
+
+        ArchiveContent(String name, long size, long lastModified, long fingerprint, String original) {
+            this(name, size, lastModified, fingerprint, null, null, original, null);
+        }
+
+        ArchiveContent(String name, IOException error) {
+            this(name, -1, -1, 0, null, null, null, error);
+        }
+
+        private ArchiveContent(String name, long size, long lastModified, long fingerprint,
+                               List<ArchiveEntry> entries, List<ClassDeclaration> classes, String original,
+                               IOException error) {
+            this.name = name;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fingerprint = fingerprint;
+            this.entries = entries;
+            this.classes = classes;
+            this.original = original;
+            this.error = error;
+        }
+    }
+}
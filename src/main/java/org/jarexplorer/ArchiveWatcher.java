@@ -0,0 +1,407 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an {@link EntryIndex} up to date with a directory tree: archives created, modified or deleted under the
+ * root are re-indexed (or removed) one by one, without rebuilding the index.
+ * <p>
+ * All work is done in a single "Archive Watcher" thread. It first compares the tree with the index (the index may
+ * have been loaded from disk and be out of date), then waits for file system events. An archive is re-indexed only
+ * after it was quiet for a while, so that a file which is still being written is not read half way through.
+ * Archives which became quiet together are re-indexed as a batch, the listener is told when a batch is done, and
+ * again once no batch followed for a longer while, which is when the index is worth saving.
+ *
+ * @author Igor Polevoy
+ */
+public class ArchiveWatcher {
+
+    /**
+     * Receives changes made to the index. Called from the watcher thread.
+     */
+    public interface Listener {
+
+        /**
+         * @param archive - fully qualified path to an archive which was added to index, or re-indexed
+         */
+        void archiveIndexed(String archive);
+
+        /**
+         * @param archive - fully qualified path to an archive which was removed from index
+         */
+        void archiveRemoved(String archive);
+
+        /**
+         * @param archive - fully qualified path to an archive which could not be read, it will be
+         *                retried when it changes again
+         * @param e       - problem
+         */
+        void archiveFailed(String archive, IOException e);
+
+        /**
+         * Called after archives re-indexed or removed together were reported, once searches can see all of them.
+         */
+        void changesProcessed();
+
+        /**
+         * Called once no change was made for a while after the last batch. The index does not change until this
+         * returns, so it may be saved here.
+         */
+        void changesSettled();
+    }
+
+    //how long an archive has to stay unchanged before it is read
+    private static final long QUIET_PERIOD = 500;
+    //how long the index has to stay unchanged before listener is told it settled
+    private static final long SETTLE_PERIOD = 5000;
+
+    private final EntryIndex index;
+    private final ExtensionMatcher matcher;
+    private final Listener listener;
+    private boolean streaming;
+    private int nestingDepth;
+    private boolean deepIndex;
+
+    private WatchService watchService;
+    private volatile boolean stopped;
+    private Path root;
+    //watched directories
+    private final HashMap<WatchKey, Path> keys = new HashMap<>();
+    //archives waiting to be quiet -> time of last change
+    private final LinkedHashMap<Path, Long> pending = new LinkedHashMap<>();
+    //index was changed since postings were built
+    private boolean changed;
+    //time of the last batch of changes, 0 once listener was told they settled
+    private long lastBatch;
+
+    /**
+     * @param index      - index to keep up to date
+     * @param extensions - extensions of files to be treated as archives, without the leading dot
+     * @param listener   - notified of every change made to index
+     */
+    public ArchiveWatcher(EntryIndex index, String[] extensions, Listener listener) {
+        this.index = index;
+        this.matcher = new ExtensionMatcher(extensions);
+        this.listener = listener;
+    }
+
+    /**
+     * @param streaming - true to read archives with a <code>ZipInputStream</code>, see
+     *                  {@link ArchiveScanner#setStreaming(boolean)}
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @param nestingDepth - how deep to look into nested archives, see {@link ArchiveScanner#setNestingDepth(int)}
+     */
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+    }
+
+    /**
+     * @param deepIndex - true to parse classes of archives as well, see {@link ArchiveScanner#setDeepIndex(boolean)}
+     */
+    public void setDeepIndex(boolean deepIndex) {
+        this.deepIndex = deepIndex;
+    }
+
+    /**
+     * Starts watching a tree in a new thread.
+     *
+     * @param rootDirectory - root of the tree, should be the same the index was built from
+     * @throws IOException in case watch service cannot be created
+     */
+    public synchronized void start(File rootDirectory) throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("already started");
+        }
+        root = rootDirectory.getCanonicalFile().toPath();
+        watchService = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    synchronize(root);
+                    processed();
+                    watch();
+                } catch (ClosedWatchServiceException e) {
+                    //stopped
+                } catch (InterruptedException e) {
+                    //stopped
+                } catch (IOException e) {
+                    listener.archiveFailed(root.toString(), e);
+                }
+            }
+        }, "Archive Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching. Changes being processed at the moment may still reach the index.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void watch() throws InterruptedException, IOException {
+        while (!stopped) {
+            WatchKey key;
+            long wakeUp = !pending.isEmpty() ? pending.values().iterator().next() + QUIET_PERIOD
+                    : lastBatch != 0 ? lastBatch + SETTLE_PERIOD : 0;
+            if (wakeUp == 0) {
+                key = watchService.take();
+            } else {
+                key = watchService.poll(Math.max(wakeUp - System.currentTimeMillis(), 1), TimeUnit.MILLISECONDS);
+            }
+            if (key != null) {
+                handleEvents(key);
+            }
+            processQuietArchives();
+            processed();
+            if (pending.isEmpty() && lastBatch != 0 && lastBatch + SETTLE_PERIOD <= System.currentTimeMillis()
+                    && !stopped) {
+                lastBatch = 0;
+                listener.changesSettled();
+            }
+        }
+    }
+
+    /**
+     * Lists entries for searches once all quiet archives were re-indexed, rather than after each of them.
+     */
+    private void processed() {
+        if (changed) {
+            changed = false;
+            index.buildPostings();
+            lastBatch = System.currentTimeMillis();
+            listener.changesProcessed();
+        }
+    }
+
+    private void handleEvents(WatchKey key) throws IOException {
+        Path directory = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //events were lost, compare the whole tree again
+                synchronize(root);
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (!isUnderRoot(path)) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                if (isArchiveName(path)) {
+                    changed(path);
+                } else {
+                    //may have been a directory
+                    removeArchivesUnder(path);
+                }
+            } else if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    //directory created or moved in, possibly with archives already in it
+                    synchronize(path);
+                }
+            } else if (isArchiveName(path)) {
+                changed(path);
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    /**
+     * Registers all directories of a tree and schedules archives which differ from index.
+     * Archives in index which are no longer in the tree are removed.
+     */
+    private void synchronize(Path start) throws IOException {
+        final HashSet<String> found = new HashSet<>();
+        if (Files.isRegularFile(start)) {
+            //a single archive is watched through its directory
+            register(start.getParent());
+            schedule(start, found);
+        } else {
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    try {
+                        register(dir);
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException e) {
+                        //deleted meanwhile, or not readable
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && isArchiveName(file)) {
+                        schedule(file, found);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        String prefix = start.toString();
+        for (String jarName : index.getJarNames()) {
+            if (isUnder(jarName, prefix) && !found.contains(outerName(jarName))) {
+                removed(jarName);
+            }
+        }
+    }
+
+    private void schedule(Path archive, HashSet<String> found) {
+        String name = archive.toString();
+        found.add(name);
+        File file = archive.toFile();
+        if (index.getUnchangedEntries(name, file.length(), file.lastModified()) == null) {
+            changed(archive);
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        keys.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+    }
+
+    private void changed(Path archive) {
+        //moved to the end, entries are kept in order of last change
+        pending.remove(archive);
+        pending.put(archive, System.currentTimeMillis());
+    }
+
+    private void processQuietArchives() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<Path, Long>> i = pending.entrySet().iterator(); i.hasNext() && !stopped; ) {
+            Map.Entry<Path, Long> entry = i.next();
+            if (entry.getValue() + QUIET_PERIOD > now) {
+                break;
+            }
+            i.remove();
+            reindex(entry.getKey());
+        }
+    }
+
+    private void reindex(Path archive) {
+        String name = archive.toString();
+        File file = archive.toFile();
+        if (!file.isFile()) {
+            removed(name);
+            return;
+        }
+        long size = file.length();
+        long lastModified = file.lastModified();
+        if (index.getUnchangedEntries(name, size, lastModified) != null) {
+            return; // touched, but not changed
+        }
+        try {
+            //central directory is read once, for the fingerprint and for entries
+            CentralDirectory.Listing listing = ArchiveScanner.list(name);
+            long fingerprint = listing == null ? 0 : listing.getFingerprint();
+            Map<String, List<ArchiveEntry>> archives = ArchiveScanner.readArchive(name, listing, streaming, matcher,
+                    nestingDepth);
+            Map<String, List<ClassDeclaration>> classes = deepIndex
+                    ? ArchiveScanner.readClasses(name, archives.keySet()) : null;
+            //nested archives which are gone
+            for (String jarName : index.getJarNames()) {
+                if (jarName.startsWith(name + ArchiveData.SEPARATOR) && !archives.containsKey(jarName)) {
+                    removed(jarName);
+                }
+            }
+            for (Map.Entry<String, List<ArchiveEntry>> read : archives.entrySet()) {
+                //entries are shared with an archive of the same fingerprint, as they are when the tree is scanned
+                index.replaceEntries(read.getKey(), size, lastModified,
+                        ArchiveScanner.nestedFingerprint(fingerprint, read.getKey().substring(name.length())),
+                        read.getValue());
+                changed = true;
+                if (classes != null) {
+                    index.addClasses(read.getKey(), classes.get(read.getKey()));
+                }
+                listener.archiveIndexed(read.getKey());
+            }
+        } catch (IOException e) {
+            listener.archiveFailed(name, e);
+        }
+    }
+
+    private void removed(String archive) {
+        if (index.removeJar(archive)) {
+            changed = true;
+            listener.archiveRemoved(archive);
+        }
+        for (String jarName : index.getJarNames()) {
+            if (jarName.startsWith(archive + ArchiveData.SEPARATOR) && index.removeJar(jarName)) {
+                changed = true;
+                listener.archiveRemoved(jarName);
+            }
+        }
+    }
+
+    private void removeArchivesUnder(Path directory) {
+        String prefix = directory.toString();
+        for (String jarName : index.getJarNames()) {
+            if (isUnder(jarName, prefix) && !jarName.equals(prefix)) {
+                removed(jarName);
+            }
+        }
+    }
+
+    private boolean isUnderRoot(Path path) {
+        //when a single archive is watched, other files in its directory are of no interest
+        return Files.isDirectory(root) || path.equals(root);
+    }
+
+    private static boolean isUnder(String name, String prefix) {
+        return name.equals(prefix) || name.startsWith(prefix)
+                && (prefix.endsWith(File.separator) || name.startsWith(File.separator, prefix.length()));
+    }
+
+    /**
+     * @return name of archive file, for an archive nested in it
+     */
+    private static String outerName(String jarName) {
+        int separator = jarName.indexOf(ArchiveData.SEPARATOR);
+        return separator < 0 ? jarName : jarName.substring(0, separator);
+    }
+
+    private boolean isArchiveName(Path path) {
+        return matcher.matches(path.getFileName().toString());
+    }
+}
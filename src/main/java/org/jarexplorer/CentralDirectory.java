@@ -0,0 +1,379 @@
+package org.jarexplorer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+
+/**
+ * Reads the list of entries of a zip archive from its central directory. Only the end of the file and the
+ * central directory itself are read, so the cost depends on the number of entries, not on the size of the archive.
+ * <p>
+ * Zip64 archives are supported, as are archives with data prepended to them (self extracting archives,
+ * executable jars with a launch script), in which case offsets are corrected to be relative to the start of the file.
+ *
+ * @author Igor Polevoy
+ */
+public class CentralDirectory {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_SIZE = 56;
+    //how far before the locator the zip64 end record of an archive with prepended data is looked for
+    private static final int MAX_ZIP64_EXTENSIBLE_DATA = 0xFFFF;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int HEADER_SIGNATURE = 0x02014b50;
+    private static final int HEADER_SIZE = 46;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private CentralDirectory() {
+    }
+
+    /**
+     * Reads entries of an archive file.
+     *
+     * @param fileName - path to archive
+     * @return all entries in central directory order, including directories
+     * @throws ZipException if the file is not a zip archive or its central directory is damaged
+     * @throws IOException  in case of io problem
+     */
+    public static List<ArchiveEntry> read(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+            return read(file.getChannel(), 0, file.length());
+        }
+    }
+
+    /**
+     * Reads entries of an archive which occupies a region of a file.
+     *
+     * @param channel - open channel
+     * @param start   - position of the first byte of the archive in the channel
+     * @param length  - length of the archive
+     * @return all entries in central directory order, with offsets relative to <code>start</code>
+     * @throws ZipException if the region is not a zip archive or its central directory is damaged
+     * @throws IOException  in case of io problem
+     */
+    public static List<ArchiveEntry> read(FileChannel channel, long start, long length) throws IOException {
+        return read(channel, null, start, length);
+    }
+
+    /**
+     * Reads entries of an archive held in memory, for example an archive nested in another one.
+     *
+     * @param archive - archive, from its position to its limit
+     * @return all entries in central directory order, with offsets relative to position of <code>archive</code>
+     * @throws ZipException if the buffer does not hold a zip archive or its central directory is damaged
+     */
+    public static List<ArchiveEntry> read(ByteBuffer archive) throws ZipException {
+        try {
+            return read(null, archive, archive.position(), archive.remaining());
+        } catch (ZipException e) {
+            throw e;
+        } catch (IOException e) {
+            //only reading past the end of buffer fails here
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    /**
+     * Computes a fingerprint of an archive from its size and the bytes of its central directory, without parsing it.
+     * The central directory holds name, CRC, sizes and position of every entry, so two archives with the same
+     * fingerprint have, for all practical purposes, the same content.
+     *
+     * @param fileName - path to archive
+     * @return 64 bit hash, never 0
+     * @throws ZipException if the file is not a zip archive or its central directory is damaged
+     * @throws IOException  in case of io problem
+     */
+    public static long fingerprint(String fileName) throws IOException {
+        return list(fileName).getFingerprint();
+    }
+
+    /**
+     * Reads the central directory of an archive file once, for both its fingerprint and its entries: the directory
+     * is only parsed if entries are asked for, which is not needed for an archive with a fingerprint seen before.
+     *
+     * @param fileName - path to archive
+     * @return central directory of archive, the file is closed already
+     * @throws ZipException if the file is not a zip archive or its central directory cannot be located
+     * @throws IOException  in case of io problem
+     */
+    public static Listing list(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+            long length = file.length();
+            long[] location = locate(file.getChannel(), null, 0, length);
+            ByteBuffer directory = readFully(file.getChannel(), null, location[0], (int) location[1]);
+            long fingerprint = fingerprint(directory.duplicate().order(ByteOrder.LITTLE_ENDIAN), length);
+            return new Listing(directory, location[2], location[3], fingerprint);
+        }
+    }
+
+    /**
+     * FNV-1a over the length of the archive and its directory, 8 bytes at a time.
+     */
+    private static long fingerprint(ByteBuffer directory, long length) {
+        long hash = (0xcbf29ce484222325L ^ length) * 0x100000001b3L;
+        while (directory.remaining() >= 8) {
+            hash = (hash ^ directory.getLong()) * 0x100000001b3L;
+        }
+        while (directory.hasRemaining()) {
+            hash = (hash ^ directory.get()) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 29;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Reads from channel if it is not null, otherwise from buffer.
+     */
+    private static List<ArchiveEntry> read(FileChannel channel, ByteBuffer buffer, long start, long length)
+            throws IOException {
+        long[] location = locate(channel, buffer, start, length);
+        ByteBuffer directory = readFully(channel, buffer, location[0], (int) location[1]);
+        return parse(directory, location[2], location[3]);
+    }
+
+    /**
+     * Finds the central directory from the end of central directory record.
+     *
+     * @return position of the directory in channel or buffer, its size, the number of entries and the shift of entry
+     * offsets
+     */
+    private static long[] locate(FileChannel channel, ByteBuffer buffer, long start, long length)
+            throws IOException {
+        if (length < END_SIZE) {
+            throw new ZipException("not a zip archive");
+        }
+        int tailLength = (int) Math.min(length, MAX_COMMENT + END_SIZE + ZIP64_LOCATOR_SIZE);
+        ByteBuffer tail = readFully(channel, buffer, start + length - tailLength, tailLength);
+
+        int end = findEnd(tail);
+        long entryCount = tail.getShort(end + 10) & 0xFFFF;
+        long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        long endPosition = length - tailLength + end;
+
+        int locator = end - ZIP64_LOCATOR_SIZE;
+        if (locator >= 0 && tail.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            long locatorPosition = length - tailLength + locator;
+            long zip64EndPosition = findZip64End(channel, buffer, start, tail.getLong(locator + 8), locatorPosition);
+            ByteBuffer zip64End = readFully(channel, buffer, start + zip64EndPosition, ZIP64_END_SIZE);
+            entryCount = zip64End.getLong(32);
+            directorySize = zip64End.getLong(40);
+            directoryOffset = zip64End.getLong(48);
+            endPosition = zip64EndPosition;
+        }
+
+        //whatever precedes the archive (e.g. a launch script) shifts all offsets stored in it
+        long directoryPosition = endPosition - directorySize;
+        long shift = directoryPosition - directoryOffset;
+        if (directoryPosition < 0 || shift < 0 || directorySize > Integer.MAX_VALUE) {
+            throw new ZipException("invalid central directory location");
+        }
+
+        return new long[]{start + directoryPosition, directorySize, entryCount, shift};
+    }
+
+    /**
+     * Finds the zip64 end of central directory record. It is where the locator says, unless data was prepended to
+     * the archive, and it ends right before the locator either way: its size field counts an extensible data sector
+     * which may follow the fixed fields.
+     *
+     * @param recordOffset    - offset of the record as written in the locator
+     * @param locatorPosition - position of the locator in the archive
+     * @return position of the record in the archive
+     */
+    private static long findZip64End(FileChannel channel, ByteBuffer buffer, long start, long recordOffset,
+                                     long locatorPosition) throws IOException {
+        if (recordOffset >= 0 && recordOffset <= locatorPosition - ZIP64_END_SIZE) {
+            ByteBuffer record = readFully(channel, buffer, start + recordOffset, ZIP64_END_SIZE);
+            if (isZip64End(record, 0, locatorPosition - recordOffset)) {
+                return recordOffset;
+            }
+        }
+        //prepended data shifts the record, which is looked for backwards from the locator
+        int searchLength = (int) Math.min(locatorPosition, ZIP64_END_SIZE + MAX_ZIP64_EXTENSIBLE_DATA);
+        ByteBuffer before = readFully(channel, buffer, start + locatorPosition - searchLength, searchLength);
+        for (int i = searchLength - ZIP64_END_SIZE; i >= 0; i--) {
+            if (isZip64End(before, i, searchLength - i)) {
+                long position = locatorPosition - searchLength + i;
+                if (position >= recordOffset) {
+                    return position;
+                }
+            }
+        }
+        throw new ZipException("invalid zip64 end of central directory");
+    }
+
+    /**
+     * @param length - bytes from the start of the record to the locator
+     */
+    private static boolean isZip64End(ByteBuffer buffer, int position, long length) {
+        //size of record does not count signature and size field
+        return buffer.getInt(position) == ZIP64_END_SIGNATURE && buffer.getLong(position + 4) + 12 == length;
+    }
+
+    /**
+     * Finds the end of central directory record, scanning backwards over a possible archive comment.
+     *
+     * @return position of the record in buffer
+     */
+    private static int findEnd(ByteBuffer tail) throws ZipException {
+        for (int i = tail.limit() - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE
+                    && i + END_SIZE + (tail.getShort(i + 20) & 0xFFFF) <= tail.limit()) {
+                return i;
+            }
+        }
+        throw new ZipException("end of central directory not found");
+    }
+
+    private static List<ArchiveEntry> parse(ByteBuffer directory, long entryCount, long shift) throws ZipException {
+        ArrayList<ArchiveEntry> entries = new ArrayList<>((int) Math.min(entryCount, 1 << 16));
+        byte[] nameBytes = new byte[256];
+        int pos = 0;
+        int limit = directory.limit();
+        while (pos + HEADER_SIZE <= limit && directory.getInt(pos) == HEADER_SIGNATURE) {
+            int method = directory.getShort(pos + 10) & 0xFFFF;
+            long crc = directory.getInt(pos + 16) & 0xFFFFFFFFL;
+            long compressedSize = directory.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = directory.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLength = directory.getShort(pos + 28) & 0xFFFF;
+            int extraLength = directory.getShort(pos + 30) & 0xFFFF;
+            int commentLength = directory.getShort(pos + 32) & 0xFFFF;
+            long offset = directory.getInt(pos + 42) & 0xFFFFFFFFL;
+
+            int next = pos + HEADER_SIZE + nameLength + extraLength + commentLength;
+            if (next > limit) {
+                throw new ZipException("truncated central directory");
+            }
+
+            if (nameBytes.length < nameLength) {
+                nameBytes = new byte[nameLength * 2];
+            }
+            directory.position(pos + HEADER_SIZE);
+            directory.get(nameBytes, 0, nameLength);
+            String name = decodeName(nameBytes, nameLength);
+
+            if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || offset == 0xFFFFFFFFL) {
+                //real values are in the zip64 extra field, in this order, only for fields which overflowed
+                int extra = pos + HEADER_SIZE + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = directory.getShort(extra) & 0xFFFF;
+                    int length = directory.getShort(extra + 2) & 0xFFFF;
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        if (size == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                            size = directory.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                            compressedSize = directory.getLong(field);
+                            field += 8;
+                        }
+                        if (offset == 0xFFFFFFFFL && field + 8 <= extraEnd) {
+                            offset = directory.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+
+            entries.add(new ArchiveEntry(name, method, compressedSize, size, crc, offset + shift));
+            pos = next;
+        }
+        //some tools store the count of huge archives modulo 65536 instead of writing a zip64 record
+        if (entries.size() != entryCount && (entries.size() & 0xFFFF) != entryCount) {
+            throw new ZipException("central directory has " + entries.size() + " entries, expected " + entryCount);
+        }
+        return entries;
+    }
+
+    private static String decodeName(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) {
+                //same as ZipInputStream, names are always decoded as UTF-8
+                return new String(bytes, 0, length, UTF8);
+            }
+        }
+        //pure ASCII, most names are
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes[i];
+        }
+        return new String(chars);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer source, long position, int length)
+            throws IOException {
+        if (channel == null) {
+            if (position + length > source.limit()) {
+                throw new EOFException("unexpected end of archive");
+            }
+            //a view, nothing is copied
+            ByteBuffer view = source.duplicate();
+            view.limit((int) position + length);
+            view.position((int) position);
+            return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of archive");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Central directory of an archive file as read by {@link #list(String)}: its fingerprint, and its entries,
+     * parsed when they are first asked for.
+     */
+    public static class Listing {
+        private final ByteBuffer directory;
+        private final long entryCount;
+        private final long shift;
+        private final long fingerprint;
+        private List<ArchiveEntry> entries;
+
+        private Listing(ByteBuffer directory, long entryCount, long shift, long fingerprint) {
+            this.directory = directory;
+            this.entryCount = entryCount;
+            this.shift = shift;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * @return fingerprint of archive, see {@link CentralDirectory#fingerprint(String)}
+         */
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return all entries in central directory order, including directories
+         * @throws ZipException if the central directory is damaged
+         */
+        public synchronized List<ArchiveEntry> getEntries() throws ZipException {
+            if (entries == null) {
+                entries = parse(directory.duplicate().order(ByteOrder.LITTLE_ENDIAN), entryCount, shift);
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.jarexplorer;
+
+/**
+ * A class found at the same path in more than one archive, see {@link EntryIndex#findConflicts()}. Which of the
+ * copies is loaded depends on the order of the classpath; if their bytes differ, that is a conflict waiting to
+ * happen. Whether they differ is told by the CRC and size recorded in the central directory of each archive, without
+ * reading the classes.
+ *
+ * @author Igor Polevoy
+ */
+public class ClassConflict {
+
+    private final String path;
+    private final String[] jarNames;
+    private final long[] crcs;
+    private final long[] sizes;
+    private final boolean identical;
+
+    /**
+     * @param path     - path of class in archives
+     * @param jarNames - archives with the class
+     * @param crcs     - CRC of the class in each archive, -1 if not known
+     * @param sizes    - uncompressed size of the class in each archive, -1 if not known
+     */
+    ClassConflict(String path, String[] jarNames, long[] crcs, long[] sizes) {
+        this.path = path;
+        this.jarNames = jarNames;
+        this.crcs = crcs;
+        this.sizes = sizes;
+        boolean same = true;
+        for (int i = 0; i < crcs.length; i++) {
+            //unknown values, from a damaged or streamed archive, are not taken for a match
+            same &= crcs[i] >= 0 && crcs[i] == crcs[0] && sizes[i] == sizes[0];
+        }
+        this.identical = same;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return names of archives with the class, sorted
+     */
+    public String[] getJarNames() {
+        return jarNames.clone();
+    }
+
+    /**
+     * @return CRC of the class in each archive, in order of {@link #getJarNames()}, -1 if not known
+     */
+    public long[] getCrcs() {
+        return crcs.clone();
+    }
+
+    /**
+     * @return uncompressed size of the class in each archive, in order of {@link #getJarNames()}, -1 if not known
+     */
+    public long[] getSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * @return true if all copies have the same CRC and size, so the class is merely duplicated
+     */
+    public boolean isIdentical() {
+        return identical;
+    }
+
+    public String toString() {
+        return path + (identical ? " (identical in " : " (differs in ") + jarNames.length + " archives)";
+    }
+}
@@ -0,0 +1,132 @@
+package org.jarexplorer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import javad.classfile.ClassParser;
+import javad.classfile.ClassVisitor;
+
+/**
+ * What a class declares, as far as {@link ClassIndex} is concerned: superclass, interfaces, methods and fields.
+ * Read with {@link ClassParser}, which skips code and attributes, so parsing every class of an archive
+ * costs little more than reading it.
+ * <p>
+ * Class names are dotted, as given by the parser; descriptors are raw, as they are in the class file.
+ *
+ * @author Igor Polevoy
+ */
+class ClassDeclaration {
+
+    private static final String[] NONE = new String[0];
+
+    final String path;
+    //null for java.lang.Object and modules
+    final String superName;
+    final String[] interfaces;
+    final String[] methodNames;
+    final String[] methodDescriptors;
+    final String[] fieldDescriptors;
+
+    ClassDeclaration(String path, String superName, String[] interfaces, String[] methodNames,
+                     String[] methodDescriptors, String[] fieldDescriptors) {
+        this.path = path;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.methodNames = methodNames;
+        this.methodDescriptors = methodDescriptors;
+        this.fieldDescriptors = fieldDescriptors;
+    }
+
+    /**
+     * @param path       - path of class file in archive
+     * @param classBytes - class file, from position to limit
+     * @return declaration, null if class file cannot be parsed
+     */
+    static ClassDeclaration parse(String path, ByteBuffer classBytes) {
+        final String[][] declaration = new String[2][];
+        final ArrayList<String> methodNames = new ArrayList<>();
+        final ArrayList<String> methodDescriptors = new ArrayList<>();
+        final ArrayList<String> fieldDescriptors = new ArrayList<>();
+        try {
+            ClassParser.parse(classBytes, new ClassVisitor(ClassVisitor.DECLARATION | ClassVisitor.FIELDS
+                    | ClassVisitor.METHODS) {
+                public void visitClass(int version, int accessFlags, String name, String superName,
+                                       String[] interfaces) {
+                    declaration[0] = new String[]{superName};
+                    declaration[1] = interfaces;
+                }
+
+                public void visitField(int accessFlags, String name, String descriptor) {
+                    fieldDescriptors.add(descriptor);
+                }
+
+                public void visitMethod(int accessFlags, String name, String descriptor) {
+                    methodNames.add(name);
+                    methodDescriptors.add(descriptor);
+                }
+            });
+        } catch (RuntimeException e) {
+            //damaged, or not a class file at all
+            return null;
+        }
+        if (declaration[0] == null || methodNames.contains(null) || methodDescriptors.contains(null)
+                || fieldDescriptors.contains(null)) {
+            return null;
+        }
+        return new ClassDeclaration(path, declaration[0][0], declaration[1],
+                methodNames.toArray(NONE), methodDescriptors.toArray(NONE), fieldDescriptors.toArray(NONE));
+    }
+
+    /**
+     * @param descriptor - method descriptor, such as <code>(I)Ljava/lang/String;</code>
+     * @return name of return type, such as <code>java.lang.String</code>, <code>void</code> or <code>int[]</code>
+     */
+    static String returnType(String descriptor) {
+        return typeName(descriptor, descriptor.indexOf(')') + 1);
+    }
+
+    /**
+     * @param descriptor - field descriptor, such as <code>[Ljava/util/Map;</code>
+     * @return name of the type, such as <code>java.util.Map[]</code>
+     */
+    static String fieldType(String descriptor) {
+        return typeName(descriptor, 0);
+    }
+
+    private static String typeName(String descriptor, int start) {
+        int dimensions = 0;
+        while (start + dimensions < descriptor.length() && descriptor.charAt(start + dimensions) == '[') {
+            dimensions++;
+        }
+        start += dimensions;
+        if (start >= descriptor.length()) {
+            return descriptor;
+        }
+        String name;
+        switch (descriptor.charAt(start)) {
+            case 'B': name = "byte"; break;
+            case 'C': name = "char"; break;
+            case 'D': name = "double"; break;
+            case 'F': name = "float"; break;
+            case 'I': name = "int"; break;
+            case 'J': name = "long"; break;
+            case 'S': name = "short"; break;
+            case 'Z': name = "boolean"; break;
+            case 'V': name = "void"; break;
+            case 'L':
+                int end = descriptor.indexOf(';', start);
+                name = descriptor.substring(start + 1, end < 0 ? descriptor.length() : end).replace('/', '.');
+                break;
+            default:
+                return descriptor;
+        }
+        if (dimensions == 0) {
+            return name;
+        }
+        StringBuilder array = new StringBuilder(name);
+        for (int i = 0; i < dimensions; i++) {
+            array.append("[]");
+        }
+        return array.toString();
+    }
+}
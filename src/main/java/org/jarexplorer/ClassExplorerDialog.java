@@ -1,6 +1,8 @@
 package org.jarexplorer;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeModel;
@@ -13,6 +15,7 @@ import java.util.ArrayList;
 /**
  * Displays a tree view of class internals:
  * implemented interfaces, superclass, fields, methods, constructors, etc.
+ * With a {@link TypeHierarchy}, supertypes and subtypes of the class are shown as well, expanded one level at a time.
  *
  * @author Igor Polevoy
  * <br/>
@@ -26,6 +29,17 @@ public class ClassExplorerDialog extends CenteredDialog {
      * @param classInformation - instance
      */
     public ClassExplorerDialog(Frame owner, ClassInformation classInformation) {
+        this(owner, classInformation, null);
+    }
+
+    /**
+     * Constructs an instance showing type hierarchy of the class
+     *
+     * @param owner            - top level frame
+     * @param classInformation - instance
+     * @param hierarchy        - hierarchy of deep scanned classes, may be null
+     */
+    public ClassExplorerDialog(Frame owner, ClassInformation classInformation, TypeHierarchy hierarchy) {
         super(owner, classInformation.getJarFileName() + ":" + classInformation.getClassPath(), false);
 
         getContentPane().setLayout(new BorderLayout());
@@ -45,7 +59,7 @@ public class ClassExplorerDialog extends CenteredDialog {
         root.add(constructorsNode = new DefaultMutableTreeNode("<html><font color='blue'>Constructors</font></html>"));
         root.add(fieldsNode = new DefaultMutableTreeNode("<html><font color='blue'>Fields</font></html>"));
         root.add(methodsNode = new DefaultMutableTreeNode("<html><font color='blue'>Methods</font></html>"));
-        JTree tree = new JTree();
+        final JTree tree = new JTree();
 
         DefaultTreeCellRenderer renderer = (DefaultTreeCellRenderer) tree.getCellRenderer();
         renderer.setFont(new Font("Monospaced", Font.PLAIN, 14));
@@ -82,6 +96,40 @@ public class ClassExplorerDialog extends CenteredDialog {
             fieldsNode.add(new DefaultMutableTreeNode(field));
         }
 
+        //type hierarchy
+        DefaultMutableTreeNode hierarchyNode = new DefaultMutableTreeNode("<html><font color='blue'>Type Hierarchy</font></html>");
+        root.add(hierarchyNode);
+        int id = hierarchy == null ? -1 : hierarchy.getId(classInformation.getClassName());
+        if (id < 0) {
+            hierarchyNode.add(new DefaultMutableTreeNode("not known, check File / Index Class Metadata and scan again"));
+        } else {
+            DefaultMutableTreeNode supertypesNode = new DefaultMutableTreeNode("<html><font color='blue'>Supertypes</font> ("
+                    + hierarchy.getAllSupertypes(id).length + ")</html>");
+            DefaultMutableTreeNode subtypesNode = new DefaultMutableTreeNode("<html><font color='blue'>Subtypes</font> ("
+                    + hierarchy.getAllSubtypes(id).length + ")</html>");
+            hierarchyNode.add(supertypesNode);
+            hierarchyNode.add(subtypesNode);
+            addTypes(supertypesNode, hierarchy, hierarchy.getSupertypes(id), false);
+            addTypes(subtypesNode, hierarchy, hierarchy.getSubtypes(id), true);
+            //children of a type are added when it is expanded, all subtypes of java.lang.Object would be too many
+            tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+                public void treeWillExpand(TreeExpansionEvent event) {
+                    DefaultMutableTreeNode node = (DefaultMutableTreeNode) event.getPath().getLastPathComponent();
+                    if (node.getUserObject() instanceof TypeNode && node.getChildCount() == 1
+                            && ((DefaultMutableTreeNode) node.getFirstChild()).getUserObject() == TypeNode.LOADING) {
+                        TypeNode type = (TypeNode) node.getUserObject();
+                        node.removeAllChildren();
+                        addTypes(node, type.hierarchy, type.subtypes ? type.hierarchy.getSubtypes(type.id)
+                                : type.hierarchy.getSupertypes(type.id), type.subtypes);
+                        ((DefaultTreeModel) tree.getModel()).nodeStructureChanged(node);
+                    }
+                }
+
+                public void treeWillCollapse(TreeExpansionEvent event) {
+                }
+            });
+        }
+
         //build south panel
         JPanel southPanel = new JPanel();
         JButton closeB = new JButton("Close");
@@ -96,5 +144,38 @@ public class ClassExplorerDialog extends CenteredDialog {
         getContentPane().add(new JScrollPane(tree), BorderLayout.CENTER);
         getContentPane().add(southPanel, BorderLayout.SOUTH);
     }
-}
 
+    private static void addTypes(DefaultMutableTreeNode parent, TypeHierarchy hierarchy, int[] ids, boolean subtypes) {
+        for (int id : ids) {
+            DefaultMutableTreeNode node = new DefaultMutableTreeNode(new TypeNode(hierarchy, id, subtypes));
+            if (subtypes ? hierarchy.hasSubtypes(id) : hierarchy.getSupertypes(id).length > 0) {
+                node.add(new DefaultMutableTreeNode(TypeNode.LOADING));
+            }
+            parent.add(node);
+        }
+    }
+
+    /**
+     * A type in hierarchy tree, its children are its direct subtypes or its direct supertypes.
+     */
+    private static class TypeNode {
+        //placeholder child of a type which was not expanded yet
+        static final String LOADING = "...";
+
+        final TypeHierarchy hierarchy;
+        final int id;
+        final boolean subtypes;
+
+        TypeNode(TypeHierarchy hierarchy, int id, boolean subtypes) {
+            this.hierarchy = hierarchy;
+            this.id = id;
+            this.subtypes = subtypes;
+        }
+
+        public String toString() {
+            String name = hierarchy.getName(id);
+            //types only referred to, from jars which were not scanned
+            return hierarchy.isDeclared(id) ? name : "<html><font color='gray'>" + name + "</font></html>";
+        }
+    }
+}
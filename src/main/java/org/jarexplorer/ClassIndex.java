@@ -0,0 +1,346 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes over what classes declare: superclass, interfaces, method names and descriptors, return types
+ * and field types. Built from {@link ClassDeclaration}s read during a deep scan, kept by {@link EntryIndex}, which
+ * guards it with its lock.
+ * <p>
+ * Type names and method names are stored once in {@link NamePool}s. Every class is a row of name ids, and for every
+ * kind of query there is a posting list of class ids per name id, so a query is answered by the classes of the
+ * names which match it, without looking at any other class.
+ * <p>
+ * Queries are a prefix followed by a value:
+ * <ul>
+ * <li><code>extends:</code>type - classes with that superclass</li>
+ * <li><code>implements:</code>type - classes which declare that interface</li>
+ * <li><code>method:</code>name - classes which declare a method of that name, optionally followed by its
+ * descriptor: <code>method:getConnection(Ljava/lang/String;)</code></li>
+ * <li><code>returns:</code>type - classes which declare a method returning that type</li>
+ * <li><code>field:</code>type - classes which declare a field of that type</li>
+ * </ul>
+ * A type is given by its full name, <code>java.sql.Driver</code>, or by its simple name, <code>Driver</code>.
+ *
+ * @author Igor Polevoy
+ */
+class ClassIndex {
+
+    private static final String[] PREFIXES = {"extends:", "implements:", "method:", "returns:", "field:"};
+    private static final int EXTENDS = 0;
+    private static final int IMPLEMENTS = 1;
+    private static final int METHOD = 2;
+    private static final int RETURNS = 3;
+    private static final int FIELD = 4;
+
+    //dotted type names, method names and method descriptors
+    private final NamePool types = new NamePool();
+    private final NamePool members = new NamePool();
+
+    //class id -> jar file id, path and row of name ids: super (-1 for none), interface count, interfaces,
+    //method count, (name, descriptor, return type) per method, field count, (descriptor, type) per field
+    private IntList classJars = new IntList();
+    private ArrayList<String> classPaths = new ArrayList<>();
+    private ArrayList<int[]> rows = new ArrayList<>();
+    private BitSet removed = new BitSet();
+    private int removedCount;
+
+    //jar file id -> name, jar file name -> ids of its classes; a jar file which was not deep scanned is not here
+    private ArrayList<String> jarNames = new ArrayList<>();
+    private HashMap<String, IntList> jarClasses = new HashMap<>();
+
+    //query kind -> name id -> ids of classes, in order of addition
+    private ArrayList<ArrayList<IntList>> postings = newPostings();
+    //counts changes, tells when a type hierarchy built from this index is out of date
+    private int modifications;
+
+    private static ArrayList<ArrayList<IntList>> newPostings() {
+        ArrayList<ArrayList<IntList>> postings = new ArrayList<>();
+        for (int i = 0; i < PREFIXES.length; i++) {
+            postings.add(new ArrayList<IntList>());
+        }
+        return postings;
+    }
+
+    /**
+     * @return true if text is a query of this index, rather than a name of an entry
+     */
+    static boolean isQuery(String text) {
+        return kind(text) >= 0;
+    }
+
+    private static int kind(String text) {
+        for (int kind = 0; kind < PREFIXES.length; kind++) {
+            if (text.startsWith(PREFIXES[kind])) {
+                return kind;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds classes of a jar file, replacing those it had.
+     *
+     * @param jarFileName - name of the jar file
+     * @param classes     - declarations of all classes of the jar file, an empty list for a jar without classes
+     */
+    void addClasses(String jarFileName, List<ClassDeclaration> classes) {
+        removeJar(jarFileName);
+        modifications++;
+        int jarId = jarNames.size();
+        jarNames.add(jarFileName);
+        IntList ids = new IntList(classes.size());
+        for (ClassDeclaration declaration : classes) {
+            ids.add(add(jarId, declaration));
+        }
+        jarClasses.put(jarFileName, ids);
+    }
+
+    private int add(int jarId, ClassDeclaration declaration) {
+        int methodCount = declaration.methodNames.length;
+        int[] row = new int[4 + declaration.interfaces.length + 3 * methodCount
+                + 2 * declaration.fieldDescriptors.length];
+        int id = rows.size();
+        int i = 0;
+        row[i++] = declaration.superName == null ? -1 : post(EXTENDS, types.intern(declaration.superName), id);
+        row[i++] = declaration.interfaces.length;
+        for (String name : declaration.interfaces) {
+            row[i++] = post(IMPLEMENTS, types.intern(name), id);
+        }
+        row[i++] = methodCount;
+        for (int m = 0; m < methodCount; m++) {
+            String descriptor = declaration.methodDescriptors[m];
+            row[i++] = post(METHOD, members.intern(declaration.methodNames[m]), id);
+            row[i++] = members.intern(descriptor);
+            row[i++] = post(RETURNS, types.intern(ClassDeclaration.returnType(descriptor)), id);
+        }
+        row[i++] = declaration.fieldDescriptors.length;
+        for (String descriptor : declaration.fieldDescriptors) {
+            row[i++] = members.intern(descriptor);
+            row[i++] = post(FIELD, types.intern(ClassDeclaration.fieldType(descriptor)), id);
+        }
+        classJars.add(jarId);
+        classPaths.add(declaration.path);
+        rows.add(row);
+        return id;
+    }
+
+    /**
+     * @return name id
+     */
+    private int post(int kind, int nameId, int classId) {
+        ArrayList<IntList> lists = postings.get(kind);
+        while (lists.size() <= nameId) {
+            lists.add(null);
+        }
+        IntList ids = lists.get(nameId);
+        if (ids == null) {
+            lists.set(nameId, ids = new IntList(1));
+        }
+        //a class declaring several methods of a name is listed once
+        if (ids.size() == 0 || ids.last() != classId) {
+            ids.add(classId);
+        }
+        return nameId;
+    }
+
+    /**
+     * @return true if the jar file was in index
+     */
+    boolean removeJar(String jarFileName) {
+        IntList ids = jarClasses.remove(jarFileName);
+        if (ids == null) {
+            return false;
+        }
+        modifications++;
+        for (int i = 0; i < ids.size(); i++) {
+            removed.set(ids.get(i));
+        }
+        removedCount += ids.size();
+        if (removedCount > rows.size() / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds posting lists and rows without removed classes. Names stay in the pools.
+     */
+    private void compact() {
+        HashMap<String, List<ClassDeclaration>> classes = new HashMap<>();
+        for (String jarName : jarClasses.keySet()) {
+            classes.put(jarName, getClasses(jarName));
+        }
+        classJars = new IntList();
+        classPaths = new ArrayList<>();
+        rows = new ArrayList<>();
+        removed = new BitSet();
+        removedCount = 0;
+        jarNames = new ArrayList<>();
+        jarClasses = new HashMap<>();
+        postings = newPostings();
+        for (Map.Entry<String, List<ClassDeclaration>> jar : classes.entrySet()) {
+            addClasses(jar.getKey(), jar.getValue());
+        }
+    }
+
+    /**
+     * @return declarations of classes of a jar file, null if the jar file was not deep scanned
+     */
+    List<ClassDeclaration> getClasses(String jarFileName) {
+        IntList ids = jarClasses.get(jarFileName);
+        if (ids == null) {
+            return null;
+        }
+        ArrayList<ClassDeclaration> classes = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            classes.add(declaration(ids.get(i)));
+        }
+        return classes;
+    }
+
+    private ClassDeclaration declaration(int id) {
+        int[] row = rows.get(id);
+        int i = 0;
+        int superId = row[i++];
+        String[] interfaces = new String[row[i++]];
+        for (int j = 0; j < interfaces.length; j++) {
+            interfaces[j] = types.get(row[i++]);
+        }
+        int methodCount = row[i++];
+        String[] methodNames = new String[methodCount];
+        String[] methodDescriptors = new String[methodCount];
+        for (int m = 0; m < methodCount; m++) {
+            methodNames[m] = members.get(row[i++]);
+            methodDescriptors[m] = members.get(row[i++]);
+            i++; // return type, derived from descriptor
+        }
+        String[] fieldDescriptors = new String[row[i++]];
+        for (int j = 0; j < fieldDescriptors.length; j++) {
+            fieldDescriptors[j] = members.get(row[i++]);
+            i++; // type, derived from descriptor
+        }
+        return new ClassDeclaration(classPaths.get(id), superId < 0 ? null : types.get(superId), interfaces,
+                methodNames, methodDescriptors, fieldDescriptors);
+    }
+
+    /**
+     * @return number of changes made so far
+     */
+    int getModifications() {
+        return modifications;
+    }
+
+    /**
+     * Adds every class in index, with its superclass and interfaces, to a type hierarchy.
+     */
+    void addTypes(TypeHierarchy.Builder hierarchy) {
+        for (int id = 0; id < rows.size(); id++) {
+            if (removed.get(id)) {
+                continue;
+            }
+            int[] row = rows.get(id);
+            String[] interfaces = new String[row[1]];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = types.get(row[2 + i]);
+            }
+            String path = classPaths.get(id);
+            String name = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+            hierarchy.add(name, row[0] < 0 ? null : types.get(row[0]), interfaces);
+        }
+    }
+
+    /**
+     * @return number of classes in index
+     */
+    int size() {
+        return rows.size() - removedCount;
+    }
+
+    /**
+     * @param query - prefix and value, see class description
+     * @return classes matching query in order of addition, empty list if text is not a query
+     */
+    List<ClassInformation> search(String query) {
+        int kind = kind(query);
+        ArrayList<ClassInformation> result = new ArrayList<>();
+        if (kind < 0) {
+            return result;
+        }
+        String value = query.substring(PREFIXES[kind].length()).trim();
+        if (value.isEmpty()) {
+            return result;
+        }
+        String descriptor = null;
+        BitSet names;
+        if (kind == METHOD) {
+            int parenthesis = value.indexOf('(');
+            if (parenthesis >= 0) {
+                descriptor = value.substring(parenthesis);
+                value = value.substring(0, parenthesis);
+            }
+            names = new BitSet();
+            int id = members.find(value);
+            if (id >= 0) {
+                names.set(id);
+            }
+        } else {
+            names = matchTypes(value.replace('/', '.'));
+        }
+
+        ArrayList<IntList> lists = postings.get(kind);
+        //a class is found through a single name, except for a simple name shared by several types
+        BitSet found = new BitSet();
+        for (int nameId = names.nextSetBit(0); nameId >= 0 && nameId < lists.size();
+             nameId = names.nextSetBit(nameId + 1)) {
+            IntList ids = lists.get(nameId);
+            for (int i = 0; ids != null && i < ids.size(); i++) {
+                int id = ids.get(i);
+                if (!removed.get(id) && (descriptor == null || declaresMethod(id, nameId, descriptor))) {
+                    found.set(id);
+                }
+            }
+        }
+        for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+            result.add(new ClassInformation(jarNames.get(classJars.get(id)), classPaths.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * @return ids of types named <code>name</code>, or with a simple name <code>name</code>
+     */
+    private BitSet matchTypes(String name) {
+        BitSet result = new BitSet();
+        byte[] encoded = NamePool.encode(name);
+        for (int id = 0; id < types.size(); id++) {
+            if (types.endsWith(id, encoded)) {
+                String type = types.get(id);
+                int before = type.length() - name.length() - 1;
+                if (before < 0 || type.charAt(before) == '.' || type.charAt(before) == '$') {
+                    result.set(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if class declares a method of a name with a descriptor starting with <code>descriptor</code>
+     */
+    private boolean declaresMethod(int id, int nameId, String descriptor) {
+        int[] row = rows.get(id);
+        int i = 2 + row[1];
+        int methodCount = row[i++];
+        for (int m = 0; m < methodCount; m++, i += 3) {
+            if (row[i] == nameId && members.get(row[i + 1]).startsWith(descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,11 +3,8 @@ package org.jarexplorer;
 import javad.classfile.ClassFile;
 
 import java.util.ArrayList;
-import java.net.URL;
-import java.io.InputStream;
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -20,16 +17,20 @@ import java.io.IOException;
  * @author Igor Polevoy
  */
 public class ClassInformation {
-    private ArrayList<String> constructors = new ArrayList<>();
-    private String[] fields = new String[]{};
+    private static final String[] NONE = new String[]{};
+
+    //lightweight instances are created in large numbers, collections are only allocated by createFully
+    private ArrayList<String> constructors;
+    private String[] fields = NONE;
     private String modifiers = "";
     private String superclass = "";
-    private String[] interfaces = new String[]{};
-    private ArrayList<String> methods = new ArrayList<>();
+    private String[] interfaces = NONE;
+    private ArrayList<String> methods;
 
 
     private String jarFileName;
     private String classPath;
+    private ArchiveEntry entry;
 
     /**
      * Creates a lightweightstyle instance - no actual class information, just class name and a jar file.
@@ -44,25 +45,33 @@ public class ClassInformation {
         this.classPath = classPath;
     }
 
+    /**
+     * Creates a lightweight instance for an entry read from the central directory of a jar file.
+     *
+     * @param jarName - name of a jar file (fully qualified)
+     * @param entry   - jar file entry, with sizes and position of entry data in the jar file
+     */
+    public ClassInformation(String jarName, ArchiveEntry entry) {
+        this(jarName, entry.getName());
+        this.entry = entry;
+    }
+
     /**
      * Creates a fully filled instance of {@link ClassInformation} by parsing bytecode.
      *
-     * @param jarName   - name of jar file
+     * @param jarName   - name of jar file, may be a jar nested in other ones: outer.war!/WEB-INF/lib/inner.jar
      * @param className - name of class (in format: pack1/pack2/pack3/ClassName.class)
      * @return instance of {@link ClassInformation} filled with all values parsed from
      * bytecode
      * @throws IOException - thrown in case there is a problem reading bytecode
      */
     public static ClassInformation createFully(String jarName, String className) throws IOException {
-        URL u = new URL("jar:file:" + jarName + "!/" + className);
-        InputStream in = u.openConnection().getInputStream();
-        BufferedInputStream bin = new BufferedInputStream(in);
-        DataInputStream din = new DataInputStream(bin);
+        ByteBuffer classBytes = Util.readResource(jarName, className);
 
         ClassInformation classInfo = new ClassInformation(jarName, className);
 
         if (className.endsWith(".class")) {
-            ClassFile classFile = new ClassFile(din);
+            ClassFile classFile = new ClassFile(classBytes);
             classInfo.setModifiers(classFile.getClassModifiers());
             classInfo.setConstructors(classFile.getConstructors());
             classInfo.setFields(classFile.getFields());
@@ -85,6 +94,15 @@ public class ClassInformation {
     }
 
 
+    /**
+     * @return entry of the jar file as found in its central directory, null if this instance was created
+     * for a class name only
+     */
+    public ArchiveEntry getEntry() {
+        return entry;
+    }
+
+
     public String getClassName() {
         //need to replace slashes with dots and remove .class
         String tmp = classPath.replace('/', '.');
@@ -99,10 +117,16 @@ public class ClassInformation {
 
 
     public ArrayList<String> getMethods() {
+        if (methods == null) {
+            methods = new ArrayList<>();
+        }
         return methods;
     }
 
     public ArrayList<String> getConstructors() {
+        if (constructors == null) {
+            constructors = new ArrayList<>();
+        }
         return constructors;
     }
 
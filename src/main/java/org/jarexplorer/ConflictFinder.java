@@ -0,0 +1,181 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds classes at the same path in several archives of an {@link EntryTable}.
+ * <p>
+ * A path is a package id and a name id, so entries are grouped by a long made of the two, no string is built or
+ * hashed. The table is read once, and every class entry is put into one of a number of partitions by the hash of
+ * its path; all entries of a path land in the same partition. Partitions are then grouped one at a time with a small
+ * open addressing table, which stays in cache however large the index is. Only paths found more than once become
+ * strings and {@link ClassConflict}s.
+ * <p>
+ * An entry of a set shared by jar files with the same content stands for one copy of the class in each of them.
+ *
+ * @author Igor Polevoy
+ */
+class ConflictFinder {
+
+    //entries per partition, about
+    private static final int PARTITION_SIZE = 8192;
+    private static final String CLASS_SUFFIX = ".class";
+    //the same in every modular jar
+    private static final String MODULE_INFO = "module-info.class";
+
+    private ConflictFinder() {
+    }
+
+    /**
+     * @param table    - entries, removed ones are skipped
+     * @param packages - packages of entries
+     * @param names    - simple names of entries
+     * @param setJars  - ids of jar files by entry set id, null for removed sets
+     * @param jarNames - names of jar files by id
+     * @return classes found in more than one archive: those which differ first, then identical ones, each sorted
+     * by path
+     */
+    static List<ClassConflict> find(EntryTable table, NamePool packages, NamePool names, int[][] setJars,
+                                    final List<String> jarNames) {
+        boolean[] classNames = new boolean[names.size()];
+        byte[] suffix = NamePool.encode(CLASS_SUFFIX);
+        int moduleInfo = names.find(MODULE_INFO);
+        for (int id = 0; id < classNames.length; id++) {
+            classNames[id] = id != moduleInfo && names.endsWith(id, suffix);
+        }
+
+        //single pass: partition entry ids by hash of path
+        int partitionCount = Integer.highestOneBit(Math.max(1, table.size() / PARTITION_SIZE));
+        IntList[] partitions = new IntList[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new IntList(table.size() / partitionCount + 16);
+        }
+        boolean anyRemoved = table.removedCount() > 0;
+        for (int id = 0; id < table.size(); id++) {
+            if (classNames[table.nameId(id)] && !(anyRemoved && table.isRemoved(id))) {
+                partitions[hash(key(table, id)) & (partitionCount - 1)].add(id);
+            }
+        }
+
+        //jar files of a class are listed by name, ranks are compared rather than names
+        Integer[] byName = new Integer[jarNames.size()];
+        for (int jarId = 0; jarId < byName.length; jarId++) {
+            byName[jarId] = jarId;
+        }
+        Arrays.sort(byName, new Comparator<Integer>() {
+            public int compare(Integer id1, Integer id2) {
+                return jarNames.get(id1).compareTo(jarNames.get(id2));
+            }
+        });
+        int[] jarRanks = new int[byName.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            jarRanks[byName[rank]] = rank;
+        }
+
+        ArrayList<ClassConflict> conflicts = new ArrayList<>();
+        for (IntList partition : partitions) {
+            group(table, partition, packages, names, setJars, jarNames, jarRanks, conflicts);
+        }
+        Collections.sort(conflicts, new Comparator<ClassConflict>() {
+            public int compare(ClassConflict c1, ClassConflict c2) {
+                if (c1.isIdentical() != c2.isIdentical()) {
+                    return c1.isIdentical() ? 1 : -1;
+                }
+                return c1.getPath().compareTo(c2.getPath());
+            }
+        });
+        return conflicts;
+    }
+
+    /**
+     * Groups entries of a partition by path, adds paths with more than one entry to conflicts.
+     */
+    private static void group(EntryTable table, IntList partition, NamePool packages, NamePool names,
+                              int[][] setJars, List<String> jarNames, int[] jarRanks, List<ClassConflict> conflicts) {
+        int size = partition.size();
+        if (size == 0) {
+            return;
+        }
+        int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+        long[] keys = new long[capacity];
+        //index of last entry of a path + 1, 0 is an empty slot; earlier entries are chained through next
+        int[] heads = new int[capacity];
+        //copies, an entry of a shared set is a copy in every jar file of the set
+        int[] counts = new int[capacity];
+        int[] next = new int[size];
+        for (int i = 0; i < size; i++) {
+            long key = key(table, partition.get(i));
+            int slot = hash(key) >>> 16 & (capacity - 1);
+            while (heads[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = key;
+            next[i] = heads[slot] - 1;
+            heads[slot] = i + 1;
+            counts[slot] += setJars[table.setId(partition.get(i))].length;
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            if (counts[slot] < 2) {
+                continue;
+            }
+            int[] ids = new int[counts[slot]];
+            int[] jarIds = new int[counts[slot]];
+            int n = 0;
+            for (int i = heads[slot] - 1; i >= 0; i = next[i]) {
+                int id = partition.get(i);
+                for (int jarId : setJars[table.setId(id)]) {
+                    ids[n] = id;
+                    jarIds[n++] = jarId;
+                }
+            }
+            conflicts.add(conflict(table, ids, jarIds, packages, names, jarNames, jarRanks));
+        }
+    }
+
+    /**
+     * @param ids    - entries of a path, one for every copy
+     * @param jarIds - jar file of every copy
+     */
+    private static ClassConflict conflict(EntryTable table, int[] ids, int[] jarIds, NamePool packages,
+                                          NamePool names, List<String> jarNames, int[] jarRanks) {
+        //insertion sort by jar name, a class is rarely in more than a few jars
+        for (int i = 1; i < ids.length; i++) {
+            int id = ids[i];
+            int jarId = jarIds[i];
+            int rank = jarRanks[jarId];
+            int j = i - 1;
+            while (j >= 0 && jarRanks[jarIds[j]] > rank) {
+                ids[j + 1] = ids[j];
+                jarIds[j + 1] = jarIds[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            jarIds[j + 1] = jarId;
+        }
+        String[] jars = new String[ids.length];
+        long[] crcs = new long[ids.length];
+        long[] sizes = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            jars[i] = jarNames.get(jarIds[i]);
+            crcs[i] = table.crc(id);
+            sizes[i] = table.size(id);
+        }
+        int id = ids[0];
+        return new ClassConflict(packages.get(table.packageId(id)).concat(names.get(table.nameId(id))), jars, crcs,
+                sizes);
+    }
+
+    private static long key(EntryTable table, int id) {
+        return (long) table.packageId(id) << 32 | table.nameId(id);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,78 @@
+package org.jarexplorer;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+
+/**
+ * Displays classes found in more than one archive, see {@link EntryIndex#findConflicts()}: those which differ
+ * between archives, then those which are identical. Every class lists its archives with CRC and size.
+ *
+ * @author Igor Polevoy
+ */
+public class ConflictsDialog extends CenteredDialog {
+
+    private static final long serialVersionUID = 8175384732294466505L;
+
+    /**
+     * Constructs an instance
+     *
+     * @param owner     - top level frame
+     * @param conflicts - classes found in more than one archive
+     */
+    public ConflictsDialog(Frame owner, List<ClassConflict> conflicts) {
+        super(owner, "Class Conflicts", false);
+
+        getContentPane().setLayout(new BorderLayout());
+
+        int differing = 0;
+        while (differing < conflicts.size() && !conflicts.get(differing).isIdentical()) {
+            differing++;
+        }
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("<html><font color='blue'>Classes in more than one archive: </font>"
+                + conflicts.size() + "</html>");
+        DefaultMutableTreeNode differNode;
+        DefaultMutableTreeNode identicalNode;
+        root.add(differNode = new DefaultMutableTreeNode("<html><font color='blue'>Different Bytes</font> ("
+                + differing + ")</html>"));
+        root.add(identicalNode = new DefaultMutableTreeNode("<html><font color='blue'>Identical Copies</font> ("
+                + (conflicts.size() - differing) + ")</html>"));
+
+        for (ClassConflict conflict : conflicts) {
+            DefaultMutableTreeNode classNode = new DefaultMutableTreeNode(conflict.getPath());
+            String[] jarNames = conflict.getJarNames();
+            long[] crcs = conflict.getCrcs();
+            long[] sizes = conflict.getSizes();
+            for (int i = 0; i < jarNames.length; i++) {
+                classNode.add(new DefaultMutableTreeNode(jarNames[i] + "    crc: "
+                        + (crcs[i] < 0 ? "unknown" : Long.toHexString(crcs[i])) + ", size: " + sizes[i]));
+            }
+            (conflict.isIdentical() ? identicalNode : differNode).add(classNode);
+        }
+
+        JTree tree = new JTree();
+        DefaultTreeCellRenderer renderer = (DefaultTreeCellRenderer) tree.getCellRenderer();
+        renderer.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        ((DefaultTreeModel) tree.getModel()).setRoot(root);
+        tree.expandRow(1);
+
+        //build south panel
+        JPanel southPanel = new JPanel();
+        JButton closeB = new JButton("Close");
+        southPanel.add(closeB);
+        closeB.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                dispose();
+            }
+        });
+
+        getContentPane().add(new JScrollPane(tree), BorderLayout.CENTER);
+        getContentPane().add(southPanel, BorderLayout.SOUTH);
+    }
+}
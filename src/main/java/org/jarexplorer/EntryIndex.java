@@ -1,9 +1,36 @@
 package org.jarexplorer;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Brute force index of jar file entries.
+ * Index of jar file entries. Entries are kept in a compact form: each entry path is split into a package
+ * (everything up to the last '/') and a simple name, both are stored once in a {@link NamePool}, and an entry
+ * is a row of numbers in an {@link EntryTable}. {@link ClassInformation} instances are only created for entries
+ * which are actually looked at, see {@link #search(String)}.
+ * <p>
+ * Substring search is backed by a {@link TrigramIndex} over distinct packages and over distinct simple names,
+ * which are far fewer than entries; entries are then taken from lists of entries by package and by simple name,
+ * see {@link #buildPostings()}. Searches give up when their thread is interrupted.
+ * Entries of every jar file are kept in a list sorted by path.
+ * <p>
+ * Jar files with the same content, as told by a fingerprint of their central directory, see
+ * {@link CentralDirectory#fingerprint(String)}, share one set of entries: the same libraries are often found many
+ * times over in a directory of applications. A shared set is copied before it is changed for one of its jar files.
+ * Searches return an entry once for every jar file which has it.
+ * <p>
+ * Packages of all jar files form a {@link PackageTree}, which counts entries under every package and knows the jar
+ * files which have them, see {@link #getPackage(String)}.
+ * <p>
+ * Ranked searches, which find classes by abbreviations and names with typos as well, score distinct simple names
+ * with a {@link NameRanker}, see {@link #searchRanked(String, int)}.
+ * <p>
+ * Declarations of classes, when jar files were deep scanned, are kept in a {@link ClassIndex} and searched with
+ * queries such as <code>implements:java.sql.Driver</code>, see {@link #search(String)}.
+ * <p>
+ * Safe for use by multiple threads: entries can be added while searches are running.
  *
  * @author greg.tatham,
  * Date: Jul 27, 2007
@@ -11,8 +38,101 @@ import java.util.*;
  */
 public class EntryIndex {
 
-    private HashMap<String, ClassInformation> indexMap = new HashMap<String, ClassInformation>();
+    private static final int CONTAINS = 0;
+    private static final int STARTS_WITH = 1;
+    private static final int ENDS_WITH = 2;
 
+    //packages end with '/', entries in the root of a jar have an empty package
+    private final NamePool packages = new NamePool();
+    private final NamePool names = new NamePool();
+    //null until built, searches scan all packages and names meanwhile
+    private TrigramIndex packageTrigrams;
+    private TrigramIndex nameTrigrams;
+
+    //all entries, position in table is entry id
+    private EntryTable table = new EntryTable();
+    //jar file id -> name, names of removed jar files stay here, ids are never reused
+    private final ArrayList<String> jarNames = new ArrayList<>();
+    private final HashMap<String, Integer> jarIds = new HashMap<>();
+    //jar file name -> jar file
+    private final HashMap<String, IndexedJar> jars = new HashMap<>();
+    //entry set id -> ids of entries sorted by entry path, null once removed; ids are never reused
+    private final ArrayList<EntrySet> sets = new ArrayList<>();
+    //fingerprint of jar file -> its entry set, while the set is unchanged
+    private final HashMap<Long, EntrySet> fingerprints = new HashMap<>();
+    //packages as a trie, with entry counts and jar files of every package, kept up to date as entries change
+    private final PackageTree packageTree = new PackageTree();
+    //scores simple names for ranked searches, brought up to date with names when searched
+    private final NameRanker ranker = new NameRanker();
+    //entries by package and by simple name, of the table as it was when they were built, null until then
+    private volatile Postings postings;
+    //declarations of classes of deep scanned jar files
+    private final ClassIndex classes = new ClassIndex();
+    //built on demand, with the number of changes of classes it was built from
+    private TypeHierarchy hierarchy;
+    private int hierarchyModifications;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public EntryIndex() {
+        this(true);
+    }
+
+    /**
+     * @param searchIndex - false to add entries without indexing them for search, which is done later
+     *                    by {@link #buildSearchIndex()}
+     */
+    EntryIndex(boolean searchIndex) {
+        if (searchIndex) {
+            packageTrigrams = new TrigramIndex();
+            nameTrigrams = new TrigramIndex();
+        }
+    }
+
+    /**
+     * Builds the search index, if this index was created without one. Until the search index is built, searches
+     * scan all distinct packages and simple names, which is fine to do for a while right after a saved index
+     * was loaded. Entries can be searched and added while this method is running.
+     */
+    public void buildSearchIndex() {
+        TrigramIndex builtPackages = new TrigramIndex();
+        TrigramIndex builtNames = new TrigramIndex();
+        int packageCount;
+        int nameCount;
+        lock.readLock().lock();
+        try {
+            if (packageTrigrams != null) {
+                return;
+            }
+            packageCount = addTrigrams(builtPackages, packages, 0);
+            nameCount = addTrigrams(builtNames, names, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (packageTrigrams == null) {
+                //names are only ever appended to pools, add those which came meanwhile
+                addTrigrams(builtPackages, packages, packageCount);
+                addTrigrams(builtNames, names, nameCount);
+                packageTrigrams = builtPackages;
+                nameTrigrams = builtNames;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of names in pool
+     */
+    private static int addTrigrams(TrigramIndex trigrams, NamePool pool, int from) {
+        int size = pool.size();
+        for (int id = from; id < size; id++) {
+            trigrams.add(id, pool.get(id));
+        }
+        return size;
+    }
 
     /**
      * Adds new entry to index.
@@ -21,61 +141,1504 @@ public class EntryIndex {
      * @param jarFileName - name of the jar file
      */
     public void addEntryName(String jarFileName, String className) {
-        //lightweight instance of ClassInformation:
-        ClassInformation classInfo = new ClassInformation(jarFileName, className);
+        lock.writeLock().lock();
+        try {
+            insert(jar(jarFileName), new ArchiveEntry(className, -1, -1, -1, -1, -1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds all entries of a jar file to index at once.
+     *
+     * @param jarFileName - name of the jar file
+     * @param entries     - entries of the jar file, as read from its central directory
+     */
+    public void addEntries(String jarFileName, List<ArchiveEntry> entries) {
+        addEntries(jarFileName, -1, -1, entries);
+    }
+
+    /**
+     * Adds all entries of a jar file to index at once and remembers size and modification time of the file,
+     * so that it does not need to be read again while it stays unchanged, see {@link #getUnchangedEntries}.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - size of the jar file, -1 if not known
+     * @param lastModified - modification time of the jar file, -1 if not known
+     * @param entries      - entries of the jar file, as read from its central directory
+     */
+    public void addEntries(String jarFileName, long size, long lastModified, List<ArchiveEntry> entries) {
+        addEntries(jarFileName, size, lastModified, 0, entries);
+    }
+
+    /**
+     * Adds all entries of a jar file to index at once, see {@link #addEntries(String, long, long, List)}. If a jar
+     * file with the same fingerprint is in index, its entries are shared rather than added again.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - size of the jar file, -1 if not known
+     * @param lastModified - modification time of the jar file, -1 if not known
+     * @param fingerprint  - fingerprint of the jar file, see {@link CentralDirectory#fingerprint(String)}, 0 if not
+     *                     known
+     * @param entries      - entries of the jar file, as read from its central directory
+     */
+    public void addEntries(String jarFileName, long size, long lastModified, long fingerprint,
+                           List<ArchiveEntry> entries) {
+        //sorted here, off the lock, so ids of a jar come out in path order
+        ArchiveEntry[] sorted = entries.toArray(new ArchiveEntry[entries.size()]);
+        Arrays.sort(sorted, new Comparator<ArchiveEntry>() {
+            public int compare(ArchiveEntry e1, ArchiveEntry e2) {
+                return e1.getName().compareTo(e2.getName());
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            IndexedJar jar = jar(jarFileName);
+            jar.fileSize = size;
+            jar.lastModified = lastModified;
+            if (jar.entries.size() == 0) {
+                if (share(jar, fingerprint)) {
+                    return;
+                }
+                EntrySet set = modifiable(jar);
+                String previous = null;
+                for (ArchiveEntry entry : sorted) {
+                    //duplicates are adjacent after sorting
+                    if (!entry.getName().equals(previous)) {
+                        set.add(add(set.id, entry));
+                        previous = entry.getName();
+                    }
+                }
+                countPackages(set);
+                if (fingerprint != 0) {
+                    set.fingerprint = fingerprint;
+                    fingerprints.put(fingerprint, set);
+                }
+            } else {
+                for (ArchiveEntry entry : sorted) {
+                    insert(jar, entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives a jar file the entries of a jar file with the same fingerprint which is in index already, replacing
+     * entries it had. Nothing is read or copied, the entries are shared.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - size of the jar file, -1 if not known
+     * @param lastModified - modification time of the jar file, -1 if not known
+     * @param fingerprint  - fingerprint of the jar file, see {@link CentralDirectory#fingerprint(String)}
+     * @return false if there is no jar file with the fingerprint in index, the jar file is not added then
+     */
+    public boolean shareEntries(String jarFileName, long size, long lastModified, long fingerprint) {
+        lock.writeLock().lock();
+        try {
+            if (fingerprint == 0 || !fingerprints.containsKey(fingerprint)) {
+                return false;
+            }
+            IndexedJar jar = jar(jarFileName);
+            jar.fileSize = size;
+            jar.lastModified = lastModified;
+            share(jar, fingerprint);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return fingerprint of a jar file, 0 if not known or if its entries were changed after it was added
+     */
+    long getFingerprint(String jarFileName) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarFileName);
+            return jar == null ? 0 : jar.entries.fingerprint;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a jar file to the entry set with a fingerprint.
+     *
+     * @return false if there is no such set
+     */
+    private boolean share(IndexedJar jar, long fingerprint) {
+        EntrySet set = fingerprint == 0 ? null : fingerprints.get(fingerprint);
+        if (set == null) {
+            return false;
+        }
+        if (set != jar.entries) {
+            detach(jar);
+            jar.entries = set;
+            set.jars.add(jar.id);
+            packageTree.addJar(set.id, jar.id);
+        }
+        return true;
+    }
+
+    /**
+     * Takes a jar file out of its entry set, the entries are removed when no other jar file has them.
+     */
+    private void detach(IndexedJar jar) {
+        EntrySet set = jar.entries;
+        set.removeJar(jar.id);
+        packageTree.removeJar(set.id, jar.id);
+        if (set.jars.size() == 0) {
+            for (int i = 0; i < set.size(); i++) {
+                table.remove(set.get(i));
+            }
+            sets.set(set.id, null);
+            packageTree.removeSet(set.id);
+            unregister(set);
+        }
+    }
+
+    /**
+     * @return entry set of a jar file which can be changed: a set shared with other jar files is copied first
+     */
+    private EntrySet modifiable(IndexedJar jar) {
+        EntrySet set = jar.entries;
+        if (set.jars.size() > 1) {
+            EntrySet copy = newSet();
+            for (int i = 0; i < set.size(); i++) {
+                int id = set.get(i);
+                copy.add(table.add(copy.id, table.packageId(id), table.nameId(id), entry(table, id)));
+            }
+            set.removeJar(jar.id);
+            packageTree.removeJar(set.id, jar.id);
+            copy.jars.add(jar.id);
+            jar.entries = copy;
+            countPackages(copy);
+            return copy;
+        }
+        //entries are about to differ from those of the fingerprinted file
+        unregister(set);
+        return set;
+    }
+
+    private void unregister(EntrySet set) {
+        if (set.fingerprint != 0 && fingerprints.get(set.fingerprint) == set) {
+            fingerprints.remove(set.fingerprint);
+        }
+        set.fingerprint = 0;
+    }
+
+    private EntrySet newSet() {
+        EntrySet set = new EntrySet(sets.size());
+        sets.add(set);
+        return set;
+    }
+
+    /**
+     * Adds declarations of all classes of a jar file, replacing those it had. Entries of the jar file are added
+     * separately, by {@link #addEntries}.
+     *
+     * @param jarFileName - name of the jar file
+     * @param classes     - declarations of classes of the jar file, as read during a deep scan
+     */
+    void addClasses(String jarFileName, List<ClassDeclaration> classes) {
+        lock.writeLock().lock();
+        try {
+            this.classes.addClasses(jarFileName, classes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return declarations of classes of a jar file, null if the jar file was not deep scanned
+     */
+    List<ClassDeclaration> getClasses(String jarFileName) {
+        lock.readLock().lock();
+        try {
+            return classes.getClasses(jarFileName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the hierarchy of deep scanned classes. It is built on first use, and again after classes changed,
+     * which takes a fraction of a second for a few hundred thousand classes.
+     *
+     * @return hierarchy of types of all classes with declarations in index, empty if there are none
+     */
+    public TypeHierarchy getTypeHierarchy() {
+        lock.readLock().lock();
+        try {
+            synchronized (classes) {
+                if (hierarchy == null || hierarchyModifications != classes.getModifications()) {
+                    TypeHierarchy.Builder builder = new TypeHierarchy.Builder();
+                    classes.addTypes(builder);
+                    hierarchy = builder.build();
+                    hierarchyModifications = classes.getModifications();
+                }
+                return hierarchy;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of classes with declarations in index
+     */
+    public int classCount() {
+        lock.readLock().lock();
+        try {
+            return classes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an entry to a jar which may already have entries, keeping them sorted and unique.
+     */
+    private void insert(IndexedJar jar, ArchiveEntry entry) {
+        String path = entry.getName();
+        EntrySet set = jar.entries;
+        int low = 0;
+        int high = set.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = path(table, set.get(middle)).compareTo(path);
+            if (comparison == 0) {
+                return; // in index already
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        set = modifiable(jar);
+        int id = add(set.id, entry);
+        set.add(low, id);
+        int packageId = table.packageId(id);
+        packageTree.addEntries(set.id, set.jars, packageId, packages.get(packageId), 1);
+    }
+
+    /**
+     * Counts all entries of a set in the package tree, a run of entries in the same package at a time.
+     */
+    private void countPackages(EntrySet set) {
+        int i = 0;
+        while (i < set.size()) {
+            int packageId = table.packageId(set.get(i));
+            int start = i;
+            while (i < set.size() && table.packageId(set.get(i)) == packageId) {
+                i++;
+            }
+            packageTree.addEntries(set.id, set.jars, packageId, packages.get(packageId), i - start);
+        }
+    }
+
+    /**
+     * @return id of added entry
+     */
+    private int add(int setId, ArchiveEntry entry) {
+        String path = entry.getName();
+        int slash = path.lastIndexOf('/');
+        int packageId = intern(packages, packageTrigrams, path.substring(0, slash + 1));
+        int nameId = intern(names, nameTrigrams, path.substring(slash + 1));
+        return table.add(setId, packageId, nameId, entry);
+    }
 
-        //add array if not found
-        if (!indexMap.containsKey(classInfo.getKey())) {
-            indexMap.put(classInfo.getKey(), classInfo);
+    private static int intern(NamePool pool, TrigramIndex trigrams, String name) {
+        int size = pool.size();
+        int id = pool.intern(name);
+        if (id == size && trigrams != null) {
+            trigrams.add(id, name);
+        }
+        return id;
+    }
+
+    private IndexedJar jar(String jarFileName) {
+        IndexedJar jar = jars.get(jarFileName);
+        if (jar == null) {
+            Integer id = jarIds.get(jarFileName);
+            if (id == null) {
+                id = jarNames.size();
+                jarNames.add(jarFileName);
+                jarIds.put(jarFileName, id);
+            }
+            jars.put(jarFileName, jar = new IndexedJar(id, newSet()));
+            jar.entries.jars.add(id);
+        }
+        return jar;
+    }
+
+    /**
+     * Removes all entries of a jar file from index.
+     *
+     * @param jarFileName - name of the jar file
+     * @return true if jar file was in index
+     */
+    public boolean removeJar(String jarFileName) {
+        lock.writeLock().lock();
+        try {
+            classes.removeJar(jarFileName);
+            IndexedJar jar = jars.remove(jarFileName);
+            if (jar == null) {
+                return false;
+            }
+            detach(jar);
+            if (table.removedCount() > table.size() / 2) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces entries of a jar file, for a jar file which changed since it was indexed.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - size of the jar file
+     * @param lastModified - modification time of the jar file
+     * @param entries      - new entries of the jar file
+     */
+    public void replaceEntries(String jarFileName, long size, long lastModified, List<ArchiveEntry> entries) {
+        replaceEntries(jarFileName, size, lastModified, 0, entries);
+    }
+
+    /**
+     * Replaces entries of a jar file, see {@link #replaceEntries(String, long, long, List)}. If another jar file
+     * with the same fingerprint is in index, its entries are shared rather than added again.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - size of the jar file
+     * @param lastModified - modification time of the jar file
+     * @param fingerprint  - fingerprint of the jar file, see {@link CentralDirectory#fingerprint(String)}, 0 if not
+     *                     known
+     * @param entries      - new entries of the jar file
+     */
+    public void replaceEntries(String jarFileName, long size, long lastModified, long fingerprint,
+                               List<ArchiveEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            //write lock is reentrant, searches never see the jar missing
+            removeJar(jarFileName);
+            addEntries(jarFileName, size, lastModified, fingerprint, entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops removed entries, renumbering the rest. A new table is built, so that lists returned
+     * by searches on the old one stay valid.
+     */
+    private void compact() {
+        int[] newIds = new int[table.size()];
+        EntryTable compacted = table.compact(newIds);
+        for (EntrySet set : sets) {
+            if (set != null) {
+                set.renumber(newIds);
+            }
+        }
+        table = compacted;
+    }
+
+    /**
+     * Returns entries of a jar file, provided the file did not change since it was indexed.
+     *
+     * @param jarFileName  - name of the jar file
+     * @param size         - current size of the jar file
+     * @param lastModified - current modification time of the jar file
+     * @return entries of the jar file sorted by path, null if jar file is not in index or it changed since
+     */
+    public List<ArchiveEntry> getUnchangedEntries(String jarFileName, long size, long lastModified) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarFileName);
+            if (jar == null || jar.fileSize < 0 || jar.fileSize != size || jar.lastModified != lastModified) {
+                return null;
+            }
+            return entriesOf(jar);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return entries of a jar file sorted by path, empty list if jar file is not in index
+     */
+    List<ArchiveEntry> getEntries(String jarFileName) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarFileName);
+            return jar == null ? new ArrayList<ArchiveEntry>() : entriesOf(jar);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ArchiveEntry> entriesOf(IndexedJar jar) {
+        EntrySet set = jar.entries;
+        ArrayList<ArchiveEntry> result = new ArrayList<>(set.size());
+        for (int i = 0; i < set.size(); i++) {
+            result.add(entry(table, set.get(i)));
+        }
+        return result;
+    }
+
+    private String path(EntryTable table, int id) {
+        return packages.get(table.packageId(id)).concat(names.get(table.nameId(id)));
+    }
+
+    private ArchiveEntry entry(EntryTable table, int id) {
+        return new ArchiveEntry(path(table, id), table.method(id), table.compressedSize(id), table.size(id),
+                table.crc(id), table.localHeaderOffset(id));
+    }
+
+    /**
+     * @return size of a jar file when it was indexed, -1 if not known
+     */
+    long getJarSize(String jarFileName) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarFileName);
+            return jar == null ? -1 : jar.fileSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return modification time of a jar file when it was indexed, -1 if not known
+     */
+    long getJarLastModified(String jarFileName) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarFileName);
+            return jar == null ? -1 : jar.lastModified;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return names of all jar files in index, sorted
+     */
+    public ArrayList<String> getJarNames() {
+        lock.readLock().lock();
+        try {
+            ArrayList<String> names = new ArrayList<>(jars.keySet());
+            Collections.sort(names);
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of entries in index, entries shared by jar files with the same content are counted for each
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (IndexedJar jar : jars.values()) {
+                size += jar.entries.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of entries actually stored, entries shared by jar files with the same content count once
+     */
+    int storedSize() {
+        lock.readLock().lock();
+        try {
+            return table.size() - table.removedCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of the arrays which hold entries, names, their trigrams and postings, as allocated. Objects are left out,
+     * there is a handful for every jar file, not for every entry.
+     *
+     * @return bytes
+     */
+    long arrayBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = table.arrayBytes() + packages.arrayBytes() + names.arrayBytes();
+            if (packageTrigrams != null) {
+                bytes += packageTrigrams.arrayBytes() + nameTrigrams.arrayBytes();
+            }
+            for (EntrySet set : sets) {
+                if (set != null) {
+                    bytes += set.jars.arrayBytes() + (set.ids == null ? 0 : set.ids.arrayBytes());
+                }
+            }
+            Postings built = postings;
+            if (built != null) {
+                bytes += built.arrayBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
     /**
      * Performs a search for a name.
+     * <p>
+     * A path is a package ending with '/' followed by a simple name without '/', so a query without '/' is found
+     * either in the package or in the simple name of an entry, and a query with '/' is either found in the package,
+     * or the query up to its last '/' ends the package and the rest of the query starts the simple name.
+     * <p>
+     * Queries of deep scanned classes start with <code>extends:</code>, <code>implements:</code>,
+     * <code>method:</code>, <code>returns:</code> or <code>field:</code>, see {@link ClassIndex}.
      *
-     * @param name - name of a resource or class in format: <code>dir/dir/Resource.extension</code>, or any substring.
-     * @return list of {@link ClassInformation} instances.
+     * @param name - name of a resource or class in format: <code>dir/dir/Resource.extension</code>, any substring,
+     *             or a query of class declarations.
+     * @return list of {@link ClassInformation} instances, created as they are retrieved from the list.
+     * @throws CancellationException if the thread is interrupted
      */
-    public ArrayList<ClassInformation> search(String name) {
-        //not a real index, just a brute force linera search
-        Iterator<ClassInformation> values = indexMap.values().iterator();
+    public List<ClassInformation> search(String name) {
+        lock.readLock().lock();
+        try {
+            if (ClassIndex.isQuery(name)) {
+                return classes.search(name);
+            }
+            EntryTable table = this.table;
+            SubstringFilter filter = substringFilter(name);
+            if (filter.isEmpty()) {
+                return new EntryList(table, new int[0], -1);
+            }
+            return expand(table, collect(table, filter));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
-        ArrayList<ClassInformation> results = new ArrayList<>();
+    /**
+     * Finds entries by a glob, such as <code>com/acme/**&#47;*Dao.class</code>; a glob without '/' matches simple
+     * names, see {@link PathPattern}.
+     *
+     * @param glob - glob matching whole paths or names
+     * @return list of {@link ClassInformation} instances, created as they are retrieved from the list.
+     * @throws java.util.regex.PatternSyntaxException if glob has unbalanced brackets
+     * @throws CancellationException                  if the thread is interrupted
+     */
+    public List<ClassInformation> searchGlob(String glob) {
+        return searchPattern(PathPattern.glob(glob));
+    }
 
-        while (values.hasNext()) {
-            ClassInformation classInfo = values.next();
+    /**
+     * Finds entries with a path in which a regular expression is found, such as <code>Impl\$[0-9]+\.class</code>.
+     *
+     * @param regex - regular expression
+     * @return list of {@link ClassInformation} instances, created as they are retrieved from the list.
+     * @throws java.util.regex.PatternSyntaxException if regex is not valid
+     * @throws CancellationException                  if the thread is interrupted
+     */
+    public List<ClassInformation> searchRegex(String regex) {
+        return searchPattern(PathPattern.regex(regex));
+    }
 
-            if (classInfo.getClassPath().contains(name)) {
+    /**
+     * Narrows entries down to those containing every literal fragment of the pattern, found with trigrams like
+     * substrings are, then runs the pattern on each of them. Candidates are taken from the postings of the fragment
+     * with the fewest entries; only a pattern without fragments is run on all entries. A pattern of names is run
+     * once per distinct name rather than per entry.
+     */
+    private List<ClassInformation> searchPattern(PathPattern pattern) {
+        lock.readLock().lock();
+        try {
+            EntryTable table = this.table;
+            List<String> literals = pattern.getLiterals();
+            SubstringFilter[] filters = new SubstringFilter[literals.size()];
+            for (int i = 0; i < filters.length; i++) {
+                filters[i] = substringFilter(literals.get(i));
+                if (filters[i].isEmpty()) {
+                    return new EntryList(table, new int[0], -1);
+                }
+            }
+            boolean anyRemoved = table.removedCount() > 0;
+            if (pattern.isNameOnly()) {
+                //a name has no '/', its fragments are all in names
+                boolean[] nameMatches = new boolean[names.size()];
+                for (int nameId = 0; nameId < nameMatches.length; nameId++) {
+                    checkInterrupted(nameId);
+                    nameMatches[nameId] = accepts(filters, -1, nameId) && pattern.matches(names.get(nameId));
+                }
+                return expand(table, collectNamed(table, nameMatches));
+            }
+            IntList candidates = null;
+            if (filters.length > 0) {
+                SubstringFilter narrowest = filters[0];
+                int fewest = Integer.MAX_VALUE;
+                Postings postings = postings(table);
+                for (SubstringFilter filter : filters) {
+                    int count = postings == null ? 0 : count(postings, filter);
+                    if (count < fewest) {
+                        narrowest = filter;
+                        fewest = count;
+                    }
+                }
+                candidates = collect(table, narrowest);
+            }
+            String[] packageNames = new String[packages.size()];
+            StringBuilder path = new StringBuilder();
+            //versions of a jar file mostly have the same paths, each is matched once
+            PathMatches matched = new PathMatches();
+            IntList ids = new IntList();
+            int end = candidates == null ? table.size() : candidates.size();
+            for (int i = 0; i < end; i++) {
+                checkInterrupted(i);
+                int id = candidates == null ? i : candidates.get(i);
+                int packageId = table.packageId(id);
+                int nameId = table.nameId(id);
+                boolean matches;
+                if (accepts(filters, packageId, nameId)) {
+                    int known = matched.get(packageId, nameId);
+                    if (known < 0) {
+                        if (packageNames[packageId] == null) {
+                            packageNames[packageId] = packages.get(packageId);
+                        }
+                        path.setLength(0);
+                        matches = pattern.matches(path.append(packageNames[packageId]).append(names.get(nameId)));
+                        matched.put(packageId, nameId, matches);
+                    } else {
+                        matches = known == 1;
+                    }
+                } else {
+                    matches = false;
+                }
+                if (matches && !(anyRemoved && table.isRemoved(id))) {
+                    ids.add(id);
+                }
+            }
+            return expand(table, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
-                results.add(classInfo);
+    /**
+     * @param packageId - package of entry, -1 to only look at its name
+     * @return true if entry contains every fragment
+     */
+    private static boolean accepts(SubstringFilter[] filters, int packageId, int nameId) {
+        for (SubstringFilter filter : filters) {
+            if (!filter.accepts(packageId, nameId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds packages and names which can make up a path containing text: a text without '/' is found either in the
+     * package or in the simple name of an entry, and a text with '/' is either found in the package, or the text up
+     * to its last '/' ends the package and the rest of it starts the simple name.
+     */
+    private SubstringFilter substringFilter(String text) {
+        int slash = text.lastIndexOf('/');
+        BitSet matchingPackages = match(packages, packageTrigrams, text, CONTAINS);
+        BitSet endingPackages = null;
+        BitSet matchingNames = null;
+        if (slash < 0) {
+            matchingNames = match(names, nameTrigrams, text, CONTAINS);
+        } else if (slash < text.length() - 1) {
+            endingPackages = match(packages, packageTrigrams, text.substring(0, slash + 1), ENDS_WITH);
+            if (!endingPackages.isEmpty()) {
+                matchingNames = match(names, nameTrigrams, text.substring(slash + 1), STARTS_WITH);
             }
         }
-        return results;
+        boolean empty = matchingPackages.isEmpty() && (matchingNames == null || matchingNames.isEmpty());
+        return new SubstringFilter(empty, toArray(matchingPackages, packages.size()),
+                endingPackages == null ? null : toArray(endingPackages, packages.size()),
+                matchingNames == null ? new boolean[names.size()] : toArray(matchingNames, names.size()));
     }
 
     /**
-     * Get all the classes in a given jar alphabetically sorted.
+     * Finds entries by simple name the way IDEs find classes: by whole name, prefix, camel case abbreviation,
+     * substring or a name with a typo, ignoring case, see {@link NameRanker}. Only the best matches are returned.
+     *
+     * @param query - name, camel case abbreviation such as <code>HSCF</code>, or part of a simple name
+     * @param limit - maximum number of results
+     * @return best matching entries, best first; entries which match equally well are sorted by name, then package
+     * @throws CancellationException if the thread is interrupted
+     */
+    public List<ClassInformation> searchRanked(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            EntryTable table = this.table;
+            //names do not change while the read lock is held, there is a score for each
+            final int[] nameScores;
+            synchronized (ranker) {
+                ranker.update(names);
+                nameScores = ranker.score(query);
+            }
+            Postings postings = postings(table);
+            int listed = postings == null ? 0 : postings.size;
+
+            //best names first, entries are taken from them until there are enough; scores are few, names are
+            //counted by score, then placed best first, by id among equals
+            int[] starts = new int[NameRanker.MAX_SCORE + 2];
+            for (int score : nameScores) {
+                if (score > 0) {
+                    starts[NameRanker.MAX_SCORE - score + 1]++;
+                }
+            }
+            for (int i = 1; i < starts.length; i++) {
+                starts[i] += starts[i - 1];
+            }
+            int rankedCount = starts[starts.length - 1];
+            int[] ranked = new int[rankedCount];
+            for (int nameId = 0; nameId < nameScores.length; nameId++) {
+                if (nameScores[nameId] > 0) {
+                    ranked[starts[NameRanker.MAX_SCORE - nameScores[nameId]]++] = nameId;
+                }
+            }
+            IntList found = new IntList();
+            boolean anyRemoved = table.removedCount() > 0;
+            for (int i = 0; postings != null && i < rankedCount && found.size() < limit; i++) {
+                checkInterrupted(i);
+                int nameId = ranked[i];
+                for (int p = postings.nameStart(nameId); p < postings.nameEnd(nameId) && found.size() < limit; p++) {
+                    int id = postings.byName(p);
+                    if (!(anyRemoved && table.isRemoved(id))) {
+                        found.add(id);
+                    }
+                }
+            }
+            if (listed < table.size()) {
+                //entries added since postings were built, those which can still make it among the best
+                int floor = found.size() < limit ? 1 : nameScores[table.nameId(found.last())];
+                for (int id = listed; id < table.size(); id++) {
+                    checkInterrupted(id);
+                    if (nameScores[table.nameId(id)] >= floor && !(anyRemoved && table.isRemoved(id))) {
+                        found.add(id);
+                    }
+                }
+                found = best(table, found, nameScores, limit);
+            }
+
+            final int[] foundScores = new int[found.size()];
+            final String[] paths = new String[found.size()];
+            Integer[] order = new Integer[found.size()];
+            for (int i = 0; i < order.length; i++) {
+                int id = found.get(i);
+                foundScores[i] = nameScores[table.nameId(id)];
+                paths[i] = names.get(table.nameId(id)) + ' ' + packages.get(table.packageId(id));
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer i1, Integer i2) {
+                    int score1 = foundScores[i1];
+                    int score2 = foundScores[i2];
+                    return score1 != score2 ? score2 - score1 : paths[i1].compareTo(paths[i2]);
+                }
+            });
+            IntList ids = new IntList(order.length);
+            for (Integer i : order) {
+                ids.add(found.get(i));
+            }
+            EntryList results = expand(table, ids);
+            return results.size() > limit ? results.subList(0, limit) : results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lists entries by package and by simple name, for searches to take entries from rather than to go through all
+     * of them. Entries added later are gone through one by one until this is called again, so it is called once a
+     * scan, a load or a batch of changes is merged: searches made while entries are added never wait for the lists
+     * to be built.
+     */
+    public void buildPostings() {
+        lock.readLock().lock();
+        try {
+            EntryTable table = this.table;
+            Postings built = postings;
+            if (built == null || built.table != table || built.size != table.size()) {
+                postings = new Postings(table, packages.size(), names.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return postings of table, null if they were built for a table which was compacted since, or never built
+     */
+    private Postings postings(EntryTable table) {
+        Postings built = postings;
+        return built != null && built.table == table ? built : null;
+    }
+
+    /**
+     * Gives up a search whose thread was interrupted, called for every entry or name looked at.
+     *
+     * @param i - number of entries or names looked at, the thread is checked every few thousand
+     * @throws CancellationException if thread is interrupted
+     */
+    private static void checkInterrupted(int i) {
+        if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("search interrupted");
+        }
+    }
+
+    /**
+     * @return entries which score at least as well as the one at limit, all of them if there are not more
+     */
+    private static IntList best(EntryTable table, IntList found, int[] nameScores, int limit) {
+        if (found.size() <= limit) {
+            return found;
+        }
+        int[] scores = new int[found.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = nameScores[table.nameId(found.get(i))];
+        }
+        int[] sortedScores = scores.clone();
+        Arrays.sort(sortedScores);
+        int cutoff = sortedScores[sortedScores.length - limit];
+        IntList best = new IntList();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= cutoff) {
+                best.add(found.get(i));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collects entries which a filter accepts from postings rather than from all entries: entries of packages which
+     * contain the text, and entries of names which contain it, or start with its tail in a package which ends with
+     * its head. The latter are the only ones whose package is looked at. Entries added since postings were built
+     * are gone through one by one.
+     *
+     * @return ids of entries which are not removed, in ascending order
+     */
+    private IntList collect(EntryTable table, SubstringFilter filter) {
+        IntList ids = new IntList();
+        boolean anyRemoved = table.removedCount() > 0;
+        Postings postings = postings(table);
+        int listed = postings == null ? 0 : postings.size;
+        int looked = 0;
+        for (int packageId = 0; postings != null && packageId < filter.packageMatches.length; packageId++) {
+            checkInterrupted(looked++);
+            if (filter.packageMatches[packageId]) {
+                for (int p = postings.packageStart(packageId); p < postings.packageEnd(packageId); p++) {
+                    checkInterrupted(looked++);
+                    int id = postings.byPackage(p);
+                    if (!(anyRemoved && table.isRemoved(id))) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        for (int nameId = 0; postings != null && nameId < filter.nameMatches.length; nameId++) {
+            checkInterrupted(looked++);
+            if (filter.nameMatches[nameId]) {
+                for (int p = postings.nameStart(nameId); p < postings.nameEnd(nameId); p++) {
+                    checkInterrupted(looked++);
+                    int id = postings.byName(p);
+                    int packageId = table.packageId(id);
+                    //entries of matching packages are in already
+                    if (!filter.packageMatches[packageId]
+                            && (filter.packageEnds == null || filter.packageEnds[packageId])
+                            && !(anyRemoved && table.isRemoved(id))) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        for (int id = listed; id < table.size(); id++) {
+            checkInterrupted(id);
+            if (filter.accepts(table.packageId(id), table.nameId(id)) && !(anyRemoved && table.isRemoved(id))) {
+                ids.add(id);
+            }
+        }
+        return sorted(ids);
+    }
+
+    /**
+     * Collects entries with any of the names, from postings and from entries added since they were built.
+     *
+     * @return ids of entries which are not removed, in ascending order
+     */
+    private IntList collectNamed(EntryTable table, boolean[] nameMatches) {
+        IntList ids = new IntList();
+        boolean anyRemoved = table.removedCount() > 0;
+        Postings postings = postings(table);
+        int listed = postings == null ? 0 : postings.size;
+        int looked = 0;
+        for (int nameId = 0; postings != null && nameId < nameMatches.length; nameId++) {
+            if (nameMatches[nameId]) {
+                for (int p = postings.nameStart(nameId); p < postings.nameEnd(nameId); p++) {
+                    checkInterrupted(looked++);
+                    int id = postings.byName(p);
+                    if (!(anyRemoved && table.isRemoved(id))) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        for (int id = listed; id < table.size(); id++) {
+            checkInterrupted(id);
+            if (nameMatches[table.nameId(id)] && !(anyRemoved && table.isRemoved(id))) {
+                ids.add(id);
+            }
+        }
+        return sorted(ids);
+    }
+
+    /**
+     * @return most entries a filter may accept, from the size of postings
+     */
+    private static int count(Postings postings, SubstringFilter filter) {
+        int count = 0;
+        for (int packageId = 0; packageId < filter.packageMatches.length; packageId++) {
+            if (filter.packageMatches[packageId]) {
+                count += postings.packageEnd(packageId) - postings.packageStart(packageId);
+            }
+        }
+        for (int nameId = 0; nameId < filter.nameMatches.length; nameId++) {
+            if (filter.nameMatches[nameId]) {
+                count += postings.nameEnd(nameId) - postings.nameStart(nameId);
+            }
+        }
+        return count;
+    }
+
+    private static IntList sorted(IntList ids) {
+        int[] array = ids.toArray();
+        Arrays.sort(array);
+        IntList sorted = new IntList(array.length);
+        for (int id : array) {
+            sorted.add(id);
+        }
+        return sorted;
+    }
+
+    /**
+     * @return list of entries, with an entry of a shared set once for every jar file of the set
+     */
+    private EntryList expand(EntryTable table, IntList ids) {
+        int size = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            size += sets.get(table.setId(ids.get(i))).jars.size();
+        }
+        int[] expandedIds = new int[size];
+        int[] jarIds = new int[size];
+        int n = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            IntList setJars = sets.get(table.setId(id)).jars;
+            for (int j = 0; j < setJars.size(); j++) {
+                expandedIds[n] = id;
+                jarIds[n++] = setJars.get(j);
+            }
+        }
+        return new EntryList(table, expandedIds, jarIds);
+    }
+
+    private static boolean[] toArray(BitSet set, int size) {
+        boolean[] array = new boolean[size];
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            array[i] = true;
+        }
+        return array;
+    }
+
+    /**
+     * @return ids of names in pool which contain, start or end with text
+     */
+    private static BitSet match(NamePool pool, TrigramIndex trigrams, String text, int mode) {
+        byte[] pattern = NamePool.encode(text);
+        BitSet result = new BitSet(pool.size());
+        int[] candidates = trigrams == null ? null : trigrams.candidates(text);
+        if (candidates == null) {
+            //too short for trigrams, or search index is not built yet
+            for (int id = 0; id < pool.size(); id++) {
+                checkInterrupted(id);
+                if (matches(pool, id, pattern, mode)) {
+                    result.set(id);
+                }
+            }
+        } else {
+            for (int id : candidates) {
+                //candidates have all trigrams of text, but not necessarily in the right order
+                if (matches(pool, id, pattern, mode)) {
+                    result.set(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(NamePool pool, int id, byte[] pattern, int mode) {
+        switch (mode) {
+            case STARTS_WITH:
+                return pool.startsWith(id, pattern);
+            case ENDS_WITH:
+                return pool.endsWith(id, pattern);
+            default:
+                return pool.contains(id, pattern);
+        }
+    }
+
+    /**
+     * Finds classes which are at the same path in more than one jar file, and tells by the CRCs from central
+     * directories whether their bytes differ. Takes a single pass over all entries, see {@link ConflictFinder}.
+     *
+     * @return classes found in more than one jar file, those which differ first
+     */
+    public List<ClassConflict> findConflicts() {
+        lock.readLock().lock();
+        try {
+            int[][] setJars = new int[sets.size()][];
+            for (int id = 0; id < setJars.length; id++) {
+                setJars[id] = sets.get(id) == null ? null : sets.get(id).jars.toArray();
+            }
+            return ConflictFinder.find(table, packages, names, setJars, jarNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all the classes in a given jar alphabetically sorted. Entries are kept sorted while indexing,
+     * so this only costs a copy of the jar's entry ids.
      *
      * @param jarName The Jar for which to return all the classes.
-     * @return List of {@link ClassInformation} instances.
+     * @return List of {@link ClassInformation} instances, created as they are retrieved from the list.
      */
-    public ArrayList<ClassInformation> getClassesInJar(String jarName) {
+    public List<ClassInformation> getClassesInJar(String jarName) {
+        lock.readLock().lock();
+        try {
+            IndexedJar jar = jars.get(jarName);
+            return jar == null ? new EntryList(table, new int[0], -1)
+                    : new EntryList(table, jar.entries.toArray(), jar.id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
-        Iterator<ClassInformation> values = indexMap.values().iterator();
-        ArrayList<ClassInformation> results = new ArrayList<>();
+    /**
+     * Tells how many entries there are in a package and its subpackages, and which jar files have them. Answered
+     * from the package tree, which is kept up to date while indexing, without looking at entries.
+     *
+     * @param packageName - package such as <code>org/springframework</code>, with or without the ending '/', empty
+     *                    for the root
+     * @return package, null if there are no entries in or under it
+     */
+    public PackageInfo getPackage(String packageName) {
+        lock.readLock().lock();
+        try {
+            int node = packageTree.find(packageName);
+            return node < 0 ? null : packageInfo(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
-        while (values.hasNext()) {
-            ClassInformation classInfo = values.next();
-            if (classInfo.getJarFileName().equals(jarName)) {
+    /**
+     * @param packageName - package, with or without the ending '/', empty for the root
+     * @return subpackages with entries, sorted by name, empty if there are none
+     */
+    public List<PackageInfo> getSubpackages(String packageName) {
+        lock.readLock().lock();
+        try {
+            List<PackageInfo> subpackages = new ArrayList<>();
+            int node = packageTree.find(packageName);
+            if (node >= 0) {
+                for (int child : packageTree.children(node)) {
+                    subpackages.add(packageInfo(child));
+                }
+            }
+            return subpackages;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PackageInfo packageInfo(int node) {
+        int[] ids = packageTree.jars(node);
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = jarNames.get(ids[i]);
+        }
+        Arrays.sort(names);
+        return new PackageInfo(packageTree.name(node), packageTree.segment(node), packageTree.entryCount(node), names,
+                packageTree.children(node).length > 0);
+    }
 
-                results.add(classInfo);
+    /**
+     * Returns entries right in a package, not those of its subpackages, from the entries listed by package.
+     *
+     * @param packageName - package, with or without the ending '/', empty for the root
+     * @return list of {@link ClassInformation} instances, created as they are retrieved from the list.
+     */
+    public List<ClassInformation> getPackageEntries(String packageName) {
+        lock.readLock().lock();
+        try {
+            EntryTable table = this.table;
+            boolean root = packageName.length() == 0;
+            int packageId = packages.find(root || packageName.endsWith("/") ? packageName : packageName + '/');
+            IntList ids = new IntList();
+            if (packageId >= 0) {
+                boolean anyRemoved = table.removedCount() > 0;
+                Postings postings = postings(table);
+                int listed = postings == null ? 0 : postings.size;
+                if (postings != null) {
+                    for (int p = postings.packageStart(packageId); p < postings.packageEnd(packageId); p++) {
+                        int id = postings.byPackage(p);
+                        if (!(anyRemoved && table.isRemoved(id))) {
+                            ids.add(id);
+                        }
+                    }
+                }
+                //entries added since postings were built
+                for (int id = listed; id < table.size(); id++) {
+                    if (table.packageId(id) == packageId && !(anyRemoved && table.isRemoved(id))) {
+                        ids.add(id);
+                    }
+                }
             }
+            return expand(table, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries found by a search, {@link ClassInformation} of an entry is created when it is retrieved.
+     * Entries stay valid even if they are removed from index later.
+     */
+    private class EntryList extends AbstractList<ClassInformation> implements RandomAccess {
+        private final EntryTable table;
+        private final int[] ids;
+        //jar file of every entry, or null if all entries are of jar file jarId
+        private final int[] jarIds;
+        private final int jarId;
+
+        EntryList(EntryTable table, int[] ids, int jarId) {
+            this.table = table;
+            this.ids = ids;
+            this.jarIds = null;
+            this.jarId = jarId;
+        }
+
+        EntryList(EntryTable table, int[] ids, int[] jarIds) {
+            this.table = table;
+            this.ids = ids;
+            this.jarIds = jarIds;
+            this.jarId = -1;
         }
-        Collections.sort(results, new Comparator() {
-            public int compare(Object o1, Object o2) {
-                return o1.toString().compareTo(o2.toString());
+
+        @Override
+        public ClassInformation get(int index) {
+            lock.readLock().lock();
+            try {
+                int id = ids[index];
+                return new ClassInformation(jarNames.get(jarIds == null ? jarId : jarIds[index]), entry(table, id));
+            } finally {
+                lock.readLock().unlock();
             }
-        });
-        return results;
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * Jar file in index.
+     */
+    private static class IndexedJar {
+        final int id;
+        //when indexed, -1 if not known
+        long fileSize = -1;
+        long lastModified = -1;
+        //may be shared with other jar files
+        EntrySet entries;
+
+        IndexedJar(int id, EntrySet entries) {
+            this.id = id;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Entries of one or more jar files with the same content.
+     */
+    private static class EntrySet {
+        final int id;
+        //ids of jar files with these entries
+        final IntList jars = new IntList(1);
+        //of the jar files, 0 if not known or if entries were changed since
+        long fingerprint;
+        //ids of entries, sorted by entry path: entries of a jar are usually added at once, so their ids
+        //are a range, a list is only needed once an entry is inserted later
+        private int first;
+        private int count;
+        private IntList ids;
+
+        EntrySet(int id) {
+            this.id = id;
+        }
+
+        void removeJar(int jarId) {
+            for (int i = 0; i < jars.size(); i++) {
+                if (jars.get(i) == jarId) {
+                    jars.remove(i);
+                    return;
+                }
+            }
+        }
+
+        int size() {
+            return ids == null ? count : ids.size();
+        }
+
+        int get(int index) {
+            if (ids != null) {
+                return ids.get(index);
+            }
+            if (index >= count) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+            }
+            return first + index;
+        }
+
+        void add(int entryId) {
+            if (ids == null && (count == 0 || entryId == first + count)) {
+                first = count == 0 ? entryId : first;
+                count++;
+            } else {
+                toList().add(entryId);
+            }
+        }
+
+        void add(int index, int entryId) {
+            if (ids == null && index == count) {
+                add(entryId);
+            } else {
+                toList().add(index, entryId);
+            }
+        }
+
+        /**
+         * @param newIds - new ids of entries, indexed by old ids, order of entries is not changed
+         */
+        void renumber(int[] newIds) {
+            if (ids == null) {
+                first = count == 0 ? 0 : newIds[first];
+            } else {
+                for (int i = 0; i < ids.size(); i++) {
+                    ids.set(i, newIds[ids.get(i)]);
+                }
+            }
+        }
+
+        int[] toArray() {
+            if (ids != null) {
+                return ids.toArray();
+            }
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = first + i;
+            }
+            return result;
+        }
+
+        private IntList toList() {
+            if (ids == null) {
+                ids = new IntList(count + 1);
+                for (int i = 0; i < count; i++) {
+                    ids.add(first + i);
+                }
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Packages and names of entries containing a text, see {@link #substringFilter(String)}.
+     */
+    private static class SubstringFilter {
+        private final boolean empty;
+        private final boolean[] packageMatches;
+        //null if text has no '/' inside
+        private final boolean[] packageEnds;
+        private final boolean[] nameMatches;
+
+        SubstringFilter(boolean empty, boolean[] packageMatches, boolean[] packageEnds, boolean[] nameMatches) {
+            this.empty = empty;
+            this.packageMatches = packageMatches;
+            this.packageEnds = packageEnds;
+            this.nameMatches = nameMatches;
+        }
+
+        /**
+         * @return true if no entry contains the text
+         */
+        boolean isEmpty() {
+            return empty;
+        }
+
+        /**
+         * @param packageId - package of entry, -1 to only look at its name
+         */
+        boolean accepts(int packageId, int nameId) {
+            if (packageId < 0) {
+                return nameMatches[nameId];
+            }
+            return packageMatches[packageId]
+                    || nameMatches[nameId] && (packageEnds == null || packageEnds[packageId]);
+        }
+    }
+
+    /**
+     * Entries of a table by package and by simple name: entries of package k are
+     * <code>byPackage[packageStarts[k]]</code> up to <code>byPackage[packageStarts[k + 1]]</code>, sorted by id, the
+     * same for names. Only entries up to <code>size</code> are listed, and only packages and names there were then.
+     * Removed entries are listed too, until the table is compacted.
+     */
+    private static class Postings {
+        private final EntryTable table;
+        private final int size;
+        private final int[] packageStarts;
+        private final int[] byPackage;
+        private final int[] nameStarts;
+        private final int[] byName;
+
+        Postings(EntryTable table, int packageCount, int nameCount) {
+            this.table = table;
+            size = table.size();
+            packageStarts = new int[packageCount + 1];
+            byPackage = sort(table, size, packageStarts, true);
+            nameStarts = new int[nameCount + 1];
+            byName = sort(table, size, nameStarts, false);
+        }
+
+        /**
+         * Sorts ids of entries by package or name, counting entries of every one first.
+         */
+        private static int[] sort(EntryTable table, int size, int[] starts, boolean byPackage) {
+            int keyCount = starts.length - 1;
+            for (int id = 0; id < size; id++) {
+                starts[(byPackage ? table.packageId(id) : table.nameId(id)) + 1]++;
+            }
+            for (int key = 0; key < keyCount; key++) {
+                starts[key + 1] += starts[key];
+            }
+            int[] ids = new int[size];
+            int[] next = Arrays.copyOf(starts, keyCount);
+            for (int id = 0; id < size; id++) {
+                ids[next[byPackage ? table.packageId(id) : table.nameId(id)]++] = id;
+            }
+            return ids;
+        }
+
+        int packageStart(int packageId) {
+            return packageId < packageStarts.length - 1 ? packageStarts[packageId] : 0;
+        }
+
+        int packageEnd(int packageId) {
+            return packageId < packageStarts.length - 1 ? packageStarts[packageId + 1] : 0;
+        }
+
+        int byPackage(int position) {
+            return byPackage[position];
+        }
+
+        int nameStart(int nameId) {
+            return nameId < nameStarts.length - 1 ? nameStarts[nameId] : 0;
+        }
+
+        int nameEnd(int nameId) {
+            return nameId < nameStarts.length - 1 ? nameStarts[nameId + 1] : 0;
+        }
+
+        int byName(int position) {
+            return byName[position];
+        }
+
+        long arrayBytes() {
+            return 4L * (packageStarts.length + byPackage.length + nameStarts.length + byName.length);
+        }
+    }
+
+    /**
+     * Whether paths, as package and name ids, were matched by a pattern: an open addressing hash table.
+     */
+    private static class PathMatches {
+        private long[] keys = new long[1 << 12];
+        //0 for an empty slot, 1 + 1 for a match, 0 + 1 otherwise
+        private byte[] values = new byte[1 << 12];
+        private int count;
+
+        /**
+         * @return 1 if path matched, 0 if it did not, -1 if it was not matched yet
+         */
+        int get(int packageId, int nameId) {
+            return values[slot(key(packageId, nameId))] - 1;
+        }
+
+        void put(int packageId, int nameId, boolean matches) {
+            long key = key(packageId, nameId);
+            int slot = slot(key);
+            keys[slot] = key;
+            values[slot] = (byte) (matches ? 2 : 1);
+            if (++count > keys.length / 2) {
+                long[] oldKeys = keys;
+                byte[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new byte[oldValues.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldValues[i] != 0) {
+                        int newSlot = slot(oldKeys[i]);
+                        keys[newSlot] = oldKeys[i];
+                        values[newSlot] = oldValues[i];
+                    }
+                }
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long key(int packageId, int nameId) {
+            return (long) packageId << 32 | nameId;
+        }
+
+        private static int hash(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
     }
 }
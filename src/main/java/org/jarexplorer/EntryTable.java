@@ -0,0 +1,172 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * Entries of {@link EntryIndex} stored as columns of primitive arrays, one row per entry, instead of an object
+ * per entry. Names are ids into name pools kept by the index. Rows are only ever appended, removed rows are
+ * marked as such until the table is compacted into a new one.
+ * <p>
+ * Sizes are kept as unsigned 32 bit values, sizes of 4GB and more (possible in zip64 archives) are stored as
+ * not known; a CRC of <code>0xFFFFFFFF</code> is not told from an unknown one.
+ *
+ * @author Igor Polevoy
+ */
+class EntryTable {
+
+    private int size;
+    private int[] setIds;
+    private int[] packageIds;
+    private int[] nameIds;
+    private byte[] methods;
+    private int[] compressedSizes;
+    private int[] sizes;
+    private int[] crcs;
+    private long[] localHeaderOffsets;
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+
+    EntryTable() {
+        this(1024);
+    }
+
+    private EntryTable(int capacity) {
+        setIds = new int[capacity];
+        packageIds = new int[capacity];
+        nameIds = new int[capacity];
+        methods = new byte[capacity];
+        compressedSizes = new int[capacity];
+        sizes = new int[capacity];
+        crcs = new int[capacity];
+        localHeaderOffsets = new long[capacity];
+    }
+
+    /**
+     * @return id of added row
+     */
+    int add(int setId, int packageId, int nameId, ArchiveEntry entry) {
+        if (size == setIds.length) {
+            grow(size + (size >> 1) + 16);
+        }
+        setIds[size] = setId;
+        packageIds[size] = packageId;
+        nameIds[size] = nameId;
+        methods[size] = (byte) entry.getMethod();
+        compressedSizes[size] = toUnsigned(entry.getCompressedSize());
+        sizes[size] = toUnsigned(entry.getSize());
+        crcs[size] = (int) entry.getCrc();
+        localHeaderOffsets[size] = entry.getLocalHeaderOffset();
+        return size++;
+    }
+
+    void remove(int id) {
+        if (!removed.get(id)) {
+            removed.set(id);
+            removedCount++;
+        }
+    }
+
+    boolean isRemoved(int id) {
+        return removed.get(id);
+    }
+
+    /**
+     * @param newIds - filled with new ids of rows, indexed by old ids
+     * @return new table without removed rows
+     */
+    EntryTable compact(int[] newIds) {
+        EntryTable compacted = new EntryTable(Math.max(1, size - removedCount));
+        for (int id = 0; id < size; id++) {
+            if (!removed.get(id)) {
+                int newId = compacted.size++;
+                newIds[id] = newId;
+                compacted.setIds[newId] = setIds[id];
+                compacted.packageIds[newId] = packageIds[id];
+                compacted.nameIds[newId] = nameIds[id];
+                compacted.methods[newId] = methods[id];
+                compacted.compressedSizes[newId] = compressedSizes[id];
+                compacted.sizes[newId] = sizes[id];
+                compacted.crcs[newId] = crcs[id];
+                compacted.localHeaderOffsets[newId] = localHeaderOffsets[id];
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * @return number of rows, including removed ones
+     */
+    int size() {
+        return size;
+    }
+
+    int removedCount() {
+        return removedCount;
+    }
+
+    /**
+     * @return bytes of the columns, as allocated: 33 for every row there is room for
+     */
+    long arrayBytes() {
+        return (4L * 6 + 1 + 8) * setIds.length + removed.size() / 8;
+    }
+
+    /**
+     * @return id of the entry set of a row, one set of entries is shared by jar files with the same content
+     */
+    int setId(int id) {
+        return setIds[id];
+    }
+
+    int packageId(int id) {
+        return packageIds[id];
+    }
+
+    int nameId(int id) {
+        return nameIds[id];
+    }
+
+    int method(int id) {
+        return methods[id];
+    }
+
+    long compressedSize(int id) {
+        return fromUnsigned(compressedSizes[id]);
+    }
+
+    long size(int id) {
+        return fromUnsigned(sizes[id]);
+    }
+
+    long crc(int id) {
+        return fromUnsigned(crcs[id]);
+    }
+
+    long localHeaderOffset(int id) {
+        return localHeaderOffsets[id];
+    }
+
+    private void grow(int capacity) {
+        setIds = Arrays.copyOf(setIds, capacity);
+        packageIds = Arrays.copyOf(packageIds, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        methods = Arrays.copyOf(methods, capacity);
+        compressedSizes = Arrays.copyOf(compressedSizes, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        crcs = Arrays.copyOf(crcs, capacity);
+        localHeaderOffsets = Arrays.copyOf(localHeaderOffsets, capacity);
+    }
+
+    /**
+     * @return value as unsigned int, -1 for unknown values and values which do not fit
+     */
+    private static int toUnsigned(long value) {
+        return value < 0 || value >= 0xFFFFFFFFL ? -1 : (int) value;
+    }
+
+    private static long fromUnsigned(int value) {
+        return value == -1 ? -1 : value & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,49 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.util.HashSet;
+
+
+/**
+ * Tells archives from other files by extension. Extensions are prepared once, so that a file name is matched
+ * with a few hash lookups (one per dot in the name), without building strings for every extension.
+ *
+ * @author Igor Polevoy
+ */
+public class ExtensionMatcher {
+
+    private final HashSet<String> extensions = new HashSet<>();
+
+    /**
+     * @param extensions - extensions without the leading dot, such as "jar", may contain dots themselves
+     */
+    public ExtensionMatcher(String[] extensions) {
+        for (String extension : extensions) {
+            extension = extension.trim();
+            if (extension.length() > 0) {
+                this.extensions.add(extension);
+            }
+        }
+    }
+
+    /**
+     * @param commaSeparated - comma separated extensions, as configured in <code>zip.extensions</code>
+     */
+    public ExtensionMatcher(String commaSeparated) {
+        this(commaSeparated.split(","));
+    }
+
+    /**
+     * @param fileName - name of a file, may be a path
+     * @return true if name ends with a dot followed by one of extensions
+     */
+    public boolean matches(String fileName) {
+        int start = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf(File.separatorChar));
+        for (int dot = fileName.lastIndexOf('.'); dot > start; dot = fileName.lastIndexOf('.', dot - 1)) {
+            if (extensions.contains(fileName.substring(dot + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
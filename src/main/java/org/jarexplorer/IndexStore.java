@@ -0,0 +1,325 @@
+package org.jarexplorer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Saves an {@link EntryIndex} to a file and loads it back, so that the last scanned tree is searchable
+ * right after startup, and archives which did not change can be skipped when the tree is scanned again.
+ * <p>
+ * The file is binary: a header with the root of the scanned tree, then every jar file with its size,
+ * modification time, fingerprint and entries; entries of a jar file with the same fingerprint as an earlier one are
+ * not written again, the two share them once loaded. Entries of a jar are sorted, so each name is stored as the length of the
+ * prefix it shares with the previous name followed by the rest of it; numbers are stored as variable length ints.
+ * Declarations of classes of deep scanned jar files follow; type names and descriptors repeat a lot, each is
+ * written once and referred to by its number afterwards.
+ *
+ * @author Igor Polevoy
+ */
+public class IndexStore {
+
+    private static final int MAGIC = 0x4A584958; // "JXIX"
+    private static final int VERSION = 3;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private IndexStore() {
+    }
+
+    /**
+     * Writes index to file. The file is replaced only after the whole index was written.
+     *
+     * @param index - index to save
+     * @param root  - root of the tree the index was built from
+     * @param file  - file to write
+     * @throws IOException in case of io problem
+     */
+    public static void save(EntryIndex index, String root, File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(root);
+            List<String> jarNames = index.getJarNames();
+            writeVarLong(out, jarNames.size());
+            HashSet<Long> fingerprints = new HashSet<>();
+            for (String jarName : jarNames) {
+                writeString(out, jarName);
+                out.writeLong(index.getJarSize(jarName));
+                out.writeLong(index.getJarLastModified(jarName));
+                long fingerprint = index.getFingerprint(jarName);
+                out.writeLong(fingerprint);
+                if (fingerprint != 0 && !fingerprints.add(fingerprint)) {
+                    //same entries as an earlier jar file
+                    writeVarLong(out, 0);
+                    continue;
+                }
+                List<ArchiveEntry> entries = index.getEntries(jarName);
+                writeVarLong(out, entries.size() + 1);
+                String previous = "";
+                for (ArchiveEntry entry : entries) {
+                    String name = entry.getName();
+                    int shared = sharedPrefix(previous, name);
+                    writeVarLong(out, shared);
+                    writeString(out, name.substring(shared));
+                    //unknown values are -1, shifted to keep them a single byte
+                    writeVarLong(out, entry.getMethod() + 1);
+                    writeVarLong(out, entry.getCompressedSize() + 1);
+                    writeVarLong(out, entry.getSize() + 1);
+                    writeVarLong(out, entry.getCrc() + 1);
+                    writeVarLong(out, entry.getLocalHeaderOffset() + 1);
+                    previous = name;
+                }
+            }
+            writeClasses(out, index, jarNames);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads root of the tree an index file was built from, without reading the index.
+     *
+     * @param file - index file
+     * @return root, or null if file does not exist or is not an index file of this version
+     */
+    public static String readRoot(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            return in.readUTF();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads index from file. Entries are not indexed for search, that is left to
+     * {@link EntryIndex#buildSearchIndex()}, so that the index can be shown as soon as possible.
+     *
+     * @param file - index file
+     * @return index, or null if file does not exist or is not an index file of this version
+     * @throws IOException in case of io problem, or if file is damaged
+     */
+    public static EntryIndex load(File file) throws IOException {
+        if (readRoot(file) == null) {
+            return null;
+        }
+        //whole file is read at once, parsing a byte array is several times faster than a stream
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        try {
+            in.getInt();
+            in.getInt();
+            //root
+            int rootLength = in.getShort() & 0xFFFF;
+            in.position(in.position() + rootLength);
+
+            EntryIndex index = new EntryIndex(false);
+            long jarCount = readVarLong(in);
+            for (long i = 0; i < jarCount; i++) {
+                String jarName = readString(in, (int) readVarLong(in));
+                long size = in.getLong();
+                long lastModified = in.getLong();
+                long fingerprint = in.getLong();
+                int entryCount = (int) readVarLong(in) - 1;
+                if (entryCount < 0) {
+                    if (!index.shareEntries(jarName, size, lastModified, fingerprint)) {
+                        throw new IOException("damaged index file: " + file);
+                    }
+                    continue;
+                }
+                ArrayList<ArchiveEntry> entries = new ArrayList<>(entryCount);
+                String previous = "";
+                for (int j = 0; j < entryCount; j++) {
+                    int shared = (int) readVarLong(in);
+                    if (shared > previous.length()) {
+                        throw new IOException("damaged index file: " + file);
+                    }
+                    String suffix = readString(in, (int) readVarLong(in));
+                    String name = shared == 0 ? suffix : previous.substring(0, shared).concat(suffix);
+                    entries.add(new ArchiveEntry(name, (int) readVarLong(in) - 1, readVarLong(in) - 1,
+                            readVarLong(in) - 1, readVarLong(in) - 1, readVarLong(in) - 1));
+                    previous = name;
+                }
+                index.addEntries(jarName, size, lastModified, fingerprint, entries);
+            }
+            readClasses(in, index);
+            return index;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                | NegativeArraySizeException e) {
+            throw new IOException("damaged index file: " + file, e);
+        }
+    }
+
+    private static void writeClasses(DataOutputStream out, EntryIndex index, List<String> jarNames)
+            throws IOException {
+        ArrayList<String> deepScanned = new ArrayList<>();
+        for (String jarName : jarNames) {
+            if (index.getClasses(jarName) != null) {
+                deepScanned.add(jarName);
+            }
+        }
+        writeVarLong(out, deepScanned.size());
+        HashMap<String, Integer> written = new HashMap<>();
+        for (String jarName : deepScanned) {
+            List<ClassDeclaration> classes = index.getClasses(jarName);
+            writeString(out, jarName);
+            writeVarLong(out, classes.size());
+            for (ClassDeclaration declaration : classes) {
+                writeString(out, declaration.path);
+                writeReference(out, declaration.superName, written);
+                writeReferences(out, declaration.interfaces, written);
+                writeReferences(out, declaration.methodNames, written);
+                for (String descriptor : declaration.methodDescriptors) {
+                    writeReference(out, descriptor, written);
+                }
+                writeReferences(out, declaration.fieldDescriptors, written);
+            }
+        }
+    }
+
+    private static void readClasses(ByteBuffer in, EntryIndex index) throws IOException {
+        long jarCount = readVarLong(in);
+        ArrayList<String> read = new ArrayList<>();
+        for (long i = 0; i < jarCount; i++) {
+            String jarName = readString(in, (int) readVarLong(in));
+            int classCount = (int) readVarLong(in);
+            ArrayList<ClassDeclaration> classes = new ArrayList<>(classCount);
+            for (int j = 0; j < classCount; j++) {
+                String path = readString(in, (int) readVarLong(in));
+                String superName = readReference(in, read);
+                String[] interfaces = readReferences(in, read);
+                String[] methodNames = readReferences(in, read);
+                String[] methodDescriptors = new String[methodNames.length];
+                for (int m = 0; m < methodDescriptors.length; m++) {
+                    methodDescriptors[m] = readReference(in, read);
+                }
+                classes.add(new ClassDeclaration(path, superName, interfaces, methodNames, methodDescriptors,
+                        readReferences(in, read)));
+            }
+            index.addClasses(jarName, classes);
+        }
+    }
+
+    private static void writeReferences(DataOutputStream out, String[] strings, HashMap<String, Integer> written)
+            throws IOException {
+        writeVarLong(out, strings.length);
+        for (String s : strings) {
+            writeReference(out, s, written);
+        }
+    }
+
+    /**
+     * Writes 0 for null, 1 followed by the string the first time it is written, its number + 2 afterwards.
+     */
+    private static void writeReference(DataOutputStream out, String s, HashMap<String, Integer> written)
+            throws IOException {
+        if (s == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        Integer number = written.get(s);
+        if (number != null) {
+            writeVarLong(out, number + 2);
+        } else {
+            written.put(s, written.size());
+            writeVarLong(out, 1);
+            writeString(out, s);
+        }
+    }
+
+    private static String[] readReferences(ByteBuffer in, ArrayList<String> read) throws IOException {
+        String[] strings = new String[(int) readVarLong(in)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readReference(in, read);
+        }
+        return strings;
+    }
+
+    private static String readReference(ByteBuffer in, ArrayList<String> read) throws IOException {
+        long reference = readVarLong(in);
+        if (reference == 0) {
+            return null;
+        }
+        if (reference == 1) {
+            String s = readString(in, (int) readVarLong(in));
+            read.add(s);
+            return s;
+        }
+        return read.get((int) (reference - 2));
+    }
+
+    private static int sharedPrefix(String s1, String s2) {
+        int length = Math.min(s1.length(), s2.length());
+        int i = 0;
+        while (i < length && s1.charAt(i) == s2.charAt(i)) {
+            i++;
+        }
+        //never split a surrogate pair between prefix and suffix
+        if (i > 0 && i < s2.length() && Character.isHighSurrogate(s2.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in, int length) {
+        byte[] bytes = in.array();
+        int offset = in.position();
+        in.position(offset + length);
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, length, UTF8);
+            }
+        }
+        //pure ASCII, most names are
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes[offset + i];
+        }
+        return new String(chars);
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("damaged index file");
+    }
+}
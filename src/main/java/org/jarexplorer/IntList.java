@@ -0,0 +1,89 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+
+
+/**
+ * Growable list of primitive ints, used for posting lists of indexes where boxing every element
+ * would cost more than the data itself.
+ *
+ * @author Igor Polevoy
+ */
+public class IntList {
+    private int[] data;
+    private int size;
+
+    public IntList() {
+        this(4);
+    }
+
+    public IntList(int capacity) {
+        data = new int[Math.max(1, capacity)];
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size + (size >> 1) + 1);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Inserts value at index, shifting following elements.
+     */
+    public void add(int index, int value) {
+        if (index > size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        add(value);
+        System.arraycopy(data, index, data, index + 1, size - 1 - index);
+        data[index] = value;
+    }
+
+    /**
+     * Removes element at index, shifting following elements.
+     */
+    public void remove(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        System.arraycopy(data, index + 1, data, index, size - 1 - index);
+        size--;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return data[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        data[index] = value;
+    }
+
+    /**
+     * @return last element, or -1 if list is empty
+     */
+    public int last() {
+        return size == 0 ? -1 : data[size - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     * @return bytes of the array holding the list, as allocated
+     */
+    long arrayBytes() {
+        return 4L * data.length;
+    }
+}
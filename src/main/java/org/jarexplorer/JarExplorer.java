@@ -13,17 +13,18 @@ import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.regex.PatternSyntaxException;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -34,8 +35,14 @@ import javax.swing.JProgressBar;
 import javax.swing.JSplitPane;
 import javax.swing.JTextField;
 import javax.swing.JToolBar;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
@@ -51,14 +58,58 @@ public class JarExplorer extends JFrame {
 
     private static final String CONFIG_ZIP_EXTENSIONS = "zip.extensions";
 
+    /**
+     * Number of threads reading archives during a scan, defaults to number of processors
+     */
+    private static final String CONFIG_SCAN_THREADS = "scan.threads";
+
+    /**
+     * How entry lists are read: "central" (default) reads central directory only, "stream" reads whole archives
+     */
+    private static final String CONFIG_INDEX_MODE = "index.mode";
+
+    /**
+     * How deep to index archives nested in archives, 0 to not index them, defaults to 2 (jars in a war in an ear)
+     */
+    private static final String CONFIG_NESTING_DEPTH = "nested.depth";
+
+    /**
+     * "true" to keep index up to date with changes of the scanned tree
+     */
+    private static final String CONFIG_WATCH = "watch";
+
+    /**
+     * "true" to parse classes during scans, so that they can be searched by what they declare
+     */
+    private static final String CONFIG_DEEP_INDEX = "index.classes";
+
+    /**
+     * Milliseconds to wait after the last key stroke before searching as you type, 0 to search on 'Enter' only,
+     * defaults to 300
+     */
+    private static final String CONFIG_SEARCH_DELAY = "search.delay";
+
+    /**
+     * How searches match, "substring", "ranked", "glob" or "regex", see {@link SearchExecutor}, defaults to
+     * "substring"
+     */
+    private static final String CONFIG_SEARCH_MODE = "search.mode";
+
+    //search modes as in the mode combo box, indexed by SearchExecutor modes
+    private static final String[] SEARCH_MODES = {"substring", "ranked", "glob", "regex"};
+
+    //shorter queries match most of the index, they wait for 'Enter'
+    private static final int MIN_TYPED_QUERY = 2;
+
     // this will clean a long running parse, if a Stop button is pressed
-    public static boolean stop = false;
+    public static volatile boolean stop = false;
 
     /**
      * Toolbar controls
      */
     private JButton stopB, searchB, cleanB;
     private JTextField searchTF;
+    private JComboBox<String> modeCB;
 
     /**
      * Progress bar at the bottom
@@ -95,12 +146,38 @@ public class JarExplorer extends JFrame {
      */
     private JarFilePanel jarFilePanel;
 
+    /**
+     * Packages of all jar files, next to the jar file list
+     */
+    private PackageTreePanel packageTreePanel;
+    private JSplitPane topSp;
+
     /**
      * Panel to display search results
      */
     private SearchResultsPanel resultsPanel;
 
-    private EntryIndex index = new EntryIndex();
+    private volatile EntryIndex index = new EntryIndex();
+
+    /**
+     * Runs searches off the event thread, the latest one wins
+     */
+    private final SearchExecutor searchExecutor = new SearchExecutor();
+
+    /**
+     * Starts a search once typing stops, null if searching as you type is off
+     */
+    private Timer typingTimer;
+
+    /**
+     * Index of the last scanned tree is kept here, next to configuration file
+     */
+    private static File indexFile;
+
+    /**
+     * Watches the scanned tree, when live mode is on
+     */
+    private ArchiveWatcher watcher;
 
     /**
      * Configuration stuff
@@ -115,9 +192,13 @@ public class JarExplorer extends JFrame {
         super(APP_NAME);
         GUIUtil.setMainFrame(this);
 
-        mainSp = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+        topSp = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
                 jarFilePanel = new JarFilePanel(),
+                packageTreePanel = new PackageTreePanel());
+        mainSp = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                topSp,
                 resultsPanel = new SearchResultsPanel());
+        resultsPanel.setIndex(index);
 
         getContentPane().add(buildToolBar(), BorderLayout.NORTH);
         getContentPane().add(mainSp, BorderLayout.CENTER);
@@ -146,7 +227,19 @@ public class JarExplorer extends JFrame {
         tb.add(new JLabel("Enter class to search:"));
         tb.addSeparator();
         tb.add(searchTF = new JTextField("enter class to search"));
-        searchTF.setToolTipText("to start seach, provide a class name and hit 'Enter'");
+        searchTF.setToolTipText("<html>to start seach, provide a class name and hit 'Enter'<br>"
+                + "with class metadata indexed, search by declarations: extends:Type, implements:Type, "
+                + "method:name, returns:Type, field:Type</html>");
+        tb.addSeparator();
+        tb.add(modeCB = new JComboBox<>(SEARCH_MODES));
+        modeCB.setMaximumSize(modeCB.getPreferredSize());
+        modeCB.setToolTipText("<html>substring: all paths containing the text<br>"
+                + "ranked: best matching class names first, by name, prefix, camel case abbreviation such as HSCF, "
+                + "or with a typo<br>"
+                + "glob: paths such as com/acme/**/*Dao.class, or names such as *Dao.class<br>"
+                + "regex: paths in which a regular expression is found, such as Impl\\$[0-9]+\\.class</html>");
+        int mode = Arrays.asList(SEARCH_MODES).indexOf(Configuration.getProperty(CONFIG_SEARCH_MODE));
+        modeCB.setSelectedIndex(Math.max(mode, SearchExecutor.SUBSTRING));
         tb.addSeparator();
         tb.add(searchB = new JButton("Search"));
         searchB.setToolTipText("press to start search");
@@ -164,6 +257,7 @@ public class JarExplorer extends JFrame {
         super.paint(g);
         if (!init) {
             mainSp.setDividerLocation(0.5);
+            topSp.setDividerLocation(0.5);
             //subSplitPane.setDividerLocation(0.75);
             init = true;
         }
@@ -197,6 +291,33 @@ public class JarExplorer extends JFrame {
             }
 
         });
+        int searchDelay = getIntProperty(CONFIG_SEARCH_DELAY, 300);
+        if (searchDelay > 0) {
+            typingTimer = new Timer(searchDelay, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    if (!firstTime && searchTF.getText().trim().length() >= MIN_TYPED_QUERY) {
+                        search();
+                    }
+                }
+            });
+            typingTimer.setRepeats(false);
+            searchTF.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    typingTimer.restart();
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    typingTimer.restart();
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                }
+            });
+        }
 
         addWindowListener(new WindowAdapter() {
             @Override
@@ -211,6 +332,15 @@ public class JarExplorer extends JFrame {
                 search();
             }
         });
+        modeCB.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Configuration.setProperty(CONFIG_SEARCH_MODE, SEARCH_MODES[modeCB.getSelectedIndex()]);
+                if (!firstTime && !Util.isBlankString(searchTF.getText())) {
+                    search();
+                }
+            }
+        });
         stopB.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -238,6 +368,15 @@ public class JarExplorer extends JFrame {
                 }
             }
         });
+        packageTreePanel.addSelectionListener(new TreeSelectionListener() {
+            @Override
+            public void valueChanged(TreeSelectionEvent e) {
+                PackageInfo selectedPackage = packageTreePanel.getSelectedPackage();
+                if (selectedPackage != null) {
+                    showPackageContent(selectedPackage);
+                }
+            }
+        });
     }
 
     /**
@@ -246,10 +385,22 @@ public class JarExplorer extends JFrame {
      * @param jarFile - jar file name, should be a fully qualified path to a file
      */
     private void showJarContent(String jarFile) {
-        ArrayList matchingClasses = this.index.getClassesInJar(jarFile);
+        List<ClassInformation> matchingClasses = this.index.getClassesInJar(jarFile);
         resultsPanel.setResults("Contents of " + jarFile, matchingClasses);
     }
 
+    /**
+     * Shows entries right in a package in the search results panel, and how many there are under it.
+     *
+     * @param info - package to show
+     */
+    private void showPackageContent(PackageInfo info) {
+        String name = info.getName().length() == 0 ? "/" : info.getName();
+        resultsPanel.setResults("Contents of package " + name, index.getPackageEntries(info.getName()));
+        progressBar.setString(name + ": " + info.getEntryCount() + " entries with subpackages, in "
+                + info.getJarNames().length + " jars");
+    }
+
     private void scanPath() {
         JFileChooser fc;
         if (prevFile != null) {
@@ -316,6 +467,51 @@ public class JarExplorer extends JFrame {
         });
         fileM.add(lastFileMI);
 
+        fileM.addSeparator();
+
+        final JCheckBoxMenuItem watchMI = new JCheckBoxMenuItem("Watch for Changes",
+                Configuration.getBooleanProperty(CONFIG_WATCH));
+        watchMI.setToolTipText("re-index archives as they are created, modified or deleted");
+        watchMI.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Configuration.setProperty(CONFIG_WATCH, String.valueOf(watchMI.isSelected()));
+                if (watchMI.isSelected()) {
+                    String treeRoot = Configuration.getProperty(CONFIG_LAST_FILE);
+                    if (index.size() > 0 && !Util.isBlankString(treeRoot)) {
+                        startWatching(treeRoot);
+                    }
+                } else {
+                    stopWatching();
+                }
+            }
+        });
+        fileM.add(watchMI);
+
+        final JCheckBoxMenuItem deepIndexMI = new JCheckBoxMenuItem("Index Class Metadata",
+                Configuration.getBooleanProperty(CONFIG_DEEP_INDEX));
+        deepIndexMI.setToolTipText("parse classes when scanning, to search by superclass, interfaces, methods "
+                + "and fields; takes effect with the next scan");
+        deepIndexMI.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Configuration.setProperty(CONFIG_DEEP_INDEX, String.valueOf(deepIndexMI.isSelected()));
+            }
+        });
+        fileM.add(deepIndexMI);
+
+        fileM.addSeparator();
+
+        JMenuItem conflictsMI = new JMenuItem("Find Class Conflicts");
+        conflictsMI.setToolTipText("lists classes found in more than one archive, and whether their bytes differ");
+        conflictsMI.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                findConflicts();
+            }
+        });
+        fileM.add(conflictsMI);
+
         JMenu helpM = new JMenu("Help");
 
         JMenuItem licenseMI = new JMenuItem("License");
@@ -345,101 +541,96 @@ public class JarExplorer extends JFrame {
         this.setJMenuBar(mb);
     }
 
+    /**
+     * Starts a search of the text in the search field, results are shown as they come, see {@link SearchExecutor}.
+     * A search started before is abandoned.
+     */
     private void search() {
-        int found = 0;
-        try {
-            setCursor(new Cursor(Cursor.WAIT_CURSOR));
-            progressBar.setString("starting to search");
-            progressBar.setIndeterminate(true);
-            ArrayList results = index.search(searchTF.getText());
-            found = results.size();
-
-            if (found == 0) {
-                results = index.search(Util.convertFqnToPath(searchTF.getText(), false));
-                found = results.size();
+        if (typingTimer != null) {
+            typingTimer.stop();
+        }
+        final String query = searchTF.getText();
+        final EntryIndex searched = index;
+        //queries of class declarations are not names, they are not converted
+        final boolean declarations = ClassIndex.isQuery(query);
+        int mode = modeCB.getSelectedIndex();
+        final String title = (declarations ? "Found classes declaring '"
+                : mode == SearchExecutor.RANKED ? "Best matches of '"
+                : mode == SearchExecutor.SUBSTRING ? "Found substring '" : "Found paths matching '") + query
+                + "' in all jars:";
+        progressBar.setString("searching for '" + query + "'");
+        progressBar.setIndeterminate(true);
+        searchExecutor.submit(searched, query, mode, new SearchExecutor.Listener() {
+            @Override
+            public void resultsFound(List<ClassInformation> results) {
+                resultsPanel.setResults(title, results);
+                progressBar.setIndeterminate(false);
+                if (declarations && searched.classCount() == 0) {
+                    progressBar.setString("no class metadata, check 'Index Class Metadata' and scan again");
+                } else {
+                    progressBar.setString("done searching, found: " + results.size() + " entries");
+                }
             }
 
-            if (found == 0) {
-                results = index.search(Util.convertFqnToPath(searchTF.getText(), true));
-                found = results.size();
+            @Override
+            public void searchFailed(Throwable e) {
+                progressBar.setIndeterminate(false);
+                if (e instanceof PatternSyntaxException) {
+                    //likely typed half way, not worth a dialog
+                    progressBar.setString("invalid pattern: " + ((PatternSyntaxException) e).getDescription());
+                    return;
+                }
+                progressBar.setString("search failed");
+                GUIUtil.messageBoxWithDetails(JarExplorer.this, "Exception", e);
             }
-            resultsPanel.setResults("Found substring '" + searchTF.getText() + "' in all jars:", results);
-            progressBar.setValue(0);
-            progressBar.setIndeterminate(false);
-            progressBar.setString("done path searching");
-        } catch (Throwable e) {
-            GUIUtil.messageBoxWithDetails(JarExplorer.this, "Exception", e);
-        } finally {
-            setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
-            progressBar.setString("done searching, found: " + found + " entries");
-        }
+        });
     }
 
     /**
-     * Recursive method. Lists content of directory. If it finds a jar, it adds it to the list, if is
-     * finds a directory, it calls itself with that directory as argument
-     *
-     * @param f           - file handle representing a directory
-     * @param jarNameList - List to which we're adding Jar names
-     * @throws java.io.IOException If problems processing Jars or directories
+     * Looks for classes in more than one archive in a separate thread, shows them when done.
      */
-    private void scanDirectory(File f, List jarNameList) throws IOException {
-        File[] children = f.listFiles();
-
-        for (File aChildren : children) {
-            if (stop) {
-                clean();
-                return;
-            }
-
-            boolean javaArchive = false;
-            String[] extensions = Configuration.getProperty(CONFIG_ZIP_EXTENSIONS).split(",");
-
-            for (String extension : extensions) {
-                if (aChildren.isFile() && aChildren.getName().endsWith("." + extension)) {
-                    javaArchive = true;
+    private void findConflicts() {
+        final EntryIndex searched = index;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                setCursor(new Cursor(Cursor.WAIT_CURSOR));
+                progressBar.setIndeterminate(true);
+                progressBar.setString("looking for class conflicts");
+                try {
+                    long start = System.currentTimeMillis();
+                    final List<ClassConflict> conflicts = searched.findConflicts();
+                    progressBar.setString("found " + conflicts.size() + " classes in more than one archive in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            ConflictsDialog dialog = new ConflictsDialog(JarExplorer.this, conflicts);
+                            dialog.pack();
+                            dialog.setSize(new Dimension(800, 600));
+                            dialog.setVisible(true);
+                        }
+                    });
+                } finally {
+                    progressBar.setIndeterminate(false);
+                    setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
                 }
             }
-
-            if (javaArchive) {
-                String name = aChildren.getCanonicalPath();
-                jarNameList.add(name);
-                progressBar.setString("Processing: " + name);
-                indexJarFile(name);
-            } else if (aChildren.isDirectory()) {
-                scanDirectory(aChildren, jarNameList);
-            } else {
-                //ignore
-            }
-        }
+        }, "Conflict Analysis").start();
     }
 
     private void clean() {
+        searchExecutor.cancel();
+        stopWatching();
         jarFilePanel.clean();
+        packageTreePanel.clean();
         resultsPanel.clean();
         index = new EntryIndex();
+        resultsPanel.setIndex(index);
+        ArchiveCache.getShared().clear();
         GUIUtil.getMainFrame().setTitle(JarExplorer.APP_NAME);
     }
 
-    /**
-     * Indexes a jar file.
-     *
-     * @param canonicalPath - fully qualified path to file.
-     * @throws IOException in case of io problem
-     */
-    private void indexJarFile(String canonicalPath) throws IOException {
-        FileInputStream fin = new FileInputStream(canonicalPath);
-
-        ZipInputStream jin = new ZipInputStream(fin);
-        for (ZipEntry entryName = jin.getNextEntry(); entryName != null; entryName = jin.getNextEntry()) {
-            if (!entryName.getName().endsWith("/")) //skip directories
-            {
-                this.index.addEntryName(canonicalPath, entryName.getName());
-            }
-        }
-        fin.close();
-    }
-
     /**
      * This is where indexing is done.
      *
@@ -453,6 +644,8 @@ public class JarExplorer extends JFrame {
             throw new RuntimeException(e);
         }
 
+        //archives which did not change since they were indexed are not read again
+        final EntryIndex previous = index;
         init();
 
         if (!topDirectory.exists()) {
@@ -467,19 +660,50 @@ public class JarExplorer extends JFrame {
                 setCursor(new Cursor(Cursor.WAIT_CURSOR));
                 progressBar.setIndeterminate(true);
                 progressBar.setString("Parsing tree: " + treeRoot1);
+                String done = "done path parsing";
                 try {
-                    ArrayList jarNameList = new ArrayList();
-                    if (topDirectory.isFile()) {
-                        jarNameList.add(topDirectory.getCanonicalPath());
-                        indexJarFile(topDirectory.getCanonicalPath());
-                    } else {
-                        scanDirectory(topDirectory, jarNameList);
-
+                    ArchiveScanner scanner = new ArchiveScanner(index,
+                            Configuration.getProperty(CONFIG_ZIP_EXTENSIONS).split(","), getScanThreads());
+                    scanner.setStreaming("stream".equals(Configuration.getProperty(CONFIG_INDEX_MODE)));
+                    scanner.setNestingDepth(getIntProperty(CONFIG_NESTING_DEPTH, 2));
+                    scanner.setDeepIndex(Configuration.getBooleanProperty(CONFIG_DEEP_INDEX));
+                    scanner.setPreviousIndex(previous);
+                    ArrayList<String> jarNameList = scanner.scan(topDirectory, new ArchiveScanner.Listener() {
+                        @Override
+                        public boolean isStopped() {
+                            return stop;
+                        }
+
+                        @Override
+                        public void archiveIndexed(String archive, int indexed, int discovered) {
+                            progressBar.setString("Processing (" + indexed + "/" + discovered + "): " + archive);
+                        }
+                    });
+                    if (stop) {
+                        clean();
+                        return;
+                    }
+                    if (scanner.getDiscoveryMetrics() != null) {
+                        done += ": " + scanner.getDiscoveryMetrics();
                     }
                     Collections.sort(jarNameList);
                     jarFilePanel.setJarList(jarNameList);
+                    final EntryIndex scanned = index;
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            packageTreePanel.setIndex(scanned);
+                        }
+                    });
                     Configuration.setProperty(CONFIG_LAST_FILE, treeRoot1);
                     lastFileMI.setText(treeRoot1);
+                    saveIndex(treeRoot1);
+                    if (index.classCount() > 0) {
+                        //built here rather than when the first class is explored
+                        index.getTypeHierarchy();
+                    }
+                    if (Configuration.getBooleanProperty(CONFIG_WATCH)) {
+                        startWatching(treeRoot1);
+                    }
                 } catch (Exception e) {
                     e.printStackTrace();
                     progressBar.setString("failed to parse path: " + treeRoot1);
@@ -487,7 +711,7 @@ public class JarExplorer extends JFrame {
                 } finally {
                     progressBar.setValue(0);
                     progressBar.setIndeterminate(false);
-                    progressBar.setString("done path parsing");
+                    progressBar.setString(done);
                     setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
                     GUIUtil.getMainFrame().setTitle(JarExplorer.APP_NAME + " : " + treeRoot1);
                     GUIUtil.getMainFrame().repaint();
@@ -498,6 +722,176 @@ public class JarExplorer extends JFrame {
         new Thread(r, "Parsing Thread").start();
     }
 
+    /**
+     * Saves index, so it can be loaded on next start. Failure to save is not fatal, the tree will be scanned again.
+     *
+     * @param treeRoot - root of indexed tree
+     */
+    private void saveIndex(String treeRoot) {
+        try {
+            progressBar.setString("Saving index of " + treeRoot);
+            IndexStore.save(index, treeRoot, indexFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts keeping current index up to date with changes of a tree. Changed archives are re-indexed one by one,
+     * jar list is updated in place, package counts are refreshed after each batch of changes and the index is saved
+     * once changes settle.
+     *
+     * @param treeRoot - root of the tree current index was built from
+     */
+    private synchronized void startWatching(final String treeRoot) {
+        stopWatching();
+        final EntryIndex watched = index;
+        watcher = new ArchiveWatcher(watched, Configuration.getProperty(CONFIG_ZIP_EXTENSIONS).split(","),
+                new ArchiveWatcher.Listener() {
+                    @Override
+                    public void archiveIndexed(final String archive) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                jarFilePanel.addJar(archive);
+                                if (archive.equals(jarFilePanel.getSelectedJar())) {
+                                    showJarContent(archive);
+                                }
+                                progressBar.setString("re-indexed: " + archive);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void archiveRemoved(final String archive) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                jarFilePanel.removeJar(archive);
+                                progressBar.setString("removed: " + archive);
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void archiveFailed(final String archive, final IOException e) {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                progressBar.setString("failed to read " + archive + ": " + e.getMessage());
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void changesProcessed() {
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                packageTreePanel.refresh();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void changesSettled() {
+                        //next session starts from the index as it is now, rather than re-reading changed archives
+                        try {
+                            IndexStore.save(watched, treeRoot, indexFile);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                });
+        watcher.setStreaming("stream".equals(Configuration.getProperty(CONFIG_INDEX_MODE)));
+        watcher.setNestingDepth(getIntProperty(CONFIG_NESTING_DEPTH, 2));
+        watcher.setDeepIndex(Configuration.getBooleanProperty(CONFIG_DEEP_INDEX));
+        try {
+            watcher.start(new File(treeRoot));
+        } catch (IOException e) {
+            watcher = null;
+            GUIUtil.messageBoxWithDetails(JarExplorer.this, "Cannot watch " + treeRoot, e);
+        }
+    }
+
+    private synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Loads index saved by a previous session, if it belongs to the last scanned tree.
+     */
+    private void loadIndex() {
+        final String treeRoot = Configuration.getProperty(CONFIG_LAST_FILE);
+        if (Util.isBlankString(treeRoot) || !treeRoot.equals(IndexStore.readRoot(indexFile))) {
+            return;
+        }
+        Runnable r = new Runnable() {
+            @Override
+            public void run() {
+                setCursor(new Cursor(Cursor.WAIT_CURSOR));
+                progressBar.setIndeterminate(true);
+                progressBar.setString("Loading index of " + treeRoot);
+                long start = System.currentTimeMillis();
+                EntryIndex loaded = null;
+                try {
+                    loaded = IndexStore.load(indexFile);
+                    if (loaded != null) {
+                        index = loaded;
+                        resultsPanel.setIndex(loaded);
+                        jarFilePanel.setJarList(loaded.getJarNames());
+                        final EntryIndex shown = loaded;
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                packageTreePanel.setIndex(shown);
+                            }
+                        });
+                        GUIUtil.getMainFrame().setTitle(JarExplorer.APP_NAME + " : " + treeRoot);
+                        if (Configuration.getBooleanProperty(CONFIG_WATCH)) {
+                            //also picks up changes made while the application was not running
+                            startWatching(treeRoot);
+                        }
+                    }
+                } catch (IOException e) {
+                    //damaged index, the tree can still be scanned
+                    e.printStackTrace();
+                } finally {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setString("loaded " + index.size() + " entries in "
+                            + (System.currentTimeMillis() - start) + " ms, rescan to pick up changes");
+                    setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+                }
+                //already searchable, only faster once this is done
+                if (loaded != null) {
+                    loaded.buildSearchIndex();
+                    loaded.buildPostings();
+                    if (loaded.classCount() > 0) {
+                        loaded.getTypeHierarchy();
+                    }
+                }
+            }
+        };
+        new Thread(r, "Loading Thread").start();
+    }
+
+    /**
+     * @return number of threads to read archives with, configured or number of processors
+     */
+    private static int getScanThreads() {
+        return getIntProperty(CONFIG_SCAN_THREADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = Configuration.getProperty(name);
+        if (!Util.isBlankString(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Illegal value of " + name + ": " + value);
+            }
+        }
+        return defaultValue;
+    }
+
     private static void appInit() {
 
         // Application name and version from POM
@@ -522,6 +916,7 @@ public class JarExplorer extends JFrame {
         // Configuration setup
         Configuration.setFileName(System.getProperty("user.home") + "/" + ".JarExplorer.properties",
                 model.getName());
+        indexFile = new File(System.getProperty("user.home"), ".JarExplorer.index");
         // Configuration defaults
         if (Configuration.getProperty(CONFIG_ZIP_EXTENSIONS) == null) {
             Configuration.setProperty(CONFIG_ZIP_EXTENSIONS, "jar,zip,war,ear,rar");
@@ -539,6 +934,8 @@ public class JarExplorer extends JFrame {
 
         if (args.length == 1) {
             je.scanPath(new File(args[0]));
+        } else {
+            je.loadIndex();
         }
     }
 }
\ No newline at end of file
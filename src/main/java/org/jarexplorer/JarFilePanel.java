@@ -17,7 +17,7 @@ public class JarFilePanel extends JPanel {
     /**
      * this is a list that will contain String objects with full paths to the jar files
      */
-    private JList<String> jarGUIList = new JList<>();
+    private JList<String> jarGUIList = new JList<String>(new DefaultListModel<String>());
 
 
     /**
@@ -48,6 +48,54 @@ public class JarFilePanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Adds a jar file to the list, keeping the list sorted. Does nothing if the jar file is in the list already.
+     *
+     * @param jarName - fully qualified path to a jar file
+     */
+    public void addJar(String jarName) {
+        DefaultListModel<String> model = (DefaultListModel<String>) jarGUIList.getModel();
+        int position = find(model, jarName);
+        if (position < 0) {
+            model.add(-position - 1, jarName);
+        }
+    }
+
+    /**
+     * Removes a jar file from the list.
+     *
+     * @param jarName - fully qualified path to a jar file
+     */
+    public void removeJar(String jarName) {
+        DefaultListModel<String> model = (DefaultListModel<String>) jarGUIList.getModel();
+        int position = find(model, jarName);
+        if (position >= 0) {
+            model.remove(position);
+        }
+    }
+
+    /**
+     * Binary search in a sorted model.
+     *
+     * @return position of jar, or (-(insertion point) - 1) if not found
+     */
+    private static int find(DefaultListModel<String> model, String jarName) {
+        int low = 0;
+        int high = model.getSize() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = model.get(middle).compareTo(jarName);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
     /**
      * Returns selected jar file.
      *
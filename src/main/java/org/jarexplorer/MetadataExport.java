@@ -0,0 +1,525 @@
+package org.jarexplorer;
+
+import javad.classfile.ClassFile;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Headless batch export of class metadata. Walks directories for archives and class files, parses every class on a
+ * pool of threads and writes one record per class (name, modifiers, superclass, interfaces, fields, constructors,
+ * methods) as JSON Lines or CSV. Classes of a large archive are split between threads; archives nested in archives
+ * are read in place, as when indexing.
+ * <p>
+ * Records are written in no particular order. Classes which cannot be parsed are counted and left out. Run with:
+ * <pre>
+ * java -cp jarexplorer.jar org.jarexplorer.MetadataExport [-format jsonl|csv] [-out file] [-threads n]
+ *      [-nested depth] [-extensions jar,zip,...] path...
+ * </pre>
+ * where each path is a directory, an archive or a class file. A throughput summary is printed on the standard error
+ * at the end.
+ *
+ * @author Igor Polevoy
+ */
+public class MetadataExport {
+
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        /**
+         * one JSON object per line
+         */
+        JSONL,
+        /**
+         * comma separated values with a header line, lists are separated by "; "
+         */
+        CSV
+    }
+
+    private static final String DEFAULT_EXTENSIONS = "jar,zip,war,ear,rar";
+    private static final String CLASS_SUFFIX = ".class";
+    //classes of an archive parsed by one task
+    private static final int CLASSES_PER_TASK = 256;
+    private static final String[] CSV_COLUMNS = {"archive", "entry", "name", "modifiers", "superclass", "interfaces",
+            "fields", "constructors", "methods"};
+
+    private final Writer out;
+    private final Format format;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int nestingDepth = 2;
+    private String extensions = DEFAULT_EXTENSIONS;
+
+    /**
+     * @param out    - receives records, not closed
+     * @param format - format of records
+     */
+    public MetadataExport(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * @param threads - number of threads parsing classes, defaults to number of processors
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param nestingDepth - how deep to look into archives nested in archives, 0 to not read nested archives
+     */
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+    }
+
+    /**
+     * @param extensions - comma separated extensions of archives, as in <code>zip.extensions</code>
+     */
+    public void setExtensions(String extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Exports classes of directories, archives and class files.
+     *
+     * @param paths - directories, archives or class files
+     * @return counters of the export
+     * @throws IOException          in case of io problem writing records; archives which cannot be read are counted
+     *                              as failures
+     * @throws InterruptedException if interrupted while waiting for parsing to finish
+     */
+    public Summary export(List<File> paths) throws IOException, InterruptedException {
+        final Summary summary = new Summary();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Run run = new Run(executor, summary);
+        try {
+            if (format == Format.CSV) {
+                out.write(join(Arrays.asList(CSV_COLUMNS), ",") + "\n");
+            }
+            for (File path : paths) {
+                run.submitPath(path.getCanonicalFile());
+            }
+            run.await();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            summary.end = System.nanoTime();
+        }
+        if (run.writeFailure != null) {
+            throw run.writeFailure;
+        }
+        return summary;
+    }
+
+    /**
+     * State of one export: tasks submitted and not finished yet, the first failure to write.
+     */
+    private class Run {
+        private final ExecutorService executor;
+        private final Summary summary;
+        private final ExtensionMatcher matcher = new ExtensionMatcher(extensions);
+        //the run itself counts as pending until all paths are submitted
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile IOException writeFailure;
+
+        Run(ExecutorService executor, Summary summary) {
+            this.executor = executor;
+            this.summary = summary;
+        }
+
+        void submitPath(File path) throws InterruptedException {
+            if (path.isDirectory()) {
+                //class files are found along with archives
+                ExtensionMatcher filesMatcher = new ExtensionMatcher(extensions + ",class");
+                new ArchiveDiscovery(filesMatcher, threads).walk(path.toPath(), new ArchiveDiscovery.Listener() {
+                    public boolean isStopped() {
+                        return writeFailure != null;
+                    }
+
+                    public void archiveFound(String file) {
+                        submitFile(file);
+                    }
+                });
+            } else {
+                submitFile(path.getPath());
+            }
+        }
+
+        void submitFile(final String file) {
+            submit(new Runnable() {
+                public void run() {
+                    if (file.endsWith(CLASS_SUFFIX)) {
+                        exportClassFile(file);
+                    } else {
+                        exportArchive(file);
+                    }
+                }
+            });
+        }
+
+        void submit(final Runnable task) {
+            pending.incrementAndGet();
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        if (writeFailure == null) {
+                            task.run();
+                        }
+                    } finally {
+                        finished();
+                    }
+                }
+            });
+        }
+
+        void finished() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        void await() throws InterruptedException {
+            finished();
+            done.await();
+        }
+
+        private void exportClassFile(String file) {
+            byte[] classBytes;
+            try {
+                classBytes = Files.readAllBytes(new File(file).toPath());
+            } catch (IOException e) {
+                summary.failures.incrementAndGet();
+                return;
+            }
+            StringBuilder records = new StringBuilder();
+            exportClass(records, null, file, ByteBuffer.wrap(classBytes));
+            write(records);
+        }
+
+        private void exportArchive(String file) {
+            ArchiveData archive;
+            try {
+                archive = ArchiveData.open(file, true);
+            } catch (IOException e) {
+                summary.failures.incrementAndGet();
+                return;
+            }
+            //closed, which unmaps its file, after its last task
+            final ArchiveData root = archive;
+            final AtomicInteger users = new AtomicInteger(1);
+            try {
+                exportArchive(root, root, users, file, nestingDepth);
+            } finally {
+                release(root, users);
+            }
+        }
+
+        private void exportArchive(final ArchiveData root, final ArchiveData archive, final AtomicInteger users,
+                                   final String name, int depth) {
+            List<ArchiveEntry> entries;
+            try {
+                entries = archive.getEntries();
+            } catch (IOException e) {
+                summary.failures.incrementAndGet();
+                return;
+            }
+            summary.archives.incrementAndGet();
+            ArrayList<ArchiveEntry> classes = new ArrayList<>();
+            for (ArchiveEntry entry : entries) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entry.getName().endsWith(CLASS_SUFFIX)) {
+                    classes.add(entry);
+                } else if (depth > 0 && matcher.matches(entry.getName())) {
+                    try {
+                        exportArchive(root, archive.openNested(entry), users, name + ArchiveData.SEPARATOR
+                                + entry.getName(), depth - 1);
+                    } catch (IOException e) {
+                        summary.failures.incrementAndGet();
+                    }
+                }
+            }
+            for (int i = 0; i < classes.size(); i += CLASSES_PER_TASK) {
+                final List<ArchiveEntry> part = classes.subList(i, Math.min(classes.size(), i + CLASSES_PER_TASK));
+                users.incrementAndGet();
+                submit(new Runnable() {
+                    public void run() {
+                        try {
+                            StringBuilder records = new StringBuilder();
+                            for (ArchiveEntry entry : part) {
+                                try {
+                                    exportClass(records, name, entry.getName(), archive.read(entry));
+                                } catch (IOException e) {
+                                    summary.failures.incrementAndGet();
+                                }
+                            }
+                            write(records);
+                        } finally {
+                            release(root, users);
+                        }
+                    }
+                });
+            }
+        }
+
+        private void release(ArchiveData archive, AtomicInteger users) {
+            if (users.decrementAndGet() == 0) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void exportClass(StringBuilder records, String archive, String entry, ByteBuffer classBytes) {
+            summary.bytes.addAndGet(classBytes.remaining());
+            ClassFile classFile;
+            try {
+                classFile = new ClassFile(classBytes);
+            } catch (RuntimeException e) {
+                //not supported by parser
+                summary.failures.incrementAndGet();
+                return;
+            }
+            List<Object> values = Arrays.<Object>asList(archive, entry, classFile.getClassName(),
+                    classFile.getClassModifiers(), classFile.getSuperclassName(),
+                    list(classFile.getInterfaceNames()), list(classFile.getFields()),
+                    classFile.getConstructors(), classFile.getMethods());
+            if (format == Format.CSV) {
+                writeCsvRow(records, values);
+            } else {
+                writeJson(records, values);
+            }
+            summary.classes.incrementAndGet();
+        }
+
+        private void write(StringBuilder records) {
+            if (records.length() == 0) {
+                return;
+            }
+            try {
+                synchronized (out) {
+                    out.append(records);
+                }
+            } catch (IOException e) {
+                if (writeFailure == null) {
+                    writeFailure = e;
+                }
+            }
+        }
+    }
+
+    private static List<String> list(String[] values) {
+        return values == null ? new ArrayList<String>() : Arrays.asList(values);
+    }
+
+    private static void writeJson(StringBuilder record, List<Object> values) {
+        record.append('{');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            appendJsonString(record, CSV_COLUMNS[i]);
+            record.append(':');
+            Object value = values.get(i);
+            if (value instanceof List) {
+                record.append('[');
+                List<?> list = (List<?>) value;
+                for (int j = 0; j < list.size(); j++) {
+                    if (j > 0) {
+                        record.append(',');
+                    }
+                    appendJsonString(record, (String) list.get(j));
+                }
+                record.append(']');
+            } else {
+                appendJsonString(record, (String) value);
+            }
+        }
+        record.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder record, String value) {
+        if (value == null) {
+            record.append("null");
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                record.append('\\').append(c);
+            } else if (c < 0x20) {
+                record.append(String.format("\\u%04x", (int) c));
+            } else {
+                record.append(c);
+            }
+        }
+        record.append('"');
+    }
+
+    private static void writeCsvRow(StringBuilder record, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            Object value = values.get(i);
+            String text;
+            if (value == null) {
+                text = "";
+            } else if (value instanceof List) {
+                text = join((List<?>) value, "; ");
+            } else {
+                text = (String) value;
+            }
+            //quoted as in RFC 4180
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                record.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                record.append(text);
+            }
+        }
+        record.append('\n');
+    }
+
+    private static String join(List<?> values, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (Object value : values) {
+            if (joined.length() > 0) {
+                joined.append(separator);
+            }
+            joined.append(value);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Counters of an export.
+     */
+    public static class Summary {
+        private final AtomicLong classes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong archives = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final long start = System.nanoTime();
+        private volatile long end;
+
+        /**
+         * @return number of classes written
+         */
+        public long getClasses() {
+            return classes.get();
+        }
+
+        /**
+         * @return number of classes, archives and files which could not be read or parsed
+         */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @return number of archives read, nested ones included
+         */
+        public long getArchives() {
+            return archives.get();
+        }
+
+        public long getElapsedMillis() {
+            return ((end == 0 ? System.nanoTime() : end) - start) / 1000000;
+        }
+
+        public double getClassesPerSecond() {
+            return classes.get() * 1000.0 / Math.max(1, getElapsedMillis());
+        }
+
+        public String toString() {
+            return String.format("%d classes exported, %d failures, %d archives, %.1f MB of class files in %d ms, "
+                            + "%.0f classes/s", getClasses(), getFailures(), getArchives(),
+                    bytes.get() / (1024.0 * 1024), getElapsedMillis(), getClassesPerSecond());
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: MetadataExport [-format jsonl|csv] [-out file] [-threads n] [-nested depth] "
+                + "[-extensions jar,zip,...] path...");
+        System.err.println("       each path is a directory, an archive or a class file");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Format format = null;
+        String outFile = null;
+        int threads = 0;
+        int nestingDepth = 2;
+        String extensions = null;
+        List<File> paths = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-format")) {
+                    format = Format.valueOf(args[++i].toUpperCase());
+                } else if (arg.equals("-out")) {
+                    outFile = args[++i];
+                } else if (arg.equals("-threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-nested")) {
+                    nestingDepth = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-extensions")) {
+                    extensions = args[++i];
+                } else if (arg.startsWith("-")) {
+                    throw new IllegalArgumentException(arg);
+                } else {
+                    paths.add(new File(arg));
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            usage();
+            System.exit(1);
+        }
+        if (paths.isEmpty()) {
+            usage();
+            System.exit(1);
+        }
+        if (format == null) {
+            format = outFile != null && outFile.toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSONL;
+        }
+
+        //the class file parser reports problems on System.out, keep those out of the records
+        OutputStream stream = outFile == null ? System.out : new FileOutputStream(outFile);
+        System.setOut(new PrintStream(System.err, true));
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(stream, "UTF-8"), 1 << 16)) {
+            MetadataExport export = new MetadataExport(out, format);
+            if (threads > 0) {
+                export.setThreads(threads);
+            }
+            export.setNestingDepth(nestingDepth);
+            if (extensions != null) {
+                export.setExtensions(extensions);
+            }
+            Summary summary = export.export(paths);
+            System.err.println(summary);
+        }
+    }
+}
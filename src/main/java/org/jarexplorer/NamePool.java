@@ -0,0 +1,194 @@
+package org.jarexplorer;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+
+/**
+ * Set of distinct strings packed into a single byte array, each identified by an int id given in order of
+ * addition. Used for names which repeat a lot among jar file entries - package names and simple file names -
+ * so that each is stored once, without the overhead of a <code>String</code> object.
+ * <p>
+ * Strings are stored UTF-8 encoded, almost all entry names are ASCII and take a byte per character.
+ *
+ * @author Igor Polevoy
+ */
+class NamePool {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private byte[] bytes = new byte[1024];
+    private int used;
+    //start of string i is offsets[i], its end is offsets[i + 1]
+    private int[] offsets = new int[65];
+    private int size;
+    //open addressing hash table of id + 1, 0 is empty
+    private int[] table = new int[128];
+
+    /**
+     * @return id of string, added to pool if it was not there
+     */
+    int intern(String s) {
+        byte[] encoded = encode(s);
+        int hash = hash(encoded, 0, encoded.length);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                id = add(encoded);
+                table[slot] = id + 1;
+                if (size * 2 > table.length) {
+                    rehash();
+                }
+                return id;
+            }
+            if (equals(id, encoded)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @return id of string, -1 if it is not in pool
+     */
+    int find(String s) {
+        byte[] encoded = encode(s);
+        int mask = table.length - 1;
+        for (int slot = hash(encoded, 0, encoded.length) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0 || equals(id, encoded)) {
+                return id;
+            }
+        }
+    }
+
+    String get(int id) {
+        int start = offsets[id];
+        int end = offsets[id + 1];
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, start, end - start, UTF8);
+            }
+        }
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) bytes[start + i];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Substring test done on encoded bytes, which for UTF-8 gives the same result as on characters.
+     *
+     * @param pattern - encoded with {@link #encode(String)}
+     */
+    boolean contains(int id, byte[] pattern) {
+        int start = offsets[id];
+        int last = offsets[id + 1] - pattern.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param prefix - encoded with {@link #encode(String)}
+     */
+    boolean startsWith(int id, byte[] prefix) {
+        return offsets[id + 1] - offsets[id] >= prefix.length && regionMatches(offsets[id], prefix);
+    }
+
+    /**
+     * @param suffix - encoded with {@link #encode(String)}
+     */
+    boolean endsWith(int id, byte[] suffix) {
+        return offsets[id + 1] - offsets[id] >= suffix.length && regionMatches(offsets[id + 1] - suffix.length, suffix);
+    }
+
+    private boolean regionMatches(int start, byte[] pattern) {
+        for (int j = 0; j < pattern.length; j++) {
+            if (bytes[start + j] != pattern[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of the arrays holding names and their hash table, as allocated
+     */
+    long arrayBytes() {
+        return bytes.length + 4L * offsets.length + 4L * table.length;
+    }
+
+    private int add(byte[] encoded) {
+        if (used + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(used + encoded.length, bytes.length + (bytes.length >> 1)));
+        }
+        System.arraycopy(encoded, 0, bytes, used, encoded.length);
+        used += encoded.length;
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+        }
+        offsets[++size] = used;
+        return size - 1;
+    }
+
+    private boolean equals(int id, byte[] encoded) {
+        int start = offsets[id];
+        if (offsets[id + 1] - start != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes[start + i] != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(bytes, offsets[id], offsets[id + 1] - offsets[id]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int hash(byte[] data, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + data[i];
+        }
+        //spread, the table is indexed with low bits
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static byte[] encode(String s) {
+        int length = s.length();
+        byte[] encoded = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                return s.getBytes(UTF8);
+            }
+            encoded[i] = (byte) c;
+        }
+        return encoded;
+    }
+}
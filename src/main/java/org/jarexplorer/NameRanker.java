@@ -0,0 +1,260 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+
+
+/**
+ * Scores simple names of entries against a query the way IDEs find classes by name, ignoring case:
+ * <ul>
+ * <li>the whole name, <code>stringutils</code> for <code>StringUtils.class</code></li>
+ * <li>a prefix of the name, <code>stringu</code></li>
+ * <li>a camel case abbreviation: every part of the query starts a word of the name, words may be skipped;
+ * <code>HSCF</code> or <code>HttpSerCoFa</code> for <code>HttpServletContextFactory</code>, <code>strutil</code> for
+ * <code>StringUtils</code></li>
+ * <li>a substring of the name</li>
+ * <li>a name within a small edit distance of the query, typos such as <code>HashMpa</code> for
+ * <code>HashMap</code></li>
+ * </ul>
+ * in this order of preference, shorter names first among equals. The extension of names is not looked at, nor is
+ * the extension of the query, if it has one.
+ * <p>
+ * Names are copied from the {@link NamePool} of simple names as it grows, together with a mask of the characters
+ * each one has, so that most names are ruled out by comparing two longs.
+ *
+ * @author Igor Polevoy
+ */
+class NameRanker {
+
+    private static final int FUZZY_2 = 1;
+    private static final int FUZZY_1 = 2;
+    private static final int SUBSTRING = 3;
+    private static final int INNER_CAMEL = 4;
+    private static final int CAMEL = 5;
+    private static final int PREFIX = 6;
+    private static final int EXACT = 7;
+
+    //highest score there is
+    static final int MAX_SCORE = EXACT << 8 | 255;
+
+    //names without extension, as in NamePool: start of name i is offsets[i], its end is offsets[i + 1]
+    private byte[] bytes = new byte[1024];
+    private int used;
+    private int[] offsets = new int[65];
+    //characters in name, a bit per character (lower case) modulo 64
+    private long[] masks = new long[64];
+    private int size;
+
+    /**
+     * Adds names which were added to pool since the last call.
+     */
+    void update(NamePool names) {
+        for (int id = size; id < names.size(); id++) {
+            add(NamePool.encode(baseName(names.get(id))));
+        }
+    }
+
+    /**
+     * @return number of names scored
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param query - name, abbreviation or part of a name
+     * @return score of every name by id, higher is better, 0 if name does not match
+     */
+    int[] score(String query) {
+        byte[] q = NamePool.encode(baseName(query));
+        for (int i = 0; i < q.length; i++) {
+            q[i] = lower(q[i]);
+        }
+        int[] scores = new int[size];
+        if (q.length == 0) {
+            return scores;
+        }
+        long queryMask = mask(q, 0, q.length);
+        //one typo in five characters
+        int maxDistance = q.length < 5 ? 0 : q.length < 9 ? 1 : 2;
+        for (int id = 0; id < size; id++) {
+            long missing = queryMask & ~masks[id];
+            if (missing != 0 && Long.bitCount(missing) > maxDistance) {
+                continue;
+            }
+            int start = offsets[id];
+            int length = offsets[id + 1] - start;
+            int category = missing == 0 ? match(q, start, length) : 0;
+            if (category == 0 && maxDistance > 0 && Math.abs(length - q.length) <= maxDistance) {
+                int distance = distance(q, start, length, maxDistance);
+                category = distance > maxDistance ? 0 : distance == 1 ? FUZZY_1 : FUZZY_2;
+            }
+            if (category > 0) {
+                scores[id] = category << 8 | 255 - Math.min(length, 255);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * @return category of match, 0 if there is none
+     */
+    private int match(byte[] q, int start, int length) {
+        if (length >= q.length && regionMatches(q, start)) {
+            return length == q.length ? EXACT : PREFIX;
+        }
+        if (lower(bytes[start]) == q[0] && camel(q, 1, start, start + 1, start + length, 0)) {
+            return CAMEL;
+        }
+        int end = start + length;
+        for (int i = start + 1; i < end; i++) {
+            if (isWordStart(start, i, end) && lower(bytes[i]) == q[0] && camel(q, 1, start, i + 1, end, 0)) {
+                return INNER_CAMEL;
+            }
+        }
+        for (int i = start + 1; i + q.length <= start + length; i++) {
+            if (regionMatches(q, i)) {
+                return SUBSTRING;
+            }
+        }
+        return 0;
+    }
+
+    private boolean regionMatches(byte[] q, int from) {
+        for (int j = 0; j < q.length; j++) {
+            if (lower(bytes[from + j]) != q[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the rest of query either right after the last matched character, or at the start of a later word.
+     *
+     * @param qi    - next character of query
+     * @param next  - position after the last matched character
+     * @param steps - backtracking done so far, it is bounded
+     */
+    private boolean camel(byte[] q, int qi, int start, int next, int end, int steps) {
+        if (qi == q.length) {
+            return true;
+        }
+        if (steps > 64) {
+            return false;
+        }
+        if (next < end && lower(bytes[next]) == q[qi] && camel(q, qi + 1, start, next + 1, end, steps + 1)) {
+            return true;
+        }
+        for (int i = next + 1; i < end; i++) {
+            if (isWordStart(start, i, end) && lower(bytes[i]) == q[qi]
+                    && camel(q, qi + 1, start, i + 1, end, steps + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if character at i starts a word: an upper case letter after a lower case one or a digit, the last
+     * of several upper case letters followed by a lower case one (S in HTTPServer), a digit after a letter, or a
+     * character after a separator
+     */
+    private boolean isWordStart(int start, int i, int end) {
+        if (i == start) {
+            return true;
+        }
+        byte c = bytes[i];
+        byte previous = bytes[i - 1];
+        if (isUpper(c)) {
+            return !isUpper(previous) || i + 1 < end && isLower(bytes[i + 1]);
+        }
+        if (isDigit(c)) {
+            return !isDigit(previous);
+        }
+        return previous == '$' || previous == '_' || previous == '-' || previous == '.';
+    }
+
+    /**
+     * Optimal string alignment distance, adjacent characters swapped count as one edit.
+     *
+     * @return distance, or maxDistance + 1 if it is more than that
+     */
+    private int distance(byte[] q, int start, int length, int maxDistance) {
+        int[] previous2 = new int[length + 1];
+        int[] previous = new int[length + 1];
+        int[] current = new int[length + 1];
+        for (int j = 0; j <= length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= q.length; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= length; j++) {
+                byte c = lower(bytes[start + j - 1]);
+                int cost = q[i - 1] == c ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && q[i - 1] == lower(bytes[start + j - 2]) && q[i - 2] == c) {
+                    d = Math.min(d, previous2[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] rotated = previous2;
+            previous2 = previous;
+            previous = current;
+            current = rotated;
+        }
+        return previous[length];
+    }
+
+    private void add(byte[] name) {
+        if (used + name.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(used + name.length, bytes.length + (bytes.length >> 1)));
+        }
+        System.arraycopy(name, 0, bytes, used, name.length);
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+        }
+        if (size == masks.length) {
+            masks = Arrays.copyOf(masks, size + (size >> 1));
+        }
+        masks[size] = mask(bytes, used, name.length);
+        used += name.length;
+        offsets[++size] = used;
+    }
+
+    private static long mask(byte[] data, int start, int length) {
+        long mask = 0;
+        for (int i = start; i < start + length; i++) {
+            mask |= 1L << (lower(data[i]) & 63);
+        }
+        return mask;
+    }
+
+    /**
+     * @return name without extension, the name itself if it starts with its only '.'
+     */
+    private static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static byte lower(byte c) {
+        return isUpper(c) ? (byte) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isUpper(byte c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(byte c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,72 @@
+package org.jarexplorer;
+
+/**
+ * A package of the indexed jar files, with the number of entries in it and in its subpackages, and the jar files
+ * which have them, see {@link EntryIndex#getPackage(String)}. Entries of jar files with the same content are counted
+ * for each of them.
+ *
+ * @author Igor Polevoy
+ */
+public class PackageInfo {
+
+    private final String name;
+    private final String simpleName;
+    private final int entryCount;
+    private final String[] jarNames;
+    private final boolean subpackages;
+
+    /**
+     * @param name        - package, ending with '/', empty for the root
+     * @param simpleName  - last segment of package
+     * @param entryCount  - entries in package and its subpackages
+     * @param jarNames    - jar files with these entries, sorted
+     * @param subpackages - whether there are subpackages with entries
+     */
+    PackageInfo(String name, String simpleName, int entryCount, String[] jarNames, boolean subpackages) {
+        this.name = name;
+        this.simpleName = simpleName;
+        this.entryCount = entryCount;
+        this.jarNames = jarNames;
+        this.subpackages = subpackages;
+    }
+
+    /**
+     * @return package, such as <code>org/springframework/</code>, empty for the root
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return last segment of package, such as <code>springframework</code>
+     */
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    /**
+     * @return number of entries in package and its subpackages
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return names of jar files with entries in package or its subpackages, sorted
+     */
+    public String[] getJarNames() {
+        return jarNames.clone();
+    }
+
+    /**
+     * @return true if package has subpackages with entries
+     */
+    public boolean hasSubpackages() {
+        return subpackages;
+    }
+
+    public String toString() {
+        return (simpleName.length() == 0 ? "/" : simpleName) + " (" + entryCount + " entries in " + jarNames.length
+                + (jarNames.length == 1 ? " jar)" : " jars)");
+    }
+}
@@ -0,0 +1,302 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+
+
+/**
+ * Trie of the packages of all jar files in an {@link EntryIndex}, one node per package segment, which knows for
+ * every node how many entries there are under it, packages below included, and which jar files have them. It is
+ * kept up to date as entries are added and removed, so such questions take a lookup of the package rather than a
+ * scan of entries.
+ * <p>
+ * Entries are counted by entry set, as they are stored: for every set, the number of its entries under each node.
+ * A jar file joining or leaving a set then only touches the nodes of that set. Entries of a set shared by several
+ * jar files are counted once for each, as in searches.
+ * <p>
+ * Jar files of a node are kept as a sorted list of ids while there are few of them, as a bitmap once there are more:
+ * most packages are in a handful of jar files, a bitmap of every one of them would be mostly empty.
+ * <p>
+ * Not thread safe, {@link EntryIndex} guards it with its lock.
+ *
+ * @author Igor Polevoy
+ */
+class PackageTree {
+
+    static final int ROOT = 0;
+
+    //more jar files than this and a node keeps them in a bitmap
+    private static final int MAX_JAR_LIST = 32;
+
+    //nodes by id: segment of package, parent, children by segment, created as they are needed
+    private final ArrayList<String> segments = new ArrayList<>();
+    private final IntList parents = new IntList();
+    private final ArrayList<HashMap<String, Integer>> children = new ArrayList<>();
+    //entries under node, counted for every jar file which has them
+    private final IntList entryCounts = new IntList();
+    //jar files with entries under node: a sorted IntList or a BitSet
+    private final ArrayList<Object> nodeJars = new ArrayList<>();
+    //package id -> node id + 1, 0 until the package had entries
+    private int[] packageNodes = new int[64];
+    //entry set id -> node ids and counts of entries of the set under them
+    private final ArrayList<IntList[]> setNodes = new ArrayList<>();
+
+    PackageTree() {
+        addNode("", -1);
+    }
+
+    /**
+     * Counts entries added to a set, all in one package.
+     *
+     * @param setId       - entry set
+     * @param setJars     - jar files with the set
+     * @param packageId   - package of entries
+     * @param packageName - name of package, ending with '/' unless it is the root
+     * @param count       - number of entries added
+     */
+    void addEntries(int setId, IntList setJars, int packageId, String packageName, int count) {
+        IntList[] nodes = nodesOf(setId);
+        for (int node = node(packageId, packageName); node >= 0; node = parents.get(node)) {
+            int i = indexOf(nodes[0], node);
+            if (i < 0) {
+                nodes[0].add(node);
+                nodes[1].add(count);
+                for (int j = 0; j < setJars.size(); j++) {
+                    addNodeJar(node, setJars.get(j));
+                }
+            } else {
+                nodes[1].set(i, nodes[1].get(i) + count);
+            }
+            entryCounts.set(node, entryCounts.get(node) + count * setJars.size());
+        }
+    }
+
+    /**
+     * Counts entries of a set for a jar file which now has them too.
+     */
+    void addJar(int setId, int jarId) {
+        IntList[] nodes = nodesOf(setId);
+        for (int i = 0; i < nodes[0].size(); i++) {
+            int node = nodes[0].get(i);
+            addNodeJar(node, jarId);
+            entryCounts.set(node, entryCounts.get(node) + nodes[1].get(i));
+        }
+    }
+
+    /**
+     * Stops counting entries of a set for a jar file which no longer has them. A jar file only ever has the entries
+     * of one set, so it is gone from the nodes of the set.
+     */
+    void removeJar(int setId, int jarId) {
+        IntList[] nodes = nodesOf(setId);
+        for (int i = 0; i < nodes[0].size(); i++) {
+            int node = nodes[0].get(i);
+            removeNodeJar(node, jarId);
+            entryCounts.set(node, entryCounts.get(node) - nodes[1].get(i));
+        }
+    }
+
+    /**
+     * Forgets a set whose entries were removed, after the last of its jar files was removed from it.
+     */
+    void removeSet(int setId) {
+        if (setId < setNodes.size()) {
+            setNodes.set(setId, null);
+        }
+    }
+
+    /**
+     * @param packageName - package, with or without the ending '/', empty for the root
+     * @return id of node, -1 if there are no entries in or under the package
+     */
+    int find(String packageName) {
+        int node = ROOT;
+        int start = 0;
+        while (node >= 0 && start < packageName.length()) {
+            int slash = packageName.indexOf('/', start);
+            int end = slash < 0 ? packageName.length() : slash;
+            Integer child = end == start ? null : children.get(node).get(packageName.substring(start, end));
+            node = child == null ? -1 : child;
+            start = end + 1;
+        }
+        return node >= 0 && entryCounts.get(node) > 0 ? node : -1;
+    }
+
+    /**
+     * @return ids of subpackages with entries, by name
+     */
+    int[] children(int node) {
+        IntList result = new IntList();
+        for (int child : children.get(node).values()) {
+            if (entryCounts.get(child) > 0) {
+                result.add(child);
+            }
+        }
+        Integer[] sorted = new Integer[result.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = result.get(i);
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer n1, Integer n2) {
+                return segments.get(n1).compareTo(segments.get(n2));
+            }
+        });
+        int[] ids = new int[sorted.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sorted[i];
+        }
+        return ids;
+    }
+
+    /**
+     * @return package of node, ending with '/', empty for the root
+     */
+    String name(int node) {
+        StringBuilder name = new StringBuilder();
+        for (; node != ROOT; node = parents.get(node)) {
+            name.insert(0, '/').insert(0, segments.get(node));
+        }
+        return name.toString();
+    }
+
+    /**
+     * @return last segment of package of node
+     */
+    String segment(int node) {
+        return segments.get(node);
+    }
+
+    /**
+     * @return number of entries in and under package of node
+     */
+    int entryCount(int node) {
+        return entryCounts.get(node);
+    }
+
+    /**
+     * @return ids of jar files with entries in or under package of node, in ascending order
+     */
+    int[] jars(int node) {
+        Object jars = nodeJars.get(node);
+        if (jars instanceof IntList) {
+            return ((IntList) jars).toArray();
+        }
+        BitSet bits = (BitSet) jars;
+        int[] ids = new int[bits.cardinality()];
+        int n = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            ids[n++] = i;
+        }
+        return ids;
+    }
+
+    /**
+     * @return node of package, created with its parents if it is not there
+     */
+    private int node(int packageId, String packageName) {
+        if (packageId >= packageNodes.length) {
+            packageNodes = Arrays.copyOf(packageNodes, Math.max(packageId + 1, packageNodes.length * 2));
+        }
+        if (packageNodes[packageId] == 0) {
+            int node = ROOT;
+            int start = 0;
+            while (start < packageName.length()) {
+                int end = packageName.indexOf('/', start);
+                end = end < 0 ? packageName.length() : end;
+                String segment = packageName.substring(start, end);
+                Integer child = children.get(node).get(segment);
+                node = child == null ? addNode(segment, node) : child;
+                start = end + 1;
+            }
+            packageNodes[packageId] = node + 1;
+        }
+        return packageNodes[packageId] - 1;
+    }
+
+    private int addNode(String segment, int parent) {
+        int node = segments.size();
+        segments.add(segment);
+        parents.add(parent);
+        children.add(new HashMap<String, Integer>(4));
+        entryCounts.add(0);
+        nodeJars.add(new IntList(1));
+        if (parent >= 0) {
+            children.get(parent).put(segment, node);
+        }
+        return node;
+    }
+
+    private IntList[] nodesOf(int setId) {
+        while (setNodes.size() <= setId) {
+            setNodes.add(null);
+        }
+        IntList[] nodes = setNodes.get(setId);
+        if (nodes == null) {
+            nodes = new IntList[]{new IntList(4), new IntList(4)};
+            setNodes.set(setId, nodes);
+        }
+        return nodes;
+    }
+
+    private void addNodeJar(int node, int jarId) {
+        Object jars = nodeJars.get(node);
+        if (jars instanceof BitSet) {
+            ((BitSet) jars).set(jarId);
+            return;
+        }
+        IntList list = (IntList) jars;
+        int i = insertionPoint(list, jarId);
+        if (i < list.size() && list.get(i) == jarId) {
+            return;
+        }
+        if (list.size() < MAX_JAR_LIST) {
+            list.add(i, jarId);
+        } else {
+            BitSet bits = new BitSet();
+            for (int j = 0; j < list.size(); j++) {
+                bits.set(list.get(j));
+            }
+            bits.set(jarId);
+            nodeJars.set(node, bits);
+        }
+    }
+
+    private void removeNodeJar(int node, int jarId) {
+        Object jars = nodeJars.get(node);
+        if (jars instanceof BitSet) {
+            ((BitSet) jars).clear(jarId);
+            return;
+        }
+        IntList list = (IntList) jars;
+        int i = insertionPoint(list, jarId);
+        if (i < list.size() && list.get(i) == jarId) {
+            list.remove(i);
+        }
+    }
+
+    private static int insertionPoint(IntList list, int value) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle) < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(IntList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,215 @@
+package org.jarexplorer;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import javax.swing.tree.TreeSelectionModel;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+
+/**
+ * This panel shows packages of all indexed jar files as a tree, each with the number of entries under it and the
+ * number of jar files which have them. Subpackages of a package are only fetched from the index when it is expanded,
+ * see {@link EntryIndex#getSubpackages(String)}, so the tree costs nothing until it is browsed.
+ *
+ * @author Igor Polevoy
+ */
+public class PackageTreePanel extends JPanel {
+
+    private static final long serialVersionUID = -7092778426665991224L;
+
+    //child of a node whose subpackages were not fetched yet
+    private static final String LOADING = "...";
+
+    private JTree tree = new JTree(new DefaultTreeModel(null)) {
+        @Override
+        public String getToolTipText(MouseEvent e) {
+            TreePath path = getPathForLocation(e.getX(), e.getY());
+            PackageInfo info = path == null ? null : getPackage(path.getLastPathComponent());
+            if (info == null) {
+                return null;
+            }
+            String[] jarNames = info.getJarNames();
+            StringBuilder tip = new StringBuilder("<html>");
+            for (int i = 0; i < Math.min(jarNames.length, 20); i++) {
+                tip.append(jarNames[i]).append("<br>");
+            }
+            if (jarNames.length > 20) {
+                tip.append("and ").append(jarNames.length - 20).append(" more");
+            }
+            return tip.append("</html>").toString();
+        }
+    };
+    private EntryIndex index;
+    //selection is being restored after a refresh, listeners are not told
+    private boolean refreshing;
+
+    /**
+     * No-arg constructor
+     */
+    public PackageTreePanel() {
+        setLayout(new BorderLayout());
+        add(new JScrollPane(tree), BorderLayout.CENTER);
+        setBorder(new TitledBorder("Packages"));
+        tree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+        ToolTipManager.sharedInstance().registerComponent(tree);
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            public void treeWillExpand(TreeExpansionEvent e) {
+                fetchSubpackages((DefaultMutableTreeNode) e.getPath().getLastPathComponent());
+            }
+
+            public void treeWillCollapse(TreeExpansionEvent e) {
+            }
+        });
+    }
+
+    /**
+     * Shows packages of an index, from the top.
+     *
+     * @param index - index to browse
+     */
+    public void setIndex(EntryIndex index) {
+        this.index = index;
+        PackageInfo root = index.getPackage("");
+        if (root == null) {
+            clean();
+            return;
+        }
+        DefaultMutableTreeNode rootNode = node(root);
+        tree.setModel(new DefaultTreeModel(rootNode));
+        fetchSubpackages(rootNode);
+        tree.expandPath(new TreePath(rootNode));
+    }
+
+    /**
+     * Shows current counts after jar files of the index changed. Packages which were expanded are expanded again,
+     * and the selected package selected again, as long as they still have entries.
+     */
+    public void refresh() {
+        if (index == null) {
+            return;
+        }
+        List<String> expanded = new ArrayList<>();
+        Object root = tree.getModel().getRoot();
+        Enumeration<TreePath> paths = root == null ? null : tree.getExpandedDescendants(new TreePath(root));
+        while (paths != null && paths.hasMoreElements()) {
+            expanded.add(getPackage(paths.nextElement().getLastPathComponent()).getName());
+        }
+        PackageInfo selected = getSelectedPackage();
+        refreshing = true;
+        try {
+            setIndex(index);
+            //parents sort before their subpackages
+            Collections.sort(expanded);
+            for (String packageName : expanded) {
+                TreePath path = find(packageName);
+                if (path != null) {
+                    tree.expandPath(path);
+                }
+            }
+            TreePath path = selected == null ? null : find(selected.getName());
+            if (path != null) {
+                tree.setSelectionPath(path);
+            }
+        } finally {
+            refreshing = false;
+        }
+    }
+
+    /**
+     * Returns selected package.
+     *
+     * @return package, null if nothing is selected
+     */
+    public PackageInfo getSelectedPackage() {
+        TreePath path = tree.getSelectionPath();
+        return path == null ? null : getPackage(path.getLastPathComponent());
+    }
+
+    /**
+     * Allows registration of a listener, to show entries of the selected package on another panel.
+     *
+     * @param listener
+     */
+    public void addSelectionListener(final TreeSelectionListener listener) {
+        tree.addTreeSelectionListener(new TreeSelectionListener() {
+            public void valueChanged(TreeSelectionEvent e) {
+                if (!refreshing) {
+                    listener.valueChanged(e);
+                }
+            }
+        });
+    }
+
+    public void clean() {
+        index = null;
+        tree.setModel(new DefaultTreeModel(null));
+    }
+
+    /**
+     * Replaces the placeholder child of a node by its subpackages, the first time it is expanded.
+     */
+    private void fetchSubpackages(DefaultMutableTreeNode node) {
+        if (index == null || node.getChildCount() != 1
+                || !LOADING.equals(((DefaultMutableTreeNode) node.getFirstChild()).getUserObject())) {
+            return;
+        }
+        node.removeAllChildren();
+        List<PackageInfo> subpackages = index.getSubpackages(getPackage(node).getName());
+        for (PackageInfo subpackage : subpackages) {
+            node.add(node(subpackage));
+        }
+        ((DefaultTreeModel) tree.getModel()).nodeStructureChanged(node);
+    }
+
+    /**
+     * @return path to node of package, fetching subpackages on the way, null if package is not in the tree
+     */
+    private TreePath find(String packageName) {
+        DefaultMutableTreeNode node = (DefaultMutableTreeNode) tree.getModel().getRoot();
+        TreePath path = node == null ? null : new TreePath(node);
+        int start = 0;
+        while (path != null && start < packageName.length()) {
+            int end = packageName.indexOf('/', start);
+            end = end < 0 ? packageName.length() : end;
+            String segment = packageName.substring(start, end);
+            fetchSubpackages(node);
+            DefaultMutableTreeNode next = null;
+            for (int i = 0; i < node.getChildCount() && next == null; i++) {
+                DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
+                PackageInfo info = getPackage(child);
+                if (info != null && info.getSimpleName().equals(segment)) {
+                    next = child;
+                }
+            }
+            node = next;
+            path = next == null ? null : path.pathByAddingChild(next);
+            start = end + 1;
+        }
+        return path;
+    }
+
+    private static DefaultMutableTreeNode node(PackageInfo info) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(info);
+        if (info.hasSubpackages()) {
+            node.add(new DefaultMutableTreeNode(LOADING, false));
+        }
+        return node;
+    }
+
+    private static PackageInfo getPackage(Object node) {
+        Object value = ((DefaultMutableTreeNode) node).getUserObject();
+        return value instanceof PackageInfo ? (PackageInfo) value : null;
+    }
+}
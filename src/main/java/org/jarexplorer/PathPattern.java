@@ -0,0 +1,349 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Glob or regular expression over entry paths, together with the literal fragments every matching path contains.
+ * Fragments let {@link EntryIndex} narrow entries down with its trigram indexes first, the pattern itself is only
+ * run on the entries which contain all of them.
+ * <p>
+ * Globs match whole paths: <code>*</code> and <code>?</code> do not cross '/', <code>**</code> does,
+ * <code>[abc]</code>, <code>[!abc]</code> and <code>{a,b}</code> work as in shells. A glob without '/' matches
+ * simple names, <code>*Dao.class</code> finds data access objects in any package. Regular expressions are found
+ * anywhere in paths, as by <code>grep</code>.
+ * <p>
+ * Fragments of a regular expression are found conservatively: anything inside groups and character classes, and
+ * characters made optional by a quantifier, are left out; a pattern with an alternative at its top level, or
+ * with flags, has no fragments at all.
+ * <p>
+ * Holds a {@link Matcher}, not thread safe.
+ *
+ * @author Igor Polevoy
+ */
+class PathPattern {
+
+    //fragments shorter than this hardly narrow anything down
+    private static final int MIN_LITERAL = 2;
+
+    private final Matcher matcher;
+    private final boolean whole;
+    private final boolean nameOnly;
+    private final List<String> literals;
+
+    private PathPattern(Pattern pattern, boolean whole, boolean nameOnly, List<String> literals) {
+        this.matcher = pattern.matcher("");
+        this.whole = whole;
+        this.nameOnly = nameOnly;
+        ArrayList<String> kept = new ArrayList<>();
+        for (String literal : literals) {
+            if (literal.length() >= MIN_LITERAL && !kept.contains(literal)) {
+                kept.add(literal);
+            }
+        }
+        this.literals = Collections.unmodifiableList(kept);
+    }
+
+    /**
+     * @param glob - glob such as <code>com/acme/**&#47;*Dao.class</code>
+     * @throws java.util.regex.PatternSyntaxException if the glob has unbalanced brackets
+     */
+    static PathPattern glob(String glob) {
+        List<String> literals = new ArrayList<>();
+        String regex = globToRegex(glob, literals);
+        return new PathPattern(Pattern.compile(regex), true, glob.indexOf('/') < 0, literals);
+    }
+
+    /**
+     * @param regex - regular expression, such as <code>Impl\$[0-9]+\.class$</code>
+     * @throws java.util.regex.PatternSyntaxException if it is not a valid expression
+     */
+    static PathPattern regex(String regex) {
+        //compiled first, so that fragments are only looked for in valid expressions
+        Pattern pattern = Pattern.compile(regex);
+        return new PathPattern(pattern, false, false, regexLiterals(regex));
+    }
+
+    /**
+     * @return true if pattern is matched against simple names, false if against whole paths
+     */
+    boolean isNameOnly() {
+        return nameOnly;
+    }
+
+    /**
+     * @return fragments every match contains, empty if none are known
+     */
+    List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * @param text - path, or simple name if pattern {@link #isNameOnly()}
+     */
+    boolean matches(CharSequence text) {
+        matcher.reset(text);
+        return whole ? matcher.matches() : matcher.find();
+    }
+
+    /**
+     * @param literals - receives literal fragments of glob, null if they are not wanted
+     */
+    private static String globToRegex(String glob, List<String> literals) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+            } else if (c == '*' || c == '?' || c == '[' || c == '{') {
+                int end = c == '[' ? classEnd(glob, i) : c == '{' ? glob.indexOf('}', i) : i;
+                if (end >= 0) {
+                    flush(literal, literals);
+                    if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            //any number of directories, none included
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else if (c == '*') {
+                        regex.append("[^/]*");
+                    } else if (c == '?') {
+                        regex.append("[^/]");
+                    } else if (c == '[') {
+                        regex.append('[');
+                        int start = i + 1;
+                        if (glob.charAt(start) == '!' || glob.charAt(start) == '^') {
+                            regex.append('^');
+                            start++;
+                        }
+                        for (int j = start; j < end; j++) {
+                            char member = glob.charAt(j);
+                            if (member == '\\' || member == '[' || member == ']' || member == '&') {
+                                regex.append('\\');
+                            }
+                            regex.append(member);
+                        }
+                        regex.append(']');
+                    } else {
+                        regex.append("(?:");
+                        String[] alternatives = glob.substring(i + 1, end).split(",", -1);
+                        for (int j = 0; j < alternatives.length; j++) {
+                            regex.append(j > 0 ? "|" : "").append(globToRegex(alternatives[j], null));
+                        }
+                        regex.append(')');
+                    }
+                    i = Math.max(i, end);
+                    continue;
+                }
+                //unbalanced, taken literally
+            }
+            literal.append(c);
+            if ("\\.[]{}()<>*+-=!?^$|".indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        flush(literal, literals);
+        return regex.toString();
+    }
+
+    /**
+     * @return position of ']' closing the class which starts at <code>start</code>, -1 if it is not closed
+     */
+    private static int classEnd(String glob, int start) {
+        int i = start + 1;
+        if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) {
+            i++;
+        }
+        //']' right after '[' is a member
+        return glob.indexOf(']', i + 1);
+    }
+
+    /**
+     * Collects literal characters of the top level of a regular expression, a fragment ends wherever something else
+     * comes.
+     */
+    static List<String> regexLiterals(String regex) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        //whether the atom before a quantifier was the last character of literal
+        boolean literalAtom = false;
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i++);
+            boolean optional = false;
+            switch (c) {
+                case '\\':
+                    if (i == regex.length()) {
+                        return Collections.emptyList();
+                    }
+                    char escaped = regex.charAt(i++);
+                    if (escaped == 'Q') {
+                        int end = regex.indexOf("\\E", i);
+                        end = end < 0 ? regex.length() : end;
+                        literal.append(regex, i, end);
+                        literalAtom = end > i;
+                        i = Math.min(end + 2, regex.length());
+                    } else if (Character.isLetterOrDigit(escaped)) {
+                        //character class, anchor, back reference or character code, none kept
+                        i = skipEscape(regex, i, escaped);
+                        flush(literal, literals);
+                        literalAtom = false;
+                    } else {
+                        literal.append(escaped);
+                        literalAtom = true;
+                    }
+                    continue;
+                case '[':
+                    i = skipClass(regex, i);
+                    break;
+                case '(':
+                    if (regex.startsWith("?", i) && i + 1 < regex.length()
+                            && "idmsuxU-".indexOf(regex.charAt(i + 1)) >= 0) {
+                        //flags change what the rest matches
+                        return Collections.emptyList();
+                    }
+                    i = skipGroup(regex, i);
+                    break;
+                case '|':
+                    return Collections.emptyList();
+                case '*':
+                case '?':
+                    optional = true;
+                    i = skipQuantifierMode(regex, i);
+                    break;
+                case '{':
+                    optional = regex.startsWith("0", i) || regex.startsWith(",", i);
+                    int end = regex.indexOf('}', i);
+                    i = skipQuantifierMode(regex, end < 0 ? regex.length() : end + 1);
+                    break;
+                case '+':
+                    i = skipQuantifierMode(regex, i);
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    break;
+                default:
+                    literal.append(c);
+                    literalAtom = true;
+                    continue;
+            }
+            if (optional && literalAtom && literal.length() > 0) {
+                literal.setLength(literal.length() - 1);
+            }
+            flush(literal, literals);
+            literalAtom = false;
+        }
+        flush(literal, literals);
+        return literals;
+    }
+
+    /**
+     * @param i - position after the escaped letter or digit
+     * @return position after the escape sequence
+     */
+    private static int skipEscape(String regex, int i, char escaped) {
+        switch (escaped) {
+            case 'x':
+                return regex.startsWith("{", i) ? closing(regex, i, '}') : Math.min(i + 2, regex.length());
+            case 'u':
+                return Math.min(i + 4, regex.length());
+            case 'c':
+                return Math.min(i + 1, regex.length());
+            case 'p':
+            case 'P':
+                return regex.startsWith("{", i) ? closing(regex, i, '}') : Math.min(i + 1, regex.length());
+            case 'k':
+                return closing(regex, i, '>');
+            case '0':
+                while (i < regex.length() && regex.charAt(i) >= '0' && regex.charAt(i) <= '7') {
+                    i++;
+                }
+                return i;
+            default:
+                while (Character.isDigit(escaped) && i < regex.length() && Character.isDigit(regex.charAt(i))) {
+                    i++;
+                }
+                return i;
+        }
+    }
+
+    /**
+     * @return position after the first <code>c</code> from i on, end of regex if there is none
+     */
+    private static int closing(String regex, int i, char c) {
+        int end = regex.indexOf(c, i);
+        return end < 0 ? regex.length() : end + 1;
+    }
+
+    /**
+     * @param i - position after '['
+     * @return position after the matching ']'
+     */
+    private static int skipClass(String regex, int i) {
+        int depth = 1;
+        if (regex.startsWith("^", i)) {
+            i++;
+        }
+        if (regex.startsWith("]", i)) {
+            i++;
+        }
+        while (i < regex.length() && depth > 0) {
+            char c = regex.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+        }
+        return Math.min(i, regex.length());
+    }
+
+    /**
+     * @param i - position after '('
+     * @return position after the matching ')'
+     */
+    private static int skipGroup(String regex, int i) {
+        int depth = 1;
+        while (i < regex.length() && depth > 0) {
+            char c = regex.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        }
+        return Math.min(i, regex.length());
+    }
+
+    /**
+     * Skips '?' of a reluctant or '+' of a possessive quantifier.
+     */
+    private static int skipQuantifierMode(String regex, int i) {
+        return i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+') ? i + 1 : i;
+    }
+
+    private static void flush(StringBuilder literal, List<String> literals) {
+        if (literal.length() > 0) {
+            if (literals != null) {
+                literals.add(literal.toString());
+            }
+            literal.setLength(0);
+        }
+    }
+}
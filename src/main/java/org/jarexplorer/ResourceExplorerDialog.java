@@ -97,9 +97,12 @@ public class ResourceExplorerDialog extends CenteredDialog {
      * @throws IOException
      */
     private void buildForHTML(String jarFileName, String resourceName) throws IOException {
-        JEditorPane htmlPane = new JEditorPane(new URL("jar:file:" + jarFileName + "!/" + resourceName));
+        String source = Util.readResourceAsString(jarFileName, resourceName);
+        //there are no URLs for resources of nested jars, relative links will not work for those
+        JEditorPane htmlPane = jarFileName.contains(ArchiveData.SEPARATOR) ? new JEditorPane("text/html", source)
+                : new JEditorPane(new URL("jar:file:" + jarFileName + "!/" + resourceName));
         htmlPane.setEditable(false);
-        JTextArea sourceArea = new JTextArea(Util.readResourceAsString(jarFileName, resourceName));
+        JTextArea sourceArea = new JTextArea(source);
         sourceArea.setEditable(false);
         JTabbedPane tabbedPane = new JTabbedPane();
         tabbedPane.add("HTML", new JScrollPane(htmlPane));
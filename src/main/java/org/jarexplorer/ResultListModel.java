@@ -0,0 +1,76 @@
+package org.jarexplorer;
+
+import javax.swing.AbstractListModel;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * List model over search results as returned by {@link EntryIndex}, without copying them. Results of the index are
+ * created as they are retrieved, so the model turns a result into its display string only when the list asks for
+ * it, which a list with a fixed cell size does for visible rows only. Strings are kept once made, in pages which
+ * are allocated as they are needed.
+ * <p>
+ * Replacing results fires a single event, whatever their number.
+ *
+ * @author Igor Polevoy
+ */
+class ResultListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = -8649744435790945428L;
+
+    private static final int PAGE_SIZE = 1024;
+
+    private List<?> results = Collections.emptyList();
+    private String[][] pages = new String[0][];
+
+    /**
+     * @param results - results to show, the list is used as it is and should not change afterwards
+     */
+    void setResults(List<?> results) {
+        int oldSize = this.results.size();
+        this.results = results;
+        pages = new String[(results.size() + PAGE_SIZE - 1) / PAGE_SIZE][];
+        int changed = Math.max(oldSize, results.size());
+        if (changed > 0) {
+            fireContentsChanged(this, 0, changed - 1);
+        }
+    }
+
+    void clear() {
+        setResults(Collections.emptyList());
+    }
+
+    @Override
+    public int getSize() {
+        return results.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        String[] page = pages[index / PAGE_SIZE];
+        if (page == null) {
+            pages[index / PAGE_SIZE] = page = new String[PAGE_SIZE];
+        }
+        String string = page[index % PAGE_SIZE];
+        if (string == null) {
+            page[index % PAGE_SIZE] = string = String.valueOf(results.get(index));
+        }
+        return string;
+    }
+
+    /**
+     * @param count - how many of the first rows to look at
+     * @return longest display string of the first rows, null if there are no results
+     */
+    String getLongestElement(int count) {
+        String longest = null;
+        for (int i = 0; i < Math.min(count, getSize()); i++) {
+            String string = getElementAt(i);
+            if (longest == null || string.length() > longest.length()) {
+                longest = string;
+            }
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,205 @@
+package org.jarexplorer;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs searches of an {@link EntryIndex} in a background "Search" thread, so that the Swing event thread never waits
+ * for one.
+ * <p>
+ * Only the latest search matters: submitting a search cancels the one before it, whether it is still waiting or
+ * already running, and nothing of a cancelled search is delivered afterwards. A running search is interrupted, the
+ * index gives it up within a few thousand entries, so the next one does not wait for it to finish. Results are
+ * delivered to a {@link Listener} on the event thread as the index returns them: a {@link ClassInformation} is only
+ * created when a result is retrieved, see {@link ResultListModel}, so there is nothing left to prepare once the index
+ * was searched.
+ * <p>
+ * Searches run in one of four modes: {@link #SUBSTRING} finds every path containing the query, {@link #RANKED} finds
+ * the classes whose names best match the query as a name, prefix, camel case abbreviation or with a typo, best
+ * first, see {@link EntryIndex#searchRanked(String, int)}, {@link #GLOB} and {@link #REGEX} find paths matching a
+ * pattern, see {@link PathPattern}.
+ *
+ * @author Igor Polevoy
+ */
+public class SearchExecutor {
+
+    /**
+     * Receives results of a search, always on the Swing event thread, and only while the search is the latest one.
+     */
+    public interface Listener {
+
+        /**
+         * @param results - results, empty if nothing was found
+         */
+        void resultsFound(List<ClassInformation> results);
+
+        /**
+         * @param e - problem, no results follow
+         */
+        void searchFailed(Throwable e);
+    }
+
+    /**
+     * Mode of searches finding all paths containing the query.
+     */
+    public static final int SUBSTRING = 0;
+
+    /**
+     * Mode of searches finding best matching names first.
+     */
+    public static final int RANKED = 1;
+
+    /**
+     * Mode of searches finding paths, or names, matching a glob such as <code>com/acme/**&#47;*Dao.class</code>.
+     */
+    public static final int GLOB = 2;
+
+    /**
+     * Mode of searches finding paths in which a regular expression is found.
+     */
+    public static final int REGEX = 3;
+
+    //results of a ranked search, past these matches get too loose to be worth looking at
+    static final int RANKED_LIMIT = 500;
+
+    //number of the latest search, searches with another number are cancelled
+    private final AtomicInteger generation = new AtomicInteger();
+    //latest search, interrupted when cancelled
+    private Future<?> running;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Search");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Starts a search, cancelling the one before it.
+     *
+     * @param index    - index to search
+     * @param query    - what to look for, see {@link #search(EntryIndex, String)}
+     * @param listener - receives results
+     */
+    public void submit(EntryIndex index, String query, Listener listener) {
+        submit(index, query, SUBSTRING, listener);
+    }
+
+    /**
+     * Starts a search, cancelling the one before it.
+     *
+     * @param index    - index to search
+     * @param query    - what to look for, see {@link #search(EntryIndex, String, int)}
+     * @param mode     - {@link #SUBSTRING}, {@link #RANKED}, {@link #GLOB} or {@link #REGEX}
+     * @param listener - receives results
+     */
+    public synchronized void submit(final EntryIndex index, final String query, final int mode,
+                                    final Listener listener) {
+        cancel();
+        final int search = generation.get();
+        running = executor.submit(new Runnable() {
+            public void run() {
+                if (isCancelled(search)) {
+                    return;
+                }
+                try {
+                    final List<ClassInformation> results = search(index, query, mode);
+                    deliver(search, new Runnable() {
+                        public void run() {
+                            listener.resultsFound(results);
+                        }
+                    });
+                } catch (CancellationException e) {
+                    //interrupted by a newer search
+                } catch (final RuntimeException e) {
+                    deliver(search, new Runnable() {
+                        public void run() {
+                            listener.searchFailed(e);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancels the running search, if any.
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private boolean isCancelled(int search) {
+        return search != generation.get();
+    }
+
+    /**
+     * Runs task on the event thread, unless the search is cancelled by then.
+     */
+    private void deliver(final int search, final Runnable task) {
+        if (isCancelled(search)) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                if (!isCancelled(search)) {
+                    task.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Searches for a path, or for a fully qualified name if nothing is found: <code>java.util.List</code> is looked
+     * for as <code>java/util/List</code>, then, in case the name ends with an extension, as <code>java/util.List</code>.
+     * Queries of class declarations are not names, they are not converted.
+     *
+     * @param index - index to search
+     * @param query - substring of a path, class name or a query of class declarations
+     * @return results
+     */
+    static List<ClassInformation> search(EntryIndex index, String query) {
+        return search(index, query, SUBSTRING);
+    }
+
+    /**
+     * Searches in the given mode. Queries of class declarations are always run as they are, whatever the mode.
+     *
+     * @param index - index to search
+     * @param query - what to look for
+     * @param mode  - {@link #SUBSTRING}, see {@link #search(EntryIndex, String)}, {@link #RANKED}, which returns up
+     *              to {@link #RANKED_LIMIT} best matching names, best first, {@link #GLOB} or {@link #REGEX}
+     * @return results
+     * @throws java.util.regex.PatternSyntaxException if query is not a valid pattern
+     */
+    static List<ClassInformation> search(EntryIndex index, String query, int mode) {
+        if (mode != SUBSTRING && !ClassIndex.isQuery(query)) {
+            switch (mode) {
+                case RANKED:
+                    return index.searchRanked(query.trim(), RANKED_LIMIT);
+                case GLOB:
+                    return index.searchGlob(query.trim());
+                case REGEX:
+                    return index.searchRegex(query.trim());
+            }
+        }
+        List<ClassInformation> results = index.search(query);
+        if (results.isEmpty() && !ClassIndex.isQuery(query)) {
+            results = index.search(Util.convertFqnToPath(query, false));
+            if (results.isEmpty() && query.indexOf('.') >= 0) {
+                results = index.search(Util.convertFqnToPath(query, true));
+            }
+        }
+        return results;
+    }
+}
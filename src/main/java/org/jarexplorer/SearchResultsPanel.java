@@ -11,28 +11,37 @@ import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.*;
-import java.util.ArrayList;
+import java.util.List;
 
 
 /**
  * This is a panel with a list box, which shows result of a search. It shows fully qualified paths to resources,
  * including inside the jar files.
+ * <p>
+ * Results are shown through a {@link ResultListModel} and all rows have the same size, so only visible rows are
+ * ever looked at: showing millions of results costs about the same as showing a few.
  *
  * @author Igor Polevoy
  */
 public class SearchResultsPanel extends JPanel {
 
-    private JList resultList = new JList();
-    private DefaultListModel model;
+    //rows looked at to size all rows
+    private static final int SIZING_ROWS = 256;
+
+    private JList<String> resultList = new JList<>();
+    private ResultListModel model = new ResultListModel();
     private TitledBorder border;
 
     private JButton exploreB, cleanB;
+    //index results come from, for type hierarchy of explored classes
+    private EntryIndex searchedIndex;
 
     /**
      * Constructor
      */
     public SearchResultsPanel() {
-        this.resultList.setModel(model = new DefaultListModel());
+        this.resultList.setModel(model);
+        resultList.setFixedCellHeight(resultList.getFontMetrics(resultList.getFont()).getHeight() + 2);
         setLayout(new BorderLayout());
         setBorder(border = new TitledBorder("Search Results"));
         add(new JScrollPane(resultList), BorderLayout.CENTER);
@@ -45,6 +54,13 @@ public class SearchResultsPanel extends JPanel {
         addActionListeners();
     }
 
+    /**
+     * @param index - index searched, classes explored from results are shown with their type hierarchy from it
+     */
+    public void setIndex(EntryIndex index) {
+        this.searchedIndex = index;
+    }
+
     /**
      * Wires listeners
      */
@@ -89,7 +105,8 @@ public class SearchResultsPanel extends JPanel {
 
         cleanB.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                model.removeAllElements();
+                resultList.clearSelection();
+                model.clear();
                 SearchResultsPanel.this.repaint();
                 border.setTitle("");
                 cleanB.setEnabled(false);
@@ -139,7 +156,9 @@ public class SearchResultsPanel extends JPanel {
             if (selectedValue.endsWith(".class"))//show class
             {
                 ClassInformation classInfo = ClassInformation.createFully(jarName, resourceName);
-                ClassExplorerDialog explorerDialog = new ClassExplorerDialog(GUIUtil.getMainFrame(), classInfo);
+                ClassExplorerDialog explorerDialog = new ClassExplorerDialog(GUIUtil.getMainFrame(), classInfo,
+                        searchedIndex == null || searchedIndex.classCount() == 0 ? null
+                                : searchedIndex.getTypeHierarchy());
                 explorerDialog.pack();
                 explorerDialog.setSize(new Dimension(800, 600));
                 explorerDialog.setVisible(true);
@@ -159,24 +178,27 @@ public class SearchResultsPanel extends JPanel {
 
 
     /**
-     * Sets results for this search panel.
+     * Sets results for this search panel. The list is shown as it is, not copied.
      *
      * @param title   - title of hte results .
-     * @param results - strings are expected.
+     * @param results - results, shown as strings; the list should not change afterwards
      */
-    public void setResults(String title, ArrayList results) {
-        model.removeAllElements();
+    public void setResults(String title, List<ClassInformation> results) {
+        resultList.clearSelection();
+        model.setResults(results);
         border.setTitle(title);
 
-        for (Object o : results) {
-            model.addElement(o);
-        }
+        //rows are as wide as the longest of the first ones, otherwise the list would measure every row
+        String longest = model.getLongestElement(SIZING_ROWS);
+        resultList.setFixedCellWidth(longest == null ? -1 : resultList.getFontMetrics(resultList.getFont())
+                .stringWidth(longest) + 16);
+        resultList.ensureIndexIsVisible(0);
         cleanB.setEnabled(true);
         repaint();
     }
 
     public void clean() {
-        model = new DefaultListModel();
-        resultList.setModel(model);
+        resultList.clearSelection();
+        model.clear();
     }
 }
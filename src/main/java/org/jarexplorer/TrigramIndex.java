@@ -0,0 +1,167 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * Inverted index from every three character substring (trigram) of a text to ids of texts containing it.
+ * A text containing a query must contain all trigrams of the query, so intersecting their posting lists
+ * gives a small set of candidates, which then need to be verified by the caller.
+ * <p>
+ * Ids must be added in ascending order, which keeps posting lists sorted. This class is not thread safe.
+ *
+ * @author Igor Polevoy
+ */
+class TrigramIndex {
+
+    /**
+     * Shortest query for which the index can produce candidates
+     */
+    static final int MIN_QUERY = 3;
+
+    //open addressing hash table, trigram -> posting list
+    private long[] keys = new long[1 << 12];
+    private IntList[] postings = new IntList[1 << 12];
+    private int count;
+
+    /**
+     * Indexes all trigrams of a text.
+     *
+     * @param id   - id of text, greater than any id added before
+     * @param text - text to index
+     */
+    void add(int id, CharSequence text) {
+        for (int i = 0; i + MIN_QUERY <= text.length(); i++) {
+            long key = key(text, i);
+            int slot = slot(key);
+            IntList list = postings[slot];
+            if (list == null) {
+                list = postings[slot] = new IntList(2);
+                keys[slot] = key;
+                if (++count > keys.length / 2) {
+                    rehash();
+                }
+            }
+            if (list.last() != id) { // same trigram may appear more than once in a text
+                list.add(id);
+            }
+        }
+    }
+
+    /**
+     * Finds ids of texts that may contain a query.
+     *
+     * @param query - substring to look for
+     * @return sorted candidate ids, or null if query is too short to use the index
+     */
+    int[] candidates(CharSequence query) {
+        if (query.length() < MIN_QUERY) {
+            return null;
+        }
+        IntList[] lists = new IntList[query.length() - MIN_QUERY + 1];
+        for (int i = 0; i < lists.length; i++) {
+            IntList list = postings[slot(key(query, i))];
+            if (list == null) {
+                return new int[0];
+            }
+            lists[i] = list;
+        }
+        //start from the rarest trigram, the result can only get smaller
+        Arrays.sort(lists, new Comparator<IntList>() {
+            public int compare(IntList l1, IntList l2) {
+                return l1.size() - l2.size();
+            }
+        });
+        int[] result = lists[0].toArray();
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                size = intersect(result, size, lists[i]);
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * @return bytes of the hash table and of posting lists, as allocated, counting 4 bytes per reference
+     */
+    long arrayBytes() {
+        long bytes = 8L * keys.length + 4L * postings.length;
+        for (IntList list : postings) {
+            if (list != null) {
+                bytes += list.arrayBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Keeps those of the first <code>size</code> elements of <code>result</code> which are also in <code>list</code>.
+     *
+     * @return new size of result
+     */
+    private static int intersect(int[] result, int size, IntList list) {
+        int kept = 0;
+        int from = 0;
+        int listSize = list.size();
+        for (int i = 0; i < size && from < listSize; i++) {
+            int value = result[i];
+            //gallop to first element >= value, then binary search the last step
+            int step = 1;
+            int to = from;
+            while (to < listSize && list.get(to) < value) {
+                from = to + 1;
+                to += step;
+                step <<= 1;
+            }
+            to = Math.min(to, listSize - 1);
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (list.get(middle) < value) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            if (from < listSize && list.get(from) == value) {
+                result[kept++] = value;
+            }
+        }
+        return kept;
+    }
+
+    private static long key(CharSequence text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (postings[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        IntList[] oldPostings = postings;
+        keys = new long[oldKeys.length * 2];
+        postings = new IntList[oldPostings.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPostings[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+
+/**
+ * Graph of types and their direct supertypes (superclass and interfaces) across all scanned jar files.
+ * <p>
+ * Types are numbered 0 to {@link #size()} - 1, names are stored once in a {@link NamePool}. Edges are kept in
+ * compressed sparse row form, two int arrays per direction: the supertypes of type <code>id</code> are
+ * <code>superTargets[superStart[id]]</code> up to <code>superTargets[superStart[id + 1]]</code>, subtypes likewise.
+ * Transitive closures are found by a breadth first walk over these arrays and cached, so asking for all subtypes of
+ * <code>java.lang.Object</code> twice walks the graph once.
+ * <p>
+ * A hierarchy never changes once built, a new one is built when classes change, see
+ * {@link EntryIndex#getTypeHierarchy()}. Safe for use by multiple threads.
+ *
+ * @author Igor Polevoy
+ */
+public class TypeHierarchy {
+
+    private static final int[] NONE = new int[0];
+
+    private final NamePool names;
+    //types declared by a scanned class, others are only referred to as supertypes
+    private final boolean[] declared;
+    private final int[] superStart;
+    private final int[] superTargets;
+    private final int[] subStart;
+    private final int[] subTargets;
+
+    //transitive closures by type id, null until asked for
+    private final int[][] allSupertypes;
+    private final int[][] allSubtypes;
+    //walk state, reused by all walks: a type is visited in the current walk if its mark is the walk number
+    private int[] marks;
+    private int walk;
+
+    private TypeHierarchy(NamePool names, boolean[] declared, IntList from, IntList to) {
+        this.names = names;
+        this.declared = declared;
+        int size = names.size();
+        superStart = new int[size + 1];
+        int[] targets = new int[from.size()];
+        int edges = fill(from, to, superStart, targets);
+        superTargets = Arrays.copyOf(targets, edges);
+
+        //subtypes: the same edges, reversed
+        IntList reversedFrom = new IntList(edges);
+        IntList reversedTo = new IntList(edges);
+        for (int id = 0; id < size; id++) {
+            for (int i = superStart[id]; i < superStart[id + 1]; i++) {
+                reversedFrom.add(superTargets[i]);
+                reversedTo.add(id);
+            }
+        }
+        subStart = new int[size + 1];
+        subTargets = new int[edges];
+        fill(reversedFrom, reversedTo, subStart, subTargets);
+        allSupertypes = new int[size][];
+        allSubtypes = new int[size][];
+    }
+
+    /**
+     * Counting sort of edges by source, targets of each source in ascending order and without duplicates: a class
+     * found in several jar files has its edges several times.
+     *
+     * @return number of distinct edges, at the start of <code>sorted</code>
+     */
+    private static int fill(IntList sources, IntList targets, int[] start, int[] sorted) {
+        for (int i = 0; i < sources.size(); i++) {
+            start[sources.get(i) + 1]++;
+        }
+        for (int id = 0; id < start.length - 1; id++) {
+            start[id + 1] += start[id];
+        }
+        int[] next = Arrays.copyOf(start, start.length - 1);
+        for (int i = 0; i < sources.size(); i++) {
+            sorted[next[sources.get(i)]++] = targets.get(i);
+        }
+        int edges = 0;
+        for (int id = 0; id < start.length - 1; id++) {
+            int from = start[id];
+            int to = start[id + 1];
+            Arrays.sort(sorted, from, to);
+            start[id] = edges;
+            for (int i = from; i < to; i++) {
+                if (i == from || sorted[i] != sorted[i - 1]) {
+                    sorted[edges++] = sorted[i];
+                }
+            }
+        }
+        start[start.length - 1] = edges;
+        return edges;
+    }
+
+    /**
+     * @return number of types
+     */
+    public int size() {
+        return declared.length;
+    }
+
+    /**
+     * @param name - dotted name of type, such as <code>java.util.List</code>
+     * @return id of type, -1 if it is not in hierarchy
+     */
+    public int getId(String name) {
+        return names.find(name);
+    }
+
+    /**
+     * @return dotted name of type
+     */
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return true if a class of this name was scanned, false if the type is only known as a supertype
+     */
+    public boolean isDeclared(int id) {
+        return declared[id];
+    }
+
+    /**
+     * @return ids of superclass and interfaces of type, ascending
+     */
+    public int[] getSupertypes(int id) {
+        return Arrays.copyOfRange(superTargets, superStart[id], superStart[id + 1]);
+    }
+
+    /**
+     * @return ids of types which extend or implement type directly, ascending
+     */
+    public int[] getSubtypes(int id) {
+        return Arrays.copyOfRange(subTargets, subStart[id], subStart[id + 1]);
+    }
+
+    /**
+     * @return true if type has direct subtypes
+     */
+    public boolean hasSubtypes(int id) {
+        return subStart[id + 1] > subStart[id];
+    }
+
+    /**
+     * @return ids of all supertypes of type, direct or not, ascending. The array is shared and must not be modified.
+     */
+    public int[] getAllSupertypes(int id) {
+        synchronized (allSupertypes) {
+            if (allSupertypes[id] == null) {
+                allSupertypes[id] = closure(id, superStart, superTargets);
+            }
+            return allSupertypes[id];
+        }
+    }
+
+    /**
+     * @return ids of all subtypes of type, direct or not, ascending. The array is shared and must not be modified.
+     */
+    public int[] getAllSubtypes(int id) {
+        synchronized (allSubtypes) {
+            if (allSubtypes[id] == null) {
+                allSubtypes[id] = closure(id, subStart, subTargets);
+            }
+            return allSubtypes[id];
+        }
+    }
+
+    /**
+     * @return true if <code>subtype</code> extends or implements <code>supertype</code>, directly or not
+     */
+    public boolean isSubtype(int subtype, int supertype) {
+        return Arrays.binarySearch(getAllSupertypes(subtype), supertype) >= 0;
+    }
+
+    private synchronized int[] closure(int id, int[] start, int[] targets) {
+        if (start[id + 1] == start[id]) {
+            return NONE;
+        }
+        if (marks == null || ++walk == 0) {
+            marks = new int[size()];
+            walk = 1;
+        }
+        //the queue holds every type found once, so it ends up being the result
+        IntList queue = new IntList();
+        marks[id] = walk;
+        for (int head = -1; head < queue.size(); head++) {
+            int type = head < 0 ? id : queue.get(head);
+            for (int i = start[type]; i < start[type + 1]; i++) {
+                int target = targets[i];
+                if (marks[target] != walk) {
+                    marks[target] = walk;
+                    queue.add(target);
+                }
+            }
+        }
+        int[] result = queue.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Collects types one class at a time. The same class may be added several times, from several jar files: the
+     * hierarchy has the union of its supertypes.
+     */
+    public static class Builder {
+        private final NamePool names = new NamePool();
+        private boolean[] declared = new boolean[1024];
+        private final IntList from = new IntList();
+        private final IntList to = new IntList();
+
+        /**
+         * @param name       - dotted name of a class or interface
+         * @param superName  - dotted name of superclass, null for none
+         * @param interfaces - dotted names of implemented (or, for an interface, extended) interfaces
+         */
+        public void add(String name, String superName, String[] interfaces) {
+            int id = id(name);
+            declared[id] = true;
+            if (superName != null) {
+                edge(id, id(superName));
+            }
+            for (String interfaceName : interfaces) {
+                edge(id, id(interfaceName));
+            }
+        }
+
+        private int id(String name) {
+            int id = names.intern(name);
+            if (id >= declared.length) {
+                declared = Arrays.copyOf(declared, declared.length * 2);
+            }
+            return id;
+        }
+
+        private void edge(int subtype, int supertype) {
+            from.add(subtype);
+            to.add(supertype);
+        }
+
+        public TypeHierarchy build() {
+            return new TypeHierarchy(names, Arrays.copyOf(declared, names.size()), from, to);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package org.jarexplorer;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
-import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 
 
 /**
@@ -14,44 +15,97 @@ import java.net.URL;
  */
 public class Util {
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Charset UTF16BE = Charset.forName("UTF-16BE");
+    private static final Charset UTF16LE = Charset.forName("UTF-16LE");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
     /**
-     * Reads resource from a jar file fully
+     * Reads resource from a jar file fully. Text starting with a byte order mark is decoded accordingly, other
+     * text is decoded as UTF-8, or as ISO-8859-1 if it is not valid UTF-8.
      *
-     * @param jarFileName  jar file name
+     * @param jarFileName  jar file name, may be a path of a nested jar, such as <code>outer.war!/WEB-INF/lib/inner.jar</code>
      * @param resourceName internal resource name
      * @return full content of resource
      * @throws IOException thrown in case of io problem
      */
     public static String readResourceAsString(String jarFileName, String resourceName) throws IOException {
-        URL u = new URL("jar:file:" + jarFileName + "!/" + resourceName);
-        InputStream in = u.openConnection().getInputStream();
-        BufferedInputStream bin = new BufferedInputStream(in);
-
-        StringBuffer stringBuffer = new StringBuffer(1024);
-        for (int tmp = bin.read(); tmp != -1; tmp = bin.read()) {
-            stringBuffer.append((char) tmp);
-        }
-        return stringBuffer.toString();
+        return decode(readResource(jarFileName, resourceName));
     }
 
     /**
      * Reads resource from jar fully
      *
-     * @param jarFileName  jar file path
+     * @param jarFileName  jar file path, may be a path of a nested jar
      * @param resourceName resource path
      * @return bytes with resource content
      * @throws IOException in case of io error
      */
     public static byte[] readResourceAsBytes(String jarFileName, String resourceName) throws IOException {
-        ByteArrayOutputStream bout = new ByteArrayOutputStream(1024);
-        URL u = new URL("jar:file:" + jarFileName + "!/" + resourceName);
-        InputStream in = u.openConnection().getInputStream();
-        BufferedInputStream bin = new BufferedInputStream(in);
+        ByteBuffer content = readResource(jarFileName, resourceName);
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads resource from jar without copying it, if it is not compressed. Archives are kept open by
+     * {@link ArchiveCache}, so reading many resources of the same jar is cheap.
+     *
+     * @param jarFileName  jar file path, may be a path of a nested jar
+     * @param resourceName resource path
+     * @return resource content from position to limit, read only, to be used right away, see
+     * {@link ArchiveCache#read(String, String)}
+     * @throws IOException in case of io error, {@link FileNotFoundException} if resource is not found
+     */
+    public static ByteBuffer readResource(String jarFileName, String resourceName) throws IOException {
+        return ArchiveCache.getShared().read(jarFileName, resourceName);
+    }
 
-        for (int tmp = bin.read(); tmp != -1; tmp = bin.read()) {
-            bout.write(tmp);
+    /**
+     * Decodes text of unknown encoding.
+     *
+     * @param bytes - text, from position to limit
+     * @return text decoded from the encoding given by byte order mark, or from UTF-8, or from ISO-8859-1
+     * if it is not valid UTF-8
+     */
+    static String decode(ByteBuffer bytes) {
+        Charset charset = null;
+        int bom = 0;
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+            charset = UTF8;
+            bom = 3;
+        } else if (startsWith(bytes, 0xFE, 0xFF)) {
+            charset = UTF16BE;
+            bom = 2;
+        } else if (startsWith(bytes, 0xFF, 0xFE)) {
+            charset = UTF16LE;
+            bom = 2;
+        }
+        ByteBuffer text = bytes.duplicate();
+        text.position(text.position() + bom);
+        if (charset != null) {
+            return charset.decode(text).toString();
+        }
+        try {
+            return UTF8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT).decode(text).toString();
+        } catch (CharacterCodingException e) {
+            text.position(bytes.position());
+            return ISO_8859_1.decode(text).toString();
+        }
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... prefix) {
+        if (bytes.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes.get(bytes.position() + i) & 0xFF) != prefix[i]) {
+                return false;
+            }
         }
-        return bout.toByteArray();
+        return true;
     }
 
     /**
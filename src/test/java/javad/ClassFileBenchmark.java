@@ -0,0 +1,97 @@
+package javad;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javad.classfile.ClassFile;
+import javad.classfile.ClassParser;
+import javad.classfile.ClassVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Parses every class of the running JDK (from <code>rt.jar</code> or the <code>jrt:/</code> modules) with the
+ * stream backend of {@link ClassFile}, as <code>ClassInformation.createFully</code> used to, and with the buffer
+ * backend, and visits the declarations only with {@link ClassParser}. Classes the parser cannot handle are left
+ * out. Run with
+ * <code>mvn -Pbenchmark verify -DskipTests -Dbenchmark=ClassFileBenchmark</code>; add <code>-prof gc</code> to the
+ * benchmark arguments to see the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ClassFileBenchmark {
+
+    private List<byte[]> classes;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<byte[]> all = RuntimeClasses.read(Integer.MAX_VALUE);
+        classes = new ArrayList<>();
+        //the parser reports problems on System.out
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            for (byte[] classBytes : all) {
+                try {
+                    new ClassFile(classBytes);
+                    classes.add(classBytes);
+                } catch (RuntimeException e) {
+                    //not supported by parser
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println(classes.size() + " of " + all.size() + " classes parsed");
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        for (byte[] classBytes : classes) {
+            blackhole.consume(new ClassFile(new DataInputStream(new BufferedInputStream(
+                    new ByteArrayInputStream(classBytes)))));
+        }
+    }
+
+    @Benchmark
+    public void buffer(Blackhole blackhole) {
+        for (byte[] classBytes : classes) {
+            blackhole.consume(new ClassFile(classBytes));
+        }
+    }
+
+    @Benchmark
+    public void declaration(final Blackhole blackhole) {
+        ClassVisitor visitor = new ClassVisitor(ClassVisitor.DECLARATION) {
+            public void visitClass(int version, int accessFlags, String name, String superName,
+                                   String[] interfaces) {
+                blackhole.consume(superName);
+                blackhole.consume(interfaces);
+            }
+        };
+        for (byte[] classBytes : classes) {
+            ClassParser.parse(classBytes, visitor);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package javad;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import javad.classfile.ClassFile;
+import javad.util.BufferClassInput;
+import javad.util.StreamClassInput;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Parses classes of the JDK with both backends and compares the results.
+ */
+public class ClassInputTest {
+
+    @Test
+    public void backendsReadTheSameValues() {
+        byte[] bytes = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 1, (byte) 0xFF, 2, 3, 4, 5, 6, 7};
+        BufferClassInput buffer = new BufferClassInput(ByteBuffer.wrap(bytes));
+        StreamClassInput stream = new StreamClassInput(new DataInputStream(new ByteArrayInputStream(bytes)));
+        assertEquals(0xCAFEBABE, buffer.readU4());
+        assertEquals(0xCAFEBABE, stream.readU4());
+        assertEquals(1, buffer.readU2());
+        assertEquals(1, stream.readU2());
+        assertEquals(0xFF, buffer.readU1());
+        assertEquals(0xFF, stream.readU1());
+        buffer.skip(2);
+        stream.skip(2);
+        byte[] b1 = new byte[3];
+        byte[] b2 = new byte[3];
+        buffer.readFully(b1);
+        stream.readFully(b2);
+        assertTrue(Arrays.equals(new byte[]{4, 5, 6}, b1));
+        assertTrue(Arrays.equals(b1, b2));
+        assertEquals(12, buffer.position());
+        assertEquals(12, stream.position());
+        //past the end
+        assertEquals(-1, buffer.readU2());
+
+        //attribute length of 2GB or more in a damaged class file
+        BufferClassInput damaged = new BufferClassInput(ByteBuffer.wrap(bytes));
+        damaged.readU4();
+        damaged.skip(0x80000000);
+        assertEquals(bytes.length, damaged.position());
+        damaged = new BufferClassInput(ByteBuffer.wrap(bytes));
+        damaged.readU4();
+        damaged.readFully(new byte[4], 0, -2);
+        assertEquals(-1, damaged.readU1());
+    }
+
+    @Test
+    public void backendsParseTheSameClasses() throws IOException {
+        List<byte[]> classes = RuntimeClasses.read(3000);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        int compared = 0;
+        try {
+            for (byte[] classBytes : classes) {
+                ClassFile fromStream;
+                try {
+                    fromStream = new ClassFile(new DataInputStream(new BufferedInputStream(
+                            new ByteArrayInputStream(classBytes))));
+                } catch (RuntimeException e) {
+                    continue; // not supported by parser
+                }
+                ClassFile fromBuffer = new ClassFile(classBytes);
+                assertEquals(fromStream.getClassName(), fromBuffer.getClassName());
+                assertEquals(fromStream.getSuperclassName(), fromBuffer.getSuperclassName());
+                assertEquals(Arrays.asList(fromStream.getInterfaceNames()),
+                        Arrays.asList(fromBuffer.getInterfaceNames()));
+                assertEquals(Arrays.asList(fromStream.getFields()), Arrays.asList(fromBuffer.getFields()));
+                assertEquals(fromStream.getMethods(), fromBuffer.getMethods());
+                compared++;
+            }
+        } finally {
+            System.setOut(out);
+        }
+        assertTrue(compared + " classes compared", compared > classes.size() / 2);
+    }
+}
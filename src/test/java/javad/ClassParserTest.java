@@ -0,0 +1,108 @@
+package javad;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javad.classfile.ClassFile;
+import javad.classfile.ClassParser;
+import javad.classfile.ClassVisitor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Visits classes of the JDK and compares what is visited with what {@link ClassFile} reads.
+ */
+public class ClassParserTest {
+
+    @Test
+    public void visitedSectionsMatchClassFile() throws IOException {
+        for (byte[] classBytes : RuntimeClasses.read(3000)) {
+            ClassFile classFile = new ClassFile(classBytes);
+            Recorder all = new Recorder(ClassVisitor.ALL);
+            ClassParser.parse(classBytes, all);
+
+            assertEquals(classFile.getClassName(), all.name);
+            assertEquals(classFile.getSuperclassName(), all.superName);
+            assertEquals(Arrays.asList(classFile.getInterfaceNames()), Arrays.asList(all.interfaces));
+            String[] fields = classFile.getFields();
+            assertEquals(fields == null ? 0 : fields.length, all.fields.size());
+            assertEquals(classFile.getConstructors().size(), count(all.methods, "<init>"));
+            assertEquals(all.methods.size() - count(all.methods, "<init>"), classFile.getMethods().size());
+            assertTrue(all.ended);
+        }
+    }
+
+    @Test
+    public void sectionsOfNoInterestAreNotVisited() throws IOException {
+        byte[] classBytes = RuntimeClasses.read(1).get(0);
+        Recorder declaration = new Recorder(ClassVisitor.DECLARATION);
+        ClassParser.parse(classBytes, declaration);
+        assertTrue(declaration.name != null && declaration.ended);
+        assertTrue(declaration.fields.isEmpty() && declaration.methods.isEmpty() && declaration.code == 0);
+
+        Recorder code = new Recorder(ClassVisitor.CODE | ClassVisitor.SOURCE_FILE);
+        ClassParser.parse(classBytes, code);
+        assertNull(code.name);
+        assertFalse(code.methods.isEmpty());
+        assertTrue(code.code > 0);
+        assertTrue(code.sourceFile.endsWith(".java"));
+    }
+
+    private static int count(List<String> names, String name) {
+        int count = 0;
+        for (String n : names) {
+            if (n.equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class Recorder extends ClassVisitor {
+        String name;
+        String superName;
+        String[] interfaces;
+        List<String> fields = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+        int code;
+        String sourceFile;
+        boolean ended;
+
+        Recorder(int interest) {
+            super(interest);
+        }
+
+        public void visitClass(int version, int accessFlags, String name, String superName, String[] interfaces) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+        }
+
+        public void visitField(int accessFlags, String name, String descriptor) {
+            fields.add(name);
+        }
+
+        public void visitMethod(int accessFlags, String name, String descriptor) {
+            methods.add(name);
+        }
+
+        public void visitCode(int maxStack, int maxLocals, byte[] code) {
+            this.code++;
+        }
+
+        public void visitSourceFile(String sourceFile) {
+            this.sourceFile = sourceFile;
+        }
+
+        public void visitEnd() {
+            ended = true;
+        }
+    }
+}
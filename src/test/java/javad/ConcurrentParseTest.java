@@ -0,0 +1,74 @@
+package javad;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javad.classfile.ClassFile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Parses classes of the JDK on many threads at once and compares the results with a single threaded run.
+ */
+public class ConcurrentParseTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void parallelParseMatchesSequentialParse() throws Exception {
+        final List<byte[]> classes = RuntimeClasses.read(4000);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<String> expected = new ArrayList<>();
+            for (byte[] classBytes : classes) {
+                expected.add(describe(classBytes));
+            }
+
+            //every thread parses all classes, starting at a different one
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int start = t * classes.size() / THREADS;
+                results.add(executor.submit(new Callable<List<String>>() {
+                    public List<String> call() {
+                        String[] described = new String[classes.size()];
+                        for (int i = 0; i < classes.size(); i++) {
+                            int index = (start + i) % classes.size();
+                            described[index] = describe(classes.get(index));
+                        }
+                        return Arrays.asList(described);
+                    }
+                }));
+            }
+            for (Future<List<String>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+            System.setOut(out);
+        }
+    }
+
+    private static String describe(byte[] classBytes) {
+        try {
+            ClassFile classFile = new ClassFile(classBytes);
+            return classFile.getClassName() + " extends " + classFile.getSuperclassName()
+                    + " implements " + Arrays.toString(classFile.getInterfaceNames())
+                    + " fields " + Arrays.toString(classFile.getFields())
+                    + " methods " + classFile.getMethods();
+        } catch (RuntimeException e) {
+            //not supported by parser, fails the same way on every thread
+            return e.getClass().getName();
+        }
+    }
+}
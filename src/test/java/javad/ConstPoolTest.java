@@ -0,0 +1,101 @@
+package javad;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import javad.classfile.ClassFile;
+import javad.jconst.ConstPool;
+import javad.jconst.constBase;
+import javad.util.BufferClassInput;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+/**
+ * Reads a constant pool written by hand and dereferences its entries, parses every class of the JDK.
+ */
+public class ConstPoolTest {
+
+    @Test
+    public void entriesAreDecodedWhenReferenced() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(14);
+        //1: Utf8, ASCII
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        //2: Class
+        out.writeByte(7);
+        out.writeShort(1);
+        //3: Long, 4 is unused
+        out.writeByte(5);
+        out.writeLong(1L << 40);
+        //5: Utf8, modified UTF-8 with a zero, two and three byte characters
+        out.writeByte(1);
+        out.writeUTF("\u0000été €");
+        //6: String
+        out.writeByte(8);
+        out.writeShort(5);
+        //7: Integer
+        out.writeByte(3);
+        out.writeInt(-2);
+        //8: Methodref, 9: NameAndType, 10: Utf8
+        out.writeByte(10);
+        out.writeShort(2);
+        out.writeShort(9);
+        out.writeByte(12);
+        out.writeShort(10);
+        out.writeShort(10);
+        out.writeByte(1);
+        out.writeUTF("()V");
+        //11: MethodHandle, invokeStatic
+        out.writeByte(15);
+        out.writeByte(6);
+        out.writeShort(8);
+        //12: MethodType, 13: InvokeDynamic
+        out.writeByte(16);
+        out.writeShort(10);
+        out.writeByte(18);
+        out.writeShort(0);
+        out.writeShort(9);
+        //what follows the pool
+        out.writeShort(0xCAFE);
+
+        BufferClassInput input = new BufferClassInput(bytes.toByteArray());
+        ConstPool pool = new ConstPool(input);
+        assertEquals(0xCAFE, input.readU2());
+
+        constBase classEntry = pool.constPoolElem(2);
+        assertEquals("java.lang.Object", classEntry.getName());
+        assertSame(classEntry, pool.constPoolElem(2));
+        assertEquals(Long.toString(1L << 40), pool.constPoolElem(3).getString());
+        assertNull(pool.constPoolElem(4));
+        assertEquals("\u0000été €", pool.constPoolElem(6).getString());
+        assertEquals("-2", pool.constPoolElem(7).getString());
+        assertEquals("invoke dynamic: bootstrap method 0, ()V, ()V", pool.constPoolElem(13).getString());
+        assertEquals("method handle: invokeStatic constBase: java/lang/Object, ()V, ()V",
+                pool.constPoolElem(11).getString());
+        assertEquals("()V", pool.constPoolElem(12).getName());
+        assertNull(pool.constPoolElem(14));
+    }
+
+    @Test
+    public void everyRuntimeClassIsParsed() throws IOException {
+        PrintStream out = System.out;
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(messages));
+        try {
+            for (byte[] classBytes : RuntimeClasses.read(Integer.MAX_VALUE)) {
+                new ClassFile(classBytes);
+            }
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals("", messages.toString());
+    }
+}
@@ -0,0 +1,84 @@
+package javad;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jarexplorer.Util;
+
+
+/**
+ * Class files of the running JDK, for tests and benchmarks of the parser: read from the <code>jrt:/</code>
+ * file system on Java 9 and later, from <code>rt.jar</code> on older runtimes.
+ */
+public class RuntimeClasses {
+
+    private RuntimeClasses() {
+    }
+
+    /**
+     * @param max - maximum number of classes to read
+     * @return class files, in a stable order
+     * @throws IOException in case of io problem
+     */
+    public static List<byte[]> read(int max) throws IOException {
+        File rtJar = new File(System.getProperty("java.home"), "lib/rt.jar");
+        return rtJar.isFile() ? readJar(rtJar, max) : readModules(max);
+    }
+
+    private static List<byte[]> readJar(File jar, int max) throws IOException {
+        ArrayList<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (entry.getName().endsWith(".class")) {
+                    names.add(entry.getName());
+                }
+            }
+        }
+        Collections.sort(names);
+        ArrayList<byte[]> classes = new ArrayList<>();
+        for (String name : names.subList(0, Math.min(max, names.size()))) {
+            classes.add(Util.readResourceAsBytes(jar.getPath(), name));
+        }
+        return classes;
+    }
+
+    private static List<byte[]> readModules(int max) throws IOException {
+        FileSystem jrt;
+        try {
+            jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        } catch (FileSystemNotFoundException e) {
+            jrt = FileSystems.newFileSystem(URI.create("jrt:/"), Collections.<String, Object>emptyMap());
+        }
+        final ArrayList<Path> paths = new ArrayList<>();
+        Files.walkFileTree(jrt.getPath("/modules"), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".class") && !name.equals("module-info.class")) {
+                    paths.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(paths);
+        ArrayList<byte[]> classes = new ArrayList<>();
+        for (Path path : paths.subList(0, Math.min(max, paths.size()))) {
+            classes.add(Files.readAllBytes(path));
+        }
+        return classes;
+    }
+}
@@ -19,7 +19,7 @@ public class javadCommandLineTest {
 
     private static String[] args = {
             getPathOfUrl(Igor.class.getResource("Igor.class")),
-            getPathOfUrl(ConstPool.class.getResource("constPool.class")),
+            getPathOfUrl(ConstPool.class.getResource("ConstPool.class")),
             getPathOfUrl(DataStructureForTest.class.getResource("DataStructureForTest.class")),
             getPathOfUrl(DataStructureForTest.class.getResource("DataStructureForTest$EvenIterator.class")),
             getPathOfUrl(DataStructureForTest.class.getResource("DataStructureForTest$additionalInnerClass4test.class"))
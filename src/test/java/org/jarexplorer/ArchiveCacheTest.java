@@ -0,0 +1,133 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Reads resources through {@link ArchiveCache} and {@link Util}.
+ */
+public class ArchiveCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storedAndDeflatedEntriesAreRead() throws IOException {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        String jar = createArchive("a.jar", data);
+        ArchiveCache cache = new ArchiveCache(4);
+
+        ByteBuffer stored = cache.read(jar, "stored.bin");
+        assertTrue(stored.isReadOnly());
+        //a slice of the mapped file
+        assertTrue(stored.isDirect());
+        assertEquals(ByteBuffer.wrap(data), stored);
+        assertEquals(ByteBuffer.wrap(data), cache.read(jar, "deflated.bin"));
+        assertSame(cache.get(jar), cache.get(jar));
+
+        try {
+            cache.read(jar, "missing.bin");
+            fail();
+        } catch (IOException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void cacheIsBoundedAndFollowsChanges() throws IOException {
+        ArchiveCache cache = new ArchiveCache(2);
+        String a = createArchive("a.jar", new byte[]{1});
+        String b = createArchive("b.jar", new byte[]{2});
+        String c = createArchive("c.jar", new byte[]{3});
+        ArchiveData first = cache.get(a);
+        cache.get(b);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertFalse(first == cache.get(a));
+
+        File file = new File(a);
+        createArchive("a.jar", new byte[]{4, 5});
+        file.setLastModified(file.lastModified() + 2000);
+        assertEquals(ByteBuffer.wrap(new byte[]{4, 5}), cache.read(a, "stored.bin"));
+    }
+
+    @Test
+    public void droppedArchivesAreUnmapped() throws IOException {
+        //mappings of the process are listed on Linux only
+        Assume.assumeTrue(new File("/proc/self/maps").exists());
+        ArchiveCache cache = new ArchiveCache(1);
+        String a = createArchive("a.jar", new byte[]{1});
+        String b = createArchive("b.jar", new byte[]{2});
+        cache.read(a, "stored.bin");
+        assertTrue(isMapped(a));
+        cache.read(b, "stored.bin");
+        assertFalse(isMapped(a));
+        cache.clear();
+        assertFalse(isMapped(b));
+    }
+
+    @Test
+    public void textIsDecodedWithItsCharset() throws IOException {
+        String text = "été € 😀";
+        String jar = createArchive("text.jar", text.getBytes("UTF-8"));
+        assertEquals(text, Util.readResourceAsString(jar, "stored.bin"));
+        assertEquals(text, Util.readResourceAsString(jar, "deflated.bin"));
+
+        assertEquals(text, Util.decode(ByteBuffer.wrap(concat(new byte[]{(byte) 0xFE, (byte) 0xFF},
+                text.getBytes("UTF-16BE")))));
+        //not valid UTF-8
+        assertEquals("été", Util.decode(ByteBuffer.wrap("été".getBytes("ISO-8859-1"))));
+    }
+
+    private String createArchive(String name, byte[] data) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            ZipEntry stored = new ZipEntry("stored.bin");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(data.length);
+            stored.setCompressedSize(data.length);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(data);
+            out.putNextEntry(new ZipEntry("deflated.bin"));
+            out.write(data);
+        }
+        return file.getCanonicalPath();
+    }
+
+    private static boolean isMapped(String path) throws IOException {
+        return new String(Files.readAllBytes(Paths.get("/proc/self/maps")), StandardCharsets.UTF_8).contains(path);
+    }
+
+    private static byte[] concat(byte[] b1, byte[] b2) {
+        byte[] bytes = new byte[b1.length + b2.length];
+        System.arraycopy(b1, 0, bytes, 0, b1.length);
+        System.arraycopy(b2, 0, bytes, b1.length, b2.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,155 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks that the parallel scan finds and indexes the same archives as a serial walk.
+ */
+public class ArchiveScannerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parallelScanMatchesSerialWalk() throws IOException {
+        File root = folder.getRoot();
+        ArrayList<String> expected = new ArrayList<>();
+        for (int dir = 0; dir < 10; dir++) {
+            File d = new File(root, "group" + dir + "/artifact/1.0");
+            assertTrue(d.mkdirs());
+            for (int jar = 0; jar < 5; jar++) {
+                expected.add(createArchive(new File(d, "lib" + jar + ".jar"), "com/acme/g" + dir + "/j" + jar));
+            }
+            createArchive(new File(d, "lib.pom"), "ignored");
+        }
+        Collections.sort(expected);
+
+        EntryIndex index = new EntryIndex();
+        ArrayList<String> found = new ArchiveScanner(index, new String[]{"jar", "zip"}, 4)
+                .scan(root, new ArchiveScanner.Listener() {
+                    public boolean isStopped() {
+                        return false;
+                    }
+
+                    public void archiveIndexed(String archive, int indexed, int discovered) {
+                    }
+                });
+        Collections.sort(found);
+
+        assertEquals(expected, found);
+        assertEquals(expected.size() * 3, index.search(".class").size());
+        assertEquals(3, index.getClassesInJar(expected.get(7)).size());
+    }
+
+    @Test
+    public void discoveryCountsWalkAndFollowsLinksOutOfTree() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File outside = folder.newFolder("outside");
+        ArrayList<String> expected = new ArrayList<>();
+        for (int dir = 0; dir < 20; dir++) {
+            File d = new File(root, "a" + dir % 3 + "/b" + dir);
+            assertTrue(d.mkdirs());
+            expected.add(createArchive(new File(d, "lib.jar"), "com/acme"));
+            createArchive(new File(d, "lib.jar.sha1"), "ignored");
+        }
+        expected.add(createArchive(new File(outside, "linked.tar.gz"), "com/acme"));
+        Files.createSymbolicLink(new File(root, "link").toPath(), outside.toPath());
+        //a link back into the tree is not walked twice
+        Files.createSymbolicLink(new File(outside, "back").toPath(), root.toPath());
+        Collections.sort(expected);
+
+        final List<String> found = Collections.synchronizedList(new ArrayList<String>());
+        ArchiveDiscovery.Metrics metrics = new ArchiveDiscovery(new ExtensionMatcher("jar, tar.gz"), 3)
+                .walk(root.getCanonicalFile().toPath(), new ArchiveDiscovery.Listener() {
+                    public boolean isStopped() {
+                        return false;
+                    }
+
+                    public void archiveFound(String archive) {
+                        found.add(archive);
+                    }
+                });
+        Collections.sort(found);
+
+        assertEquals(expected, found);
+        assertEquals(expected.size(), metrics.getArchivesFound());
+        //root, a0-a2, b0-b19 and outside
+        assertEquals(1 + 3 + 20 + 1, metrics.getDirectoriesVisited());
+        assertEquals(40 + 1 + 2, metrics.getFilesStated());
+    }
+
+    @Test
+    public void identicalArchivesShareEntries() throws IOException {
+        File root = folder.getRoot();
+        File lib = new File(root, "lib.jar");
+        createArchive(lib, "com/acme/lib");
+        File war = new File(root, "app0/app.war");
+        assertTrue(war.getParentFile().mkdirs());
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(war))) {
+            out.putNextEntry(new ZipEntry("WEB-INF/lib/lib.jar"));
+            out.write(Files.readAllBytes(lib.toPath()));
+            out.putNextEntry(new ZipEntry("index.html"));
+        }
+        for (int app = 1; app < 10; app++) {
+            File copy = new File(root, "app" + app + "/app.war");
+            assertTrue(copy.getParentFile().mkdirs());
+            Files.copy(war.toPath(), copy.toPath());
+        }
+        createArchive(new File(root, "other.jar"), "com/acme/other");
+
+        EntryIndex index = new EntryIndex();
+        ArchiveScanner scanner = new ArchiveScanner(index, new String[]{"jar", "war"}, 4);
+        scanner.setNestingDepth(1);
+        ArrayList<String> found = scanner.scan(root, new ArchiveScanner.Listener() {
+            public boolean isStopped() {
+                return false;
+            }
+
+            public void archiveIndexed(String archive, int indexed, int discovered) {
+            }
+        });
+
+        //10 wars with a jar each, lib.jar and other.jar
+        assertEquals(22, found.size());
+        assertEquals(22, index.getJarNames().size());
+        assertEquals(10 * (2 + 3) + 3 + 3, index.size());
+        //one war with its jar, lib.jar and other.jar: nested archives are fingerprinted by their outer archive
+        assertEquals(2 + 3 + 3 + 3, index.storedSize());
+        String nested = new File(root, "app7/app.war").getCanonicalPath() + ArchiveData.SEPARATOR
+                + "WEB-INF/lib/lib.jar";
+        assertEquals(3, index.getClassesInJar(nested).size());
+        assertEquals(11 * 3, index.search("com/acme/lib/Class").size());
+
+        index.removeJar(new File(root, "app0/app.war").getCanonicalPath());
+        assertEquals(9 * 2 + 10 * 3 + 3 + 3, index.size());
+        assertEquals(2 + 3 + 3 + 3, index.storedSize());
+        assertEquals(3, index.getClassesInJar(nested).size());
+    }
+
+    private static String createArchive(File file, String pkg) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            out.putNextEntry(new ZipEntry(pkg + "/"));
+            for (int i = 0; i < 3; i++) {
+                out.putNextEntry(new ZipEntry(pkg + "/Class" + i + ".class"));
+                out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+            }
+        }
+        return file.getCanonicalPath();
+    }
+}
@@ -0,0 +1,149 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Creates, rewrites and deletes archives in a watched tree and checks the index follows.
+ */
+public class ArchiveWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+    private ArchiveWatcher watcher;
+
+    @After
+    public void stop() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    public void indexFollowsTree() throws Exception {
+        File root = folder.getRoot().getCanonicalFile();
+        File existing = createArchive(new File(root, "existing.jar"), "com/acme/a", 3);
+        EntryIndex index = new EntryIndex();
+        index.addEntries(existing.getPath(), existing.length(), existing.lastModified(),
+                ArchiveScanner.readEntries(existing.getPath(), false));
+
+        watcher = new ArchiveWatcher(index, new String[]{"jar"}, new ArchiveWatcher.Listener() {
+            public void archiveIndexed(String archive) {
+                changes.add("indexed " + archive);
+            }
+
+            public void archiveRemoved(String archive) {
+                changes.add("removed " + archive);
+            }
+
+            public void archiveFailed(String archive, IOException e) {
+                changes.add("failed " + archive);
+            }
+
+            public void changesProcessed() {
+                changes.add("processed");
+            }
+
+            public void changesSettled() {
+                changes.add("settled");
+            }
+        });
+        watcher.start(root);
+        //unchanged archive is not read again
+        assertEquals(null, changes.poll(1500, TimeUnit.MILLISECONDS));
+
+        File sub = new File(root, "sub/dir");
+        assertTrue(sub.mkdirs());
+        File added = createArchive(new File(sub, "added.jar"), "com/acme/b", 2);
+        assertEquals("indexed " + added.getPath(), next());
+        assertEquals("processed", next());
+        assertEquals(2, index.getClassesInJar(added.getPath()).size());
+
+        createArchive(existing, "com/acme/c", 5);
+        assertEquals("indexed " + existing.getPath(), next());
+        assertEquals("processed", next());
+        assertEquals(5, index.getClassesInJar(existing.getPath()).size());
+        assertEquals(0, index.search("com/acme/a").size());
+
+        assertTrue(existing.delete());
+        assertEquals("removed " + existing.getPath(), next());
+        assertEquals("processed", next());
+        assertEquals(2, index.search(".class").size());
+        assertEquals(1, index.getJarNames().size());
+        //told once, after the last batch
+        assertEquals("settled", next());
+        assertEquals(null, changes.poll(1500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void reindexedArchiveSharesEntriesOfSameArchive() throws Exception {
+        File root = folder.getRoot().getCanonicalFile();
+        File first = createArchive(new File(root, "first.jar"), "com/acme/a", 3);
+        File second = createArchive(new File(root, "second.jar"), "com/acme/b", 2);
+        EntryIndex index = new EntryIndex();
+        for (File file : new File[]{first, second}) {
+            index.addEntries(file.getPath(), file.length(), file.lastModified(),
+                    CentralDirectory.fingerprint(file.getPath()), ArchiveScanner.readEntries(file.getPath(), false));
+        }
+
+        watcher = new ArchiveWatcher(index, new String[]{"jar"}, new ArchiveWatcher.Listener() {
+            public void archiveIndexed(String archive) {
+                changes.add("indexed " + archive);
+            }
+
+            public void archiveRemoved(String archive) {
+            }
+
+            public void archiveFailed(String archive, IOException e) {
+            }
+
+            public void changesProcessed() {
+            }
+
+            public void changesSettled() {
+            }
+        });
+        watcher.start(root);
+        //rewritten as a copy of the first one
+        Files.copy(first.toPath(), second.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(second.setLastModified(first.lastModified() + 2000));
+        assertEquals("indexed " + second.getPath(), next());
+        assertEquals(index.getFingerprint(first.getPath()), index.getFingerprint(second.getPath()));
+        assertEquals(6, index.size());
+        assertEquals(3, index.storedSize());
+    }
+
+    private String next() throws InterruptedException {
+        String change = changes.poll(10, TimeUnit.SECONDS);
+        return change == null ? "no change" : change;
+    }
+
+    private static File createArchive(File file, String pkg, int classes) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < classes; i++) {
+                out.putNextEntry(new ZipEntry(pkg + "/Class" + i + ".class"));
+                out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,142 @@
+package org.jarexplorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Compares entries read by {@link CentralDirectory} with what <code>java.util.zip</code> reports.
+ */
+public class CentralDirectoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsSameEntriesAsZipFile() throws IOException {
+        File archive = folder.newFile("test.jar");
+        try (FileOutputStream out = new FileOutputStream(archive)) {
+            writeArchive(out);
+        }
+        assertSameEntries(archive, 0);
+    }
+
+    @Test
+    public void correctsOffsetsOfPrefixedArchive() throws IOException {
+        byte[] script = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes("US-ASCII");
+        File archive = folder.newFile("executable.jar");
+        try (FileOutputStream out = new FileOutputStream(archive)) {
+            out.write(script);
+            writeArchive(out);
+        }
+        assertSameEntries(archive, script.length);
+    }
+
+    @Test
+    public void readsZip64EndWithExtensibleData() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        writeArchive(plain);
+        File expected = folder.newFile("plain.jar");
+        Files.write(expected.toPath(), plain.toByteArray());
+        List<ArchiveEntry> entries = CentralDirectory.read(expected.getPath());
+
+        byte[] script = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes("US-ASCII");
+        for (byte[] prefix : new byte[][]{new byte[0], script}) {
+            File archive = folder.newFile("zip64-" + prefix.length + ".jar");
+            try (FileOutputStream out = new FileOutputStream(archive)) {
+                out.write(prefix);
+                out.write(toZip64(plain.toByteArray(), 10));
+            }
+            List<ArchiveEntry> read = CentralDirectory.read(archive.getPath());
+            assertEquals(entries.size(), read.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(entries.get(i).getName(), read.get(i).getName());
+                assertEquals(entries.get(i).getLocalHeaderOffset() + prefix.length, read.get(i).getLocalHeaderOffset());
+            }
+        }
+    }
+
+    private static void assertSameEntries(File archive, int prefix) throws IOException {
+        List<ArchiveEntry> entries = CentralDirectory.read(archive.getPath());
+        try (ZipFile zip = new ZipFile(archive)) {
+            assertEquals(zip.size(), entries.size());
+            Enumeration<? extends ZipEntry> expected = zip.entries();
+            for (ArchiveEntry entry : entries) {
+                ZipEntry zipEntry = expected.nextElement();
+                assertEquals(zipEntry.getName(), entry.getName());
+                assertEquals(zipEntry.getMethod(), entry.getMethod());
+                assertEquals(zipEntry.getSize(), entry.getSize());
+                assertEquals(zipEntry.getCompressedSize(), entry.getCompressedSize());
+                assertEquals(zipEntry.getCrc(), entry.getCrc());
+            }
+        }
+        //first local header immediately follows the prefix
+        assertEquals(prefix, entries.get(0).getLocalHeaderOffset());
+
+        //one read of the directory gives the same entries and fingerprint
+        CentralDirectory.Listing listing = CentralDirectory.list(archive.getPath());
+        assertEquals(CentralDirectory.fingerprint(archive.getPath()), listing.getFingerprint());
+        assertEquals(entries.size(), listing.getEntries().size());
+        assertEquals(entries.get(1).getName(), listing.getEntries().get(1).getName());
+    }
+
+    /**
+     * Replaces the end of central directory record of an archive without comment by a zip64 end record with an
+     * extensible data sector, its locator and an end record whose fields all overflowed.
+     */
+    private static byte[] toZip64(byte[] archive, int extensibleDataLength) {
+        ByteBuffer end = ByteBuffer.wrap(archive, archive.length - 22, 22).slice().order(ByteOrder.LITTLE_ENDIAN);
+        int entryCount = end.getShort(10) & 0xFFFF;
+        long directorySize = end.getInt(12) & 0xFFFFFFFFL;
+        long directoryOffset = end.getInt(16) & 0xFFFFFFFFL;
+        int recordOffset = archive.length - 22;
+        ByteBuffer zip64 = ByteBuffer.allocate(recordOffset + 56 + extensibleDataLength + 20 + 22)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        zip64.put(archive, 0, recordOffset);
+        zip64.putInt(0x06064b50).putLong(44 + extensibleDataLength).putShort((short) 45).putShort((short) 45)
+                .putInt(0).putInt(0).putLong(entryCount).putLong(entryCount).putLong(directorySize)
+                .putLong(directoryOffset).put(new byte[extensibleDataLength]);
+        zip64.putInt(0x07064b50).putInt(0).putLong(recordOffset).putInt(1);
+        zip64.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) 0xFFFF)
+                .putShort((short) 0xFFFF).putInt(0xFFFFFFFF).putInt(0xFFFFFFFF).putShort((short) 0);
+        return zip64.array();
+    }
+
+    private static void writeArchive(OutputStream target) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(target);
+        out.putNextEntry(new ZipEntry("com/"));
+        out.putNextEntry(new ZipEntry("com/acme/Widget.class"));
+        out.write(new byte[1000]);
+        out.putNextEntry(new ZipEntry("com/acme/été.properties"));
+        out.write("key=value".getBytes("UTF-8"));
+
+        byte[] data = "stored entry".getBytes("UTF-8");
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ZipEntry stored = new ZipEntry("META-INF/stored.txt");
+        stored.setMethod(ZipEntry.STORED);
+        stored.setSize(data.length);
+        stored.setCrc(crc.getValue());
+        out.putNextEntry(stored);
+        out.write(data);
+        out.finish();
+    }
+}
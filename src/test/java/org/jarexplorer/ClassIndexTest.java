@@ -0,0 +1,158 @@
+package org.jarexplorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Deep scans a jar with classes of this project, searches them by declarations, saves and loads the index.
+ */
+public class ClassIndexTest {
+
+    private static final String[] CLASSES = {"org/jarexplorer/ArchiveEntry.class", "org/jarexplorer/IntList.class",
+            "org/jarexplorer/MetadataExport$Format.class", "org/jarexplorer/EntryIndex.class",
+            "org/jarexplorer/ArchiveScanner$Listener.class", "org/jarexplorer/JarExplorer.class"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void classesAreFoundByDeclarations() throws IOException {
+        EntryIndex index = scan(createJar(), true);
+        assertEquals(CLASSES.length, index.classCount());
+
+        assertEquals(paths("org/jarexplorer/MetadataExport$Format.class"), paths(index.search("extends:Enum")));
+        assertEquals(paths("org/jarexplorer/MetadataExport$Format.class"),
+                paths(index.search("extends:java.lang.Enum")));
+        assertEquals(paths("org/jarexplorer/JarExplorer.class"), paths(index.search("extends:javax/swing/JFrame")));
+        assertEquals(paths("org/jarexplorer/EntryIndex.class"), paths(index.search("method:removeJar")));
+        assertEquals(paths("org/jarexplorer/EntryIndex.class"),
+                paths(index.search("method:search(Ljava/lang/String;)")));
+        assertTrue(index.search("method:search(I)").isEmpty());
+        assertEquals(paths("org/jarexplorer/ArchiveScanner$Listener.class"),
+                paths(index.search("method:archiveIndexed")));
+        assertTrue(paths(index.search("returns:int[]")).contains("org/jarexplorer/IntList.class"));
+        assertTrue(paths(index.search("field:java.util.concurrent.locks.ReadWriteLock"))
+                .contains("org/jarexplorer/EntryIndex.class"));
+        assertTrue(index.search("implements:Enum").isEmpty());
+        assertTrue(index.search("extends:").isEmpty());
+        //entry search is not affected
+        assertEquals(1, index.search("IntList").size());
+
+        TypeHierarchy hierarchy = index.getTypeHierarchy();
+        int format = hierarchy.getId("org.jarexplorer.MetadataExport$Format");
+        assertTrue(hierarchy.isSubtype(format, hierarchy.getId("java.lang.Enum")));
+        //java.lang.Enum and javax.swing.JFrame were not scanned, so they are not known to extend java.lang.Object
+        assertEquals(CLASSES.length - 2, hierarchy.getAllSubtypes(hierarchy.getId("java.lang.Object")).length);
+        assertSame(hierarchy, index.getTypeHierarchy());
+    }
+
+    @Test
+    public void classesArePersisted() throws IOException {
+        File jar = createJar();
+        EntryIndex index = scan(jar, true);
+        File file = new File(folder.getRoot(), "index");
+        IndexStore.save(index, jar.getCanonicalPath(), file);
+        EntryIndex loaded = IndexStore.load(file);
+
+        assertEquals(index.classCount(), loaded.classCount());
+        for (String query : new String[]{"extends:Object", "method:<init>", "returns:void", "field:long",
+                "implements:java.lang.Comparable"}) {
+            assertEquals(query, paths(index.search(query)), paths(loaded.search(query)));
+        }
+
+        //a deep scan with the loaded index takes classes from it
+        EntryIndex rescanned = scan(jar, loaded, true);
+        assertEquals(index.classCount(), rescanned.classCount());
+
+        loaded.removeJar(jar.getCanonicalPath());
+        assertEquals(0, loaded.classCount());
+        assertTrue(loaded.search("extends:Object").isEmpty());
+    }
+
+    @Test
+    public void classesAreNotParsedByDefault() throws IOException {
+        File jar = createJar();
+        EntryIndex index = scan(jar, false);
+        assertEquals(0, index.classCount());
+        assertNull(index.getClasses(jar.getCanonicalPath()));
+
+        //a deep scan reads classes of an archive even if its entries did not change
+        EntryIndex deep = scan(jar, index, true);
+        assertEquals(CLASSES.length, deep.classCount());
+    }
+
+    private static EntryIndex scan(File jar, boolean deep) throws IOException {
+        return scan(jar, null, deep);
+    }
+
+    private static EntryIndex scan(File jar, EntryIndex previous, boolean deep) throws IOException {
+        EntryIndex index = new EntryIndex();
+        ArchiveScanner scanner = new ArchiveScanner(index, new String[]{"jar"}, 2);
+        scanner.setDeepIndex(deep);
+        scanner.setPreviousIndex(previous);
+        scanner.scan(jar, new ArchiveScanner.Listener() {
+            public boolean isStopped() {
+                return false;
+            }
+
+            public void archiveIndexed(String archive, int indexed, int discovered) {
+            }
+        });
+        return index;
+    }
+
+    private static List<String> paths(String... paths) {
+        ArrayList<String> list = new ArrayList<>();
+        for (String path : paths) {
+            list.add(path);
+        }
+        return list;
+    }
+
+    private static List<String> paths(List<ClassInformation> classes) {
+        ArrayList<String> list = new ArrayList<>();
+        for (ClassInformation information : classes) {
+            list.add(information.getClassPath());
+        }
+        return list;
+    }
+
+    private File createJar() throws IOException {
+        File jar = new File(folder.getRoot(), "classes.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String name : CLASSES) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(readClass(name));
+            }
+        }
+        return jar;
+    }
+
+    private static byte[] readClass(String name) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = ClassIndexTest.class.getClassLoader().getResourceAsStream(name)) {
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Finds classes in more than one jar in a small index built by hand and in a synthetic index of a million entries.
+ */
+public class ConflictFinderTest {
+
+    @Test
+    public void classesInSeveralJarsAreFound() {
+        EntryIndex index = new EntryIndex();
+        index.addEntries("/lib/b.jar", Arrays.asList(entry("com/acme/Same.class", 1), entry("com/acme/Other.class", 2),
+                entry("module-info.class", 3), entry("META-INF/MANIFEST.MF", 4)));
+        index.addEntries("/lib/a.jar", Arrays.asList(entry("com/acme/Same.class", 1), entry("com/acme/Other.class", 5),
+                entry("module-info.class", 6), entry("META-INF/MANIFEST.MF", 7), entry("com/acme/Only.class", 8)));
+        index.addEntries("/lib/c.jar", Arrays.asList(entry("com/acme/Same.class", 1), entry("com/acme/Gone.class", 9)));
+        index.addEntries("/lib/d.jar", Arrays.asList(entry("com/acme/Gone.class", 9)));
+        index.removeJar("/lib/d.jar");
+
+        List<ClassConflict> conflicts = index.findConflicts();
+        assertEquals(2, conflicts.size());
+        ClassConflict other = conflicts.get(0);
+        assertEquals("com/acme/Other.class", other.getPath());
+        assertFalse(other.isIdentical());
+        assertEquals(Arrays.asList("/lib/a.jar", "/lib/b.jar"), Arrays.asList(other.getJarNames()));
+        assertEquals(5, other.getCrcs()[0]);
+        ClassConflict same = conflicts.get(1);
+        assertEquals("com/acme/Same.class", same.getPath());
+        assertTrue(same.isIdentical());
+        assertEquals(3, same.getJarNames().length);
+    }
+
+    @Test
+    public void unknownCrcIsNotIdentical() {
+        EntryIndex index = new EntryIndex();
+        index.addEntryName("/lib/a.jar", "com/acme/Same.class");
+        index.addEntryName("/lib/b.jar", "com/acme/Same.class");
+        assertFalse(index.findConflicts().get(0).isIdentical());
+    }
+
+    @Test
+    public void millionEntries() {
+        EntryIndex index = SyntheticEntries.index(1000000);
+        List<ClassConflict> conflicts = index.findConflicts();
+
+        //versions of an artifact share most classes, so most paths are found in several jars
+        HashMap<String, Integer> counts = new HashMap<>();
+        for (String jarName : index.getJarNames()) {
+            for (ClassInformation information : index.getClassesInJar(jarName)) {
+                String path = information.getClassPath();
+                if (path.endsWith(".class")) {
+                    Integer count = counts.get(path);
+                    counts.put(path, count == null ? 1 : count + 1);
+                }
+            }
+        }
+        int expected = 0;
+        for (int count : counts.values()) {
+            expected += count > 1 ? 1 : 0;
+        }
+        assertEquals(expected, conflicts.size());
+        assertTrue(!conflicts.get(0).isIdentical() && conflicts.get(conflicts.size() - 1).isIdentical());
+    }
+
+    private static ArchiveEntry entry(String name, long crc) {
+        return new ArchiveEntry(name, ArchiveEntry.DEFLATED, 100, 200, crc, 0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Substring search latency of {@link EntryIndex} compared with the brute force scan it replaced.
+ * Run with <code>mvn -Pbenchmark verify -Dbenchmark=EntryIndexBenchmark</code>. The 5M entry index
+ * needs a large heap, pass <code>-Dbenchmark="EntryIndexBenchmark -p size=100000,1000000"</code> on smaller machines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class EntryIndexBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    public int size;
+
+    @Param({"ServletContextFactory", "Factory.class", "util/Abstract", "NoSuchThing"})
+    public String query;
+
+    private EntryIndex index;
+    private HashMap<String, ClassInformation> indexMap;
+
+    @Setup
+    public void setUp() {
+        index = SyntheticEntries.index(size);
+        indexMap = new HashMap<>();
+        for (ClassInformation classInfo : index.search("")) {
+            indexMap.put(classInfo.getKey(), classInfo);
+        }
+    }
+
+    @Benchmark
+    public List<ClassInformation> indexed() {
+        return index.search(query);
+    }
+
+    /**
+     * Search as implemented before the trigram index.
+     */
+    @Benchmark
+    public ArrayList<ClassInformation> bruteForce() {
+        ArrayList<ClassInformation> results = new ArrayList<>();
+        for (ClassInformation classInfo : indexMap.values()) {
+            if (classInfo.getClassPath().contains(query)) {
+                results.add(classInfo);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,26 @@
+package org.jarexplorer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks the heap taken by an index of a million entries, from the sizes of its arrays. With an object per entry
+ * (a <code>ClassInformation</code>, its <code>ArchiveEntry</code>, key strings, map nodes and trigram postings of
+ * the full path) the same index took about 520 bytes per entry.
+ */
+public class EntryIndexMemoryTest {
+
+    private static final int ENTRIES = 1000000;
+    //33 bytes of columns for every row, up to half as many rows again of room to grow, names and trigrams,
+    //8 bytes of postings by package and by name
+    private static final int MAX_BYTES_PER_ENTRY = 58;
+
+    @Test
+    public void millionEntriesTakeNineTimesLessHeap() {
+        EntryIndex index = SyntheticEntries.index(ENTRIES);
+        long bytesPerEntry = index.arrayBytes() / index.size();
+        assertTrue(bytesPerEntry + " bytes per entry", bytesPerEntry >= 33 && bytesPerEntry <= MAX_BYTES_PER_ENTRY);
+    }
+}
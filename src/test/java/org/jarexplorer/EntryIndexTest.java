@@ -0,0 +1,150 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Compares index backed search with a plain scan of all entries.
+ */
+public class EntryIndexTest {
+
+    private static final String[] QUERIES = {"a", "/", "Ht", "Http", "ServletContext", "Factory.class", "$3.class",
+            "util/Abstract", "artifact7/", "MANIFEST", "NoSuchThing", ".properties", "org/acme/artifact12/web"};
+
+    @Test
+    public void searchFindsSameEntriesAsScan() {
+        EntryIndex index = SyntheticEntries.index(20000);
+        assertSameEntriesAsScan(index);
+
+        //entries added since postings were built are gone through one by one
+        SyntheticEntries generator = new SyntheticEntries(7);
+        for (int jar = 0; jar < 5; jar++) {
+            index.addEntries("/other/" + generator.jarName(jar), generator.jarEntries(jar));
+        }
+        index.removeJar(new SyntheticEntries(42).jarName(3));
+        assertSameEntriesAsScan(index);
+    }
+
+    @Test
+    public void interruptedSearchIsGivenUp() {
+        EntryIndex index = SyntheticEntries.index(20000);
+        Thread.currentThread().interrupt();
+        try {
+            index.searchRegex("(Factory|Parser)");
+            fail("search should have been given up");
+        } catch (CancellationException e) {
+            //expected
+        } finally {
+            Thread.interrupted();
+        }
+        assertFalse(index.searchRegex("(Factory|Parser)").isEmpty());
+    }
+
+    private static void assertSameEntriesAsScan(EntryIndex index) {
+        List<ClassInformation> all = index.search("");
+        for (String query : QUERIES) {
+            HashSet<String> expected = new HashSet<>();
+            for (ClassInformation classInfo : all) {
+                if (classInfo.getClassPath().contains(query)) {
+                    expected.add(classInfo.getKey());
+                }
+            }
+            HashSet<String> found = new HashSet<>();
+            List<ClassInformation> results = index.search(query);
+            for (ClassInformation classInfo : results) {
+                found.add(classInfo.getKey());
+            }
+            assertEquals(query, expected, found);
+            //entries matching both by package and by name are found once
+            assertEquals(query, found.size(), results.size());
+        }
+    }
+
+    @Test
+    public void classesInJarAreSortedByPath() {
+        EntryIndex index = SyntheticEntries.index(4000);
+        SyntheticEntries generator = new SyntheticEntries(42);
+        String jarName = generator.jarName(3);
+        index.addEntryName(jarName, "com/acme/Added.class");
+        index.addEntryName(jarName, "zzz/Last.class");
+
+        List<ClassInformation> classes = index.getClassesInJar(jarName);
+        HashSet<String> expected = new HashSet<>();
+        for (ArchiveEntry entry : generator.jarEntries(3)) {
+            expected.add(entry.getName());
+        }
+        expected.add("com/acme/Added.class");
+        expected.add("zzz/Last.class");
+
+        assertEquals(expected.size(), classes.size());
+        for (int i = 0; i < classes.size(); i++) {
+            assertTrue(expected.contains(classes.get(i).getClassPath()));
+            if (i > 0) {
+                assertTrue(classes.get(i - 1).getClassPath().compareTo(classes.get(i).getClassPath()) < 0);
+            }
+        }
+    }
+
+    @Test
+    public void sharedEntriesAreCopiedOnChange() {
+        EntryIndex index = new EntryIndex();
+        List<ArchiveEntry> entries = Arrays.asList(new ArchiveEntry("com/acme/A.class", 8, 10, 20, 30, 0),
+                new ArchiveEntry("com/acme/B.class", 8, 10, 20, 31, 40));
+        index.addEntries("/lib/a.jar", 100, 1, 42, entries);
+        index.addEntries("/lib/b.jar", 100, 2, 42, entries);
+        assertTrue(index.shareEntries("/lib/c.jar", 100, 3, 42));
+        assertFalse(index.shareEntries("/lib/d.jar", 100, 4, 43));
+        assertEquals(6, index.size());
+        assertEquals(2, index.storedSize());
+        assertEquals(3, index.search("A.class").size());
+        assertEquals(2, index.findConflicts().size());
+        assertEquals(3, index.findConflicts().get(0).getJarNames().length);
+
+        index.addEntryName("/lib/b.jar", "com/acme/C.class");
+        assertEquals(0, index.getFingerprint("/lib/b.jar"));
+        assertEquals(42, index.getFingerprint("/lib/c.jar"));
+        assertEquals(7, index.size());
+        assertEquals(5, index.storedSize());
+        assertEquals(2, index.getClassesInJar("/lib/a.jar").size());
+        assertEquals(3, index.getClassesInJar("/lib/b.jar").size());
+
+        index.removeJar("/lib/a.jar");
+        index.removeJar("/lib/c.jar");
+        assertEquals(3, index.storedSize());
+        assertEquals(1, index.search("A.class").size());
+        assertFalse(index.shareEntries("/lib/c.jar", 100, 3, 42));
+    }
+
+    @Test
+    public void removedJarsAreNotFound() {
+        EntryIndex index = SyntheticEntries.index(4000);
+        SyntheticEntries generator = new SyntheticEntries(42);
+        int size = index.size();
+        int factories = index.search("Factory").size();
+        int classes = index.getClassesInJar(generator.jarName(9)).size();
+
+        //compacts the index half way through
+        for (int jar = 0; jar < 10; jar++) {
+            assertTrue(index.removeJar(generator.jarName(jar)));
+        }
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("Factory").size());
+
+        for (int jar = 0; jar < 10; jar++) {
+            index.replaceEntries(generator.jarName(jar), 1, 1, generator.jarEntries(jar));
+        }
+        assertEquals(size, index.size());
+        assertEquals(factories, index.search("Factory").size());
+        assertEquals(classes, index.getClassesInJar(generator.jarName(9)).size());
+    }
+}
@@ -0,0 +1,131 @@
+package org.jarexplorer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+
+/**
+ * Saves an index, loads it back and rescans a tree using the loaded index.
+ */
+public class IndexStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadedIndexMatchesSaved() throws IOException {
+        EntryIndex index = SyntheticEntries.index(20000);
+        index.addEntryName("/repo/unicode.jar", "com/acme/été/😀.class");
+        index.addEntryName("/repo/unicode.jar", "com/acme/été/😁.class");
+        File file = folder.newFile("index");
+
+        IndexStore.save(index, "/repo", file);
+        assertEquals("/repo", IndexStore.readRoot(file));
+        EntryIndex loaded = IndexStore.load(file);
+
+        assertEquals(index.getJarNames(), loaded.getJarNames());
+        assertEquals(index.size(), loaded.size());
+        for (String jarName : index.getJarNames()) {
+            List<ArchiveEntry> expected = index.getEntries(jarName);
+            List<ArchiveEntry> actual = loaded.getEntries(jarName);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                ArchiveEntry e1 = expected.get(i);
+                ArchiveEntry e2 = actual.get(i);
+                assertEquals(e1.getName(), e2.getName());
+                assertEquals(e1.getMethod(), e2.getMethod());
+                assertEquals(e1.getCompressedSize(), e2.getCompressedSize());
+                assertEquals(e1.getSize(), e2.getSize());
+                assertEquals(e1.getCrc(), e2.getCrc());
+                assertEquals(e1.getLocalHeaderOffset(), e2.getLocalHeaderOffset());
+            }
+        }
+        assertEquals(index.search("Factory").size(), loaded.search("Factory").size());
+    }
+
+    @Test
+    public void sharedEntriesStaySharedWhenLoaded() throws IOException {
+        EntryIndex index = SyntheticEntries.index(2000);
+        List<ArchiveEntry> entries = index.getEntries(index.getJarNames().get(0));
+        for (int i = 0; i < 5; i++) {
+            index.addEntries("/copies/" + i + ".jar", 1000, 1, 42, entries);
+        }
+        File file = folder.newFile("index");
+        IndexStore.save(index, "/repo", file);
+        EntryIndex loaded = IndexStore.load(file);
+
+        assertEquals(index.size(), loaded.size());
+        assertEquals(index.storedSize(), loaded.storedSize());
+        assertEquals(entries.size(), loaded.getEntries("/copies/3.jar").size());
+        assertEquals(42, loaded.getFingerprint("/copies/3.jar"));
+    }
+
+    @Test
+    public void notAnIndexFile() throws IOException {
+        File file = folder.newFile("index");
+        assertNull(IndexStore.readRoot(file));
+        assertNull(IndexStore.load(file));
+        assertNull(IndexStore.load(new File(folder.getRoot(), "missing")));
+    }
+
+    @Test
+    public void unchangedArchivesAreNotRead() throws IOException {
+        File root = folder.newFolder("repo");
+        File unchanged = createArchive(new File(root, "unchanged.jar"), "com/acme/a");
+        File changed = createArchive(new File(root, "changed.jar"), "com/acme/b");
+        EntryIndex previous = scan(root, null);
+        File file = new File(folder.getRoot(), "index");
+        IndexStore.save(previous, root.getCanonicalPath(), file);
+
+        //same size and time, but no longer readable: only works if the archive is not opened again
+        long lastModified = unchanged.lastModified();
+        try (RandomAccessFile raf = new RandomAccessFile(unchanged, "rw")) {
+            raf.write(new byte[(int) raf.length()]);
+        }
+        unchanged.setLastModified(lastModified);
+        createArchive(changed, "com/acme/c");
+
+        EntryIndex index = scan(root, IndexStore.load(file));
+        assertEquals(3, index.getClassesInJar(unchanged.getCanonicalPath()).size());
+        List<ClassInformation> classes = index.getClassesInJar(changed.getCanonicalPath());
+        assertEquals(3, classes.size());
+        assertEquals("com/acme/c/Class0.class", classes.get(0).getClassPath());
+    }
+
+    private static EntryIndex scan(File root, EntryIndex previous) throws IOException {
+        EntryIndex index = new EntryIndex();
+        ArchiveScanner scanner = new ArchiveScanner(index, new String[]{"jar"}, 2);
+        scanner.setPreviousIndex(previous);
+        scanner.scan(root, new ArchiveScanner.Listener() {
+            public boolean isStopped() {
+                return false;
+            }
+
+            public void archiveIndexed(String archive, int indexed, int discovered) {
+            }
+        });
+        return index;
+    }
+
+    private static File createArchive(File file, String pkg) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < 3; i++) {
+                out.putNextEntry(new ZipEntry(pkg + "/Class" + i + ".class"));
+                out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,117 @@
+package org.jarexplorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Exports classes of a directory with a class file, a jar and a jar nested in a war.
+ */
+public class MetadataExportTest {
+
+    private static final String[] CLASSES = {"org/jarexplorer/ArchiveEntry.class", "org/jarexplorer/IntList.class",
+            "org/jarexplorer/MetadataExport$Format.class"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void classesAreExportedAsJsonLines() throws Exception {
+        createFiles();
+        StringWriter out = new StringWriter();
+        MetadataExport export = new MetadataExport(out, MetadataExport.Format.JSONL);
+        export.setThreads(3);
+        MetadataExport.Summary summary = export.export(Collections.singletonList(folder.getRoot()));
+
+        //3 in the jar, 3 in the jar in the war, 1 class file
+        assertEquals(7, summary.getClasses());
+        assertEquals(0, summary.getFailures());
+        assertEquals(3, summary.getArchives());
+        String[] lines = out.toString().split("\n");
+        assertEquals(7, lines.length);
+        int found = 0;
+        for (String line : lines) {
+            assertTrue(line, line.startsWith("{\"archive\":") && line.endsWith("]}"));
+            if (line.contains("\"name\":\"org.jarexplorer.ArchiveEntry\"")) {
+                assertTrue(line, line.contains("\"superclass\":\"java.lang.Object\""));
+                assertTrue(line, line.contains("getName()"));
+                found++;
+            }
+        }
+        assertEquals(2, found);
+        assertTrue(out.toString().contains("\"archive\":\"" + new File(folder.getRoot(), "app.war")
+                .getCanonicalPath() + "!/WEB-INF/lib/lib.jar\""));
+        assertTrue(out.toString().contains("\"archive\":null"));
+    }
+
+    @Test
+    public void classesAreExportedAsCsv() throws Exception {
+        createFiles();
+        StringWriter out = new StringWriter();
+        MetadataExport export = new MetadataExport(out, MetadataExport.Format.CSV);
+        export.setNestingDepth(0);
+        MetadataExport.Summary summary = export.export(Collections.singletonList(folder.getRoot()));
+
+        assertEquals(4, summary.getClasses());
+        String[] lines = out.toString().split("\n");
+        assertEquals("archive,entry,name,modifiers,superclass,interfaces,fields,constructors,methods", lines[0]);
+        assertEquals(5, lines.length);
+        for (String line : Arrays.asList(lines).subList(1, lines.length)) {
+            if (line.contains(",org.jarexplorer.MetadataExport$Format,")) {
+                assertTrue(line, line.contains(",java.lang.Enum,"));
+            }
+        }
+    }
+
+    private void createFiles() throws IOException {
+        byte[] jar = jar();
+        try (FileOutputStream out = new FileOutputStream(new File(folder.getRoot(), "lib.jar"))) {
+            out.write(jar);
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(new File(folder.getRoot(), "app.war")))) {
+            out.putNextEntry(new ZipEntry("WEB-INF/lib/lib.jar"));
+            out.write(jar);
+        }
+        File classes = folder.newFolder("classes");
+        try (FileOutputStream out = new FileOutputStream(new File(classes, "IntList.class"))) {
+            out.write(readClass(CLASSES[1]));
+        }
+    }
+
+    private static byte[] jar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (String name : CLASSES) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(readClass(name));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] readClass(String name) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = MetadataExportTest.class.getClassLoader().getResourceAsStream(name)) {
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,151 @@
+package org.jarexplorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Indexes a war with jars in it, stored and deflated, and opens classes of the nested jars.
+ */
+public class NestedArchiveTest {
+
+    private static final String CLASS = "org/jarexplorer/ArchiveEntry.class";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String war;
+
+    @Before
+    public void createWar() throws IOException {
+        byte[] classBytes = readClass();
+        byte[] deep = archive(entry(CLASS, classBytes));
+        byte[] deflated = archive(entry(CLASS, classBytes), entry("nested/deep.jar", deep));
+        byte[] stored = archive(entry(CLASS, classBytes), entry("nested/stored.jar", deep));
+        byte[] outer = archive(
+                entry("WEB-INF/web.xml", "<web-app/>".getBytes("UTF-8")),
+                entry("WEB-INF/lib/stored.jar", stored),
+                entry("WEB-INF/lib/deflated.jar", deflated),
+                entry("WEB-INF/lib/broken.jar", "not a jar".getBytes("UTF-8")));
+        File file = new File(folder.getRoot(), "app.war");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(outer);
+        }
+        war = file.getCanonicalPath();
+    }
+
+    @Test
+    public void nestedArchivesAreIndexed() throws IOException {
+        for (boolean streaming : new boolean[]{false, true}) {
+            EntryIndex index = new EntryIndex();
+            List<String> names = scan(index, streaming, 2);
+            assertEquals(Arrays.asList(war,
+                    war + "!/WEB-INF/lib/broken.jar",
+                    war + "!/WEB-INF/lib/deflated.jar",
+                    war + "!/WEB-INF/lib/deflated.jar!/nested/deep.jar",
+                    war + "!/WEB-INF/lib/stored.jar",
+                    war + "!/WEB-INF/lib/stored.jar!/nested/stored.jar"), names);
+
+            assertEquals(0, index.getClassesInJar(war + "!/WEB-INF/lib/broken.jar").size());
+            List<ClassInformation> found = index.search("ArchiveEntry");
+            assertEquals(4, found.size());
+            for (ClassInformation classInformation : found) {
+                assertEquals(CLASS, classInformation.getClassPath());
+            }
+        }
+    }
+
+    @Test
+    public void depthLimitsNesting() throws IOException {
+        List<String> names = scan(new EntryIndex(), false, 1);
+        assertEquals(4, names.size());
+        assertEquals(1, scan(new EntryIndex(), false, 0).size());
+    }
+
+    @Test
+    public void classesOfNestedArchivesCanBeOpened() throws IOException {
+        for (String jar : new String[]{"stored.jar", "stored.jar!/nested/stored.jar", "deflated.jar",
+                "deflated.jar!/nested/deep.jar"}) {
+            ClassInformation classInformation = ClassInformation.createFully(war + "!/WEB-INF/lib/" + jar, CLASS);
+            assertEquals("java.lang.Object", classInformation.getSuperclass());
+            assertTrue(classInformation.getMethods().size() > 5);
+        }
+        assertTrue(Arrays.equals(readClass(),
+                Util.readResourceAsBytes(war + "!/WEB-INF/lib/deflated.jar!/nested/deep.jar", CLASS)));
+    }
+
+    private List<String> scan(EntryIndex index, boolean streaming, int depth) throws IOException {
+        ArchiveScanner scanner = new ArchiveScanner(index, new String[]{"jar", "war"}, 2);
+        scanner.setStreaming(streaming);
+        scanner.setNestingDepth(depth);
+        ArrayList<String> names = scanner.scan(folder.getRoot(), new ArchiveScanner.Listener() {
+            public boolean isStopped() {
+                return false;
+            }
+
+            public void archiveIndexed(String archive, int indexed, int discovered) {
+            }
+        });
+        Collections.sort(names);
+        assertEquals(names, index.getJarNames());
+        return names;
+    }
+
+    private static Object[] entry(String name, byte[] content) {
+        return new Object[]{name, content};
+    }
+
+    /**
+     * @return archive with entries named "stored.jar" stored, all others deflated
+     */
+    private static byte[] archive(Object[]... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (Object[] entry : entries) {
+                String name = (String) entry[0];
+                byte[] content = (byte[]) entry[1];
+                ZipEntry zipEntry = new ZipEntry(name);
+                if (name.endsWith("stored.jar")) {
+                    CRC32 crc = new CRC32();
+                    crc.update(content);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(content.length);
+                    zipEntry.setCompressedSize(content.length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                out.putNextEntry(zipEntry);
+                out.write(content);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] readClass() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = NestedArchiveTest.class.getClassLoader().getResourceAsStream(CLASS)) {
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,50 @@
+package org.jarexplorer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Latency of package lookups in an index of two million entries, as the package tree asks for them when a node is
+ * expanded. Run with <code>mvn -Pbenchmark verify -Dbenchmark=PackageTreeBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PackageTreeBenchmark {
+
+    @Param({"2000000"})
+    public int size;
+
+    private EntryIndex index;
+
+    @Setup
+    public void setUp() {
+        index = SyntheticEntries.index(size);
+    }
+
+    @Benchmark
+    public PackageInfo getPackage() {
+        return index.getPackage("org");
+    }
+
+    @Benchmark
+    public List<PackageInfo> getSubpackages() {
+        return index.getSubpackages("");
+    }
+}
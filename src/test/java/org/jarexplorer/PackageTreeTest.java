@@ -0,0 +1,145 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Compares counts and jar files of packages with those found by going through all entries, as jar files are added,
+ * shared, changed and removed, see {@link PackageTreeBenchmark} for the time lookups take.
+ */
+public class PackageTreeTest {
+
+    @Test
+    public void countsFollowChanges() {
+        EntryIndex index = new EntryIndex();
+        List<ArchiveEntry> entries = Arrays.asList(entry("org/acme/web/Servlet.class"),
+                entry("org/acme/web/Filter.class"), entry("org/acme/util/Strings.class"),
+                entry("org/acme/Main.class"), entry("META-INF/MANIFEST.MF"), entry("readme.txt"));
+        index.addEntries("/lib/a.jar", 1, 1, 42, entries);
+        index.addEntries("/lib/b.jar", 1, 1, 42, entries);
+        index.addEntries("/lib/c.jar", Arrays.asList(entry("org/other/Thing.class")));
+        assertConsistent(index);
+
+        PackageInfo acme = index.getPackage("org/acme");
+        assertEquals("org/acme/", acme.getName());
+        assertEquals("acme", acme.getSimpleName());
+        assertEquals(8, acme.getEntryCount());
+        assertEquals(Arrays.asList("/lib/a.jar", "/lib/b.jar"), Arrays.asList(acme.getJarNames()));
+        assertTrue(acme.hasSubpackages());
+        assertEquals(9, index.getPackage("org/").getEntryCount());
+        assertEquals(13, index.getPackage("").getEntryCount());
+        assertNull(index.getPackage("org/acme/we"));
+        assertNull(index.getPackage("com"));
+        assertEquals(Arrays.asList("util (2 entries in 2 jars)", "web (4 entries in 2 jars)"),
+                strings(index.getSubpackages("org/acme")));
+        assertFalse(index.getSubpackages("org/acme").get(1).hasSubpackages());
+        assertEquals(2, index.getPackageEntries("org/acme").size());
+        assertEquals(2, index.getPackageEntries("").size());
+
+        //shared entries are copied for the jar file which changes
+        index.addEntryName("/lib/b.jar", "org/acme/web/Listener.class");
+        assertConsistent(index);
+        assertEquals(5, index.getPackage("org/acme/web").getEntryCount());
+        assertEquals(5, index.getPackageEntries("org/acme/web/").size());
+
+        index.removeJar("/lib/a.jar");
+        assertConsistent(index);
+        assertEquals(Arrays.asList("/lib/b.jar"), Arrays.asList(index.getPackage("org/acme").getJarNames()));
+        assertEquals(3, index.getPackageEntries("org/acme/web").size());
+
+        index.replaceEntries("/lib/c.jar", 1, 1, Arrays.asList(entry("org/acme/web/Other.class")));
+        assertConsistent(index);
+        assertNull(index.getPackage("org/other"));
+        assertEquals(Arrays.asList("/lib/b.jar", "/lib/c.jar"),
+                Arrays.asList(index.getPackage("org/acme/web").getJarNames()));
+
+        index.removeJar("/lib/b.jar");
+        index.removeJar("/lib/c.jar");
+        assertNull(index.getPackage("org"));
+        assertTrue(index.getSubpackages("").isEmpty());
+    }
+
+    @Test
+    public void manyJarFilesAreKeptInBitmaps() {
+        EntryIndex index = SyntheticEntries.index(20000);
+        for (int i = 0; i < 100; i++) {
+            index.addEntries("/shared/" + i + ".jar", Arrays.asList(entry("org/acme/Shared.class")));
+        }
+        assertConsistent(index);
+        assertEquals(100, index.getPackage("org/acme").getJarNames().length);
+        for (int i = 0; i < 100; i += 2) {
+            index.removeJar("/shared/" + i + ".jar");
+        }
+        assertConsistent(index);
+        assertEquals(50, index.getPackage("org/acme").getJarNames().length);
+    }
+
+    @Test
+    public void subpackagesAddUpToParent() {
+        EntryIndex index = SyntheticEntries.index(20000);
+        PackageInfo root = index.getPackage("");
+        assertEquals(index.size(), root.getEntryCount());
+        int count = index.getPackageEntries("").size();
+        for (PackageInfo top : index.getSubpackages("")) {
+            assertEquals(top.getName(), index.getPackage(top.getName()).getEntryCount(), top.getEntryCount());
+            count += top.getEntryCount();
+        }
+        assertEquals(root.getEntryCount(), count);
+    }
+
+    /**
+     * Compares every package with what is found by going through entries of all jar files.
+     */
+    private static void assertConsistent(EntryIndex index) {
+        TreeSet<String> packages = new TreeSet<>();
+        packages.add("");
+        for (String jarName : index.getJarNames()) {
+            for (ClassInformation entry : index.getClassesInJar(jarName)) {
+                String path = entry.getClassPath();
+                for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+                    packages.add(path.substring(0, slash + 1));
+                }
+            }
+        }
+        for (String packageName : packages) {
+            int count = 0;
+            TreeSet<String> jars = new TreeSet<>();
+            for (String jarName : index.getJarNames()) {
+                for (ClassInformation entry : index.getClassesInJar(jarName)) {
+                    if (entry.getClassPath().startsWith(packageName)) {
+                        count++;
+                        jars.add(jarName);
+                    }
+                }
+            }
+            PackageInfo info = index.getPackage(packageName);
+            if (count == 0) {
+                assertNull(packageName, info);
+            } else {
+                assertEquals(packageName, count, info.getEntryCount());
+                assertEquals(packageName, jars.toString(), Arrays.asList(info.getJarNames()).toString());
+            }
+        }
+    }
+
+    private static List<String> strings(List<PackageInfo> packages) {
+        String[] strings = new String[packages.size()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = packages.get(i).toString();
+        }
+        return Arrays.asList(strings);
+    }
+
+    private static ArchiveEntry entry(String name) {
+        return new ArchiveEntry(name, ArchiveEntry.DEFLATED, 100, 200, 0, 0);
+    }
+}
@@ -0,0 +1,57 @@
+package org.jarexplorer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Latency of regular expression and glob searches of two million entries: patterns with literal fragments are
+ * narrowed down by trigrams, <code>(Dao|Impl)</code> has none and is run on every distinct path.
+ * Run with <code>mvn -Pbenchmark verify -Dbenchmark=PatternSearchBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PatternSearchBenchmark {
+
+    @Param({"2000000"})
+    public int size;
+
+    private EntryIndex index;
+
+    @Setup
+    public void setUp() {
+        index = SyntheticEntries.index(size);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Regex {
+        @Param({"Factory\\$[0-9]\\.class", "^org/.*/web/Http[A-Z]\\w*Factory", "Parser(Json|Xml)", "(Dao|Impl)"})
+        public String pattern;
+    }
+
+    @Benchmark
+    public List<ClassInformation> regex(Regex regex) {
+        return index.searchRegex(regex.pattern);
+    }
+
+    @Benchmark
+    public List<ClassInformation> glob() {
+        return index.searchGlob("*Factory$?.class");
+    }
+}
@@ -0,0 +1,134 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks literal fragments found in globs and regular expressions, and compares pattern searches with matching every
+ * path, see {@link PatternSearchBenchmark} for their latency.
+ */
+public class PatternSearchTest {
+
+    @Test
+    public void literalsOfRegex() {
+        assertEquals(Arrays.asList("Impl$", ".class"), PathPattern.regexLiterals(".*Impl\\$[0-9]+\\.class"));
+        assertEquals(Arrays.asList("com/acme/", "/Fact", "ry"), PathPattern.regexLiterals("^com/acme/(web|io)/Facto?ry"));
+        assertEquals(Arrays.asList("ab", "c"), PathPattern.regexLiterals("ab+c\\d{2}"));
+        assertEquals(Arrays.asList("Dao", "x.y"), PathPattern.regexLiterals("Daos*[A-Z]\\Qx.y\\E"));
+        assertEquals(Arrays.asList("Utils"), PathPattern.regexLiterals("\\p{Upper}\\x41Utils\\u0041{0,2}"));
+        assertTrue(PathPattern.regexLiterals("Dao|Impl").isEmpty());
+        assertTrue(PathPattern.regexLiterals("(?i)stringutils").isEmpty());
+        assertTrue(PathPattern.regexLiterals(".*").isEmpty());
+
+        assertEquals(Arrays.asList("com/acme/", "Dao.class"), PathPattern.glob("com/acme/**/*Dao.class").getLiterals());
+        assertEquals(Arrays.asList("Util", ".class"), PathPattern.glob("{String,Bean}Util?.class").getLiterals());
+    }
+
+    @Test
+    public void globsMatchWholePaths() {
+        PathPattern dao = PathPattern.glob("com/acme/**/*Dao.class");
+        assertFalse(dao.isNameOnly());
+        assertTrue(dao.matches("com/acme/UserDao.class"));
+        assertTrue(dao.matches("com/acme/db/jdbc/UserDao.class"));
+        assertFalse(dao.matches("org/com/acme/UserDao.class"));
+        assertFalse(dao.matches("com/acme/UserDao.classes"));
+
+        PathPattern name = PathPattern.glob("[!A]*{Util,Utils}.class");
+        assertTrue(name.isNameOnly());
+        assertTrue(name.matches("StringUtils.class"));
+        assertFalse(name.matches("AbstractUtil.class"));
+        assertTrue(PathPattern.glob("a[]]b").matches("a]b"));
+        assertTrue(PathPattern.glob("a[b").matches("a[b"));
+    }
+
+    @Test
+    public void patternsAreFoundInIndex() {
+        EntryIndex index = new EntryIndex();
+        index.addEntryName("/lib/a.jar", "com/acme/UserDao.class");
+        index.addEntryName("/lib/a.jar", "com/acme/db/OrderDao.class");
+        index.addEntryName("/lib/a.jar", "org/acme/db/ItemDao.class");
+        index.addEntryName("/lib/a.jar", "com/acme/db/OrderDaoImpl$1.class");
+        index.addEntryName("/lib/a.jar", "com/acme/db/OrderDaoImpl.class");
+        index.addEntryName("/lib/b.jar", "com/acme/db/OrderDao.class");
+
+        assertEquals(Arrays.asList("com/acme/UserDao.class", "com/acme/db/OrderDao.class",
+                "com/acme/db/OrderDao.class"), paths(index.searchGlob("com/acme/**/*Dao.class")));
+        assertEquals(4, index.searchGlob("*Dao.class").size());
+        assertEquals(Arrays.asList("com/acme/db/OrderDaoImpl$1.class"),
+                paths(index.searchRegex(".*Impl\\$[0-9]+\\.class")));
+        assertEquals(4, index.searchRegex("^com/acme/db/").size());
+        assertEquals(6, index.searchRegex("Dao|Impl").size());
+        assertTrue(index.searchRegex("com/acme/.*Dao[0-9]").isEmpty());
+    }
+
+    @Test
+    public void sameResultsAsMatchingEveryPath() {
+        EntryIndex index = SyntheticEntries.index(200000);
+        List<String> all = paths(index.search("/"));
+        for (String regex : new String[]{"Impl\\$[0-9]+\\.class", "^org/.*/web/Http[A-Z]\\w*Factory",
+                "(Json|Xml)Parser\\$2", "Stream(Reader|Writer)s?\\.class$", "[0-9]/core/"}) {
+            assertEquals(regex, expected(all, Pattern.compile(regex)), sorted(index.searchRegex(regex)));
+        }
+        assertEquals(expected(all, Pattern.compile("^com/.*/[^/]*Driver\\.class$")),
+                sorted(index.searchGlob("com/**/*Driver.class")));
+    }
+
+    @Test
+    public void patternsWithAndWithoutLiterals() {
+        EntryIndex index = new EntryIndex();
+        index.addEntryName("/lib/a.jar", "org/acme/web/HttpSessionFactory.class");
+        index.addEntryName("/lib/a.jar", "org/acme/web/HttpSessionFactory$1.class");
+        index.addEntryName("/lib/a.jar", "org/acme/web/Httpfactory.class");
+        index.addEntryName("/lib/a.jar", "com/acme/web/HttpClientFactory.class");
+        index.addEntryName("/lib/a.jar", "org/acme/io/ParserJson.class");
+        index.addEntryName("/lib/a.jar", "org/acme/io/ParserYaml.class");
+        index.addEntryName("/lib/b.jar", "org/acme/db/UserDao.class");
+        index.addEntryName("/lib/b.jar", "org/acme/db/UserDaoImpl$2.class");
+
+        assertEquals(Arrays.asList("org/acme/web/HttpSessionFactory$1.class"),
+                sorted(index.searchRegex("Factory\\$[0-9]\\.class")));
+        assertEquals(Arrays.asList("org/acme/web/HttpSessionFactory$1.class", "org/acme/web/HttpSessionFactory.class"),
+                sorted(index.searchRegex("^org/.*/web/Http[A-Z]\\w*Factory")));
+        assertEquals(Arrays.asList("org/acme/io/ParserJson.class"), sorted(index.searchRegex("Parser(Json|Xml)")));
+        //no literal to narrow entries down with, every path is matched
+        assertEquals(Arrays.asList("org/acme/db/UserDao.class", "org/acme/db/UserDaoImpl$2.class"),
+                sorted(index.searchRegex("(Dao|Impl)")));
+        assertEquals(Arrays.asList("org/acme/web/HttpSessionFactory$1.class"),
+                sorted(index.searchGlob("*Factory$?.class")));
+    }
+
+    private static List<String> expected(List<String> all, Pattern pattern) {
+        List<String> expected = new ArrayList<>();
+        for (String path : all) {
+            if (pattern.matcher(path).find()) {
+                expected.add(path);
+            }
+        }
+        Collections.sort(expected);
+        return expected;
+    }
+
+    private static List<String> sorted(List<ClassInformation> results) {
+        List<String> paths = paths(results);
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private static List<String> paths(List<ClassInformation> results) {
+        List<String> paths = new ArrayList<>();
+        for (ClassInformation result : results) {
+            paths.add(result.getClassPath());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,49 @@
+package org.jarexplorer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Latency of ranked searches for the best 100 names, which should stay under 50 ms on two million entries, from a
+ * one letter query matching most names to a camel case abbreviation matching a few.
+ * Run with <code>mvn -Pbenchmark verify -Dbenchmark=RankedSearchBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankedSearchBenchmark {
+
+    @Param({"2000000"})
+    public int size;
+
+    @Param({"HSCF", "strutil", "HttpServletCon", "Fctory", "a"})
+    public String query;
+
+    private EntryIndex index;
+
+    @Setup
+    public void setUp() {
+        index = SyntheticEntries.index(size);
+    }
+
+    @Benchmark
+    public List<ClassInformation> ranked() {
+        return index.searchRanked(query, 100);
+    }
+}
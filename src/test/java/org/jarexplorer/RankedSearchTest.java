@@ -0,0 +1,55 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Finds classes by abbreviations, prefixes and names with typos in a small index built by hand, see
+ * {@link RankedSearchBenchmark} for their latency.
+ */
+public class RankedSearchTest {
+
+    @Test
+    public void bestMatchesComeFirst() {
+        EntryIndex index = new EntryIndex();
+        index.addEntries("/lib/a.jar", Arrays.asList(entry("org/acme/web/HttpServletContextFactory.class"),
+                entry("org/acme/web/HttpServletContext.class"), entry("org/acme/util/StringUtils.class"),
+                entry("org/acme/util/StringUtil.class"), entry("org/acme/util/HashMap.class"),
+                entry("org/acme/util/HashMap$Entry.class"), entry("org/acme/io/HTTPServer.class"),
+                entry("org/acme/io/XmlStreamReader.class"), entry("META-INF/MANIFEST.MF")));
+
+        assertEquals(Arrays.asList("org/acme/web/HttpServletContextFactory.class"), paths(index, "HSCF", 10));
+        assertEquals(Arrays.asList("org/acme/web/HttpServletContext.class",
+                "org/acme/web/HttpServletContextFactory.class"), paths(index, "HttpSerCo", 10));
+        //StringUtil is shorter, both are prefixed by strutil as camel case
+        assertEquals(Arrays.asList("org/acme/util/StringUtil.class", "org/acme/util/StringUtils.class"),
+                paths(index, "strutil", 10));
+        assertEquals(Arrays.asList("org/acme/util/StringUtils.class"), paths(index, "stringutils.class", 1));
+        assertEquals(Arrays.asList("org/acme/io/HTTPServer.class"), paths(index, "HS", 10).subList(0, 1));
+        assertEquals(Arrays.asList("org/acme/util/HashMap.class"), paths(index, "HashMpa", 10));
+        assertEquals(Arrays.asList("org/acme/util/HashMap.class", "org/acme/util/HashMap$Entry.class"),
+                paths(index, "hashmap", 10));
+        assertEquals(Arrays.asList("org/acme/io/XmlStreamReader.class"), paths(index, "StreamRe", 10));
+        assertEquals(Arrays.asList("META-INF/MANIFEST.MF"), paths(index, "manifest", 10));
+        assertTrue(paths(index, "NoSuchThing", 10).isEmpty());
+    }
+
+    private static List<String> paths(EntryIndex index, String query, int limit) {
+        List<ClassInformation> results = index.searchRanked(query, limit);
+        String[] paths = new String[results.size()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = results.get(i).getClassPath();
+        }
+        return Arrays.asList(paths);
+    }
+
+    private static ArchiveEntry entry(String name) {
+        return new ArchiveEntry(name, ArchiveEntry.DEFLATED, 100, 200, 0, 0);
+    }
+}
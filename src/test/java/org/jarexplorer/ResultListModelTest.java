@@ -0,0 +1,72 @@
+package org.jarexplorer;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.AbstractList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Shows a million results and checks that only rows looked at are turned into strings.
+ */
+public class ResultListModelTest {
+
+    @Test
+    public void onlyRowsLookedAtAreRetrieved() {
+        final int[] retrieved = new int[1];
+        List<Integer> results = new AbstractList<Integer>() {
+            public Integer get(int index) {
+                retrieved[0]++;
+                return index;
+            }
+
+            public int size() {
+                return 1000000;
+            }
+        };
+        final int[] events = new int[1];
+        ResultListModel model = new ResultListModel();
+        model.addListDataListener(new ListDataListener() {
+            public void intervalAdded(ListDataEvent e) {
+                events[0]++;
+            }
+
+            public void intervalRemoved(ListDataEvent e) {
+                events[0]++;
+            }
+
+            public void contentsChanged(ListDataEvent e) {
+                events[0]++;
+            }
+        });
+
+        model.setResults(results);
+        assertEquals(1, events[0]);
+        assertEquals(1000000, model.getSize());
+        assertEquals(0, retrieved[0]);
+        assertEquals("999999", model.getElementAt(999999));
+        assertEquals("999999", model.getElementAt(999999));
+        assertEquals(1, retrieved[0]);
+        assertEquals("10", model.getLongestElement(100));
+
+        model.clear();
+        assertEquals(2, events[0]);
+        assertEquals(0, model.getSize());
+    }
+
+    @Test
+    public void millionResultsAreShownAtOnce() {
+        EntryIndex index = SyntheticEntries.index(1000000);
+        List<ClassInformation> results = index.search("/");
+        SearchResultsPanel panel = new SearchResultsPanel();
+        panel.setResults("all", results);
+        panel.setSize(800, 600);
+        panel.validate();
+        assertTrue(results.size() > 900000);
+    }
+}
@@ -0,0 +1,85 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Submits searches in quick succession and checks that only results of the latest one are delivered.
+ */
+public class SearchExecutorTest {
+
+    @Test
+    public void latestSearchWins() throws InterruptedException {
+        EntryIndex index = SyntheticEntries.index(200000);
+        SearchExecutor executor = new SearchExecutor();
+        final List<String> stale = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            //every one of these is cancelled by the next
+            executor.submit(index, "/", new Recorder(null) {
+                @Override
+                public void resultsFound(List<ClassInformation> results) {
+                    stale.add("results");
+                }
+            });
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        Recorder latest = new Recorder(done);
+        executor.submit(index, "Factory", latest);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertTrue(stale.isEmpty());
+        assertEquals(index.search("Factory").size(), latest.results.size());
+    }
+
+    @Test
+    public void classNamesAreFoundAsPaths() {
+        EntryIndex index = new EntryIndex();
+        index.addEntryName("/lib/a.jar", "com/acme/Widget.class");
+        index.addEntryName("/lib/a.jar", "com/acme/widget.properties");
+        assertEquals(1, SearchExecutor.search(index, "com.acme.Widget").size());
+        assertEquals(1, SearchExecutor.search(index, "com.acme.widget.properties").size());
+        assertEquals(0, SearchExecutor.search(index, "NoSuchThing").size());
+    }
+
+    @Test
+    public void rankedSearchesFindBestMatchesFirst() {
+        EntryIndex index = new EntryIndex();
+        index.addEntryName("/lib/a.jar", "com/acme/WidgetFactory.class");
+        index.addEntryName("/lib/a.jar", "com/acme/Widget.class");
+        index.addEntryName("/lib/a.jar", "com/acme/BlueWidget.class");
+        List<ClassInformation> results = SearchExecutor.search(index, "widget", SearchExecutor.RANKED);
+        assertEquals(3, results.size());
+        assertEquals("com/acme/Widget.class", results.get(0).getClassPath());
+        assertEquals("com/acme/WidgetFactory.class", results.get(1).getClassPath());
+        assertEquals("com/acme/WidgetFactory.class",
+                SearchExecutor.search(index, "WF", SearchExecutor.RANKED).get(0).getClassPath());
+    }
+
+    private static class Recorder implements SearchExecutor.Listener {
+        private final CountDownLatch done;
+        List<ClassInformation> results;
+
+        Recorder(CountDownLatch done) {
+            this.done = done;
+        }
+
+        public void resultsFound(List<ClassInformation> results) {
+            this.results = results;
+            if (done != null) {
+                done.countDown();
+            }
+        }
+
+        public void searchFailed(Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.jarexplorer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Generates reproducible, realistic looking jar contents for tests and benchmarks: a few thousand artifacts,
+ * each released in several versions with mostly the same classes, as found in a Maven repository.
+ */
+class SyntheticEntries {
+
+    static final int ENTRIES_PER_JAR = 400;
+
+    private static final String[] WORDS = {
+            "Abstract", "Default", "Http", "Servlet", "Context", "Factory", "String", "Utils", "Bean", "Manager",
+            "Request", "Response", "Handler", "Session", "Config", "Loader", "Class", "Resource", "Stream", "Reader",
+            "Writer", "Parser", "Builder", "Proxy", "Cache", "Event", "Listener", "Service", "Provider", "Registry",
+            "Json", "Xml", "Sql", "Connection", "Driver", "Data", "Source", "Transaction", "Scope", "Filter"};
+
+    private static final String[] PACKAGES = {
+            "org", "com", "net", "io", "apache", "springframework", "google", "acme", "core", "util", "internal",
+            "impl", "api", "spi", "web", "http", "jdbc", "concurrent", "context", "beans", "common", "support"};
+
+    private final long seed;
+
+    SyntheticEntries(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return index with (roughly) the given number of entries
+     */
+    static EntryIndex index(int entries) {
+        SyntheticEntries generator = new SyntheticEntries(42);
+        EntryIndex index = new EntryIndex();
+        for (int jar = 0; jar * ENTRIES_PER_JAR < entries; jar++) {
+            index.addEntries(generator.jarName(jar), generator.jarEntries(jar));
+        }
+        index.buildPostings();
+        return index;
+    }
+
+    String jarName(int jar) {
+        int artifact = jar / 10;
+        return "/home/user/.m2/repository/org/acme/artifact" + artifact + "/1." + (jar % 10) + "/artifact"
+                + artifact + "-1." + (jar % 10) + ".jar";
+    }
+
+    /**
+     * Entries of a jar, every version of an artifact shares most of its entries with other versions.
+     */
+    List<ArchiveEntry> jarEntries(int jar) {
+        int artifact = jar / 10;
+        Random artifactRandom = new Random(seed * 31 + artifact);
+        Random versionRandom = new Random(seed * 31 + jar);
+        String[] packages = new String[8];
+        String root = PACKAGES[artifactRandom.nextInt(3)] + "/" + PACKAGES[3 + artifactRandom.nextInt(5)]
+                + "/artifact" + artifact;
+        for (int i = 0; i < packages.length; i++) {
+            packages[i] = root + "/" + PACKAGES[8 + artifactRandom.nextInt(PACKAGES.length - 8)]
+                    + (i % 2 == 0 ? "/" + PACKAGES[8 + artifactRandom.nextInt(PACKAGES.length - 8)] : "");
+        }
+
+        ArrayList<ArchiveEntry> entries = new ArrayList<>(ENTRIES_PER_JAR);
+        entries.add(new ArchiveEntry("META-INF/MANIFEST.MF", ArchiveEntry.DEFLATED, 100, 200, jar, 0));
+        for (int i = 1; i < ENTRIES_PER_JAR; i++) {
+            //one in ten classes differs between versions
+            Random random = i % 10 == 0 ? versionRandom : artifactRandom;
+            StringBuilder name = new StringBuilder(packages[random.nextInt(packages.length)]).append('/');
+            int words = 1 + random.nextInt(3);
+            for (int w = 0; w < words; w++) {
+                name.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            if (random.nextInt(8) == 0) {
+                name.append('$').append(1 + random.nextInt(5));
+            }
+            name.append(i % 50 == 0 ? ".properties" : ".class");
+            entries.add(new ArchiveEntry(name.toString(), ArchiveEntry.DEFLATED, 500 + i, 1000 + i,
+                    random.nextInt() & 0xFFFFFFFFL, i * 1000L));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,96 @@
+package org.jarexplorer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Builds hierarchies by hand and a synthetic one of half a million classes, and walks them.
+ */
+public class TypeHierarchyTest {
+
+    private static final String[] NONE = {};
+
+    @Test
+    public void closuresFollowClassesAndInterfaces() {
+        TypeHierarchy.Builder builder = new TypeHierarchy.Builder();
+        builder.add("java.util.Collection", null, new String[]{"java.lang.Iterable"});
+        builder.add("java.util.List", null, new String[]{"java.util.Collection"});
+        builder.add("java.util.AbstractList", "java.util.AbstractCollection", new String[]{"java.util.List"});
+        builder.add("java.util.AbstractCollection", "java.lang.Object", new String[]{"java.util.Collection"});
+        builder.add("java.util.ArrayList", "java.util.AbstractList", new String[]{"java.util.List",
+                "java.util.RandomAccess"});
+        //same class in another jar
+        builder.add("java.util.ArrayList", "java.util.AbstractList", new String[]{"java.util.List",
+                "java.util.RandomAccess"});
+        TypeHierarchy hierarchy = builder.build();
+
+        int iterable = hierarchy.getId("java.lang.Iterable");
+        int list = hierarchy.getId("java.util.List");
+        int arrayList = hierarchy.getId("java.util.ArrayList");
+        assertEquals(-1, hierarchy.getId("java.util.Map"));
+        assertFalse(hierarchy.isDeclared(iterable));
+        assertTrue(hierarchy.isDeclared(arrayList));
+
+        assertEquals(names(hierarchy, "java.util.AbstractList", "java.util.List", "java.util.RandomAccess"),
+                names(hierarchy, hierarchy.getSupertypes(arrayList)));
+        assertEquals(names(hierarchy, "java.util.AbstractList", "java.util.ArrayList"),
+                names(hierarchy, hierarchy.getSubtypes(list)));
+        assertEquals(names(hierarchy, "java.util.Collection", "java.util.List", "java.util.AbstractCollection",
+                "java.util.AbstractList", "java.util.ArrayList"), names(hierarchy, hierarchy.getAllSubtypes(iterable)));
+        assertEquals(7, hierarchy.getAllSupertypes(arrayList).length);
+        assertSame(hierarchy.getAllSupertypes(arrayList), hierarchy.getAllSupertypes(arrayList));
+        assertTrue(hierarchy.isSubtype(arrayList, iterable));
+        assertFalse(hierarchy.isSubtype(iterable, arrayList));
+        assertEquals(0, hierarchy.getAllSubtypes(arrayList).length);
+    }
+
+    @Test
+    public void subtypesOfLargeHierarchy() {
+        //a tree of classes, 10 subclasses each, every class implements one of 100 interfaces
+        int classes = 500000;
+        TypeHierarchy.Builder builder = new TypeHierarchy.Builder();
+        for (int i = 0; i < 100; i++) {
+            builder.add("com.acme.Interface" + i, null, NONE);
+        }
+        builder.add("com.acme.Class0", "java.lang.Object", NONE);
+        for (int i = 1; i < classes; i++) {
+            builder.add("com.acme.Class" + i, "com.acme.Class" + (i - 1) / 10,
+                    new String[]{"com.acme.Interface" + i % 100});
+        }
+        TypeHierarchy hierarchy = builder.build();
+        int[] all = hierarchy.getAllSubtypes(hierarchy.getId("java.lang.Object"));
+
+        assertEquals(classes, all.length);
+        assertEquals(10, hierarchy.getSubtypes(hierarchy.getId("com.acme.Class0")).length);
+        //subclasses of Class1 are Class11 - Class20, theirs Class111 - Class210 and so on, five levels deep
+        assertEquals(111110, hierarchy.getAllSubtypes(hierarchy.getId("com.acme.Class1")).length);
+        assertTrue(hierarchy.isSubtype(hierarchy.getId("com.acme.Class123456"), hierarchy.getId("com.acme.Class12")));
+        assertTrue(hierarchy.isSubtype(hierarchy.getId("com.acme.Class123456"),
+                hierarchy.getId("com.acme.Interface56")));
+    }
+
+    private static List<String> names(TypeHierarchy hierarchy, String... names) {
+        int[] ids = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ids[i] = hierarchy.getId(names[i]);
+        }
+        Arrays.sort(ids);
+        return names(hierarchy, ids);
+    }
+
+    private static List<String> names(TypeHierarchy hierarchy, int[] ids) {
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = hierarchy.getName(ids[i]);
+        }
+        return Arrays.asList(names);
+    }
+}